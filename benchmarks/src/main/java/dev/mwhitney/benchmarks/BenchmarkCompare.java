@@ -0,0 +1,87 @@
+package dev.mwhitney.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 
+ * Compares two JMH JSON result files, such as those written by {@link BenchmarkRunner} for two controller versions.
+ * <p>	Usage: <code>java -cp benchmarks.jar dev.mwhitney.benchmarks.BenchmarkCompare baseline.json candidate.json [threshold-percent]</code>
+ * <p>	Every benchmark found in both files is printed with its change in score.
+ * 		The process exits with status <code>1</code> if any benchmark regressed by more than the threshold, which defaults to 10%.
+ * 		All benchmarks in this module report time per operation, so a higher score is a regression.
+ * 
+ * @author Matthew Whitney
+ *
+ */
+public class BenchmarkCompare {
+	
+	/** A <tt>Pattern</tt> matching the start of each benchmark's result object. */
+	private static final Pattern BENCHMARK = Pattern.compile("\"benchmark\"\\s*:\\s*\"([^\"]+)\"");
+	/** A <tt>Pattern</tt> matching a result's parameters object, if it has one. */
+	private static final Pattern PARAMS = Pattern.compile("\"params\"\\s*:\\s*\\{([^}]*)\\}");
+	/** A <tt>Pattern</tt> matching a result's primary score and unit. */
+	private static final Pattern SCORE = Pattern.compile("\"primaryMetric\"\\s*:\\s*\\{\\s*\"score\"\\s*:\\s*([-0-9.Ee]+|\"NaN\").*?\"scoreUnit\"\\s*:\\s*\"([^\"]+)\"", Pattern.DOTALL);
+
+	public static void main(String[] args) throws IOException {
+		if(args.length < 2) {
+			System.err.println("Usage: BenchmarkCompare baseline.json candidate.json [threshold-percent]");
+			System.exit(2);
+		}
+		final Map<String, double[]> baseline = readScores(args[0]);
+		final Map<String, double[]> candidate = readScores(args[1]);
+		final double threshold = (args.length > 2) ? Double.parseDouble(args[2]) : 10.0;
+		
+		boolean regressed = false;
+		System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Candidate", "Change");
+		for(Map.Entry<String, double[]> entry : candidate.entrySet()) {
+			final double[] before = baseline.get(entry.getKey());
+			if(before == null) continue;
+			
+			final double change = (entry.getValue()[0] - before[0]) / before[0] * 100.0;
+			final boolean isRegression = change > threshold;
+			regressed |= isRegression;
+			System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), before[0], entry.getValue()[0], change, isRegression ? "  <-- REGRESSION" : "");
+		}
+		System.exit(regressed ? 1 : 0);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>readScores</i></b>
+	 * <p>	<code>private static Map&lt;String, double[]&gt; readScores(String path)</code>
+	 * <p>	Reads every benchmark's primary score from a JMH JSON result file.
+	 * 		Parameterized benchmarks are keyed by their name followed by their parameters.
+	 * @param path - a <tt>String</tt> with the path of the result file.
+	 * @return a <tt>Map</tt> of each benchmark's key to its score.
+	 * @throws IOException if the file could not be read.
+	 * </ul>
+	 */
+	private static Map<String, double[]> readScores(String path) throws IOException {
+		final String json = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+		final Map<String, double[]> scores = new LinkedHashMap<>();
+		
+		final Matcher benchmark = BENCHMARK.matcher(json);
+		int start = benchmark.find() ? benchmark.start() : -1;
+		while(start != -1) {
+			final String name = benchmark.group(1);
+			final int end = benchmark.find() ? benchmark.start() : json.length();
+			final String result = json.substring(start, end);
+			
+			final Matcher params = PARAMS.matcher(result);
+			final Matcher score = SCORE.matcher(result);
+			if(score.find() && !score.group(1).contains("NaN")) {
+				final String key = name.replace("dev.mwhitney.benchmarks.", "") + (params.find() ? " {" + params.group(1).replaceAll("\\s+", " ").trim() + "}" : "");
+				scores.put(key, new double[] { Double.parseDouble(score.group(1)) });
+			}
+			start = (end == json.length()) ? -1 : end;
+		}
+		return scores;
+	}
+}
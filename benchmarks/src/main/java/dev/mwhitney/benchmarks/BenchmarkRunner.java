@@ -0,0 +1,66 @@
+package dev.mwhitney.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 
+ * The entry point of the benchmarks jar.
+ * <p>	Accepts every standard JMH command-line option.
+ * 		Unless a result file or format is passed, results are written as JSON to <code>jmh-results/ProjectONEController-&lt;version&gt;.json</code>,
+ * 		so that runs against different controller versions can be compared with {@link BenchmarkCompare}.
+ * 
+ * @author Matthew Whitney
+ *
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		final CommandLineOptions cmdOptions = new CommandLineOptions(args);
+		
+		//	Let JMH handle any informational options, such as -h or -l.
+		if(cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListWithParams()
+		|| cmdOptions.shouldListProfilers() || cmdOptions.shouldListResultFormats()) {
+			Main.main(args);
+			return;
+		}
+		
+		final ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+		if(!cmdOptions.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if(!cmdOptions.getResult().hasValue()) {
+			Files.createDirectories(Paths.get("jmh-results"));
+			options.result("jmh-results/ProjectONEController-" + getControllerVersion() + ".json");
+		}
+		new Runner(options.build()).run();
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getControllerVersion</i></b>
+	 * <p>	<code>private static String getControllerVersion()</code>
+	 * <p>	Gets the version of the controller that these benchmarks were built against.
+	 * @return a <tt>String</tt> with the version, or <code>unknown</code> if it could not be read.
+	 * </ul>
+	 */
+	private static String getControllerVersion() {
+		try(InputStream in = BenchmarkRunner.class.getResourceAsStream("/benchmarks.properties")) {
+			final Properties properties = new Properties();
+			if(in != null) properties.load(in);
+			return properties.getProperty("controller.version", "unknown");
+		} catch (IOException ioe) {
+			return "unknown";
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package dev.mwhitney.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.mwhitney.console.CommandParser;
+import dev.mwhitney.console.ParsedInput;
+
+/**
+ * 
+ * Measures parsing a line of console input into a command and its arguments.
+ * 
+ * @author Matthew Whitney
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandParsingBenchmark {
+	
+	/** The console input to parse, covering single-word, multi-word and unmatched input. */
+	@Param({
+		"open 3",
+		"PING",
+		"manual unlocks disable",
+		"schedule cron 0 22 * * * system lock",
+		"Hello there, is anyone at the door?"
+	})
+	private String input;
+	
+	@Benchmark
+	public ParsedInput parse() {
+		return CommandParser.parse(input);
+	}
+}
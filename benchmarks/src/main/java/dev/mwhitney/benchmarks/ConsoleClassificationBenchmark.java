@@ -0,0 +1,48 @@
+package dev.mwhitney.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.mwhitney.console.ConsoleLine;
+
+/**
+ * 
+ * Measures classifying a printed console line by its type prefix, as done for every print rerouted to the interface's text pane.
+ * 
+ * @author Matthew Whitney
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsoleClassificationBenchmark {
+	
+	/** The printed line to classify, covering each prefix and plain text. */
+	@Param({
+		"!B:The door will be serviced tomorrow at 9 AM.",
+		"!R:System locked.",
+		"!N:Poke!",
+		"!ERR:The server is not connected.",
+		"> SENT --> Open (3)",
+		"   "
+	})
+	private String line;
+	
+	@Benchmark
+	public ConsoleLine classify() {
+		return ConsoleLine.classify(line);
+	}
+}
@@ -0,0 +1,82 @@
+package dev.mwhitney.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dev.mwhitney.console.ConsoleLine;
+import dev.mwhitney.enums.MessageType;
+import dev.mwhitney.events.MessageEvent;
+
+/**
+ *
+ * Measures turning a received broadcast into the line shown by the console.
+ * <p>	<code>printed</code> is how messages used to reach the console: printed with a type prefix, encoded to bytes by <code>System.out</code>, decoded and classified again.
+ * 		<code>typed</code> is the direct path from the decoded <tt>MessageEvent</tt>. Run with <code>-prof gc</code> to compare allocation as well.
+ *
+ * @author Matthew Whitney
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsoleDeliveryBenchmark {
+
+	/** The <tt>MessageEvent</tt> for the received broadcast. */
+	private MessageEvent event;
+	/** The <tt>PrintStream</tt> that classifies each print, as the console's rerouted <code>System.out</code> does. */
+	private PrintStream printStream;
+	/** The <tt>Blackhole</tt> that classified prints are consumed by. */
+	private Blackhole blackhole;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setup</i></b>
+	 * <p>	<code>public void setup(Blackhole blackhole)</code>
+	 * <p>	Creates the broadcast event and a <tt>PrintStream</tt> that classifies prints into the passed <tt>Blackhole</tt>.
+	 * @param blackhole - the <tt>Blackhole</tt> that classified prints are consumed by.
+	 * </ul>
+	 */
+	@Setup
+	public void setup(Blackhole blackhole) {
+		this.blackhole = blackhole;
+		event = new MessageEvent(MessageType.BROADCAST, "The door will be serviced tomorrow at 9 AM.", 55, System.nanoTime(), System.currentTimeMillis());
+		printStream = new PrintStream(new OutputStream() {
+			@Override
+			public void write(byte[] buffer, int offset, int length) {
+				ConsoleDeliveryBenchmark.this.blackhole.consume(ConsoleLine.classify(new String(buffer, offset, length, StandardCharsets.UTF_8)));
+			}
+
+			@Override
+			public void write(int b) {
+				write(new byte[] { (byte) b }, 0, 1);
+			}
+		}, true, StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public void printed() {
+		printStream.println("!B:" + event.getPayload());
+	}
+
+	@Benchmark
+	public ConsoleLine typed() {
+		return ConsoleLine.fromEvent(event);
+	}
+}
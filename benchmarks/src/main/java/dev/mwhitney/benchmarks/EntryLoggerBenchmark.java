@@ -0,0 +1,67 @@
+package dev.mwhitney.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dev.mwhitney.gui.EntryLogger;
+
+/**
+ * 
+ * Measures pushing entries into the command history and recalling them, as done when entering commands and pressing the arrow keys.
+ * 
+ * @author Matthew Whitney
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntryLoggerBenchmark {
+	
+	/** The <tt>EntryLogger</tt> under test, kept full so every push also evicts the oldest entry. */
+	private EntryLogger entryLogger;
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>setup</i></b>
+	 * <p>	<code>public void setup()</code>
+	 * <p>	Creates a full <tt>EntryLogger</tt> with the default size.
+	 * </ul>
+	 */
+	@Setup
+	public void setup() {
+		entryLogger = new EntryLogger(20, false);
+		for(int i = 0; i < entryLogger.getMaxSize(); i++) {
+			entryLogger.log("open " + (i % 9 + 1));
+		}
+	}
+	
+	@Benchmark
+	public void push() {
+		entryLogger.log("system lock");
+	}
+	
+	@Benchmark
+	public void recall(Blackhole blackhole) {
+		//	Walk back through the whole history and forward again, as with repeated arrow key presses.
+		for(int i = 0; i < entryLogger.getSize(); i++) {
+			blackhole.consume(entryLogger.retrievePrevious("partial input"));
+		}
+		for(int i = 0; i < entryLogger.getSize(); i++) {
+			blackhole.consume(entryLogger.retrieveFollowing());
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package dev.mwhitney.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dev.mwhitney.enums.MessageType;
+import dev.mwhitney.enums.OverflowStrategy;
+import dev.mwhitney.enums.WaitStrategy;
+import dev.mwhitney.events.EventBus;
+import dev.mwhitney.events.MessageEvent;
+
+/**
+ *
+ * Measures publishing a message to the <tt>EventBus</tt> while a fast subscriber and a slow subscriber are attached,
+ * showing that the reading thread is not held up by the slowest subscriber.
+ *
+ * @author Matthew Whitney
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusBenchmark {
+
+	/** A <code>long</code> for how long, in microseconds, the slow subscriber takes with each message, or <code>0</code> for no slow subscriber. */
+	@Param({ "0", "1000" })
+	public long slowMicros;
+
+	/** The <tt>WaitStrategy</tt> of the fast subscriber. */
+	@Param({ "BLOCKING", "YIELDING" })
+	public WaitStrategy waitStrategy;
+
+	/** The <tt>EventBus</tt> under test. */
+	private EventBus eventBus;
+	/** The <tt>MessageEvent</tt> that is published, as built by the dispatcher for a broadcast. */
+	private MessageEvent event;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setup</i></b>
+	 * <p>	<code>public void setup(Blackhole blackhole)</code>
+	 * <p>	Creates a bus with a fast subscriber and, if configured, a slow subscriber that drops its oldest messages when it falls behind.
+	 * @param blackhole - the <tt>Blackhole</tt> that published messages are consumed by.
+	 * </ul>
+	 */
+	@Setup
+	public void setup(Blackhole blackhole) {
+		eventBus = new EventBus();
+		eventBus.subscribe("fast", 1024, waitStrategy, OverflowStrategy.DROP_OLDEST, (published) -> blackhole.consume(published.getPayload()));
+		if(slowMicros > 0) {
+			eventBus.subscribe("slow", 64, WaitStrategy.BLOCKING, OverflowStrategy.DROP_OLDEST, (published) -> LockSupport.parkNanos(slowMicros * 1000));
+		}
+		event = new MessageEvent(MessageType.BROADCAST, "Door unlocked by Front Desk.", 40, System.nanoTime(), System.currentTimeMillis());
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>tearDown</i></b>
+	 * <p>	<code>public void tearDown()</code>
+	 * <p>	Stops the subscribers' threads.
+	 * </ul>
+	 */
+	@TearDown
+	public void tearDown() {
+		eventBus.close();
+	}
+
+	@Benchmark
+	public void publish() {
+		eventBus.publish(event);
+	}
+}
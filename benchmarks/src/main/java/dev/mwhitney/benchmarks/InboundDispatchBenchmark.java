@@ -0,0 +1,88 @@
+package dev.mwhitney.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dev.mwhitney.enums.OverflowStrategy;
+import dev.mwhitney.enums.WaitStrategy;
+import dev.mwhitney.events.EventBus;
+import dev.mwhitney.remote.MessageDispatcher;
+
+/**
+ * 
+ * Measures decoding a raw server message and publishing it to the <tt>EventBus</tt>, as done on the WebSocket reading thread.
+ * 
+ * @author Matthew Whitney
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InboundDispatchBenchmark {
+	
+	/** The raw message to dispatch, one per message type the server sends. */
+	@Param({
+		"#broadcast=The door will be serviced tomorrow at 9 AM.",
+		"#connection=keep-alive",
+		"#command=notification:poke",
+		"#command=!security:unlock 3",
+		"#response=System locked.",
+		"#response=Pong!",
+		"Hello from another controller."
+	})
+	private String message;
+	
+	/** The <tt>EventBus</tt> that messages are published to. */
+	private EventBus eventBus;
+	/** The <tt>MessageDispatcher</tt> under test. */
+	private MessageDispatcher dispatcher;
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>setup</i></b>
+	 * <p>	<code>public void setup(Blackhole blackhole)</code>
+	 * <p>	Creates a dispatcher whose bus has one subscriber, which consumes every message into the passed <tt>Blackhole</tt>.
+	 * @param blackhole - the <tt>Blackhole</tt> that dispatched messages are consumed by.
+	 * </ul>
+	 */
+	@Setup
+	public void setup(Blackhole blackhole) {
+		eventBus = new EventBus();
+		eventBus.subscribe("blackhole", 1024, WaitStrategy.BLOCKING, OverflowStrategy.DROP_OLDEST, (event) -> blackhole.consume(event.getPayload()));
+		dispatcher = new MessageDispatcher(eventBus);
+		dispatcher.setLastPingTime(System.nanoTime());
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>tearDown</i></b>
+	 * <p>	<code>public void tearDown()</code>
+	 * <p>	Stops the subscriber's thread.
+	 * </ul>
+	 */
+	@TearDown
+	public void tearDown() {
+		eventBus.close();
+	}
+	
+	@Benchmark
+	public void dispatch() {
+		dispatcher.dispatch(message);
+	}
+}
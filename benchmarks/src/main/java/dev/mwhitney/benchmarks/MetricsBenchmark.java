@@ -0,0 +1,61 @@
+package dev.mwhitney.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.mwhitney.enums.MessageType;
+import dev.mwhitney.metrics.ControllerMetrics;
+import dev.mwhitney.metrics.LatencyHistogram;
+
+/**
+ *
+ * Measures recording metrics on the hot paths, from one thread and from several at once, to show that the striped counters do not contend.
+ *
+ * @author Matthew Whitney
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+	/** A <tt>String</tt> with a typical broadcast frame. */
+	private final String frame = "#broadcast=The door will be serviced tomorrow at 9 AM.";
+	/** The <tt>LatencyHistogram</tt> recorded into. */
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	@Benchmark
+	public void frameReceived() {
+		ControllerMetrics.get().frameReceived(MessageType.BROADCAST, frame);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void frameReceivedContended() {
+		ControllerMetrics.get().frameReceived(MessageType.BROADCAST, frame);
+	}
+
+	@Benchmark
+	public void histogramRecord() {
+		histogram.record(1_234_567);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void histogramRecordContended() {
+		histogram.record(1_234_567);
+	}
+}
@@ -0,0 +1,96 @@
+package dev.mwhitney.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.neovisionaries.ws.client.WebSocketFrame;
+
+import dev.mwhitney.enums.ONECommand;
+import dev.mwhitney.metrics.ControllerMetrics;
+import dev.mwhitney.remote.PreparedFrame;
+import dev.mwhitney.state.DeviceStateCache;
+
+/**
+ *
+ * Measures the controller's work between a button press and handing its command to the WebSocket:
+ * building the frame by concatenation and encoding it, as the WebSocket library does for text, against looking up its {@link PreparedFrame}.
+ * <p>	Both include the redundancy check and the metrics, as sent. Run with <code>-prof gc</code> to see the allocation of each, which is none for the prepared frames.
+ *
+ * @author Matthew Whitney
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutboundCommandBenchmark {
+
+	/** The name of the {@link ONECommand} to send. */
+	@Param({ "OPEN", "CLOSE", "MANUALUNLOCKS_DISABLE" })
+	private String command;
+
+	/** Whether or not the connection uses the binary protocol. */
+	@Param({ "false", "true" })
+	private boolean binary;
+
+	/** The <tt>ONECommand</tt> being sent. */
+	private ONECommand oneCommand;
+	/** The seconds passed to <code>OPEN</code>, which is not a constant so that the concatenation cannot be folded. */
+	private int seconds;
+	/** The <tt>DeviceStateCache</tt> checked before sending, which has no readings. */
+	private DeviceStateCache stateCache;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setup</i></b>
+	 * <p>	<code>public void setup()</code>
+	 * <p>	Reads the command and creates an empty state cache, so that no command is skipped as redundant.
+	 * </ul>
+	 */
+	@Setup
+	public void setup() {
+		oneCommand = ONECommand.valueOf(command);
+		seconds = 3;
+		stateCache = new DeviceStateCache();
+	}
+
+	@Benchmark
+	public WebSocketFrame concatenated() {
+		if(stateCache.checkRedundant(null, oneCommand) != null) {
+			return null;
+		}
+		final String text;
+		switch (oneCommand) {
+			case OPEN:		text = "#command=!security:unlock " + seconds;			break;
+			case CLOSE:		text = "#command=!security:lock";						break;
+			default:		text = "#command=!security:manualunlocks:disable";		break;
+		}
+		final WebSocketFrame frame = WebSocketFrame.createTextFrame(text);
+		ControllerMetrics.get().frameSent(text);
+		return frame;
+	}
+
+	@Benchmark
+	public WebSocketFrame prepared() {
+		if(stateCache.checkRedundant(null, oneCommand) != null) {
+			return null;
+		}
+		final PreparedFrame prepared = PreparedFrame.forCommand(oneCommand, seconds);
+		final WebSocketFrame frame = prepared.getFrame(binary);
+		ControllerMetrics.get().frameSent(prepared.getType(), prepared.getLength(binary));
+		return frame;
+	}
+}
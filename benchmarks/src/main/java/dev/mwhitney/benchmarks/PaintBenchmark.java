@@ -0,0 +1,94 @@
+package dev.mwhitney.benchmarks;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.mwhitney.gui.BeautifulButton;
+import dev.mwhitney.gui.BeautifulPanel;
+
+/**
+ * 
+ * Measures painting the interface's custom components into an offscreen image.
+ * <p>	The benchmark runs in headless mode, so no display is required.
+ * 
+ * @author Matthew Whitney
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmark {
+	
+	/** The <tt>BeautifulButton</tt> under test, sized like the interface's Open button. */
+	private BeautifulButton button;
+	/** The <tt>BeautifulPanel</tt> under test, sized like the interface's content pane. */
+	private BeautifulPanel panel;
+	/** The offscreen image painted into. */
+	private BufferedImage image;
+	/** The <tt>Graphics2D</tt> for the offscreen image. */
+	private Graphics2D graphics;
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>setup</i></b>
+	 * <p>	<code>public void setup()</code>
+	 * <p>	Creates the components with the same sizes and colors as the interface, along with an offscreen image to paint them into.
+	 * </ul>
+	 */
+	@Setup
+	public void setup() {
+		button = new BeautifulButton("Open", new Color(150, 255, 180), new Color(0, 216, 0));
+		button.setForeground(Color.WHITE);
+		button.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 30));
+		button.setSize(150, 100);
+		
+		panel = new BeautifulPanel(20);
+		panel.setBackground(new Color(30, 30, 30));
+		panel.setSize(400, 450);
+		
+		image = new BufferedImage(400, 450, BufferedImage.TYPE_INT_ARGB);
+		graphics = image.createGraphics();
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>tearDown</i></b>
+	 * <p>	<code>public void tearDown()</code>
+	 * <p>	Disposes of the offscreen image's graphics.
+	 * </ul>
+	 */
+	@TearDown
+	public void tearDown() {
+		graphics.dispose();
+	}
+	
+	@Benchmark
+	public BufferedImage paintButton() {
+		button.paint(graphics);
+		return image;
+	}
+	
+	@Benchmark
+	public BufferedImage paintPanel() {
+		panel.paint(graphics);
+		return image;
+	}
+}
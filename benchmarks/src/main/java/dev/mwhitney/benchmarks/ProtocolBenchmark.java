@@ -0,0 +1,136 @@
+package dev.mwhitney.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dev.mwhitney.enums.ONECommand;
+import dev.mwhitney.enums.OverflowStrategy;
+import dev.mwhitney.enums.WaitStrategy;
+import dev.mwhitney.events.EventBus;
+import dev.mwhitney.remote.BinaryProtocol;
+import dev.mwhitney.remote.MessageDispatcher;
+
+/**
+ *
+ * Compares the text protocol with the binary protocol for each system command: encoding the command, and decoding and publishing the server's response.
+ * <p>	The number of bytes each protocol puts on the wire for the command and its response is printed before the trial starts,
+ * 		excluding the WebSocket frame header, which is the same for both.
+ *
+ * @author Matthew Whitney
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtocolBenchmark {
+
+	/** The name of the {@link ONECommand} to send. */
+	@Param({ "OPEN", "CLOSE", "SYSTEM_LOCK", "MANUALUNLOCKS_DISABLE", "PING" })
+	private String command;
+
+	/** The <tt>ONECommand</tt> being sent. */
+	private ONECommand oneCommand;
+	/** The text frame of the command, as sent by the text protocol. */
+	private String textCommand;
+	/** The text frame of the server's response. */
+	private String textResponse;
+	/** The binary frame of the server's response. */
+	private byte[] binaryResponse;
+	/** The <tt>EventBus</tt> that responses are published to. */
+	private EventBus eventBus;
+	/** The <tt>MessageDispatcher</tt> that decodes responses. */
+	private MessageDispatcher dispatcher;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setup</i></b>
+	 * <p>	<code>public void setup(Blackhole blackhole)</code>
+	 * <p>	Prepares the frames of the command and its response in both protocols, and prints their sizes.
+	 * @param blackhole - the <tt>Blackhole</tt> that dispatched responses are consumed by.
+	 * </ul>
+	 */
+	@Setup
+	public void setup(Blackhole blackhole) {
+		oneCommand = ONECommand.valueOf(command);
+		switch (oneCommand) {
+			case OPEN:
+				textCommand = "#command=!security:unlock 3";
+				textResponse = "#response=Door unlocked for 3 seconds.";
+				break;
+			case CLOSE:
+				textCommand = "#command=!security:lock";
+				textResponse = "#response=Door locked.";
+				break;
+			case SYSTEM_LOCK:
+				textCommand = "#command=!security:system:lock";
+				textResponse = "#response=System locked.";
+				break;
+			case MANUALUNLOCKS_DISABLE:
+				textCommand = "#command=!security:manualunlocks:disable";
+				textResponse = "#response=Manual unlocks disabled.";
+				break;
+			default:
+				textCommand = "#ping";
+				textResponse = "#response=Pong!";
+				break;
+		}
+		binaryResponse = BinaryProtocol.encodeServerFrame(textResponse);
+		System.out.println("\n" + command + " bytes per command: text " + textCommand.getBytes(StandardCharsets.UTF_8).length
+			+ ", binary " + BinaryProtocol.encodeCommand(oneCommand, 3).length
+			+ "; per response: text " + textResponse.getBytes(StandardCharsets.UTF_8).length + ", binary " + binaryResponse.length);
+
+		eventBus = new EventBus();
+		eventBus.subscribe("blackhole", 1024, WaitStrategy.BLOCKING, OverflowStrategy.DROP_OLDEST, (event) -> blackhole.consume(event.getPayload()));
+		dispatcher = new MessageDispatcher(eventBus);
+		dispatcher.setLastPingTime(System.nanoTime());
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>tearDown</i></b>
+	 * <p>	<code>public void tearDown()</code>
+	 * <p>	Stops the subscriber's thread.
+	 * </ul>
+	 */
+	@TearDown
+	public void tearDown() {
+		eventBus.close();
+	}
+
+	@Benchmark
+	public byte[] encodeText() {
+		return textCommand.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public byte[] encodeBinary() {
+		return BinaryProtocol.encodeCommand(oneCommand, 3);
+	}
+
+	@Benchmark
+	public void parseText() {
+		dispatcher.dispatch(textResponse);
+	}
+
+	@Benchmark
+	public void parseBinary() {
+		dispatcher.dispatch(binaryResponse);
+	}
+}
@@ -0,0 +1,245 @@
+package dev.mwhitney.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ *
+ * Compares the controller's cold start across the ways it can be launched: the shaded jar, the jar with its class data sharing archive,
+ * the trimmed jlink runtime, and the runtime with its own archive. Variants are included when the files built by the <code>cds</code> and <code>jlink</code> profiles exist.
+ * <p>	Usage: <code>java -cp benchmarks.jar dev.mwhitney.benchmarks.StartupBenchmark [--target dir] [--runs n] [--server uri] [--headless]</code>
+ * <p>	Each run is a new process in its own home folder that exits as soon as it is ready for commands.
+ * 		Runs start the GUI, as the controller normally does, so a display is needed; <code>--headless</code> measures the headless path instead.
+ * 		The variants take turns, so that any change in the machine's load affects them all alike.
+ * 		The median and best time to the first command, wall time until the process exited, resident memory and loaded classes are printed, followed by the size of each variant on disk.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class StartupBenchmark {
+
+	/** A <tt>Pattern</tt> matching the time the controller prints once it is ready for its first command. */
+	private static final Pattern READY = Pattern.compile("Ready for the first command (\\d+) ms");
+	/** A <tt>Pattern</tt> matching the resident memory the controller prints once it has started. */
+	private static final Pattern RESIDENT = Pattern.compile("resident memory ([0-9.]+) MB");
+	/** A <tt>Pattern</tt> matching the number of classes the controller prints once it has started. */
+	private static final Pattern CLASSES = Pattern.compile("(\\d+) classes loaded");
+	/** An <code>int</code> for the number of seconds a run may take before it is stopped. */
+	private static final int RUN_TIMEOUT = 30;
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		Path target = Paths.get("target");
+		int runs = 10;
+		String server = "ws://127.0.0.1:1";
+		String mode = "--gui";
+		for(int i = 0; i < args.length; i++) {
+			switch(args[i]) {
+				case "--target": target = Paths.get(args[++i]); break;
+				case "--runs": runs = Integer.parseInt(args[++i]); break;
+				case "--server": server = args[++i]; break;
+				case "--headless": mode = "--headless"; break;
+				default:
+					System.err.println("Usage: StartupBenchmark [--target dir] [--runs n] [--server uri] [--headless]");
+					System.exit(2);
+			}
+		}
+
+		//	The archives record the absolute path of the jar they were trained with, so every path is made absolute.
+		target = target.toAbsolutePath();
+		final Path jar;
+		try (Stream<Path> files = Files.list(target)) {
+			jar = files.filter((file) -> file.getFileName().toString().endsWith("-shaded.jar")).findFirst().orElse(null);
+		}
+		if(jar == null) {
+			System.err.println("No shaded jar in " + target + ". Build the controller with \"mvn package\" first.");
+			System.exit(2);
+		}
+
+		//	Each variant is the command that starts the JVM, and the files it needs on disk.
+		final Path javaHome = Paths.get(System.getProperty("java.home"));
+		final Path runtime = target.resolve("runtime");
+		final Path jarArchive = target.resolve("ProjectONEController.jsa");
+		final Path runtimeArchive = target.resolve("ProjectONEController-runtime.jsa");
+		final Map<String, Variant> variants = new LinkedHashMap<>();
+		variants.put("jar", new Variant(List.of(javaHome.resolve("bin/java").toString()), List.of(jar)));
+		if(Files.exists(jarArchive)) {
+			variants.put("jar + cds", new Variant(List.of(javaHome.resolve("bin/java").toString(), "-XX:SharedArchiveFile=" + jarArchive), List.of(jar, jarArchive)));
+		}
+		if(Files.isDirectory(runtime)) {
+			variants.put("jlink", new Variant(List.of(runtime.resolve("bin/java").toString()), List.of(jar, runtime)));
+			if(Files.exists(runtimeArchive)) {
+				variants.put("jlink + cds", new Variant(List.of(runtime.resolve("bin/java").toString(), "-XX:SharedArchiveFile=" + runtimeArchive), List.of(jar, runtime, runtimeArchive)));
+			}
+		}
+
+		System.out.println("Measuring " + runs + " cold starts of " + String.join(", ", variants.keySet()) + " in " + mode.substring(2) + " mode...");
+		for(int run = 0; run < runs; run++) {
+			for(Variant variant : variants.values()) {
+				variant.samples.add(measure(variant, jar, server, mode));
+			}
+		}
+
+		System.out.printf("%n%-12s %12s %12s %12s %12s %10s %14s%n", "Variant", "Ready p50", "Ready best", "Exit p50", "RSS p50", "Classes", "Size on disk");
+		for(Map.Entry<String, Variant> entry : variants.entrySet()) {
+			final Variant variant = entry.getValue();
+			System.out.printf("%-12s %9.0f ms %9.0f ms %9.0f ms %9.1f MB %10.0f %11.1f MB%n", entry.getKey(),
+				variant.median(0), variant.best(0), variant.median(1), variant.median(2), variant.median(3), variant.diskBytes() / 1048576.0);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>measure</i></b>
+	 * <p>	<code>private static double[] measure(Variant variant, Path jar, String server, String mode)</code>
+	 * <p>	Starts the controller once with the passed variant, in a new home folder, and waits for it to exit.
+	 * @param variant - the <tt>Variant</tt> to start.
+	 * @param jar - the <tt>Path</tt> of the controller's shaded jar.
+	 * @param server - a <tt>String</tt> with the address of the server to connect to.
+	 * @param mode - a <tt>String</tt> with the argument for the mode to start in.
+	 * @return a <code>double</code> array with the time to the first command, the wall time until exit, the resident memory and the loaded classes, any of which is <code>NaN</code> if it was not printed.
+	 * @throws IOException if the process could not be started.
+	 * @throws InterruptedException if interrupted while waiting for the process.
+	 * </ul>
+	 */
+	private static double[] measure(Variant variant, Path jar, String server, String mode) throws IOException, InterruptedException {
+		final Path home = Files.createTempDirectory("one-startup");
+		final List<String> command = new ArrayList<>(variant.command);
+		command.addAll(List.of("-Xlog:cds=off", "-Duser.home=" + home, "-Done.server.uri=" + server, "-Done.exitAfterStartup=0", "-jar", jar.toString(), mode));
+
+		final long start = System.nanoTime();
+		final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+		process.getOutputStream().close();
+		final String output;
+		try (InputStream in = process.getInputStream()) {
+			output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		if(!process.waitFor(RUN_TIMEOUT, TimeUnit.SECONDS)) {
+			process.destroyForcibly();
+		}
+		final double exitMillis = (System.nanoTime() - start) / 1e6;
+		deleteRecursively(home);
+		return new double[] { find(READY, output), exitMillis, find(RESIDENT, output), find(CLASSES, output) };
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>find</i></b>
+	 * <p>	<code>private static double find(Pattern pattern, String output)</code>
+	 * <p>	Finds the number captured by the passed pattern in a run's output.
+	 * @param pattern - the <tt>Pattern</tt> with one group capturing the number.
+	 * @param output - a <tt>String</tt> with the run's output.
+	 * @return a <code>double</code> with the number, or <code>NaN</code> if it was not found.
+	 * </ul>
+	 */
+	private static double find(Pattern pattern, String output) {
+		final Matcher matcher = pattern.matcher(output);
+		return matcher.find() ? Double.parseDouble(matcher.group(1)) : Double.NaN;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>deleteRecursively</i></b>
+	 * <p>	<code>private static void deleteRecursively(Path path)</code>
+	 * <p>	Deletes the passed file or folder and everything in it, ignoring any that cannot be deleted.
+	 * @param path - the <tt>Path</tt> to delete.
+	 * </ul>
+	 */
+	private static void deleteRecursively(Path path) {
+		try (Stream<Path> files = Files.walk(path)) {
+			files.sorted(Comparator.reverseOrder()).forEach((file) -> file.toFile().delete());
+		} catch (IOException ioe) {}
+	}
+
+	/**
+	 *
+	 * One way of launching the controller, and the measurements of each of its runs.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	private static class Variant {
+		/** The <tt>List</tt> of arguments that start the JVM, before the controller's own. */
+		private final List<String> command;
+		/** The <tt>List</tt> of files and folders this variant needs on disk. */
+		private final List<Path> files;
+		/** The <tt>List</tt> of measurements, one array per run. */
+		private final List<double[]> samples = new ArrayList<>();
+
+		private Variant(List<String> command, List<Path> files) {
+			this.command = command;
+			this.files = files;
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>median</i></b>
+		 * <p>	<code>private double median(int index)</code>
+		 * <p>	Gets the median of one measurement across every run in which it was printed.
+		 * @param index - an <code>int</code> for the measurement's index.
+		 * @return a <code>double</code> with the median, or <code>NaN</code> if there are none.
+		 * </ul>
+		 */
+		private double median(int index) {
+			final double[] values = values(index);
+			return (values.length == 0) ? Double.NaN : values[values.length / 2];
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>best</i></b>
+		 * <p>	<code>private double best(int index)</code>
+		 * <p>	Gets the lowest value of one measurement across every run in which it was printed.
+		 * @param index - an <code>int</code> for the measurement's index.
+		 * @return a <code>double</code> with the lowest value, or <code>NaN</code> if there are none.
+		 * </ul>
+		 */
+		private double best(int index) {
+			final double[] values = values(index);
+			return (values.length == 0) ? Double.NaN : values[0];
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>values</i></b>
+		 * <p>	<code>private double[] values(int index)</code>
+		 * <p>	Gets one measurement from every run in which it was printed, sorted.
+		 * @param index - an <code>int</code> for the measurement's index.
+		 * @return a sorted <code>double</code> array of the values.
+		 * </ul>
+		 */
+		private double[] values(int index) {
+			return samples.stream().mapToDouble((sample) -> sample[index]).filter((value) -> !Double.isNaN(value)).sorted().toArray();
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>diskBytes</i></b>
+		 * <p>	<code>private long diskBytes()</code>
+		 * <p>	Gets the total size of the files and folders this variant needs, not counting a full JDK.
+		 * @return a <code>long</code> with the size in bytes.
+		 * </ul>
+		 */
+		private long diskBytes() {
+			long total = 0;
+			for(Path path : files) {
+				try (Stream<Path> walk = Files.walk(path)) {
+					total += walk.filter(Files::isRegularFile).mapToLong((file) -> file.toFile().length()).sum();
+				} catch (IOException ioe) {}
+			}
+			return total;
+		}
+	}
+}
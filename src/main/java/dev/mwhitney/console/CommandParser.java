@@ -0,0 +1,163 @@
+package dev.mwhitney.console;
+
+import java.util.Arrays;
+
+import dev.mwhitney.enums.ControllerCommand;
+import dev.mwhitney.enums.ONECommand;
+
+/**
+ *
+ * A utility class for matching console input to the commands it represents.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class CommandParser {
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>CommandParser</i></b>
+	 * <p>	<code>private CommandParser()</code>
+	 * <p>	Private constructor, as this is a utility class that should never be instantiated.
+	 * </ul>
+	 */
+	private CommandParser() {}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>parse</i></b>
+	 * <p>	<code>public static ParsedInput parse(String text)</code>
+	 * <p>	Parses a line of console input into its command word and arguments, then matches it to a command.
+	 * 		The command word and arguments are converted to uppercase, but the trimmed text is kept as it was entered.
+	 * @param text - a <tt>String</tt> with the input text to parse.
+	 * @return the <tt>ParsedInput</tt>.
+	 * </ul>
+	 */
+	public static ParsedInput parse(String text) {
+		//	Trim spaces off of the ends.
+		text = text.trim();
+
+		//	Determine command arguments (if any).
+		String command = text.toUpperCase();
+		String[] commandArgs = null;
+		final int spaceIndex = text.indexOf(' ');
+		if(spaceIndex != -1) {
+			//	Change command to be all text before the first space.
+			command = text.substring(0, spaceIndex).toUpperCase();
+			//	Split the text by the spaces, then convert each argument to full uppercase.
+			commandArgs = text.substring(spaceIndex + 1).split(" ");
+			commandArgs = Arrays.asList(commandArgs).stream().map(a -> a.toUpperCase()).toArray(String[]::new);
+		}
+
+		return new ParsedInput(text, command, commandArgs, matchONECommand(command, commandArgs), matchControllerCommand(command));
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>matchControllerCommand</i></b>
+	 * <p>	<code>public static ControllerCommand matchControllerCommand(String command)</code>
+	 * <p>	Matches the passed command word to a {@link ControllerCommand}.
+	 * @param command - an uppercase <tt>String</tt> with the first word of the input.
+	 * @return the matching {@link ControllerCommand}, or <code>null</code> if the input does not match any.
+	 * </ul>
+	 */
+	public static ControllerCommand matchControllerCommand(String command) {
+		if(command.equals("EXIT")) {
+			return ControllerCommand.EXIT;
+		}
+		else if(command.equals("GC")) {
+			return ControllerCommand.GC;
+		}
+		else if(command.equals("MEM")) {
+			return ControllerCommand.MEM;
+		}
+		else if(command.equals("PROFILE")) {
+			return ControllerCommand.PROFILE;
+		}
+		else if(command.equals("CLEAR")) {
+			return ControllerCommand.CLEAR;
+		}
+		else if(command.equals("SCHEDULE")) {
+			return ControllerCommand.SCHEDULE;
+		}
+		else if(command.equals("EVENTS")) {
+			return ControllerCommand.EVENTS;
+		}
+		else if(command.equals("STALLS")) {
+			return ControllerCommand.STALLS;
+		}
+		else if(command.equals("STATE")) {
+			return ControllerCommand.STATE;
+		}
+		else if(command.equals("SITES")) {
+			return ControllerCommand.SITES;
+		}
+		else if(command.equals("OUTBOX")) {
+			return ControllerCommand.OUTBOX;
+		}
+		else if(command.equals("VERSION")) {
+			return ControllerCommand.VERSION;
+		}
+		return null;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>matchONECommand</i></b>
+	 * <p>	<code>public static ONECommand matchONECommand(String command, String[] args)</code>
+	 * <p>	Matches the passed command word and arguments to a {@link ONECommand}, including any aliases.
+	 * <p>	Some commands span multiple words, such as <code>SYSTEM LOCK</code>, in which case the arguments are checked as well.
+	 * @param command - an uppercase <tt>String</tt> with the first word of the input.
+	 * @param args - an uppercase <tt>String</tt> array with the remaining words of the input. This <b>can</b> be <code>null</code>.
+	 * @return the matching {@link ONECommand}, or <code>null</code> if the input does not match any.
+	 * </ul>
+	 */
+	public static ONECommand matchONECommand(String command, String[] args) {
+		if(command.equals("OPEN") || command.equals("UNLOCK")) {
+			return ONECommand.OPEN;
+		}
+		else if(command.equals("CLOSE") || command.equals("LOCK")) {
+			return ONECommand.CLOSE;
+		}
+		else if(command.equals("SYSTEM") && args != null) {
+			if(args[0].equals("UNLOCK")) {
+				return ONECommand.SYSTEM_UNLOCK;
+			}
+			else if(args[0].equals("LOCK")) {
+				return ONECommand.SYSTEM_LOCK;
+			}
+		}
+		else if(command.equals("MANUAL") && args != null && args[0].equals("UNLOCKS") && args.length > 1) {
+			if(args[1].equals("ENABLE")) {
+				return ONECommand.MANUALUNLOCKS_ENABLE;
+			}
+			else if(args[1].equals("DISABLE")) {
+				return ONECommand.MANUALUNLOCKS_DISABLE;
+			}
+		}
+		else if(command.equals("MU") && args != null) {
+			if(args[0].equals("ENABLE")) {
+				return ONECommand.MANUALUNLOCKS_ENABLE;
+			}
+			else if(args[0].equals("DISABLE")) {
+				return ONECommand.MANUALUNLOCKS_DISABLE;
+			}
+		}
+		else if(command.equals("POKE")) {
+			return ONECommand.POKE;
+		}
+		else if(command.equals("CONNECT")) {
+			return ONECommand.CONNECT;
+		}
+		else if(command.equals("DISCONNECT")) {
+			return ONECommand.DISCONNECT;
+		}
+		else if(command.equals("RECONNECT")) {
+			return ONECommand.RECONNECT;
+		}
+		else if(command.equals("PING")) {
+			return ONECommand.PING;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,198 @@
+package dev.mwhitney.console;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import dev.mwhitney.enums.MessageType;
+import dev.mwhitney.enums.TextStyle;
+import dev.mwhitney.events.MessageEvent;
+
+/**
+ *
+ * A single line of console output, with its display text, {@link TextStyle} and time.
+ * <p>	Messages from the server are turned into lines directly with {@link #fromEvent(MessageEvent)}.
+ * 		Anything else printed to the console is classified by its type prefix with {@link #classify(String)}.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class ConsoleLine {
+
+	//	Static Return Values
+	/** A <code>boolean</code> for whether or not lines from the server show when it sent them, which can be turned off by setting the <code>one.console.serverTime</code> system property to <code>false</code>. */
+	final private static boolean SHOW_SERVER_TIME = !"false".equalsIgnoreCase(System.getProperty("one.console.serverTime"));
+	/** The <tt>DateTimeFormatter</tt> for the server's time, in the local time zone, to the millisecond. */
+	final private static DateTimeFormatter SERVER_TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+	//	Variables
+	/** A <tt>String</tt> with the text to display. */
+	private final String text;
+	/** The {@link TextStyle} to display the text with. */
+	private final TextStyle style;
+	/** A <code>long</code> for the wall-clock time, in milliseconds, of the line. */
+	private final long time;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>ConsoleLine</i></b>
+	 * <p>	<code>public ConsoleLine(String text, TextStyle style)</code>
+	 * <p>	Creates a new <tt>ConsoleLine</tt> at the current time.
+	 * @param text - a <tt>String</tt> with the text to display.
+	 * @param style - the {@link TextStyle} to display the text with.
+	 * </ul>
+	 */
+	public ConsoleLine(String text, TextStyle style) {
+		this(text, style, System.currentTimeMillis());
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>ConsoleLine</i></b>
+	 * <p>	<code>public ConsoleLine(String text, TextStyle style, long time)</code>
+	 * <p>	Creates a new <tt>ConsoleLine</tt>.
+	 * @param text - a <tt>String</tt> with the text to display.
+	 * @param style - the {@link TextStyle} to display the text with.
+	 * @param time - a <code>long</code> with the wall-clock time, in milliseconds, of the line.
+	 * </ul>
+	 */
+	public ConsoleLine(String text, TextStyle style, long time) {
+		this.text = text;
+		this.style = style;
+		this.time = time;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>fromEvent</i></b>
+	 * <p>	<code>public static ConsoleLine fromEvent(MessageEvent event)</code>
+	 * <p>	Creates the line that the console shows for a message from the server, labeled and styled by the message's type.
+	 * 		Routine connection messages, such as keep-alives, are not shown, and pokes are shown as <code>Poke!</code>.
+	 * 		Messages from one of several sites are prefixed with the site's name.
+	 * 		Messages annotated with the server's time are followed by it, and by how long they took to arrive.
+	 * @param event - the {@link MessageEvent} to show.
+	 * @return the <tt>ConsoleLine</tt>, or <code>null</code> if the message should not be shown.
+	 * </ul>
+	 */
+	public static ConsoleLine fromEvent(MessageEvent event) {
+		String payload = event.getPayload();
+		switch (event.getType()) {
+			case CONNECTION:
+				if(payload.equals("keep-alive") || payload.equals("CONNECTED") || payload.equals("DISCONNECTED")) {
+					return null;
+				}
+				break;
+			case NOTIFICATION:
+				if(payload.regionMatches(true, 0, "POKE", 0, 4)) {
+					payload = "Poke!";
+				}
+				break;
+			default:
+				break;
+		}
+		final String label = (event.getSite() == null) ? event.getType().getLabel() : "[" + event.getSite() + "] " + event.getType().getLabel();
+		return new ConsoleLine(label + payload + ((SHOW_SERVER_TIME && event.hasServerTime()) ? describeServerTime(event) : ""), event.getStyle(), event.getReceivedTime());
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describeServerTime</i></b>
+	 * <p>	<code>public static String describeServerTime(MessageEvent event)</code>
+	 * <p>	Describes when the server is estimated to have sent a message, and how long it took to arrive.
+	 * @param event - the {@link MessageEvent}, which must have a server time.
+	 * @return a <tt>String</tt> such as <code> [server 14:03:22.481 +/-0.6 ms, 0.6 ms one-way]</code>.
+	 * </ul>
+	 */
+	public static String describeServerTime(MessageEvent event) {
+		return " [server " + SERVER_TIME_FORMAT.format(Instant.EPOCH.plusNanos(event.getServerTime() * 1000)) + String.format(" +/-%.1f ms, %.1f ms one-way]", event.getUncertainty() / 1000.0, event.getOneWay() / 1000.0);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>classify</i></b>
+	 * <p>	<code>public static ConsoleLine classify(String text)</code>
+	 * <p>	Classifies a printed line by its type prefix, such as <code>!B:</code> for broadcasts or <code>!ERR:</code> for errors.
+	 * 		The prefix is replaced by a readable description, and the matching {@link TextStyle} is chosen.
+	 * 		Lines without a known prefix are displayed as-is with the standard text style.
+	 * @param text - a <tt>String</tt> with the printed text.
+	 * @return the classified <tt>ConsoleLine</tt>, or <code>null</code> if the text is blank and should not be displayed.
+	 * </ul>
+	 */
+	public static ConsoleLine classify(String text) {
+		final String trimmed = text.trim();
+		if(trimmed.isEmpty()) {
+			return null;
+		}
+
+		if(trimmed.startsWith("!M:")) {
+			return new ConsoleLine(MessageType.MESSAGE.getLabel() + removePrefix(text, "!M:"), MessageType.MESSAGE.getStyle());
+		}
+		else if(trimmed.startsWith("!B:")) {
+			return new ConsoleLine(MessageType.BROADCAST.getLabel() + removePrefix(text, "!B:"), MessageType.BROADCAST.getStyle());
+		}
+		else if(trimmed.startsWith("!C:")) {
+			return new ConsoleLine(MessageType.CONNECTION.getLabel() + removePrefix(text, "!C:"), MessageType.CONNECTION.getStyle());
+		}
+		else if(trimmed.startsWith("!N:")) {
+			return new ConsoleLine(MessageType.NOTIFICATION.getLabel() + removePrefix(text, "!N:"), MessageType.NOTIFICATION.getStyle());
+		}
+		else if(trimmed.startsWith("!R:")) {
+			return new ConsoleLine(MessageType.RESPONSE.getLabel() + removePrefix(text, "!R:"), MessageType.RESPONSE.getStyle());
+		}
+		else if(trimmed.startsWith("!ERR:")) {
+			return new ConsoleLine(removePrefix(text, "!ERR:"), TextStyle.CONSOLE_ERROR);
+		}
+		return new ConsoleLine(text, TextStyle.TEXT);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>removePrefix</i></b>
+	 * <p>	<code>private static String removePrefix(String text, String prefix)</code>
+	 * <p>	Removes the first occurrence of the passed prefix from the text, keeping anything before it, such as leading whitespace.
+	 * @param text - the <tt>String</tt> to remove the prefix from.
+	 * @param prefix - the <tt>String</tt> prefix to remove.
+	 * @return a <tt>String</tt> without the prefix.
+	 * </ul>
+	 */
+	private static String removePrefix(String text, String prefix) {
+		final int index = text.indexOf(prefix);
+		return text.substring(0, index) + text.substring(index + prefix.length());
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getText</i></b>
+	 * <p>	<code>public String getText()</code>
+	 * <p>	Gets the text to display.
+	 * @return a <tt>String</tt> with the text.
+	 * </ul>
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getStyle</i></b>
+	 * <p>	<code>public TextStyle getStyle()</code>
+	 * <p>	Gets the style to display the text with.
+	 * @return the {@link TextStyle}.
+	 * </ul>
+	 */
+	public TextStyle getStyle() {
+		return style;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getTime</i></b>
+	 * <p>	<code>public long getTime()</code>
+	 * <p>	Gets the time of the line, which is when the message was received for lines from the server.
+	 * @return a <code>long</code> with the wall-clock time in milliseconds.
+	 * </ul>
+	 */
+	public long getTime() {
+		return time;
+	}
+}
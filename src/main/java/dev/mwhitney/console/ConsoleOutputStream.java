@@ -0,0 +1,137 @@
+package dev.mwhitney.console;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import dev.mwhitney.enums.OutputFormat;
+import dev.mwhitney.enums.TextStyle;
+import dev.mwhitney.metrics.ControllerMetrics;
+import dev.mwhitney.profiling.ControllerEvents;
+import dev.mwhitney.profiling.ConsoleFlushEvent;
+
+/**
+ *
+ * An <tt>OutputStream</tt> that replaces <code>System.out</code> when there is no GUI console.
+ * <p>	Printed text is split into lines, and each line is classified by its type prefix with {@link ConsoleLine}, just as the GUI console does.
+ * 		The line is then written to the real output as readable text or as a JSON object, depending on the {@link OutputFormat}.
+ * 		Messages from the server skip the printing and classifying, and are written directly with {@link #writeLine(ConsoleLine)}.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class ConsoleOutputStream extends OutputStream {
+
+	//	Variables
+	/** The <tt>OutputFormat</tt> that lines are written in. */
+	private final OutputFormat format;
+	/** The <tt>PrintStream</tt> that lines are written to. */
+	private final PrintStream out;
+	/** The <tt>PrintStream</tt> that error lines are written to in the text format. */
+	private final PrintStream err;
+	/** The <tt>ByteArrayOutputStream</tt> holding the current, incomplete line. */
+	private final ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream(256);
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>ConsoleOutputStream</i></b>
+	 * <p>	<code>public ConsoleOutputStream(OutputFormat format, PrintStream out, PrintStream err)</code>
+	 * <p>	Creates a new <tt>ConsoleOutputStream</tt>.
+	 * @param format - the <tt>OutputFormat</tt> to write lines in.
+	 * @param out - the <tt>PrintStream</tt> to write lines to.
+	 * @param err - the <tt>PrintStream</tt> to write error lines to in the text format.
+	 * </ul>
+	 */
+	public ConsoleOutputStream(OutputFormat format, PrintStream out, PrintStream err) {
+		this.format = format;
+		this.out = out;
+		this.err = err;
+	}
+
+	@Override
+	public synchronized void write(int b) {
+		if(b == '\n') {
+			final ConsoleLine line = ConsoleLine.classify(lineBuffer.toString(StandardCharsets.UTF_8));
+			if(line != null) {
+				writeLine(line);
+			}
+			lineBuffer.reset();
+		}
+		else if(b != '\r') {
+			lineBuffer.write(b);
+		}
+	}
+
+	@Override
+	public synchronized void write(byte[] buffer, int offset, int length) {
+		for(int i = offset; i < offset + length; i++) {
+			write(buffer[i]);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>writeLine</i></b>
+	 * <p>	<code>public synchronized void writeLine(ConsoleLine line)</code>
+	 * <p>	Writes a line in the chosen format.
+	 * @param line - the {@link ConsoleLine} to write.
+	 * </ul>
+	 */
+	public synchronized void writeLine(ConsoleLine line) {
+		final ConsoleFlushEvent event = ControllerEvents.isEnabled() ? new ConsoleFlushEvent() : null;
+		if(event != null) {
+			event.begin();
+		}
+		ControllerMetrics.get().consoleLinesAppended(1);
+		if(format == OutputFormat.JSON) {
+			out.println("{\"time\":\"" + Instant.ofEpochMilli(line.getTime()) + "\",\"style\":\"" + line.getStyle() + "\",\"text\":\"" + escapeJson(line.getText()) + "\"}");
+		}
+		else if(line.getStyle() == TextStyle.CONSOLE_ERROR) {
+			err.println(line.getText());
+		}
+		else {
+			out.println(line.getText());
+		}
+		if(event != null && event.shouldCommit()) {
+			event.length = line.getText().length();
+			event.commit();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>escapeJson</i></b>
+	 * <p>	<code>public static String escapeJson(String text)</code>
+	 * <p>	Escapes the passed text so that it can be placed inside a JSON string.
+	 * @param text - the <tt>String</tt> to escape.
+	 * @return a <tt>String</tt> with quotes, backslashes and control characters escaped.
+	 * </ul>
+	 */
+	public static String escapeJson(String text) {
+		final StringBuilder builder = new StringBuilder(text.length() + 16);
+		for(int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			switch (c) {
+				case '"':
+					builder.append("\\\"");
+					break;
+				case '\\':
+					builder.append("\\\\");
+					break;
+				case '\t':
+					builder.append("\\t");
+					break;
+				default:
+					if(c < 0x20) {
+						builder.append(String.format("\\u%04x", (int) c));
+					}
+					else {
+						builder.append(c);
+					}
+			}
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,41 @@
+package dev.mwhitney.console;
+
+import java.util.function.Consumer;
+
+import dev.mwhitney.events.EventSubscriber;
+import dev.mwhitney.events.MessageEvent;
+
+/**
+ *
+ * An <tt>EventSubscriber</tt> that turns each message from the server into a {@link ConsoleLine} and passes it straight to a console.
+ * <p>	Messages never pass through <code>System.out</code>, so they are not encoded to bytes, decoded and classified again by their type prefix.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class ConsoleSubscriber implements EventSubscriber {
+
+	//	Variables
+	/** The <tt>Consumer</tt> that shows each line in the console. */
+	private final Consumer<ConsoleLine> console;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>ConsoleSubscriber</i></b>
+	 * <p>	<code>public ConsoleSubscriber(Consumer&lt;ConsoleLine&gt; console)</code>
+	 * <p>	Creates a new <tt>ConsoleSubscriber</tt>.
+	 * @param console - the <tt>Consumer</tt> that shows each line in the console.
+	 * </ul>
+	 */
+	public ConsoleSubscriber(Consumer<ConsoleLine> console) {
+		this.console = console;
+	}
+
+	@Override
+	public void onEvent(MessageEvent event) {
+		final ConsoleLine line = ConsoleLine.fromEvent(event);
+		if(line != null) {
+			console.accept(line);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package dev.mwhitney.console;
+
+import dev.mwhitney.enums.ControllerCommand;
+import dev.mwhitney.enums.ONECommand;
+
+/**
+ *
+ * The result of parsing a line of console input: the command it matched, if any, and its arguments.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class ParsedInput {
+
+	//	Variables
+	/** A <tt>String</tt> with the trimmed input text. */
+	private final String text;
+	/** An uppercase <tt>String</tt> with the first word of the input. */
+	private final String command;
+	/** An uppercase <tt>String</tt> array with the remaining words of the input, or <code>null</code> if there are none. */
+	private final String[] args;
+	/** The matched {@link ONECommand}, or <code>null</code> if there is none. */
+	private final ONECommand systemCommand;
+	/** The matched {@link ControllerCommand}, or <code>null</code> if there is none. */
+	private final ControllerCommand controllerCommand;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>ParsedInput</i></b>
+	 * <p>	<code>public ParsedInput(String text, String command, String[] args, ONECommand systemCommand, ControllerCommand controllerCommand)</code>
+	 * <p>	Creates a new <tt>ParsedInput</tt>.
+	 * @param text - the trimmed input text.
+	 * @param command - the uppercase first word of the input.
+	 * @param args - the uppercase remaining words of the input. This <b>can</b> be <code>null</code>.
+	 * @param systemCommand - the matched {@link ONECommand}. This <b>can</b> be <code>null</code>.
+	 * @param controllerCommand - the matched {@link ControllerCommand}. This <b>can</b> be <code>null</code>.
+	 * </ul>
+	 */
+	public ParsedInput(String text, String command, String[] args, ONECommand systemCommand, ControllerCommand controllerCommand) {
+		this.text = text;
+		this.command = command;
+		this.args = args;
+		this.systemCommand = systemCommand;
+		this.controllerCommand = controllerCommand;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getText</i></b>
+	 * <p>	<code>public String getText()</code>
+	 * <p>	Gets the trimmed input text. This is what gets sent to the server if no command matched.
+	 * @return a <tt>String</tt> with the text.
+	 * </ul>
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getCommand</i></b>
+	 * <p>	<code>public String getCommand()</code>
+	 * <p>	Gets the first word of the input in uppercase.
+	 * @return a <tt>String</tt> with the command word.
+	 * </ul>
+	 */
+	public String getCommand() {
+		return command;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getArgs</i></b>
+	 * <p>	<code>public String[] getArgs()</code>
+	 * <p>	Gets the remaining words of the input in uppercase.
+	 * @return a <tt>String</tt> array with the arguments, which <b>can</b> be <code>null</code>.
+	 * </ul>
+	 */
+	public String[] getArgs() {
+		return args;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getSystemCommand</i></b>
+	 * <p>	<code>public ONECommand getSystemCommand()</code>
+	 * <p>	Gets the {@link ONECommand} that the input matched.
+	 * @return the {@link ONECommand}, or <code>null</code> if the input did not match one.
+	 * </ul>
+	 */
+	public ONECommand getSystemCommand() {
+		return systemCommand;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getControllerCommand</i></b>
+	 * <p>	<code>public ControllerCommand getControllerCommand()</code>
+	 * <p>	Gets the {@link ControllerCommand} that the input matched.
+	 * @return the {@link ControllerCommand}, or <code>null</code> if the input did not match one.
+	 * </ul>
+	 */
+	public ControllerCommand getControllerCommand() {
+		return controllerCommand;
+	}
+}
@@ -24,6 +24,22 @@ public enum ControllerCommand {
 	 */
 	GC,
 	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>MEM</i></b>
+	 * 	<p> The controller command for showing the memory in use by generation, the garbage collections so far, and the number of threads.
+	 * </ul>
+	 */
+	MEM,
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>PROFILE</i></b>
+	 * 	<p> The controller command for starting, stopping and reporting on the Flight Recorder memory and allocation profiler.
+	 * </ul>
+	 */
+	PROFILE,
+	
 	/**
 	 * <ul>
 	 * 	<p>	<b><i>CLEAR</i></b>
@@ -32,6 +48,54 @@ public enum ControllerCommand {
 	 */
 	CLEAR,
 	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>SCHEDULE</i></b>
+	 * 	<p>	The controller command for listing, adding and removing scheduled commands.
+	 * </ul>
+	 */
+	SCHEDULE,
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>EVENTS</i></b>
+	 * 	<p>	The controller command for showing how many messages have been received and how far behind each event subscriber is.
+	 * </ul>
+	 */
+	EVENTS,
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>STALLS</i></b>
+	 * 	<p>	The controller command for showing the interface stalls reported by the EDT watchdog.
+	 * </ul>
+	 */
+	STALLS,
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>STATE</i></b>
+	 * 	<p>	The controller command for showing what is known of the system's state, and how long ago each part of it was reported.
+	 * </ul>
+	 */
+	STATE,
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>SITES</i></b>
+	 * 	<p>	The controller command for listing each site, its server address and the state of its connection.
+	 * </ul>
+	 */
+	SITES,
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>OUTBOX</i></b>
+	 * 	<p>	The controller command for listing the commands waiting in each site's outbox to be sent on reconnecting.
+	 * </ul>
+	 */
+	OUTBOX,
+	
 	/**
 	 * <ul>
 	 * 	<p>	<b><i>VERSION</i></b>
@@ -0,0 +1,82 @@
+package dev.mwhitney.enums;
+
+/**
+ *
+ * Parts of the Project O.N.E. system's state that the controller keeps track of, each of which is either on or off.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public enum DeviceProperty {
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>SYSTEM_LOCK</i></b>
+	 * 	<p>	Whether or not the system is locked, which is on when locked.
+	 * </ul>
+	 */
+	SYSTEM_LOCK("System", "locked", "unlocked"),
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>MANUAL_UNLOCKS</i></b>
+	 * 	<p>	Whether or not manual unlocks are allowed, which is on when enabled.
+	 * </ul>
+	 */
+	MANUAL_UNLOCKS("Manual unlocks", "enabled", "disabled"),
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>DOOR</i></b>
+	 * 	<p>	Whether or not the door is locked, which is on when locked.
+	 * </ul>
+	 */
+	DOOR("Door", "locked", "unlocked");
+
+	/** A <tt>String</tt> with the name of this property, as shown in the console. */
+	private final String label;
+	/** A <tt>String</tt> describing this property when on. */
+	private final String onText;
+	/** A <tt>String</tt> describing this property when off. */
+	private final String offText;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>DeviceProperty</i></b>
+	 * <p>	<code>private DeviceProperty(String label, String onText, String offText)</code>
+	 * <p>	Creates a <tt>DeviceProperty</tt> with the passed descriptions.
+	 * @param label - a <tt>String</tt> with the name of the property.
+	 * @param onText - a <tt>String</tt> describing the property when on.
+	 * @param offText - a <tt>String</tt> describing the property when off.
+	 * </ul>
+	 */
+	private DeviceProperty(String label, String onText, String offText) {
+		this.label = label;
+		this.onText = onText;
+		this.offText = offText;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLabel</i></b>
+	 * <p>	<code>public String getLabel()</code>
+	 * <p>	Gets the name of this property, as shown in the console.
+	 * @return a <tt>String</tt> with the name, such as <code>System</code>.
+	 * </ul>
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public String describe(boolean on)</code>
+	 * <p>	Describes a value of this property.
+	 * @param on - a <code>boolean</code> for whether or not the property is on.
+	 * @return a <tt>String</tt> such as <code>locked</code> or <code>disabled</code>.
+	 * </ul>
+	 */
+	public String describe(boolean on) {
+		return on ? onText : offText;
+	}
+}
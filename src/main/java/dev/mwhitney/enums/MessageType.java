@@ -0,0 +1,89 @@
+package dev.mwhitney.enums;
+
+/**
+ * 
+ * Types of messages received from the Project O.N.E. server, determined by their prefix.
+ * 
+ * @author Matthew Whitney
+ *
+ */
+public enum MessageType {
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>MESSAGE</i></b>
+	 * 	<p>	A type for plain messages and unhandled commands.
+	 * </ul>
+	 */
+	MESSAGE("Message from Server: "),
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>BROADCAST</i></b>
+	 * 	<p>	A type for broadcasts, prefixed with <code>#broadcast=</code>.
+	 * </ul>
+	 */
+	BROADCAST("Broadcast from Server: "),
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>CONNECTION</i></b>
+	 * 	<p>	A type for connection messages, such as keep-alives, prefixed with <code>#connection=</code>.
+	 * </ul>
+	 */
+	CONNECTION("Connection Message from Server: "),
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>NOTIFICATION</i></b>
+	 * 	<p>	A type for notifications, such as pokes, prefixed with <code>#command=notification:</code>.
+	 * </ul>
+	 */
+	NOTIFICATION("Notification from Server: "),
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>RESPONSE</i></b>
+	 * 	<p>	A type for responses to commands, prefixed with <code>#response=</code>.
+	 * </ul>
+	 */
+	RESPONSE("Response from Server: ");
+	
+	/** A <tt>String</tt> with the label that the console shows before messages of this type. */
+	private final String label;
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>MessageType</i></b>
+	 * <p>	<code>private MessageType(String label)</code>
+	 * <p>	Creates a <tt>MessageType</tt> with the passed console label.
+	 * @param label - a <tt>String</tt> with the label that the console shows before messages of this type.
+	 * </ul>
+	 */
+	private MessageType(String label) {
+		this.label = label;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLabel</i></b>
+	 * <p>	<code>public String getLabel()</code>
+	 * <p>	Gets the label that the console shows before messages of this type, such as <code>Broadcast from Server: </code>.
+	 * @return a <tt>String</tt> with the label.
+	 * </ul>
+	 */
+	public String getLabel() {
+		return label;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getStyle</i></b>
+	 * <p>	<code>public TextStyle getStyle()</code>
+	 * <p>	Gets the style that the console shows messages of this type with.
+	 * @return the {@link TextStyle}.
+	 * </ul>
+	 */
+	public TextStyle getStyle() {
+		return TextStyle.SERVER;
+	}
+}
@@ -0,0 +1,28 @@
+package dev.mwhitney.enums;
+
+/**
+ *
+ * Policies for scheduled commands that could not run on time, either because the server was not connected or because the controller was not running.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public enum MissedRunPolicy {
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>SKIP</i></b>
+	 * 	<p>	The policy for dropping a missed run entirely. The command will next run at its following scheduled time, if any.
+	 * </ul>
+	 */
+	SKIP,
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>CATCH_UP</i></b>
+	 * 	<p>	The policy for running a missed command once as soon as the server is connected again.
+	 * 	<p>	Any number of missed runs are coalesced into a single catch-up run.
+	 * 		A pending catch-up run is discarded if the command's next regular run arrives first.
+	 * </ul>
+	 */
+	CATCH_UP
+}
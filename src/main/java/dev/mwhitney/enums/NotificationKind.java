@@ -0,0 +1,78 @@
+package dev.mwhitney.enums;
+
+/**
+ * 
+ * Kinds of tray notifications. Notifications of the same kind that arrive close together are shown as one summary.
+ * 
+ * @author Matthew Whitney
+ *
+ */
+public enum NotificationKind {
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>SECURITY</i></b>
+	 * 	<p>	A kind for security-related broadcasts and notifications, such as alarms. These are shown before any other kind.
+	 * </ul>
+	 */
+	SECURITY("Security Alert", "security alerts"),
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>BROADCAST</i></b>
+	 * 	<p>	A kind for broadcasts from the server.
+	 * </ul>
+	 */
+	BROADCAST("Broadcast Received", "broadcasts"),
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>POKE</i></b>
+	 * 	<p>	A kind for pokes from the server.
+	 * </ul>
+	 */
+	POKE("Poke Received!", "pokes");
+	
+	/** A <tt>String</tt> with the caption of a single notification of this kind. */
+	private final String caption;
+	/** A <tt>String</tt> with the plural name of this kind, used in summaries. */
+	private final String plural;
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>NotificationKind</i></b>
+	 * <p>	<code>private NotificationKind(String caption, String plural)</code>
+	 * <p>	Creates a <tt>NotificationKind</tt>.
+	 * @param caption - a <tt>String</tt> with the caption of a single notification of this kind.
+	 * @param plural - a <tt>String</tt> with the plural name of this kind, used in summaries.
+	 * </ul>
+	 */
+	private NotificationKind(String caption, String plural) {
+		this.caption = caption;
+		this.plural = plural;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getCaption</i></b>
+	 * <p>	<code>public String getCaption()</code>
+	 * <p>	Gets the caption of a single notification of this kind.
+	 * @return a <tt>String</tt> with the caption.
+	 * </ul>
+	 */
+	public String getCaption() {
+		return caption;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getSummaryCaption</i></b>
+	 * <p>	<code>public String getSummaryCaption(int count)</code>
+	 * <p>	Gets the caption of a summary of several notifications of this kind, such as <code>12 broadcasts received</code>.
+	 * @param count - an <code>int</code> for the number of notifications summarized.
+	 * @return a <tt>String</tt> with the caption.
+	 * </ul>
+	 */
+	public String getSummaryCaption(int count) {
+		return count + " " + plural + " received";
+	}
+}
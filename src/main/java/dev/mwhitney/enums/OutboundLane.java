@@ -0,0 +1,108 @@
+package dev.mwhitney.enums;
+
+/**
+ *
+ * The priority lanes that frames sent to the server wait in, from most to least urgent.
+ * <p>	Each lane is paced by its own token bucket, and a lane is only drained while every more urgent lane is empty or out of tokens.
+ * 		Only the security lane may hand a frame to the WebSocket while another is still being written, so a lock is never queued behind messages.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public enum OutboundLane {
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>SECURITY</i></b>
+	 * 	<p>	Security commands, such as locking the door or the system.
+	 * </ul>
+	 */
+	SECURITY(20, 10, 64),
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>INTERACTIVE</i></b>
+	 * 	<p>	Anything entered by hand, such as a message typed into the console, a ping or a poke.
+	 * </ul>
+	 */
+	INTERACTIVE(10, 5, 256),
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>BULK</i></b>
+	 * 	<p>	Messages sent by scripts through the command socket.
+	 * </ul>
+	 */
+	BULK(5, 2, 1024);
+
+	/** A <code>double</code> for the most frames the lane sends at once before being paced. */
+	private final double burst;
+	/** A <code>double</code> for the number of frames per second the lane is paced to. */
+	private final double ratePerSecond;
+	/** An <code>int</code> for the most frames that may wait in the lane. */
+	private final int capacity;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>OutboundLane</i></b>
+	 * <p>	<code>private OutboundLane(double burst, double ratePerSecond, int capacity)</code>
+	 * <p>	Creates an <tt>OutboundLane</tt> with the passed pacing.
+	 * @param burst - a <code>double</code> for the most frames sent at once.
+	 * @param ratePerSecond - a <code>double</code> for the frames per second after a burst.
+	 * @param capacity - an <code>int</code> for the most frames that may wait.
+	 * </ul>
+	 */
+	private OutboundLane(double burst, double ratePerSecond, int capacity) {
+		this.burst = burst;
+		this.ratePerSecond = ratePerSecond;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getBurst</i></b>
+	 * <p>	<code>public double getBurst()</code>
+	 * <p>	Gets the most frames the lane sends at once before being paced, which is the capacity of its token bucket.
+	 * @return a <code>double</code> with the burst.
+	 * </ul>
+	 */
+	public double getBurst() {
+		return burst;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getRatePerSecond</i></b>
+	 * <p>	<code>public double getRatePerSecond()</code>
+	 * <p>	Gets the number of frames per second the lane is paced to.
+	 * @return a <code>double</code> with the rate.
+	 * </ul>
+	 */
+	public double getRatePerSecond() {
+		return ratePerSecond;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getCapacity</i></b>
+	 * <p>	<code>public int getCapacity()</code>
+	 * <p>	Gets the most frames that may wait in the lane. Frames sent to a full lane are refused.
+	 * @return an <code>int</code> with the capacity.
+	 * </ul>
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>of</i></b>
+	 * <p>	<code>public static OutboundLane of(String frame)</code>
+	 * <p>	Gets the lane a frame waits in unless another is chosen, which is the security lane for security commands and the interactive lane for anything else.
+	 * @param frame - the <tt>String</tt> text frame.
+	 * @return the <tt>OutboundLane</tt>.
+	 * </ul>
+	 */
+	public static OutboundLane of(String frame) {
+		return frame.startsWith("#command=!security:") ? SECURITY : INTERACTIVE;
+	}
+}
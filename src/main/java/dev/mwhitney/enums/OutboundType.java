@@ -0,0 +1,64 @@
+package dev.mwhitney.enums;
+
+/**
+ * 
+ * Types of messages sent to the Project O.N.E. server, determined by their prefix.
+ * 
+ * @author Matthew Whitney
+ *
+ */
+public enum OutboundType {
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>COMMAND</i></b>
+	 * 	<p>	A type for system commands, prefixed with <code>#command=</code>.
+	 * </ul>
+	 */
+	COMMAND,
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>CONNECTION</i></b>
+	 * 	<p>	A type for connection messages, such as keep-alives, prefixed with <code>#connection=</code>.
+	 * </ul>
+	 */
+	CONNECTION,
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>PING</i></b>
+	 * 	<p>	A type for pings, sent as <code>#ping</code>.
+	 * </ul>
+	 */
+	PING,
+	
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>MESSAGE</i></b>
+	 * 	<p>	A type for plain messages to the other clients.
+	 * </ul>
+	 */
+	MESSAGE;
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>of</i></b>
+	 * <p>	<code>public static OutboundType of(String message)</code>
+	 * <p>	Determines the type of a message to be sent by its prefix.
+	 * @param message - the <tt>String</tt> message to be sent.
+	 * @return the <tt>OutboundType</tt> of the message.
+	 * </ul>
+	 */
+	public static OutboundType of(String message) {
+		if(message.startsWith("#command=")) {
+			return COMMAND;
+		}
+		else if(message.startsWith("#connection=")) {
+			return CONNECTION;
+		}
+		else if(message.startsWith("#ping")) {
+			return PING;
+		}
+		return MESSAGE;
+	}
+}
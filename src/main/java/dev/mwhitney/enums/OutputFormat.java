@@ -0,0 +1,26 @@
+package dev.mwhitney.enums;
+
+/**
+ *
+ * Formats for the controller's console output when it runs without a GUI.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public enum OutputFormat {
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>TEXT</i></b>
+	 * 	<p>	A format for readable text, one line per print. Errors are written to the standard error stream.
+	 * </ul>
+	 */
+	TEXT,
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>JSON</i></b>
+	 * 	<p>	A format for structured logs, with one JSON object per print containing its time, {@link TextStyle} and text.
+	 * </ul>
+	 */
+	JSON
+}
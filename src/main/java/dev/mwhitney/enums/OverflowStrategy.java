@@ -0,0 +1,46 @@
+package dev.mwhitney.enums;
+
+/**
+ *
+ * Strategies for what happens when an event is published while a subscriber's ring buffer is full.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public enum OverflowStrategy {
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>DROP_OLDEST</i></b>
+	 * 	<p>	A strategy for discarding the oldest undelivered event to make room, so the subscriber always sees the latest events.
+	 * </ul>
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>DROP_NEWEST</i></b>
+	 * 	<p>	A strategy for discarding the event being published, so the subscriber sees an unbroken run of the earliest events.
+	 * </ul>
+	 */
+	DROP_NEWEST,
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>QUEUE</i></b>
+	 * 	<p>	A strategy for keeping the events that do not fit in an overflow queue, which is delivered after the ring. The publisher never waits.
+	 * 		Nothing is lost unless the overflow queue fills too, so only use this for subscribers that are guaranteed to be fast, or the queue grows during a flood.
+	 * </ul>
+	 */
+	QUEUE,
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>SHED_BY_PRIORITY</i></b>
+	 * 	<p>	A strategy for shedding the events that can be lost, such as broadcasts, once the subscriber's ring is three-quarters full,
+	 * 		keeping the rest of the ring for the events that must always be delivered, such as responses and security notifications.
+	 * 		A small sample of the shed events is still delivered, so that a flood can be seen, and security-related broadcasts may use half of the reserve before they are shed too.
+	 * 		If the ring fills anyway, the events that must be delivered wait in the overflow queue, as with {@link #QUEUE}.
+	 * </ul>
+	 */
+	SHED_BY_PRIORITY
+}
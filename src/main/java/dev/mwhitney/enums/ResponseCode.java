@@ -0,0 +1,241 @@
+package dev.mwhitney.enums;
+
+/**
+ *
+ * The typed responses the server may send in the binary protocol, each standing for one of the text protocol's fixed responses.
+ * <p>	A binary response is the response opcode, then the code's byte, then its argument as a varint if it has one.
+ * 		The code is turned back into the same text the text protocol would have sent, so everything that reads responses works with either protocol.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public enum ResponseCode {
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>PONG</i></b>
+	 * 	<p>	The answer to a ping.
+	 * </ul>
+	 */
+	PONG(1, "Pong!"),
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>DOOR_UNLOCKED</i></b>
+	 * 	<p>	The door was unlocked for the number of seconds in its argument.
+	 * </ul>
+	 */
+	DOOR_UNLOCKED(2, "Door unlocked for ", " seconds."),
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>DOOR_LOCKED</i></b>
+	 * 	<p>	The door was locked.
+	 * </ul>
+	 */
+	DOOR_LOCKED(3, "Door locked."),
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>SYSTEM_LOCKED</i></b>
+	 * 	<p>	The system was locked.
+	 * </ul>
+	 */
+	SYSTEM_LOCKED(4, "System locked."),
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>SYSTEM_UNLOCKED</i></b>
+	 * 	<p>	The system was unlocked.
+	 * </ul>
+	 */
+	SYSTEM_UNLOCKED(5, "System unlocked."),
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>MANUAL_UNLOCKS_ENABLED</i></b>
+	 * 	<p>	Manual unlocks were enabled.
+	 * </ul>
+	 */
+	MANUAL_UNLOCKS_ENABLED(6, "Manual unlocks enabled."),
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>MANUAL_UNLOCKS_DISABLED</i></b>
+	 * 	<p>	Manual unlocks were disabled.
+	 * </ul>
+	 */
+	MANUAL_UNLOCKS_DISABLED(7, "Manual unlocks disabled."),
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>POKE_SENT</i></b>
+	 * 	<p>	A poke was passed on to the other clients.
+	 * </ul>
+	 */
+	POKE_SENT(8, "Poke sent.");
+
+	/** The <tt>ResponseCode</tt> of each code byte, or <code>null</code> where a byte is not a code. */
+	private static final ResponseCode[] BY_CODE = new ResponseCode[128];
+	static {
+		for(ResponseCode code : values()) {
+			BY_CODE[code.code] = code;
+		}
+	}
+
+	/** A <code>byte</code> for this response's code on the wire. */
+	private final byte code;
+	/** A <tt>String</tt> with the text of this response, or the text before its argument if it has one. */
+	private final String text;
+	/** A <tt>String</tt> with the text after this response's argument, or <code>null</code> if it has no argument. */
+	private final String suffix;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>ResponseCode</i></b>
+	 * <p>	<code>private ResponseCode(int code, String text)</code>
+	 * <p>	Creates a <tt>ResponseCode</tt> for a response without an argument.
+	 * @param code - an <code>int</code> with the response's code on the wire.
+	 * @param text - a <tt>String</tt> with the response's text.
+	 * </ul>
+	 */
+	private ResponseCode(int code, String text) {
+		this(code, text, null);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>ResponseCode</i></b>
+	 * <p>	<code>private ResponseCode(int code, String text, String suffix)</code>
+	 * <p>	Creates a <tt>ResponseCode</tt> for a response with a number in its text.
+	 * @param code - an <code>int</code> with the response's code on the wire.
+	 * @param text - a <tt>String</tt> with the text before the number.
+	 * @param suffix - a <tt>String</tt> with the text after the number, or <code>null</code> if there is no number.
+	 * </ul>
+	 */
+	private ResponseCode(int code, String text, String suffix) {
+		this.code = (byte) code;
+		this.text = text;
+		this.suffix = suffix;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getCode</i></b>
+	 * <p>	<code>public byte getCode()</code>
+	 * <p>	Gets this response's code on the wire.
+	 * @return a <code>byte</code> with the code.
+	 * </ul>
+	 */
+	public byte getCode() {
+		return code;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>hasArgument</i></b>
+	 * <p>	<code>public boolean hasArgument()</code>
+	 * <p>	Checks if this response is followed by a varint argument.
+	 * @return <code>true</code> if it has an argument; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean hasArgument() {
+		return suffix != null;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>toText</i></b>
+	 * <p>	<code>public String toText(int argument)</code>
+	 * <p>	Gets the text the text protocol sends for this response, such as <code>Door unlocked for 3 seconds.</code>
+	 * @param argument - an <code>int</code> with the response's argument, which is ignored if it has none.
+	 * @return a <tt>String</tt> with the text.
+	 * </ul>
+	 */
+	public String toText(int argument) {
+		return (suffix == null) ? text : text + argument + suffix;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>of</i></b>
+	 * <p>	<code>public static ResponseCode of(byte code)</code>
+	 * <p>	Gets the response with the passed code.
+	 * @param code - a <code>byte</code> with the code on the wire.
+	 * @return the <tt>ResponseCode</tt>, or <code>null</code> if no response has the code.
+	 * </ul>
+	 */
+	public static ResponseCode of(byte code) {
+		return (code < 0) ? null : BY_CODE[code];
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>fromText</i></b>
+	 * <p>	<code>public static ResponseCode fromText(String text)</code>
+	 * <p>	Gets the response the passed text protocol response stands for.
+	 * @param text - a <tt>String</tt> with the response's text, without its <code>#response=</code> prefix.
+	 * @return the <tt>ResponseCode</tt>, or <code>null</code> if the text is not one of the fixed responses or its argument is not a number.
+	 * </ul>
+	 */
+	public static ResponseCode fromText(String text) {
+		for(ResponseCode code : values()) {
+			if(code.suffix == null ? text.equals(code.text) : (text.startsWith(code.text) && text.endsWith(code.suffix) && parseArgument(code, text) >= 0)) {
+				return code;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>answering</i></b>
+	 * <p>	<code>public static ResponseCode answering(ONECommand command)</code>
+	 * <p>	Gets the response the server sends when it carries out the passed command.
+	 * @param command - the {@link ONECommand} that was sent.
+	 * @return the <tt>ResponseCode</tt>, or <code>null</code> if the server does not answer the command.
+	 * </ul>
+	 */
+	public static ResponseCode answering(ONECommand command) {
+		switch (command) {
+			case OPEN:
+				return DOOR_UNLOCKED;
+			case CLOSE:
+				return DOOR_LOCKED;
+			case SYSTEM_LOCK:
+				return SYSTEM_LOCKED;
+			case SYSTEM_UNLOCK:
+				return SYSTEM_UNLOCKED;
+			case MANUALUNLOCKS_ENABLE:
+				return MANUAL_UNLOCKS_ENABLED;
+			case MANUALUNLOCKS_DISABLE:
+				return MANUAL_UNLOCKS_DISABLED;
+			case POKE:
+				return POKE_SENT;
+			case PING:
+				return PONG;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>parseArgument</i></b>
+	 * <p>	<code>public static int parseArgument(ResponseCode code, String text)</code>
+	 * <p>	Reads the number from the text of a response that has one.
+	 * @param code - the <tt>ResponseCode</tt> the text stands for.
+	 * @param text - a <tt>String</tt> with the response's text.
+	 * @return an <code>int</code> with the number, or <code>-1</code> if it is missing or not a number.
+	 * </ul>
+	 */
+	public static int parseArgument(ResponseCode code, String text) {
+		if(code.suffix == null || text.length() < code.text.length() + code.suffix.length()) {
+			return -1;
+		}
+		try {
+			return Integer.parseInt(text.substring(code.text.length(), text.length() - code.suffix.length()));
+		} catch (NumberFormatException nfe) {
+			return -1;
+		}
+	}
+}
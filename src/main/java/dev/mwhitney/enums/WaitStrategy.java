@@ -0,0 +1,42 @@
+package dev.mwhitney.enums;
+
+/**
+ *
+ * Strategies for how an event bus subscriber waits for new events, trading CPU usage for delivery latency.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public enum WaitStrategy {
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>BLOCKING</i></b>
+	 * 	<p>	A strategy for parking the subscriber's thread until an event is published. Uses no CPU while idle, at the cost of a wake-up delay.
+	 * </ul>
+	 */
+	BLOCKING,
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>SLEEPING</i></b>
+	 * 	<p>	A strategy for spinning briefly, then yielding, then sleeping for short periods. Uses little CPU while idle.
+	 * </ul>
+	 */
+	SLEEPING,
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>YIELDING</i></b>
+	 * 	<p>	A strategy for spinning briefly, then yielding the thread. Has low latency but keeps a core partially busy.
+	 * </ul>
+	 */
+	YIELDING,
+
+	/**
+	 * <ul>
+	 * 	<p>	<b><i>BUSY_SPIN</i></b>
+	 * 	<p>	A strategy for spinning constantly. Has the lowest latency but keeps a core fully busy.
+	 * </ul>
+	 */
+	BUSY_SPIN
+}
@@ -0,0 +1,139 @@
+package dev.mwhitney.events;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dev.mwhitney.enums.OverflowStrategy;
+import dev.mwhitney.enums.WaitStrategy;
+import dev.mwhitney.listeners.MessageListener;
+
+/**
+ *
+ * Delivers each message received from the server to any number of subscribers, each on its own thread.
+ * <p>	Publishing only places the event into each subscriber's preallocated ring buffer, so the thread reading from the server is never held up by a subscriber.
+ * 		Each source of events, such as each site's connection, publishes through its own {@link EventPublisher}, which has its own ring in every subscription,
+ * 		so that sources never wait for each other either.
+ * 		Each {@link Subscription} keeps its own lag and drop statistics.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class EventBus {
+
+	//	Variables
+	/** The <tt>CopyOnWriteArrayList</tt> of active subscriptions. */
+	private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+	/** An <code>int</code> for the id of the next publisher. */
+	private final AtomicInteger nextPublisher = new AtomicInteger();
+	/** The <tt>EventPublisher</tt> used by {@link #publish(MessageEvent)}. */
+	private final EventPublisher defaultPublisher = createPublisher();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>subscribe</i></b>
+	 * <p>	<code>public Subscription subscribe(String name, int capacity, WaitStrategy waitStrategy, OverflowStrategy overflowStrategy, EventSubscriber subscriber)</code>
+	 * <p>	Subscribes to every event published from now on.
+	 * @param name - a <tt>String</tt> with the subscriber's name, used for its thread and statistics.
+	 * @param capacity - an <code>int</code> for the number of events that may wait for the subscriber, rounded up to a power of two.
+	 * @param waitStrategy - the <tt>WaitStrategy</tt> the subscriber uses while no events are waiting.
+	 * @param overflowStrategy - the <tt>OverflowStrategy</tt> used when the subscriber falls too far behind.
+	 * @param subscriber - the <tt>EventSubscriber</tt> to deliver events to.
+	 * @return the new <tt>Subscription</tt>.
+	 * </ul>
+	 */
+	public Subscription subscribe(String name, int capacity, WaitStrategy waitStrategy, OverflowStrategy overflowStrategy, EventSubscriber subscriber) {
+		final Subscription subscription = new Subscription(name, capacity, waitStrategy, overflowStrategy, subscriber);
+		subscriptions.add(subscription);
+		return subscription;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>subscribe</i></b>
+	 * <p>	<code>public Subscription subscribe(String name, MessageListener listener)</code>
+	 * <p>	Subscribes a <tt>MessageListener</tt> with a blocking wait and a ring of 1024 events that drops the oldest event when full.
+	 * @param name - a <tt>String</tt> with the subscriber's name, used for its thread and statistics.
+	 * @param listener - the <tt>MessageListener</tt> to deliver messages to.
+	 * @return the new <tt>Subscription</tt>.
+	 * </ul>
+	 */
+	public Subscription subscribe(String name, MessageListener listener) {
+		return subscribe(name, 1024, WaitStrategy.BLOCKING, OverflowStrategy.DROP_OLDEST, new MessageListenerAdapter(listener));
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>unsubscribe</i></b>
+	 * <p>	<code>public void unsubscribe(Subscription subscription)</code>
+	 * <p>	Cancels a subscription. Events that have not been delivered yet are discarded.
+	 * @param subscription - the <tt>Subscription</tt> to cancel.
+	 * </ul>
+	 */
+	public void unsubscribe(Subscription subscription) {
+		subscriptions.remove(subscription);
+		subscription.cancel();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>createPublisher</i></b>
+	 * <p>	<code>public EventPublisher createPublisher()</code>
+	 * <p>	Creates a new source of events, with its own ring in every subscription.
+	 * @return the new <tt>EventPublisher</tt>.
+	 * </ul>
+	 */
+	public EventPublisher createPublisher() {
+		return new EventPublisher(this, nextPublisher.getAndIncrement());
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>publish</i></b>
+	 * <p>	<code>public void publish(MessageEvent event)</code>
+	 * <p>	Publishes an event to every subscriber through the bus's default publisher, which is shared by every caller of this method.
+	 * 		Sources that must not wait for each other should each use their own publisher from {@link #createPublisher()} instead.
+	 * @param event - the <tt>MessageEvent</tt> to publish.
+	 * </ul>
+	 */
+	public void publish(MessageEvent event) {
+		defaultPublisher.publish(event);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getActiveSubscriptions</i></b>
+	 * <p>	<code>List&lt;Subscription&gt; getActiveSubscriptions()</code>
+	 * <p>	Gets the live list of subscriptions, for publishers to iterate without copying it.
+	 * @return the <tt>List</tt> of subscriptions.
+	 * </ul>
+	 */
+	List<Subscription> getActiveSubscriptions() {
+		return subscriptions;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getSubscriptions</i></b>
+	 * <p>	<code>public List&lt;Subscription&gt; getSubscriptions()</code>
+	 * <p>	Gets every active subscription, such as for reporting their statistics.
+	 * @return an unmodifiable <tt>List</tt> of the subscriptions.
+	 * </ul>
+	 */
+	public List<Subscription> getSubscriptions() {
+		return List.copyOf(subscriptions);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>close</i></b>
+	 * <p>	<code>public void close()</code>
+	 * <p>	Cancels every subscription.
+	 * </ul>
+	 */
+	public void close() {
+		for(Subscription subscription : subscriptions) {
+			unsubscribe(subscription);
+		}
+	}
+}
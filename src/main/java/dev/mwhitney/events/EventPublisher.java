@@ -0,0 +1,51 @@
+package dev.mwhitney.events;
+
+/**
+ *
+ * One source of events for an {@link EventBus}, such as the reading thread of one site's connection.
+ * <p>	Each publisher has its own ring in every subscription, so publishers never share a lock, and one that publishes a flood never delays the others.
+ * 		Publishing never waits for a subscriber.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class EventPublisher {
+
+	//	Core Objects
+	/** The <tt>EventBus</tt> that events are published to. */
+	private final EventBus eventBus;
+
+	//	Variables
+	/** An <code>int</code> for the publisher's id, which is the index of its ring in every subscription. */
+	private final int id;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>EventPublisher</i></b>
+	 * <p>	<code>EventPublisher(EventBus eventBus, int id)</code>
+	 * <p>	Creates a new <tt>EventPublisher</tt>. Use {@link EventBus#createPublisher()} instead.
+	 * @param eventBus - the <tt>EventBus</tt> that events are published to.
+	 * @param id - an <code>int</code> with the publisher's id, unique within the bus.
+	 * </ul>
+	 */
+	EventPublisher(EventBus eventBus, int id) {
+		this.eventBus = eventBus;
+		this.id = id;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>publish</i></b>
+	 * <p>	<code>public synchronized void publish(MessageEvent event)</code>
+	 * <p>	Publishes an event to every subscriber.
+	 * 		Publishing is synchronized so that each of this publisher's rings only ever has one writer, which is normally one connection's reading thread.
+	 * 		The lock is only ever contended while a replacement connection is being swapped in, and is never held while waiting.
+	 * @param event - the <tt>MessageEvent</tt> to publish.
+	 * </ul>
+	 */
+	public synchronized void publish(MessageEvent event) {
+		for(Subscription subscription : eventBus.getActiveSubscriptions()) {
+			subscription.offer(id, event);
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package dev.mwhitney.events;
+
+/**
+ *
+ * A subscriber to the {@link EventBus}. Each subscriber receives events in order on its own thread.
+ *
+ * @author Matthew Whitney
+ *
+ */
+@FunctionalInterface
+public interface EventSubscriber {
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>onEvent</i></b>
+	 * <p>	<code>public void onEvent(MessageEvent event)</code>
+	 * <p>	Handles an event. This is called on the subscriber's own thread, so it may take as long as it needs without delaying the publisher or other subscribers.
+	 * @param event - the <tt>MessageEvent</tt> to handle.
+	 * </ul>
+	 */
+	public void onEvent(MessageEvent event);
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>accepts</i></b>
+	 * <p>	<code>public default boolean accepts(MessageEvent event)</code>
+	 * <p>	Checks if the subscriber wants an event, before it is added to the subscriber's ring.
+	 * 		This is called on the publisher's thread, such as a site's reading thread, so it must only make a quick check, such as of the event's type.
+	 * @param event - the <tt>MessageEvent</tt> being published.
+	 * @return <code>true</code> if the event should be delivered; <code>false</code> if it should be left out. Every event is accepted by default.
+	 * </ul>
+	 */
+	public default boolean accepts(MessageEvent event) {
+		return true;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>endOfBatch</i></b>
+	 * <p>	<code>public default void endOfBatch()</code>
+	 * <p>	Called after the last available event has been handled, before the subscriber waits for more.
+	 * 		Subscribers that buffer work, such as writing to a file, can flush here.
+	 * </ul>
+	 */
+	public default void endOfBatch() {}
+}
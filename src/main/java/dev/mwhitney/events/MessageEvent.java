@@ -0,0 +1,266 @@
+package dev.mwhitney.events;
+
+import java.util.Locale;
+
+import dev.mwhitney.enums.MessageType;
+import dev.mwhitney.enums.TextStyle;
+
+/**
+ *
+ * A message received from the server, with its type prefix already decoded.
+ * Events are immutable, so a single event is safely shared by every subscriber of the {@link EventBus}.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class MessageEvent {
+
+	//	Static Return Values
+	/** The words that mark a message as security-related. */
+	final private static String[] SECURITY_KEYWORDS = { "alarm", "intrud", "forced", "tamper", "breach", "unauthori", "denied", "security", "emergency" };
+
+	//	Variables
+	/** The {@link MessageType} of the message. */
+	private final MessageType type;
+	/** A <tt>String</tt> with the message's content, without its type prefix. */
+	private final String payload;
+	/** An <code>int</code> for the length of the raw frame received, in characters. */
+	private final int frameLength;
+	/** A <code>long</code> for the <code>System.nanoTime()</code> at which the message was received. */
+	private final long receivedNanos;
+	/** A <code>long</code> for the wall-clock time, in milliseconds, at which the message was received. */
+	private final long receivedTime;
+	/** A <tt>String</tt> with the name of the site the message came from, or <code>null</code> if the controller has a single, unnamed connection. */
+	private final String site;
+	/** A <code>long</code> for the estimated time the server sent the message, by its clock, in microseconds since the epoch, or <code>0</code> if it is not known. */
+	private final long serverTime;
+	/** A <code>long</code> for the estimated time the message took to arrive from the server, in microseconds, or <code>-1</code> if it is not known. */
+	private final long oneWay;
+	/** A <code>long</code> for how far the estimated times could be wrong, in microseconds, or <code>-1</code> if they are not known. */
+	private final long uncertainty;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>MessageEvent</i></b>
+	 * <p>	<code>public MessageEvent(MessageType type, String payload, int frameLength, long receivedNanos, long receivedTime)</code>
+	 * <p>	Creates a new <tt>MessageEvent</tt>.
+	 * @param type - the {@link MessageType} of the message.
+	 * @param payload - the message's content, without its type prefix.
+	 * @param frameLength - the length of the raw frame received, in characters.
+	 * @param receivedNanos - the <code>System.nanoTime()</code> at which the message was received.
+	 * @param receivedTime - the wall-clock time, in milliseconds, at which the message was received.
+	 * </ul>
+	 */
+	public MessageEvent(MessageType type, String payload, int frameLength, long receivedNanos, long receivedTime) {
+		this(type, payload, frameLength, receivedNanos, receivedTime, null);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>MessageEvent</i></b>
+	 * <p>	<code>public MessageEvent(MessageType type, String payload, int frameLength, long receivedNanos, long receivedTime, String site)</code>
+	 * <p>	Creates a new <tt>MessageEvent</tt> from one of several named sites.
+	 * @param type - the {@link MessageType} of the message.
+	 * @param payload - the message's content, without its type prefix.
+	 * @param frameLength - the length of the raw frame received, in characters.
+	 * @param receivedNanos - the <code>System.nanoTime()</code> at which the message was received.
+	 * @param receivedTime - the wall-clock time, in milliseconds, at which the message was received.
+	 * @param site - the name of the site the message came from, or <code>null</code> if there is a single, unnamed connection.
+	 * </ul>
+	 */
+	public MessageEvent(MessageType type, String payload, int frameLength, long receivedNanos, long receivedTime, String site) {
+		this(type, payload, frameLength, receivedNanos, receivedTime, site, 0, -1, -1);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>MessageEvent</i></b>
+	 * <p>	<code>public MessageEvent(MessageType type, String payload, int frameLength, long receivedNanos, long receivedTime, String site, long serverTime, long oneWay, long uncertainty)</code>
+	 * <p>	Creates a new <tt>MessageEvent</tt> annotated with when the server is estimated to have sent it, from the offset of its clock.
+	 * @param type - the {@link MessageType} of the message.
+	 * @param payload - the message's content, without its type prefix.
+	 * @param frameLength - the length of the raw frame received, in characters.
+	 * @param receivedNanos - the <code>System.nanoTime()</code> at which the message was received.
+	 * @param receivedTime - the wall-clock time, in milliseconds, at which the message was received.
+	 * @param site - the name of the site the message came from, or <code>null</code> if there is a single, unnamed connection.
+	 * @param serverTime - the estimated time the server sent the message, by its clock, in microseconds since the epoch, or <code>0</code> if it is not known.
+	 * @param oneWay - the estimated time the message took to arrive, in microseconds, or <code>-1</code> if it is not known.
+	 * @param uncertainty - how far the estimates could be wrong, in microseconds, or <code>-1</code> if they are not known.
+	 * </ul>
+	 */
+	public MessageEvent(MessageType type, String payload, int frameLength, long receivedNanos, long receivedTime, String site, long serverTime, long oneWay, long uncertainty) {
+		this.site = site;
+		this.type = type;
+		this.payload = payload;
+		this.frameLength = frameLength;
+		this.receivedNanos = receivedNanos;
+		this.receivedTime = receivedTime;
+		this.serverTime = serverTime;
+		this.oneWay = oneWay;
+		this.uncertainty = uncertainty;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getType</i></b>
+	 * <p>	<code>public MessageType getType()</code>
+	 * <p>	Gets the type of the message.
+	 * @return the {@link MessageType}.
+	 * </ul>
+	 */
+	public MessageType getType() {
+		return type;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getStyle</i></b>
+	 * <p>	<code>public TextStyle getStyle()</code>
+	 * <p>	Gets the style that the console shows the message with, which is determined by its type.
+	 * @return the {@link TextStyle}.
+	 * </ul>
+	 */
+	public TextStyle getStyle() {
+		return type.getStyle();
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getPayload</i></b>
+	 * <p>	<code>public String getPayload()</code>
+	 * <p>	Gets the content of the message, without its type prefix.
+	 * @return a <tt>String</tt> with the content.
+	 * </ul>
+	 */
+	public String getPayload() {
+		return payload;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getFrameLength</i></b>
+	 * <p>	<code>public int getFrameLength()</code>
+	 * <p>	Gets the length of the raw frame received, including its type prefix.
+	 * @return an <code>int</code> with the length in characters.
+	 * </ul>
+	 */
+	public int getFrameLength() {
+		return frameLength;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getReceivedNanos</i></b>
+	 * <p>	<code>public long getReceivedNanos()</code>
+	 * <p>	Gets the time at which the message was received, for measuring how long it took to be handled.
+	 * @return a <code>long</code> with the <code>System.nanoTime()</code> at which the message was received.
+	 * </ul>
+	 */
+	public long getReceivedNanos() {
+		return receivedNanos;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getReceivedTime</i></b>
+	 * <p>	<code>public long getReceivedTime()</code>
+	 * <p>	Gets the wall-clock time at which the message was received.
+	 * @return a <code>long</code> with the time in milliseconds since the epoch.
+	 * </ul>
+	 */
+	public long getReceivedTime() {
+		return receivedTime;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getSite</i></b>
+	 * <p>	<code>public String getSite()</code>
+	 * <p>	Gets the name of the site the message came from.
+	 * @return a <tt>String</tt> with the site's name, or <code>null</code> if the controller has a single, unnamed connection.
+	 * </ul>
+	 */
+	public String getSite() {
+		return site;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>hasServerTime</i></b>
+	 * <p>	<code>public boolean hasServerTime()</code>
+	 * <p>	Checks if the message is annotated with when the server sent it, which requires a server that supports the clock exchange.
+	 * @return <code>true</code> if it is; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean hasServerTime() {
+		return serverTime != 0;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getServerTime</i></b>
+	 * <p>	<code>public long getServerTime()</code>
+	 * <p>	Gets the estimated time the server sent the message, by the server's clock.
+	 * @return a <code>long</code> with the time in microseconds since the epoch, or <code>0</code> if it is not known.
+	 * </ul>
+	 */
+	public long getServerTime() {
+		return serverTime;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getOneWay</i></b>
+	 * <p>	<code>public long getOneWay()</code>
+	 * <p>	Gets the estimated time the message took to travel from the server, which separates the network's delay from the server's.
+	 * @return a <code>long</code> with the time in microseconds, or <code>-1</code> if it is not known.
+	 * </ul>
+	 */
+	public long getOneWay() {
+		return oneWay;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getUncertainty</i></b>
+	 * <p>	<code>public long getUncertainty()</code>
+	 * <p>	Gets how far the estimated server time and one-way latency could be wrong.
+	 * @return a <code>long</code> with the uncertainty in microseconds, or <code>-1</code> if they are not known.
+	 * </ul>
+	 */
+	public long getUncertainty() {
+		return uncertainty;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isSecurityRelated</i></b>
+	 * <p>	<code>public boolean isSecurityRelated()</code>
+	 * <p>	Checks if the message is security-related, such as an alarm or a forced door.
+	 * @return <code>true</code> if the content contains a security keyword; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean isSecurityRelated() {
+		final String lower = payload.toLowerCase(Locale.ROOT);
+		for(String keyword : SECURITY_KEYWORDS) {
+			if(lower.contains(keyword)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isSheddable</i></b>
+	 * <p>	<code>public boolean isSheddable()</code>
+	 * <p>	Checks if the message may be shed when a subscriber is overloaded, which is true of every broadcast and plain message, decided by its type alone,
+	 * 		so that a server cannot protect a flood by wording it.
+	 * 		Responses to the controller's commands, notifications and connection messages are never shed.
+	 * @return <code>true</code> if the message may be shed; <code>false</code> if it must always be delivered.
+	 * </ul>
+	 */
+	public boolean isSheddable() {
+		return type == MessageType.BROADCAST || type == MessageType.MESSAGE;
+	}
+}
@@ -0,0 +1,49 @@
+package dev.mwhitney.events;
+
+import dev.mwhitney.listeners.MessageListener;
+
+/**
+ *
+ * An <tt>EventSubscriber</tt> that passes each event to the matching method of a <tt>MessageListener</tt>.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class MessageListenerAdapter implements EventSubscriber {
+
+	//	Listeners
+	/** The <tt>MessageListener</tt> that events are passed to. */
+	private final MessageListener messageListener;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>MessageListenerAdapter</i></b>
+	 * <p>	<code>public MessageListenerAdapter(MessageListener messageListener)</code>
+	 * <p>	Creates a new <tt>MessageListenerAdapter</tt>.
+	 * @param messageListener - the <tt>MessageListener</tt> to pass events to.
+	 * </ul>
+	 */
+	public MessageListenerAdapter(MessageListener messageListener) {
+		this.messageListener = messageListener;
+	}
+
+	@Override
+	public void onEvent(MessageEvent event) {
+		switch (event.getType()) {
+			case BROADCAST:
+				messageListener.broadcastReceived(event.getPayload());
+				break;
+			case CONNECTION:
+				messageListener.connectionMessageReceived(event.getPayload());
+				break;
+			case NOTIFICATION:
+				messageListener.notificationReceived(event.getPayload());
+				break;
+			case RESPONSE:
+				messageListener.responseMessageReceived(event.getPayload());
+				break;
+			default:
+				messageListener.messageReceived(event.getPayload());
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package dev.mwhitney.events;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+import dev.mwhitney.console.ConsoleOutputStream;
+import dev.mwhitney.gui.ControllerInterface;
+
+/**
+ *
+ * An <tt>EventSubscriber</tt> that logs every message received from the server to a file, as one JSON object per line.
+ * <p>	Messages annotated with the server's time also log it, with their estimated one-way latency and its uncertainty in milliseconds.
+ * <p>	Lines are buffered and written once no more events are waiting, so a burst of messages costs a single write.
+ * 		When the log grows past its size limit, it is moved to a backup with the <code>.1</code> suffix and a new log is started.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class MessageLogSubscriber implements EventSubscriber {
+
+	//	Static Return Values
+	/** A <code>long</code> for the size, in bytes, at which the log is rolled over. */
+	final private static long MAX_LOG_SIZE = 5 * 1024 * 1024;
+
+	//	Variables
+	/** The <tt>Path</tt> of the log file. */
+	private final Path logPath;
+	/** The <tt>BufferedWriter</tt> for the log file, or <code>null</code> if it is not open. */
+	private BufferedWriter writer;
+	/** A <code>long</code> for the approximate size of the log file, in bytes. */
+	private long logSize;
+	/** A <code>boolean</code> for whether or not logging has been disabled after an error. */
+	private boolean failed;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>MessageLogSubscriber</i></b>
+	 * <p>	<code>public MessageLogSubscriber(Path logPath)</code>
+	 * <p>	Creates a new <tt>MessageLogSubscriber</tt>. The log file is opened once the first message arrives.
+	 * @param logPath - the <tt>Path</tt> of the log file.
+	 * </ul>
+	 */
+	public MessageLogSubscriber(Path logPath) {
+		this.logPath = logPath;
+	}
+
+	@Override
+	public void onEvent(MessageEvent event) {
+		if(failed) {
+			return;
+		}
+		try {
+			if(writer == null) {
+				open();
+			}
+			final String line = "{\"time\":\"" + Instant.ofEpochMilli(event.getReceivedTime()) + "\",\"type\":\"" + event.getType()
+				+ ((event.getSite() == null) ? "" : "\",\"site\":\"" + ConsoleOutputStream.escapeJson(event.getSite()))
+				+ "\",\"payload\":\"" + ConsoleOutputStream.escapeJson(event.getPayload())
+				+ (event.hasServerTime() ? "\",\"serverTime\":\"" + Instant.EPOCH.plusNanos(event.getServerTime() * 1000) + "\",\"oneWayMs\":" + event.getOneWay() / 1000.0
+					+ ",\"uncertaintyMs\":" + event.getUncertainty() / 1000.0 + "}" : "\"}");
+			writer.write(line);
+			writer.newLine();
+			logSize += line.length() + 1;
+			if(logSize > MAX_LOG_SIZE) {
+				writer.close();
+				writer = null;
+				Files.move(logPath, logPath.resolveSibling(logPath.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException ioe) {
+			failed = true;
+			System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Error writing the message log. Logging is disabled. (" + ioe.getMessage() + ")");
+		}
+	}
+
+	@Override
+	public void endOfBatch() {
+		if(writer != null) {
+			try {
+				writer.flush();
+			} catch (IOException ioe) {}
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>open</i></b>
+	 * <p>	<code>private void open()</code>
+	 * <p>	Opens the log file for appending, creating it and its folders if needed.
+	 * @throws IOException if the file could not be opened.
+	 * </ul>
+	 */
+	private void open() throws IOException {
+		Files.createDirectories(logPath.toAbsolutePath().getParent());
+		writer = Files.newBufferedWriter(logPath, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		logSize = Files.size(logPath);
+	}
+}
@@ -0,0 +1,84 @@
+package dev.mwhitney.events;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import dev.mwhitney.enums.MessageType;
+
+/**
+ *
+ * An <tt>EventSubscriber</tt> that counts the messages and characters received from the server for each {@link MessageType}.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class MessageMetrics implements EventSubscriber {
+
+	//	Variables
+	/** The <tt>LongAdder</tt> message counts, indexed by {@link MessageType} ordinal. */
+	private final LongAdder[] messages = new LongAdder[MessageType.values().length];
+	/** The <tt>LongAdder</tt> character counts of the raw frames, indexed by {@link MessageType} ordinal. */
+	private final LongAdder[] characters = new LongAdder[MessageType.values().length];
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>MessageMetrics</i></b>
+	 * <p>	<code>public MessageMetrics()</code>
+	 * <p>	Creates a new <tt>MessageMetrics</tt> with every count at zero.
+	 * </ul>
+	 */
+	public MessageMetrics() {
+		for(int i = 0; i < messages.length; i++) {
+			messages[i] = new LongAdder();
+			characters[i] = new LongAdder();
+		}
+	}
+
+	@Override
+	public void onEvent(MessageEvent event) {
+		messages[event.getType().ordinal()].increment();
+		characters[event.getType().ordinal()].add(event.getFrameLength());
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getMessages</i></b>
+	 * <p>	<code>public long getMessages(MessageType type)</code>
+	 * <p>	Gets the number of messages of the passed type that have been received.
+	 * @param type - the {@link MessageType} to count.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getMessages(MessageType type) {
+		return messages[type.ordinal()].sum();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getCharacters</i></b>
+	 * <p>	<code>public long getCharacters(MessageType type)</code>
+	 * <p>	Gets the total length of the raw frames of the passed type that have been received.
+	 * @param type - the {@link MessageType} to count.
+	 * @return a <code>long</code> with the count in characters.
+	 * </ul>
+	 */
+	public long getCharacters(MessageType type) {
+		return characters[type.ordinal()].sum();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public String describe()</code>
+	 * <p>	Describes the counts for every message type in a single line.
+	 * @return a <tt>String</tt> with the description.
+	 * </ul>
+	 */
+	public String describe() {
+		final StringBuilder builder = new StringBuilder("Messages received:");
+		for(MessageType type : MessageType.values()) {
+			builder.append(' ').append(type.name().toLowerCase()).append(' ').append(getMessages(type))
+				.append(" (").append(getCharacters(type)).append(" chars)").append(type.ordinal() < messages.length - 1 ? "," : "");
+		}
+		return builder.toString();
+	}
+}
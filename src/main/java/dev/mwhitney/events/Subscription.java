@@ -0,0 +1,529 @@
+package dev.mwhitney.events;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import dev.mwhitney.enums.MessageType;
+import dev.mwhitney.enums.OverflowStrategy;
+import dev.mwhitney.enums.WaitStrategy;
+
+/**
+ *
+ * A subscriber's registration with the {@link EventBus}: a preallocated ring buffer of events for each {@link EventPublisher}, and the thread that delivers them.
+ * <p>	Each ring is only added to by its publisher, such as one site's reading thread, and removed from by the subscriber's thread, so a slow subscriber only ever delays itself,
+ * 		and one site's flood never delays another site's messages. The subscriber's thread takes from each ring in turn.
+ * 		When a ring is full, the {@link OverflowStrategy} decides what is lost. A publisher never waits.
+ * 		The subscriber's lag and losses can be read at any time.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class Subscription {
+
+	//	Static Return Values
+	/** A <code>long</code> for the longest time, in nanoseconds, that an idle subscriber parks before checking again. */
+	final private static long MAX_PARK_NANOS = 100_000_000;
+	/** An <code>int</code> for the most events that may wait in each publisher's overflow queue, with {@link OverflowStrategy#QUEUE} and {@link OverflowStrategy#SHED_BY_PRIORITY}. */
+	final private static int MAX_OVERFLOW = 65536;
+	/** An <code>int</code> for how many shed events in a row are dropped before one is delivered as a sample, with {@link OverflowStrategy#SHED_BY_PRIORITY}. */
+	final private static int SAMPLE_INTERVAL = 100;
+
+	//	Core Objects
+	/** The <tt>EventSubscriber</tt> that events are delivered to. */
+	private final EventSubscriber subscriber;
+	/** The <tt>Thread</tt> that delivers events to the subscriber. */
+	private final Thread thread;
+
+	//	Variables
+	/** A <tt>String</tt> with the subscriber's name. */
+	private final String name;
+	/** The <tt>WaitStrategy</tt> used while the ring is empty. */
+	private final WaitStrategy waitStrategy;
+	/** The <tt>OverflowStrategy</tt> used while the ring is full. */
+	private final OverflowStrategy overflowStrategy;
+	/** An <code>int</code> for the number of events each ring can hold. It is always a power of two. */
+	private final int capacity;
+	/** An <code>int</code> mask for converting a sequence number into a ring index. */
+	private final int mask;
+	/** The <tt>Lane</tt> of each publisher, by its id, or <code>null</code> where it has not published to this subscription yet. Replaced whenever a lane is added. */
+	private volatile Lane[] lanes = new Lane[0];
+	/** A <code>long</code> for the number of events delivered to the subscriber. */
+	private final AtomicLong delivered = new AtomicLong();
+	/** A <code>long</code> for the number of events dropped because a ring was full, including those shed. */
+	private final AtomicLong dropped = new AtomicLong();
+	/** An <code>int</code> for the number of places in each ring kept for events that must always be delivered, with {@link OverflowStrategy#SHED_BY_PRIORITY}. */
+	private final int reserve;
+	/** The <tt>AtomicLongArray</tt> of the number of events shed, by <tt>MessageType</tt> ordinal. */
+	private final AtomicLongArray shed = new AtomicLongArray(MessageType.values().length);
+	/** A <code>long</code> for the number of shed events that were delivered as samples. */
+	private final AtomicLong sampled = new AtomicLong();
+	/** A <code>long</code> for the most events that have been waiting from one publisher at once. */
+	private volatile long maxLag;
+	/** A <code>long</code> for the time, in nanoseconds, between the last delivered event being received and being delivered. */
+	private volatile long lastDelayNanos;
+	/** A <code>boolean</code> for whether or not the subscriber's thread is parked, waiting for an event. */
+	private volatile boolean waiting;
+	/** A <code>boolean</code> for whether or not the subscription is still active. */
+	private volatile boolean running = true;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>Subscription</i></b>
+	 * <p>	<code>Subscription(String name, int capacity, WaitStrategy waitStrategy, OverflowStrategy overflowStrategy, EventSubscriber subscriber)</code>
+	 * <p>	Creates a new <tt>Subscription</tt> and starts its thread. Use {@link EventBus#subscribe} instead.
+	 * @param name - the subscriber's name, used for its thread and statistics.
+	 * @param capacity - the number of events the ring can hold, rounded up to a power of two.
+	 * @param waitStrategy - the <tt>WaitStrategy</tt> used while the ring is empty.
+	 * @param overflowStrategy - the <tt>OverflowStrategy</tt> used while the ring is full.
+	 * @param subscriber - the <tt>EventSubscriber</tt> to deliver events to.
+	 * </ul>
+	 */
+	Subscription(String name, int capacity, WaitStrategy waitStrategy, OverflowStrategy overflowStrategy, EventSubscriber subscriber) {
+		this.name = name;
+		this.waitStrategy = waitStrategy;
+		this.overflowStrategy = overflowStrategy;
+		this.subscriber = subscriber;
+		this.capacity = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+		this.mask = this.capacity - 1;
+		this.reserve = this.capacity / 4;
+		this.thread = new Thread(this::deliverEvents, "ONE-Event-" + name);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>lane</i></b>
+	 * <p>	<code>private Lane lane(int publisher)</code>
+	 * <p>	Gets the lane of a publisher, adding it the first time the publisher offers an event.
+	 * @param publisher - an <code>int</code> with the publisher's id.
+	 * @return the publisher's <tt>Lane</tt>.
+	 * </ul>
+	 */
+	private Lane lane(int publisher) {
+		final Lane[] current = lanes;
+		if(publisher < current.length && current[publisher] != null) {
+			return current[publisher];
+		}
+		synchronized(this) {
+			final Lane[] added = Arrays.copyOf(lanes, Math.max(lanes.length, publisher + 1));
+			if(added[publisher] == null) {
+				added[publisher] = new Lane(capacity);
+				lanes = added;
+			}
+			return added[publisher];
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>offer</i></b>
+	 * <p>	<code>void offer(int publisher, MessageEvent event)</code>
+	 * <p>	Adds an event to the publisher's ring, applying the overflow strategy if it is full. This never waits.
+	 * 		An event the subscriber does not {@link EventSubscriber#accepts(MessageEvent) accept} is left out, and never takes room in the ring.
+	 * <p>	<b>Note:</b> This must only be called by one thread at a time for each publisher, which the {@link EventPublisher} guarantees.
+	 * @param publisher - an <code>int</code> with the id of the {@link EventPublisher}.
+	 * @param event - the <tt>MessageEvent</tt> to add.
+	 * </ul>
+	 */
+	void offer(int publisher, MessageEvent event) {
+		if(!subscriber.accepts(event)) {
+			return;
+		}
+		final Lane lane = lane(publisher);
+		final long tail = lane.published.get();
+		if(overflowStrategy == OverflowStrategy.SHED_BY_PRIORITY && event.isSheddable() && lane.getLag() >= capacity - reserve) {
+			//	Security-related broadcasts may use the first half of the reserve, and other events only as an occasional sample.
+			//	Past it, every sheddable event is shed, so that none of them ever waits in the overflow queue.
+			final boolean security = event.isSecurityRelated();
+			if(lane.getLag() >= capacity - reserve / 2 || (!security && ++lane.sinceSample < SAMPLE_INTERVAL)) {
+				shed.incrementAndGet(event.getType().ordinal());
+				dropped.incrementAndGet();
+				return;
+			}
+			if(!security) {
+				lane.sinceSample = 0;
+				sampled.incrementAndGet();
+			}
+		}
+		//	Once events wait in the overflow queue, the rest follow them there, so that they are delivered in order.
+		if(!lane.overflow.isEmpty()) {
+			overflow(lane, event);
+			return;
+		}
+		long head;
+		while(tail - (head = lane.consumed.get()) >= capacity) {
+			switch (overflowStrategy) {
+				case DROP_NEWEST:
+					dropped.incrementAndGet();
+					return;
+				case DROP_OLDEST:
+					//	Claim the oldest event, unless the subscriber removed it first.
+					if(lane.consumed.compareAndSet(head, head + 1)) {
+						dropped.incrementAndGet();
+					}
+					break;
+				case QUEUE:
+				case SHED_BY_PRIORITY:
+					overflow(lane, event);
+					return;
+			}
+		}
+
+		lane.ring[(int) tail & mask] = event;
+		lane.published.set(tail + 1);
+		published(lane);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>overflow</i></b>
+	 * <p>	<code>private void overflow(Lane lane, MessageEvent event)</code>
+	 * <p>	Adds an event to the lane's overflow queue, or drops it if {@link #MAX_OVERFLOW} events are already waiting there.
+	 * @param lane - the publisher's <tt>Lane</tt>.
+	 * @param event - the <tt>MessageEvent</tt> to add.
+	 * </ul>
+	 */
+	private void overflow(Lane lane, MessageEvent event) {
+		if(!running || lane.overflowSize.get() >= MAX_OVERFLOW) {
+			dropped.incrementAndGet();
+			return;
+		}
+		lane.overflowSize.incrementAndGet();
+		lane.overflow.add(event);
+		published(lane);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>published</i></b>
+	 * <p>	<code>private void published(Lane lane)</code>
+	 * <p>	Records the lag after an event was added to a lane, and wakes the subscriber if it is waiting.
+	 * @param lane - the <tt>Lane</tt> the event was added to.
+	 * </ul>
+	 */
+	private void published(Lane lane) {
+		final long lag = lane.getLag();
+		if(lag > maxLag) {
+			maxLag = lag;
+		}
+		if(waiting) {
+			wakeSubscriber();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>take</i></b>
+	 * <p>	<code>private MessageEvent take(Lane lane)</code>
+	 * <p>	Removes the next event from a lane: from its ring, then from its overflow queue once the ring is empty.
+	 * @param lane - the <tt>Lane</tt> to take from.
+	 * @return the next <tt>MessageEvent</tt>, or <code>null</code> if the lane is empty.
+	 * </ul>
+	 */
+	private MessageEvent take(Lane lane) {
+		long head;
+		while((head = lane.consumed.get()) < lane.published.get()) {
+			final MessageEvent event = lane.ring[(int) head & mask];
+			//	The publisher may have dropped this event as the oldest, so only deliver it if it is still claimed.
+			if(lane.consumed.compareAndSet(head, head + 1)) {
+				return event;
+			}
+		}
+		final MessageEvent event = lane.overflow.poll();
+		if(event != null) {
+			lane.overflowSize.decrementAndGet();
+		}
+		return event;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>deliverEvents</i></b>
+	 * <p>	<code>private void deliverEvents()</code>
+	 * <p>	The subscriber thread's loop, which delivers events until the subscription is cancelled, taking one from each publisher's lane in turn.
+	 * 		Each publisher's events are delivered in the order they were published.
+	 * </ul>
+	 */
+	private void deliverEvents() {
+		int idleCount = 0;
+		boolean inBatch = false;
+		while(running) {
+			boolean delivering = false;
+			for(Lane lane : lanes) {
+				final MessageEvent event = (lane == null) ? null : take(lane);
+				if(event == null) {
+					continue;
+				}
+				delivering = true;
+				lastDelayNanos = System.nanoTime() - event.getReceivedNanos();
+				delivered.incrementAndGet();
+				try {
+					subscriber.onEvent(event);
+				} catch (Throwable t) {
+					System.err.println("Event subscriber \"" + name + "\" failed to handle an event.");
+					t.printStackTrace();
+				}
+			}
+			if(delivering) {
+				inBatch = true;
+				idleCount = 0;
+			}
+			else {
+				if(inBatch) {
+					inBatch = false;
+					try {
+						subscriber.endOfBatch();
+					} catch (Throwable t) {
+						t.printStackTrace();
+					}
+				}
+				idle(idleCount++);
+			}
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>idle</i></b>
+	 * <p>	<code>private void idle(int idleCount)</code>
+	 * <p>	Waits for an event according to the wait strategy.
+	 * @param idleCount - an <code>int</code> for the number of times in a row that no event was available.
+	 * </ul>
+	 */
+	private void idle(int idleCount) {
+		switch (waitStrategy) {
+			case BUSY_SPIN:
+				Thread.onSpinWait();
+				break;
+			case YIELDING:
+				if(idleCount < 100) Thread.onSpinWait();
+				else Thread.yield();
+				break;
+			case SLEEPING:
+				if(idleCount < 100) Thread.onSpinWait();
+				else if(idleCount < 200) Thread.yield();
+				else LockSupport.parkNanos(this, 100_000);
+				break;
+			case BLOCKING:
+				waiting = true;
+				//	Check again after announcing, so that an event published in between is not missed.
+				if(getLag() == 0 && running) {
+					LockSupport.parkNanos(this, MAX_PARK_NANOS);
+				}
+				waiting = false;
+				break;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>wakeSubscriber</i></b>
+	 * <p>	<code>private void wakeSubscriber()</code>
+	 * <p>	Wakes the subscriber's thread if it is parked.
+	 * </ul>
+	 */
+	private void wakeSubscriber() {
+		LockSupport.unpark(thread);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>cancel</i></b>
+	 * <p>	<code>void cancel()</code>
+	 * <p>	Stops delivering events. Events still in the ring are discarded. Use {@link EventBus#unsubscribe} instead.
+	 * </ul>
+	 */
+	void cancel() {
+		running = false;
+		wakeSubscriber();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getName</i></b>
+	 * <p>	<code>public String getName()</code>
+	 * <p>	Gets the subscriber's name.
+	 * @return a <tt>String</tt> with the name.
+	 * </ul>
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getCapacity</i></b>
+	 * <p>	<code>public int getCapacity()</code>
+	 * <p>	Gets the number of events each publisher's ring can hold.
+	 * @return an <code>int</code> with the capacity.
+	 * </ul>
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLag</i></b>
+	 * <p>	<code>public long getLag()</code>
+	 * <p>	Gets the number of events waiting to be delivered, from every publisher.
+	 * @return a <code>long</code> with the current lag.
+	 * </ul>
+	 */
+	public long getLag() {
+		long lag = 0;
+		for(Lane lane : lanes) {
+			if(lane != null) {
+				lag += lane.getLag();
+			}
+		}
+		return lag;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getMaxLag</i></b>
+	 * <p>	<code>public long getMaxLag()</code>
+	 * <p>	Gets the most events that have been waiting from one publisher at once.
+	 * @return a <code>long</code> with the highest lag seen.
+	 * </ul>
+	 */
+	public long getMaxLag() {
+		return maxLag;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getDelivered</i></b>
+	 * <p>	<code>public long getDelivered()</code>
+	 * <p>	Gets the number of events delivered to the subscriber.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getDelivered() {
+		return delivered.get();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getDropped</i></b>
+	 * <p>	<code>public long getDropped()</code>
+	 * <p>	Gets the number of events dropped because a ring and its overflow queue were full, or shed.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getShed</i></b>
+	 * <p>	<code>public long getShed(MessageType type)</code>
+	 * <p>	Gets the number of events of a type that were shed because the subscriber was overloaded.
+	 * @param type - the {@link MessageType} to count.
+	 * @return a <code>long</code> with the count, which is also included in {@link #getDropped()}.
+	 * </ul>
+	 */
+	public long getShed(MessageType type) {
+		return shed.get(type.ordinal());
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getSampled</i></b>
+	 * <p>	<code>public long getSampled()</code>
+	 * <p>	Gets the number of events that would have been shed, but were delivered as samples of the flood.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getSampled() {
+		return sampled.get();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLastDelayNanos</i></b>
+	 * <p>	<code>public long getLastDelayNanos()</code>
+	 * <p>	Gets the time between the last delivered event being received from the server and being delivered to the subscriber.
+	 * @return a <code>long</code> with the delay in nanoseconds.
+	 * </ul>
+	 */
+	public long getLastDelayNanos() {
+		return lastDelayNanos;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public String describe()</code>
+	 * <p>	Describes the subscription's statistics in a single line.
+	 * @return a <tt>String</tt> with the description.
+	 * </ul>
+	 */
+	public String describe() {
+		final StringBuilder description = new StringBuilder(String.format("%s (%s, %s): lag %d/%d, max lag %d, delivered %d, dropped %d, last delay %.3f ms",
+			name, waitStrategy, overflowStrategy, getLag(), getCapacity(), getMaxLag(), getDelivered(), getDropped(), getLastDelayNanos() / 1e6));
+		if(overflowStrategy == OverflowStrategy.SHED_BY_PRIORITY) {
+			final StringBuilder shedTypes = new StringBuilder();
+			for(MessageType type : MessageType.values()) {
+				if(getShed(type) > 0) {
+					shedTypes.append(' ').append(type).append(' ').append(getShed(type));
+				}
+			}
+			description.append(", shed").append((shedTypes.length() == 0) ? " none" : shedTypes).append(", sampled ").append(getSampled());
+		}
+		return description.toString();
+	}
+
+	/**
+	 *
+	 * The events waiting from one publisher: a ring that only the publisher adds to, and an overflow queue for the events that did not fit, with {@link OverflowStrategy#QUEUE} and {@link OverflowStrategy#SHED_BY_PRIORITY}.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	private static final class Lane {
+		/** The ring buffer of events. */
+		private final MessageEvent[] ring;
+		/** A <code>long</code> for the number of events added to the ring. Only the publisher writes this. */
+		private final AtomicLong published = new AtomicLong();
+		/** A <code>long</code> for the number of events removed from the ring, either delivered or dropped as the oldest. */
+		private final AtomicLong consumed = new AtomicLong();
+		/** The <tt>ConcurrentLinkedQueue</tt> of the events that did not fit in the ring, which are delivered after it. */
+		private final ConcurrentLinkedQueue<MessageEvent> overflow = new ConcurrentLinkedQueue<>();
+		/** An <code>int</code> for the number of events in the overflow queue. */
+		private final AtomicInteger overflowSize = new AtomicInteger();
+		/** A <code>long</code> for the number of events shed since the last sample. Only the publisher uses this. */
+		private long sinceSample;
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>Lane</i></b>
+		 * <p>	<code>private Lane(int capacity)</code>
+		 * <p>	Creates a new, empty <tt>Lane</tt>.
+		 * @param capacity - an <code>int</code> for the number of events the ring can hold, which must be a power of two.
+		 * </ul>
+		 */
+		private Lane(int capacity) {
+			this.ring = new MessageEvent[capacity];
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>getLag</i></b>
+		 * <p>	<code>private long getLag()</code>
+		 * <p>	Gets the number of events waiting in the ring and the overflow queue.
+		 * @return a <code>long</code> with the lag.
+		 * </ul>
+		 */
+		private long getLag() {
+			return Math.max(0, published.get() - consumed.get()) + overflowSize.get();
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package dev.mwhitney.gui;
+
+/**
+ *
+ * An immutable snapshot of the console's size, published by the EDT after every change so that any thread can read it without touching Swing.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class ConsoleSnapshot {
+
+	//	Static Return Values
+	/** The <tt>ConsoleSnapshot</tt> of an empty console. */
+	final public static ConsoleSnapshot EMPTY = new ConsoleSnapshot(0, 0, 0);
+
+	//	Variables
+	/** An <code>int</code> for the number of characters in the console. */
+	private final int length;
+	/** An <code>int</code> for the number of lines in the console. */
+	private final int lines;
+	/** A <code>long</code> for the number of changes made to the console before this snapshot was taken. */
+	private final long version;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>ConsoleSnapshot</i></b>
+	 * <p>	<code>public ConsoleSnapshot(int length, int lines, long version)</code>
+	 * <p>	Creates a new <tt>ConsoleSnapshot</tt>.
+	 * @param length - an <code>int</code> for the number of characters in the console.
+	 * @param lines - an <code>int</code> for the number of lines in the console.
+	 * @param version - a <code>long</code> for the number of changes made to the console so far.
+	 * </ul>
+	 */
+	public ConsoleSnapshot(int length, int lines, long version) {
+		this.length = length;
+		this.lines = lines;
+		this.version = version;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isEmpty</i></b>
+	 * <p>	<code>public boolean isEmpty()</code>
+	 * <p>	Checks if the console was empty.
+	 * @return <code>true</code> if it had no text; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean isEmpty() {
+		return length == 0;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLength</i></b>
+	 * <p>	<code>public int getLength()</code>
+	 * <p>	Gets the number of characters in the console.
+	 * @return an <code>int</code> with the length.
+	 * </ul>
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLines</i></b>
+	 * <p>	<code>public int getLines()</code>
+	 * <p>	Gets the number of lines in the console.
+	 * @return an <code>int</code> with the line count, which is <code>0</code> if it is empty.
+	 * </ul>
+	 */
+	public int getLines() {
+		return lines;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getVersion</i></b>
+	 * <p>	<code>public long getVersion()</code>
+	 * <p>	Gets the number of changes made to the console before this snapshot was taken, which tells two snapshots apart.
+	 * @return a <code>long</code> with the version.
+	 * </ul>
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	@Override
+	public String toString() {
+		return "Console: " + lines + " lines, " + length + " characters (version " + version + ")";
+	}
+}
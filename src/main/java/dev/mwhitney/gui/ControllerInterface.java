@@ -11,19 +11,20 @@ import java.awt.GraphicsEnvironment;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Toolkit;
+import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.PrintStream;
-import java.util.Arrays;
-import java.util.concurrent.Callable;
+import java.util.ArrayDeque;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
-import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import javax.swing.BorderFactory;
 import javax.swing.JFrame;
@@ -34,16 +35,24 @@ import javax.swing.JTextPane;
 import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
 import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
 import javax.swing.text.Style;
 import javax.swing.text.StyleConstants;
 import javax.swing.text.StyleContext;
 import javax.swing.text.StyledDocument;
 
+import dev.mwhitney.console.CommandParser;
+import dev.mwhitney.console.ConsoleLine;
+import dev.mwhitney.console.ParsedInput;
 import dev.mwhitney.enums.ControllerCommand;
+import dev.mwhitney.enums.DeviceProperty;
 import dev.mwhitney.enums.ONECommand;
 import dev.mwhitney.enums.TextStyle;
 import dev.mwhitney.listeners.RequestListener;
-import dev.mwhitney.main.Controller;
+import dev.mwhitney.metrics.ControllerMetrics;
+import dev.mwhitney.profiling.ControllerEvents;
+import dev.mwhitney.profiling.ConsoleFlushEvent;
+import dev.mwhitney.state.DeviceState;
 
 /**
  * 
@@ -60,6 +69,26 @@ public class ControllerInterface extends JFrame {
 	//	Static Return Values
 	/** A <tt>String</tt> return value for printing text to the console in the error format. */
 	final public static String CONSOLE_ERROR = "!ERR:";
+	/** An <code>int</code> for the most lines the console keeps, set with the <code>one.console.maxLines</code> system property. Older lines are trimmed. */
+	final private static int MAX_CONSOLE_LINES = Math.max(100, Integer.getInteger("one.console.maxLines", 5000));
+	/** An <code>int</code> for the most lines from the server that may wait to be added to the console before the thread adding them waits for the EDT. */
+	final private static int MAX_PENDING_LINES = 512;
+	/** A <code>long</code> for the longest time, in milliseconds, that a line from the server waits for room before it is added anyway, so that a stalled EDT cannot stop the connection. */
+	final private static long MAX_PENDING_WAIT = 1000;
+	/**
+	 * The <tt>ThreadPoolExecutor</tt> that handles the buttons' commands off the EDT, in the order they were clicked.
+	 * Its one thread is kept alive and its queue is a fixed array, so that handing it a command allocates nothing.
+	 * A click made while the queue is full is refused with an error and counted, never dropped silently.
+	 */
+	private static final ThreadPoolExecutor COMMAND_EXECUTOR = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), (runnable) -> {
+		final Thread thread = new Thread(runnable, "ONE-Button-Commands");
+		thread.setDaemon(true);
+		return thread;
+	}, (runnable, executor) -> {
+		ControllerMetrics.get().buttonClickRefused();
+		final String command = (runnable instanceof ButtonCommand) ? ((ButtonCommand) runnable).command.name() : "command";
+		System.out.println(CONSOLE_ERROR + "The " + command + " button was not sent, as " + executor.getQueue().size() + " clicks are still waiting to be sent. Click it again once they are.");
+	});
 	
 	//	Swing Components
 	/** A <tt>JPanel</tt> responsible for holding the content of the interface. */
@@ -72,12 +101,22 @@ public class ControllerInterface extends JFrame {
 	private JTextField textField;
 	/** A <tt>BeautifulButton</tt> used to send any input to be parsed. */
 	private BeautifulButton sendButton;
+	/** The <tt>StateIndicator</tt>s next to the buttons, showing the last known state of what each pair of buttons changes. */
+	private StateIndicator doorIndicator, systemIndicator, manualUnlocksIndicator;
 	
 	//	Various Objects
 	/** The <tt>EntryLogger</tt> used to log and retrieve previous command/text entries in the GUI. */
-	private EntryLogger entryLogger;
+	private volatile EntryLogger entryLogger;
 	/** The <tt>RequestListener</tt> used to send requests. */
 	private RequestListener requestListener = null;
+	/** The <tt>Runnable</tt> run each time the interface hides itself, or <code>null</code>. */
+	private Runnable hiddenListener = null;
+	/** The <tt>ConsoleSnapshot</tt> of the console's size, replaced by the EDT after every change so that other threads never need to read Swing. */
+	private volatile ConsoleSnapshot consoleSnapshot = ConsoleSnapshot.EMPTY;
+	/** The <tt>ArrayDeque</tt> of text waiting to be added to the console by the next flush on the EDT, guarded by itself. */
+	private final ArrayDeque<PendingText> pendingText = new ArrayDeque<>();
+	/** A <code>boolean</code> for whether or not a flush of the pending text is waiting on the EDT, guarded by <code>pendingText</code>. */
+	private boolean flushScheduled;
 	
 	//	Variables
 	/** The <tt>Font</tt> for almost all text in the interface. */
@@ -93,6 +132,7 @@ public class ControllerInterface extends JFrame {
 	 * <p>	<b><i>ControllerInterface</i></b>
 	 * <p>	<code>public ControllerInterface()</code>
 	 * <p>	Creates a new <tt>ControllerInterface</tt>.
+	 * <p>	<b>Note:</b> The interface's fonts should be registered with {@link #registerFonts()} first, or a default font is used instead.
 	 * </ul>
 	 */
 	public ControllerInterface() {
@@ -101,22 +141,16 @@ public class ControllerInterface extends JFrame {
 			entryLogger = new EntryLogger();
 		});
 		
-		//	Register Font
-		try {
-			final GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
-			ge.registerFont(Font.createFont(Font.TRUETYPE_FONT, ControllerInterface.class.getResourceAsStream("/club/minimunch57/fonts/Montserrat-Regular.ttf")));
-			ge.registerFont(Font.createFont(Font.TRUETYPE_FONT,	ControllerInterface.class.getResourceAsStream("/club/minimunch57/fonts/Montserrat-Bold.ttf")));
-			ge.registerFont(Font.createFont(Font.TRUETYPE_FONT,	ControllerInterface.class.getResourceAsStream("/club/minimunch57/fonts/Montserrat-Italic.ttf")));
-		} catch (FontFormatException | IOException e) {
-			System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Error Setting Fonts");
-			e.printStackTrace();
-		}
+		//	The fonts are registered beforehand with registerFonts(), off the EDT.
 		textFont = new Font("Montserrat", Font.BOLD, 30);
 		
 		addWindowFocusListener(new WindowAdapter() {
 			@Override
 			public void windowLostFocus(WindowEvent e) {
 				setVisible(false); // Already on the EDT.
+				if(hiddenListener != null) {
+					hiddenListener.run();
+				}
 			}
 		});
 		setType(Type.UTILITY);
@@ -138,12 +172,7 @@ public class ControllerInterface extends JFrame {
 		openButton.setForeground(Color.WHITE);
 		openButton.setFont(textFont);
 		openButton.setBounds(45, 42, 150, 100);
-		openButton.addActionListener((actionEvent) -> {
-			//	Handle request asynchronously.
-			CompletableFuture.runAsync(() -> {
-				requestListener.commandRequested(ONECommand.OPEN, null);
-			});
-		});
+		openButton.addActionListener(commandAction(ONECommand.OPEN));
 		contentPane.add(openButton);
 		
 		BeautifulButton closeButton = new BeautifulButton("Close", new Color(244, 171, 171), new Color(224, 28, 28));
@@ -152,14 +181,13 @@ public class ControllerInterface extends JFrame {
 		closeButton.setForeground(Color.WHITE);
 		closeButton.setFont(textFont);
 		closeButton.setBounds(205, 42, 150, 100);
-		closeButton.addActionListener((actionEvent) -> {
-			//	Handle request asynchronously.
-			CompletableFuture.runAsync(() -> {
-				requestListener.commandRequested(ONECommand.CLOSE, null);
-			});
-		});
+		closeButton.addActionListener(commandAction(ONECommand.CLOSE));
 		contentPane.add(closeButton);
 		
+		doorIndicator = new StateIndicator(DeviceProperty.DOOR, new Color(224, 28, 28), new Color(0, 216, 0));
+		doorIndicator.setBounds(26, 86, 14, 14);
+		contentPane.add(doorIndicator);
+		
 		BeautifulButton unlockButton = new BeautifulButton("Unlock", new Color(87, 255, 28), new Color(38, 162, 0));
 		unlockButton.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
 		unlockButton.setFocusPainted(false);
@@ -167,12 +195,7 @@ public class ControllerInterface extends JFrame {
 		unlockButton.setFont(textFont.deriveFont((float) 22));
 		unlockButton.setThickBorders(false);
 		unlockButton.setBounds(45, 153, 150, 47);
-		unlockButton.addActionListener((actionEvent) -> {
-			//	Handle request asynchronously.
-			CompletableFuture.runAsync(() -> {
-				requestListener.commandRequested(ONECommand.SYSTEM_UNLOCK, null);
-			});
-		});
+		unlockButton.addActionListener(commandAction(ONECommand.SYSTEM_UNLOCK));
 		contentPane.add(unlockButton);
 		
 		BeautifulButton lockButton = new BeautifulButton("Lock", new Color(254, 32, 42), new Color(161, 0, 4));
@@ -182,14 +205,13 @@ public class ControllerInterface extends JFrame {
 		lockButton.setFont(textFont.deriveFont((float) 22));
 		lockButton.setThickBorders(false);
 		lockButton.setBounds(45, 206, 150, 47);
-		lockButton.addActionListener((actionEvent) -> {
-			//	Handle request asynchronously.
-			CompletableFuture.runAsync(() -> {
-				requestListener.commandRequested(ONECommand.SYSTEM_LOCK, null);
-			});
-		});
+		lockButton.addActionListener(commandAction(ONECommand.SYSTEM_LOCK));
 		contentPane.add(lockButton);
 		
+		systemIndicator = new StateIndicator(DeviceProperty.SYSTEM_LOCK, new Color(254, 32, 42), new Color(87, 255, 28));
+		systemIndicator.setBounds(26, 196, 14, 14);
+		contentPane.add(systemIndicator);
+		
 		BeautifulButton manualEnableButton = new BeautifulButton("Enable", new Color(87, 255, 28), new Color(38, 162, 0));
 		manualEnableButton.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
 		manualEnableButton.setFocusPainted(false);
@@ -197,12 +219,7 @@ public class ControllerInterface extends JFrame {
 		manualEnableButton.setFont(textFont.deriveFont((float) 22));
 		manualEnableButton.setThickBorders(false);
 		manualEnableButton.setBounds(205, 153, 150, 47);
-		manualEnableButton.addActionListener((actionEvent) -> {
-			//	Handle request asynchronously.
-			CompletableFuture.runAsync(() -> {
-				requestListener.commandRequested(ONECommand.MANUALUNLOCKS_ENABLE, null);
-			});
-		});
+		manualEnableButton.addActionListener(commandAction(ONECommand.MANUALUNLOCKS_ENABLE));
 		contentPane.add(manualEnableButton);
 		
 		BeautifulButton manualDisableButton = new BeautifulButton("Disable", new Color(254, 32, 42), new Color(161, 0, 4));
@@ -212,14 +229,13 @@ public class ControllerInterface extends JFrame {
 		manualDisableButton.setFont(textFont.deriveFont((float) 22));
 		manualDisableButton.setThickBorders(false);
 		manualDisableButton.setBounds(205, 206, 150, 47);
-		manualDisableButton.addActionListener((actionEvent) -> {
-			//	Handle request asynchronously.
-			CompletableFuture.runAsync(() -> {
-				requestListener.commandRequested(ONECommand.MANUALUNLOCKS_DISABLE, null);
-			});
-		});
+		manualDisableButton.addActionListener(commandAction(ONECommand.MANUALUNLOCKS_DISABLE));
 		contentPane.add(manualDisableButton);
 		
+		manualUnlocksIndicator = new StateIndicator(DeviceProperty.MANUAL_UNLOCKS, new Color(87, 255, 28), new Color(254, 32, 42));
+		manualUnlocksIndicator.setBounds(360, 196, 14, 14);
+		contentPane.add(manualUnlocksIndicator);
+		
 		textPane = new JTextPane();
 		textPane.setCursor(Cursor.getPredefinedCursor(Cursor.TEXT_CURSOR));
 		textPane.setEditable(false);
@@ -327,37 +343,94 @@ public class ControllerInterface extends JFrame {
 		
 		//	Register Text Styles for the Text Pane
 		registerTextStyles();
-		rerouteConsolePrints();
 	}
 	
 	/**
 	 * <ul>
-	 * <p>	<b><i>getTextFrom</i></b>
-	 * <p>	<code>private String getTextFrom(final Callable c)</code>
-	 * <p>	Gets the text returned from the passed <tt>Callable</tt> as a <tt>String</tt>.
-	 * <p>	<b>Note:</b> This method is meant to ensure that the passed code executes on the EDT.
-	 * @param <S> the type of the <tt>Callable</tt>'s output.
-	 * @param c - the <tt>Callable</tt> to run and retrieve a <tt>String</tt> from.
-	 * @return a <tt>String</tt> with the text returned from the passed <tt>Callable</tt>; <code>null</code> otherwise if the <tt>Callable</tt> fails.
+	 * <p>	<b><i>registerFonts</i></b>
+	 * <p>	<code>public static void registerFonts()</code>
+	 * <p>	Loads and registers the fonts used by the interface. This does not need the EDT, so it may run while other parts of the controller start.
 	 * </ul>
 	 */
-	private <S> String getTextFrom(final Callable<S> c) {
-		final RunnableFuture<S> runnableF = new FutureTask<>(c);
-		if(SwingUtilities.isEventDispatchThread()) {
-			runnableF.run();
-		} else {
-			SwingUtilities.invokeLater(runnableF);
-		}
-		
-		//	Check if the current thread is interrupted, resetting the status and allowing the code to progress without an exception.
-		//	There should not be any intentional Thread interrupt calls, but InterruptedExceptions are occurring onDisconnect. This prevents that.
-		Thread.interrupted();
+	public static void registerFonts() {
 		try {
-			return (String) runnableF.get();
-		} catch (InterruptedException | ExecutionException e) {
+			final GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
+			ge.registerFont(Font.createFont(Font.TRUETYPE_FONT, ControllerInterface.class.getResourceAsStream("/club/minimunch57/fonts/Montserrat-Regular.ttf")));
+			ge.registerFont(Font.createFont(Font.TRUETYPE_FONT,	ControllerInterface.class.getResourceAsStream("/club/minimunch57/fonts/Montserrat-Bold.ttf")));
+			ge.registerFont(Font.createFont(Font.TRUETYPE_FONT,	ControllerInterface.class.getResourceAsStream("/club/minimunch57/fonts/Montserrat-Italic.ttf")));
+		} catch (FontFormatException | IOException e) {
+			System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Error Setting Fonts");
 			e.printStackTrace();
 		}
-		return null;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>readOnEdt</i></b>
+	 * <p>	<code>public &lt;T&gt; CompletionStage&lt;T&gt; readOnEdt(Supplier&lt;T&gt; reader)</code>
+	 * <p>	Reads state from the interface on the EDT, without blocking the calling thread.
+	 * 		If called on the EDT, the read happens immediately.
+	 * <p>	<b>Note:</b> The returned stage completes on the EDT, so any work chained onto it without an executor also runs there and should be brief.
+	 * @param <T> the type of the value read.
+	 * @param reader - the <tt>Supplier</tt> that reads the value, which is run on the EDT.
+	 * @return a <tt>CompletionStage</tt> completed with the value, or exceptionally if the read failed.
+	 * </ul>
+	 */
+	public <T> CompletionStage<T> readOnEdt(Supplier<T> reader) {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		final Runnable read = () -> {
+			try {
+				future.complete(reader.get());
+			} catch (RuntimeException re) {
+				future.completeExceptionally(re);
+			}
+		};
+		if(SwingUtilities.isEventDispatchThread()) {
+			read.run();
+		} else {
+			SwingUtilities.invokeLater(read);
+		}
+		return future;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>readConsoleText</i></b>
+	 * <p>	<code>public CompletionStage&lt;String&gt; readConsoleText()</code>
+	 * <p>	Reads all of the console's text, without blocking the calling thread.
+	 * 		To only check the console's size, use {@link #getConsoleSnapshot()}, which does not touch the EDT at all.
+	 * @return a <tt>CompletionStage</tt> completed with the text on the EDT.
+	 * </ul>
+	 */
+	public CompletionStage<String> readConsoleText() {
+		return readOnEdt(() -> textPane.getText());
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getConsoleSnapshot</i></b>
+	 * <p>	<code>public ConsoleSnapshot getConsoleSnapshot()</code>
+	 * <p>	Gets the latest snapshot of the console's size. This may be called from any thread, and never waits for the EDT.
+	 * 		Lines that have been added but are still waiting in the event queue are not counted yet.
+	 * @return the latest {@link ConsoleSnapshot}.
+	 * </ul>
+	 */
+	public ConsoleSnapshot getConsoleSnapshot() {
+		return consoleSnapshot;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>publishSnapshot</i></b>
+	 * <p>	<code>private void publishSnapshot(StyledDocument document)</code>
+	 * <p>	Replaces the console snapshot after a change to the console.
+	 * <p>	<b>Note:</b> This method must be called on the EDT.
+	 * @param document - the console's <tt>StyledDocument</tt>.
+	 * </ul>
+	 */
+	private void publishSnapshot(StyledDocument document) {
+		final int length = document.getLength();
+		consoleSnapshot = new ConsoleSnapshot(length, (length == 0) ? 0 : document.getDefaultRootElement().getElementCount(), consoleSnapshot.getVersion() + 1);
 	}
 	
 	/**
@@ -387,88 +460,205 @@ public class ControllerInterface extends JFrame {
 	
 	/**
 	 * <ul>
-	 * <p>	<b><i>rerouteConsolePrints</i></b>
-	 * <p>	<code>private void rerouteConsolePrints()</code>
-	 * <p>	Reroutes any prints to the console to the <tt>JTextPane</tt>.
-	 * <p>	<b>Note:</b> This method is only meant to be called once by the constructor.
+	 * <p>	<b><i>addLine</i></b>
+	 * <p>	<code>public void addLine(ConsoleLine line)</code>
+	 * <p>	Adds the passed line to the <tt>JTextPane</tt> in a new line, under its own style.
+	 * 		This never waits, so it is safe to call from any thread, including those that print to the console while reading from the server or holding locks.
+	 * @param line - the {@link ConsoleLine} to add.
 	 * </ul>
 	 */
-	private void rerouteConsolePrints() {
-		//	Reroute System Prints to the Text Pane
-		final OutputStream outputStream = new OutputStream() {
-			@Override
-			public void write(byte[] buffer, int offset, int length) throws IOException {
-				final String text = new String(buffer, offset, length);
-				if (text.trim().length() > 0) {
-					if(text.trim().startsWith("!M:")) {
-						addTextToPane("Message from Server: " + text.replaceFirst("!M:", ""), TextStyle.SERVER);
-					}
-					else if(text.trim().startsWith("!B:")) {
-						addTextToPane("Broadcast from Server: " + text.replaceFirst("!B:", ""), TextStyle.SERVER);
-					}
-					else if(text.trim().startsWith("!C:")) {
-						addTextToPane("Connection Message from Server: " + text.replaceFirst("!C:", ""), TextStyle.SERVER);
-					}
-					else if(text.trim().startsWith("!N:")) {
-						addTextToPane("Notification from Server: " + text.replaceFirst("!N:", ""), TextStyle.SERVER);
-					}
-					else if(text.trim().startsWith("!R:")) {
-						addTextToPane("Response from Server: " + text.replaceFirst("!R:", ""), TextStyle.SERVER);
-					}
-					else if(text.trim().startsWith("!ERR:")) {
-						addTextToPane(text.replaceFirst("!ERR:", ""), TextStyle.CONSOLE_ERROR);
-					}
-					else {
-						addTextToPane(text, TextStyle.TEXT);
-					}
-				}
-			}
-
-			@Override
-			public void write(int b) throws IOException {
-				write(new byte[] { (byte) b }, 0, 1);
-			}
-		};
-		final OutputStream outputStreamErr = new OutputStream() {
-			@Override
-			public void write(byte[] buffer, int offset, int length) throws IOException {
-				final String text = new String(buffer, offset, length);
-				if (text.startsWith("Exception")) {
-					addTextToPane(text, TextStyle.CONSOLE_ERROR);
-				} else {
-					appendTextToPane(text, TextStyle.CONSOLE_ERROR);
+	public void addLine(ConsoleLine line) {
+		addTextToPane(line.getText(), line.getStyle());
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>addLineThrottled</i></b>
+	 * <p>	<code>public void addLineThrottled(ConsoleLine line)</code>
+	 * <p>	Adds the passed line as {@link #addLine(ConsoleLine)} does, but if too many lines are already waiting for the EDT, the calling thread waits for room first.
+	 * 		This is how messages from the server reach the console, without being printed and classified by their type prefix again.
+	 * 		The console's subscriber then falls behind instead of the EDT, which lets it shed broadcasts during a flood.
+	 * <p>	<b>Note:</b> This method is only meant to be called by the console's subscriber, which has its own thread to wait on.
+	 * @param line - the {@link ConsoleLine} to add.
+	 * </ul>
+	 */
+	public void addLineThrottled(ConsoleLine line) {
+		if(!SwingUtilities.isEventDispatchThread()) {
+			awaitPendingRoom();
+		}
+		addLine(line);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>awaitPendingRoom</i></b>
+	 * <p>	<code>private void awaitPendingRoom()</code>
+	 * <p>	Waits until fewer than {@link #MAX_PENDING_LINES} lines are waiting for the EDT, or until {@link #MAX_PENDING_WAIT} has passed.
+	 * <p>	<b>Note:</b> This method must not be called on the EDT.
+	 * </ul>
+	 */
+	private void awaitPendingRoom() {
+		final long deadline = System.currentTimeMillis() + MAX_PENDING_WAIT;
+		synchronized(pendingText) {
+			long remaining;
+			while(pendingText.size() >= MAX_PENDING_LINES && (remaining = deadline - System.currentTimeMillis()) > 0) {
+				try {
+					pendingText.wait(remaining);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return;
 				}
 			}
-
-			@Override
-			public void write(int b) throws IOException {
-				write(new byte[] { (byte) b }, 0, 1);
+		}
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>addText</i></b>
+	 * <p>	<code>public void addText(String text, TextStyle style, boolean newLine)</code>
+	 * <p>	Adds the passed text to the <tt>JTextPane</tt> under the specified style, either in a new line or continuing the last one.
+	 * 		This is used for output that arrives in pieces, such as stack traces.
+	 * @param text - a <tt>String</tt> with the text to add.
+	 * @param style - a <tt>TextStyle</tt> for the text style to use.
+	 * @param newLine - whether or not to start a new line first.
+	 * </ul>
+	 */
+	public void addText(String text, TextStyle style, boolean newLine) {
+		appendTextToPane(text, style, newLine);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>replay</i></b>
+	 * <p>	<code>public void replay(List&lt;ConsoleLine&gt; lines)</code>
+	 * <p>	Adds the passed lines to the <tt>JTextPane</tt> all at once, such as the backlog kept while the interface was released.
+	 * <p>	<b>Note:</b> This method must be called on the EDT, before any other text is added.
+	 * @param lines - the <tt>List</tt> of {@link ConsoleLine}s to add, oldest first.
+	 * </ul>
+	 */
+	public void replay(List<ConsoleLine> lines) {
+		final StyledDocument document = textPane.getStyledDocument();
+		try {
+			for(ConsoleLine line : lines) {
+				document.insertString(document.getLength(), (document.getLength() > 0) ? "\n" + line.getText() : line.getText(), document.getStyle(line.getStyle().name()));
 			}
-		};
-		System.setOut(new PrintStream(outputStream));
-		System.setErr(new PrintStream(outputStreamErr));
+		} catch (BadLocationException ble) {
+			ble.printStackTrace();
+		}
+		trimConsole(document);
+		publishSnapshot(document);
+		scrollToBottom();
 	}
 	
 	/**
 	 * <ul>
 	 * <p>	<b><i>appendTextToPane</i></b>
-	 * <p>	<code>private void appendTextToPane(String text, TextStyle style)</code>
+	 * <p>	<code>private void appendTextToPane(String text, TextStyle style, boolean newLine)</code>
 	 * <p>	Appends the passed <code>text</code> to the <tt>JTextPane</tt> under the specified style.
+	 * 		The text waits with any other text added since the last flush, and all of it is added by a single task on the EDT, in order.
+	 * 		Whether a line break is needed first is decided on the EDT, so the calling thread never reads the console.
 	 * @param text - a <tt>String</tt> with the text to append.
 	 * @param style - a <tt>TextStyle</tt> for the text style to use when appending the text.
+	 * @param newLine - whether or not to start a new line first, unless the console is empty.
 	 * </ul>
 	 */
-	private void appendTextToPane(String text, TextStyle style) {
-		SwingUtilities.invokeLater(() -> {
+	private void appendTextToPane(String text, TextStyle style, boolean newLine) {
+		synchronized(pendingText) {
+			pendingText.add(new PendingText(text, style, newLine));
+			if(flushScheduled) {
+				return;
+			}
+			flushScheduled = true;
+		}
+		invokeLaterTimed(this::flushPendingText);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>flushPendingText</i></b>
+	 * <p>	<code>private void flushPendingText()</code>
+	 * <p>	Adds all of the text waiting for the console at once, then trims the console, publishes its snapshot and scrolls to the bottom once for all of it.
+	 * 		During a burst of messages, this keeps the EDT's work to one task for many lines, so the interface stays responsive.
+	 * <p>	<b>Note:</b> This method must be called on the EDT.
+	 * </ul>
+	 */
+	private void flushPendingText() {
+		final PendingText[] batch;
+		synchronized(pendingText) {
+			batch = pendingText.toArray(new PendingText[pendingText.size()]);
+			pendingText.clear();
+			flushScheduled = false;
+			pendingText.notifyAll();
+		}
+		final ConsoleFlushEvent event = ControllerEvents.isEnabled() ? new ConsoleFlushEvent() : null;
+		if(event != null) {
+			event.begin();
+		}
+		final StyledDocument document = textPane.getStyledDocument();
+		final Element root = document.getDefaultRootElement();
+		final boolean wasEmpty = document.getLength() < 1;
+		final int linesBefore = root.getElementCount();
+		int length = 0;
+		for(PendingText pending : batch) {
 			try {
-				textPane.getStyledDocument().insertString(textPane.getStyledDocument().getLength(), text, textPane.getStyledDocument().getStyle(style.name()));
+				document.insertString(document.getLength(), (pending.newLine && document.getLength() > 0) ? "\n" + pending.text : pending.text, document.getStyle(pending.style.name()));
 			} catch (BadLocationException ble) {
 				ble.printStackTrace();
 			}
-		});
+			length += pending.text.length();
+		}
+		ControllerMetrics.get().consoleLinesAppended(root.getElementCount() - linesBefore + (wasEmpty && document.getLength() > 0 ? 1 : 0));
+		trimConsole(document);
+		publishSnapshot(document);
+		if(event != null && event.shouldCommit()) {
+			event.length = length;
+			event.lines = root.getElementCount();
+			event.commit();
+		}
 		scrollToBottom();
 	}
 	
+	/**
+	 * <ul>
+	 * <p>	<b><i>trimConsole</i></b>
+	 * <p>	<code>private void trimConsole(StyledDocument document)</code>
+	 * <p>	Removes the oldest lines from the console once it holds more than its maximum number of lines.
+	 * 		A tenth of the maximum is removed beyond what is needed, so that trimming happens in occasional batches rather than on every line.
+	 * <p>	<b>Note:</b> This method must be called on the EDT.
+	 * @param document - the console's <tt>StyledDocument</tt>.
+	 * </ul>
+	 */
+	private void trimConsole(StyledDocument document) {
+		final Element root = document.getDefaultRootElement();
+		final int lines = root.getElementCount();
+		if(lines <= MAX_CONSOLE_LINES) {
+			return;
+		}
+		final int remove = lines - MAX_CONSOLE_LINES + MAX_CONSOLE_LINES / 10;
+		try {
+			document.remove(0, root.getElement(remove - 1).getEndOffset());
+			ControllerMetrics.get().consoleLinesTrimmed(remove);
+		} catch (BadLocationException ble) {
+			ble.printStackTrace();
+		}
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>invokeLaterTimed</i></b>
+	 * <p>	<code>private static void invokeLaterTimed(Runnable task)</code>
+	 * <p>	Runs the passed task on the EDT with <code>SwingUtilities.invokeLater()</code>, recording how long it waited in the event queue.
+	 * @param task - the <tt>Runnable</tt> to run.
+	 * </ul>
+	 */
+	private static void invokeLaterTimed(Runnable task) {
+		final long postedNanos = System.nanoTime();
+		SwingUtilities.invokeLater(() -> {
+			ControllerMetrics.get().edtTaskStarted(postedNanos);
+			task.run();
+		});
+	}
+	
 	/**
 	 * <ul>
 	 * <p>	<b><i>addTextToPane</i></b>
@@ -479,12 +669,7 @@ public class ControllerInterface extends JFrame {
 	 * </ul>
 	 */
 	private void addTextToPane(String text, TextStyle style) {
-		if(getTextFrom(() -> textPane.getText()).length() < 1) {
-			appendTextToPane(text, style);
-		}
-		else {
-			appendTextToPane("\n" + text, style);
-		}
+		appendTextToPane(text, style, true);
 	}
 	
 	/**
@@ -495,7 +680,7 @@ public class ControllerInterface extends JFrame {
 	 * </ul>
 	 */
 	private void scrollToBottom() {
-		SwingUtilities.invokeLater(() -> {
+		invokeLaterTimed(() -> {
 			textPane.scrollRectToVisible(new Rectangle(0, Integer.MAX_VALUE-1, (int) scrollPane.getViewportBorderBounds().getWidth(), (int) scrollPane.getViewportBorderBounds().getHeight()));
 		});
 	}
@@ -511,97 +696,22 @@ public class ControllerInterface extends JFrame {
 	 * </ul>
 	 */
 	private void parseTextInput(String text) {
-		//	Trim spaces off of the ends then add text to pane.
-		text = text.trim();
-		addTextToPane("> " + text, TextStyle.TEXT);
-
-		//	Determine command arguments (if any).
-		String command = text.toUpperCase();
-		String[] commandArgs = null;
-		final int spaceIndex = text.indexOf(' ');
-		if(spaceIndex != -1) {
-			//	Change command to be all text before the first space.
-			command = text.substring(0, spaceIndex).toUpperCase();
-			//	Split the text by the spaces, then convert each argument to full uppercase.
-			commandArgs = text.substring(spaceIndex + 1).split(" ");
-			commandArgs = Arrays.asList(commandArgs).stream().map(a -> a.toUpperCase()).toArray(String[]::new);
-		}
+		//	Parse the input then add its trimmed text to pane.
+		final ParsedInput input = CommandParser.parse(text);
+		System.out.println("> " + input.getText());
 		
-		//	Create unset enums then match a command if available.
-		ONECommand sysCommand = null;
-		ControllerCommand conCommand = null;
-		
-		//	ONECommand Matching
-		if(command.equals("OPEN") || command.equals("UNLOCK")) {
-			sysCommand = ONECommand.OPEN;
-		}
-		else if(command.equals("CLOSE") || command.equals("LOCK")) {
-			sysCommand = ONECommand.CLOSE;
-		}
-		else if(command.equals("SYSTEM") && commandArgs != null) {
-			if(commandArgs[0].equals("UNLOCK")) {
-				sysCommand = ONECommand.SYSTEM_UNLOCK;
-			}
-			else if(commandArgs[0].equals("LOCK")) {
-				sysCommand = ONECommand.SYSTEM_LOCK;
-			}
-		}
-		else if(command.equals("MANUAL") && commandArgs != null && commandArgs[0].equals("UNLOCKS") && commandArgs.length > 1) {
-			if(commandArgs[1].equals("ENABLE")) {
-				sysCommand = ONECommand.MANUALUNLOCKS_ENABLE;
-			}
-			else if(commandArgs[1].equals("DISABLE")) {
-				sysCommand = ONECommand.MANUALUNLOCKS_DISABLE;
-			}
-		}
-		else if(command.equals("MU") && commandArgs != null) {
-			if(commandArgs[0].equals("ENABLE")) {
-				sysCommand = ONECommand.MANUALUNLOCKS_ENABLE;
-			}
-			else if(commandArgs[0].equals("DISABLE")) {
-				sysCommand = ONECommand.MANUALUNLOCKS_DISABLE;
-			}
-		}
-		else if(command.equals("POKE")) {
-			sysCommand = ONECommand.POKE;
-		}
-		else if(command.equals("CONNECT")) {
-			sysCommand = ONECommand.CONNECT;
-		}
-		else if(command.equals("DISCONNECT")) {
-			sysCommand = ONECommand.DISCONNECT;
-		}
-		else if(command.equals("RECONNECT")) {
-			sysCommand = ONECommand.RECONNECT;
-		}
-		else if(command.equals("PING")) {
-			sysCommand = ONECommand.PING;
-		}
-		
-		//	ControllerCommand Matching
-		if(command.equals("EXIT")) {
-			conCommand = ControllerCommand.EXIT;
-		}
-		else if(command.equals("GC")) {
-			conCommand = ControllerCommand.GC;
-		}
-		else if(command.equals("CLEAR")) {
-			conCommand = ControllerCommand.CLEAR;
-		}
-		else if(command.equals("VERSION")) {
-			conCommand = ControllerCommand.VERSION;
-			addTextToPane("Controller Version: " + Controller.CURRENT_VERSION, TextStyle.TEXT);
-		}
+		final ONECommand sysCommand = input.getSystemCommand();
+		final ControllerCommand conCommand = input.getControllerCommand();
 		
 		//	Make request based on results.
 		if(sysCommand != null) {
-			requestListener.commandRequested(sysCommand, commandArgs);
+			requestListener.commandRequested(sysCommand, input.getArgs());
 		}
 		else if(conCommand != null) {
-			requestListener.controllerChangeRequested(conCommand);
+			requestListener.controllerChangeRequested(conCommand, input.getArgs());
 		}
 		else {
-			requestListener.messageRequested(text);
+			requestListener.messageRequested(input.getText());
 		}
 	}
 	
@@ -613,8 +723,9 @@ public class ControllerInterface extends JFrame {
 	 * </ul>
 	 */
 	public void clearConsole() {
-		SwingUtilities.invokeLater(() -> {
+		invokeLaterTimed(() -> {
 			textPane.setText("");
+			publishSnapshot(textPane.getStyledDocument());
 		});
 	}
 	
@@ -653,4 +764,137 @@ public class ControllerInterface extends JFrame {
 	public void setRequestListener(RequestListener rl) {
 		requestListener = rl;
 	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>commandAction</i></b>
+	 * <p>	<code>private ActionListener commandAction(ONECommand command)</code>
+	 * <p>	Creates the action of a button that requests a system command.
+	 * 		The request is created once here and handed to the same thread on every click, so a click allocates nothing before the command is sent.
+	 * 		Clicks made while 16 commands are still waiting to be handled are refused with an error.
+	 * @param command - the {@link ONECommand} the button requests.
+	 * @return the <tt>ActionListener</tt> to add to the button.
+	 * </ul>
+	 */
+	private ActionListener commandAction(ONECommand command) {
+		final Runnable request = new ButtonCommand(command);
+		return (actionEvent) -> COMMAND_EXECUTOR.execute(request);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>showState</i></b>
+	 * <p>	<code>public void showState(DeviceState state)</code>
+	 * <p>	Shows the passed state on the lights next to the buttons.
+	 * <p>	<b>Note:</b> This method must be called on the EDT.
+	 * @param state - the <tt>DeviceState</tt> to show.
+	 * </ul>
+	 */
+	public void showState(DeviceState state) {
+		doorIndicator.setState(state);
+		systemIndicator.setState(state);
+		manualUnlocksIndicator.setState(state);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>setHiddenListener</i></b>
+	 * <p>	<code>public void setHiddenListener(Runnable listener)</code>
+	 * <p>	Sets the <tt>Runnable</tt> that is run on the EDT each time this <tt>ControllerInterface</tt> hides itself after losing focus.
+	 * @param listener - the <tt>Runnable</tt> to run.
+	 * </ul>
+	 */
+	public void setHiddenListener(Runnable listener) {
+		hiddenListener = listener;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getHistorySize</i></b>
+	 * <p>	<code>public int getHistorySize()</code>
+	 * <p>	Gets the number of entries in the command history.
+	 * @return an <code>int</code> with the size, which is <code>0</code> until the history has been created.
+	 * </ul>
+	 */
+	public int getHistorySize() {
+		final EntryLogger logger = entryLogger;
+		return (logger == null) ? 0 : logger.getSize();
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>close</i></b>
+	 * <p>	<code>public void close()</code>
+	 * <p>	Disposes of this <tt>ControllerInterface</tt>, releasing its window and stopping its command history, so that it can be garbage collected.
+	 * <p>	<b>Note:</b> This method must be called on the EDT. This <tt>ControllerInterface</tt> should not be used afterwards.
+	 * </ul>
+	 */
+	public void close() {
+		dispose();
+		final EntryLogger logger = entryLogger;
+		if(logger != null) {
+			logger.close();
+		}
+	}
+	
+	/**
+	 *
+	 * The request a button hands to the command thread on every click, naming its command so that a refused click can be reported.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	private final class ButtonCommand implements Runnable {
+		/** The {@link ONECommand} the button requests. */
+		private final ONECommand command;
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>ButtonCommand</i></b>
+		 * <p>	<code>private ButtonCommand(ONECommand command)</code>
+		 * <p>	Creates the request for a button.
+		 * @param command - the {@link ONECommand} the button requests.
+		 * </ul>
+		 */
+		private ButtonCommand(ONECommand command) {
+			this.command = command;
+		}
+
+		@Override
+		public void run() {
+			requestListener.commandRequested(command, null);
+		}
+	}
+
+	/**
+	 * 
+	 * Text waiting to be added to the console by the next flush on the EDT.
+	 * 
+	 * @author Matthew Whitney
+	 *
+	 */
+	private static final class PendingText {
+		/** A <tt>String</tt> with the text to add. */
+		private final String text;
+		/** The <tt>TextStyle</tt> to add the text under. */
+		private final TextStyle style;
+		/** A <code>boolean</code> for whether or not to start a new line first, unless the console is empty. */
+		private final boolean newLine;
+		
+		/**
+		 * <ul>
+		 * <p>	<b><i>PendingText</i></b>
+		 * <p>	<code>private PendingText(String text, TextStyle style, boolean newLine)</code>
+		 * <p>	Creates new text waiting to be added to the console.
+		 * @param text - a <tt>String</tt> with the text.
+		 * @param style - the <tt>TextStyle</tt> to add it under.
+		 * @param newLine - whether or not to start a new line first.
+		 * </ul>
+		 */
+		private PendingText(String text, TextStyle style, boolean newLine) {
+			this.text = text;
+			this.style = style;
+			this.newLine = newLine;
+		}
+	}
 }
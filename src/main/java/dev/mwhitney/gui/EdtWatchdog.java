@@ -0,0 +1,330 @@
+package dev.mwhitney.gui;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.event.InputEvent;
+import java.awt.event.InvocationEvent;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import dev.mwhitney.metrics.ControllerMetrics;
+
+/**
+ *
+ * An <tt>EventQueue</tt> that watches the Swing event dispatch thread (EDT) for tasks that make the interface unresponsive.
+ * <p>	Every event dispatched is timed. A task that runs for longer than the threshold is reported with the EDT's stack
+ * 		by a separate watchdog thread as soon as it crosses the threshold, while the task is still running, so the report shows where it is stuck
+ * 		even if it never returns. The report is completed with how long the task ran once it does.
+ * 		Tasks that only waited too long in the queue, behind a stalled task, are counted rather than reported individually.
+ * <p>	Reports are appended to a log file and kept in memory for the <code>STALLS</code> command.
+ * 		Timing an event costs two <code>System.nanoTime()</code> calls, so the watchdog may be left on in production.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class EdtWatchdog extends EventQueue {
+
+	//	Static Return Values
+	/** A <code>long</code> for the default stall threshold, in milliseconds. */
+	final public static long DEFAULT_THRESHOLD = 50;
+	/** An <code>int</code> for the number of recent reports kept in memory. */
+	final private static int MAX_REPORTS = 20;
+	/** An <code>int</code> for the number of stack frames written to the log for each report. */
+	final private static int LOG_FRAMES = 40;
+	/** An <code>int</code> for the number of stack frames shown by the <code>STALLS</code> command for each report. */
+	final private static int CONSOLE_FRAMES = 12;
+
+	//	Variables
+	/** A <code>long</code> for the stall threshold, in nanoseconds. */
+	private final long thresholdNanos;
+	/** The <tt>Path</tt> of the file that reports are appended to. */
+	private final Path logPath;
+	/** The <tt>Thread</tt> that captures the EDT's stack during a stall and writes reports to the log. */
+	private final Thread watchdogThread;
+	/** The <tt>ArrayDeque</tt> of the most recent reports, oldest first. Guarded by itself. */
+	private final ArrayDeque<StallReport> recentReports = new ArrayDeque<>(MAX_REPORTS);
+	/** The <tt>ConcurrentLinkedQueue</tt> of reports that have not been written to the log yet. */
+	private final ConcurrentLinkedQueue<StallReport> unloggedReports = new ConcurrentLinkedQueue<>();
+	/** An <tt>AtomicLong</tt> count of stall reports. */
+	private final AtomicLong stalls = new AtomicLong();
+	/** An <tt>AtomicLong</tt> count of tasks that only waited longer than the threshold in the queue. */
+	private final AtomicLong delayedTasks = new AtomicLong();
+	/** An <tt>AtomicLong</tt> holding the longest time, in milliseconds, a task waited in the queue. */
+	private final AtomicLong maxQueueMillis = new AtomicLong();
+
+	//	Current Dispatch
+	/** The <tt>Thread</tt> dispatching events, which may change if the EDT is replaced after an exception. */
+	private volatile Thread edtThread;
+	/** A <code>long</code> for the <code>System.nanoTime()</code> at which the current dispatch started, or <code>0</code> if idle. */
+	private volatile long dispatchStart;
+	/** A <code>long</code> for the sequence number of the current dispatch. Only written by the EDT. */
+	private volatile long dispatchSequence;
+	/** The <tt>AWTEvent</tt> being dispatched, or <code>null</code> if idle. */
+	private volatile AWTEvent currentEvent;
+	/** A <code>long</code> for how long the current event waited in the queue, in milliseconds, or <code>-1</code> if unknown. */
+	private volatile long dispatchQueueMillis;
+	/** A <code>long</code> for the sequence number of the last dispatch the watchdog thread looked at after it crossed the threshold. */
+	private volatile long checkedSequence;
+	/** The <tt>Object</tt> that guards {@link #runningReport} and the end of a stalled dispatch, so that a report is never made while its task finishes. */
+	private final Object stallLock = new Object();
+	/** The <tt>StallReport</tt> of the current dispatch, made while it was still running, or <code>null</code>. Guarded by {@link #stallLock}. */
+	private StallReport runningReport;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>EdtWatchdog</i></b>
+	 * <p>	<code>private EdtWatchdog(long thresholdMillis, Path logPath)</code>
+	 * <p>	Creates a new <tt>EdtWatchdog</tt>. Use {@link #install(long, Path)} to create and start one.
+	 * @param thresholdMillis - a <code>long</code> for the stall threshold, in milliseconds.
+	 * @param logPath - the <tt>Path</tt> of the file to append reports to.
+	 * </ul>
+	 */
+	private EdtWatchdog(long thresholdMillis, Path logPath) {
+		this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+		this.logPath = logPath;
+		this.watchdogThread = new Thread(this::watch, "ONE-EDT-Watchdog");
+		this.watchdogThread.setDaemon(true);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>install</i></b>
+	 * <p>	<code>public static EdtWatchdog install(long thresholdMillis, Path logPath)</code>
+	 * <p>	Creates a new <tt>EdtWatchdog</tt>, replaces the system event queue with it, and starts watching.
+	 * <p>	<b>Note:</b> This should be called before the GUI is created, so that every event is watched.
+	 * @param thresholdMillis - a <code>long</code> for the stall threshold, in milliseconds.
+	 * @param logPath - the <tt>Path</tt> of the file to append reports to.
+	 * @return the installed <tt>EdtWatchdog</tt>.
+	 * </ul>
+	 */
+	public static EdtWatchdog install(long thresholdMillis, Path logPath) {
+		final EdtWatchdog watchdog = new EdtWatchdog(thresholdMillis, logPath);
+		Toolkit.getDefaultToolkit().getSystemEventQueue().push(watchdog);
+		watchdog.watchdogThread.start();
+		return watchdog;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getConfiguredThreshold</i></b>
+	 * <p>	<code>public static long getConfiguredThreshold()</code>
+	 * <p>	Gets the stall threshold set with the <code>one.edt.watchdog</code> system property, which enables the watchdog.
+	 * 		The property may be a number of milliseconds, or <code>true</code> for the {@link #DEFAULT_THRESHOLD}.
+	 * @return a <code>long</code> with the threshold in milliseconds, or <code>-1</code> if the watchdog is not enabled.
+	 * </ul>
+	 */
+	public static long getConfiguredThreshold() {
+		final String value = System.getProperty("one.edt.watchdog");
+		if(value == null || value.equalsIgnoreCase("false")) {
+			return -1;
+		}
+		if(value.isBlank() || value.equalsIgnoreCase("true")) {
+			return DEFAULT_THRESHOLD;
+		}
+		try {
+			return Math.max(1, Long.parseLong(value.trim()));
+		} catch (NumberFormatException nfe) {
+			return DEFAULT_THRESHOLD;
+		}
+	}
+
+	@Override
+	protected void dispatchEvent(AWTEvent event) {
+		dispatchSequence = dispatchSequence + 1;
+		edtThread = Thread.currentThread();
+		final long postedMillis = postedTimeOf(event);
+		final long queueMillis = (postedMillis > 0) ? System.currentTimeMillis() - postedMillis : -1;
+		currentEvent = event;
+		dispatchQueueMillis = queueMillis;
+		final long start = System.nanoTime();
+		dispatchStart = start;
+		try {
+			super.dispatchEvent(event);
+		} finally {
+			final long runNanos = System.nanoTime() - start;
+			if(runNanos >= thresholdNanos) {
+				//	The watchdog thread may have reported this task while it ran, in which case the report only needs to be finished.
+				final StallReport running;
+				synchronized(stallLock) {
+					dispatchStart = 0;
+					running = runningReport;
+					runningReport = null;
+				}
+				if(running != null) {
+					running.finish(System.currentTimeMillis(), TimeUnit.NANOSECONDS.toMillis(runNanos));
+					unloggedReports.add(running);
+				}
+				else {
+					report(new StallReport(System.currentTimeMillis(), describeEvent(event), queueMillis, TimeUnit.NANOSECONDS.toMillis(runNanos), null));
+				}
+			}
+			else {
+				dispatchStart = 0;
+				if(queueMillis >= TimeUnit.NANOSECONDS.toMillis(thresholdNanos)) {
+					delayedTasks.incrementAndGet();
+				}
+			}
+			currentEvent = null;
+			if(queueMillis > 0) {
+				maxQueueMillis.accumulateAndGet(queueMillis, Math::max);
+			}
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>postedTimeOf</i></b>
+	 * <p>	<code>private static long postedTimeOf(AWTEvent event)</code>
+	 * <p>	Gets the time an event was posted, for the kinds of events that record it.
+	 * @param event - the <tt>AWTEvent</tt> being dispatched.
+	 * @return a <code>long</code> with the wall-clock time in milliseconds, or <code>0</code> if unknown.
+	 * </ul>
+	 */
+	private static long postedTimeOf(AWTEvent event) {
+		if(event instanceof InvocationEvent) {
+			return ((InvocationEvent) event).getWhen();
+		}
+		else if(event instanceof InputEvent) {
+			return ((InputEvent) event).getWhen();
+		}
+		return 0;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describeEvent</i></b>
+	 * <p>	<code>private static String describeEvent(AWTEvent event)</code>
+	 * <p>	Describes an event for a report. Tasks posted with <code>invokeLater()</code> are described by their <tt>Runnable</tt>, which names the class that posted them.
+	 * @param event - the <tt>AWTEvent</tt> to describe.
+	 * @return a <tt>String</tt> with the description.
+	 * </ul>
+	 */
+	private static String describeEvent(AWTEvent event) {
+		final String params = event.paramString();
+		if(event instanceof InvocationEvent) {
+			final int start = params.indexOf("runnable=");
+			if(start >= 0) {
+				final int end = params.indexOf(',', start);
+				final String runnable = params.substring(start + 9, (end < 0) ? params.length() : end);
+				//	Lambdas are named after the class that declared them, followed by an address that is of no use in a report.
+				final int lambda = runnable.indexOf("$$Lambda");
+				return (lambda < 0) ? runnable : runnable.substring(0, lambda) + " (lambda)";
+			}
+		}
+		final int end = params.indexOf(',');
+		return event.getClass().getSimpleName() + " " + ((end < 0) ? params : params.substring(0, end));
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>report</i></b>
+	 * <p>	<code>private void report(StallReport report)</code>
+	 * <p>	Keeps a report for the <code>STALLS</code> command and queues it to be written to the log.
+	 * @param report - the <tt>StallReport</tt>.
+	 * </ul>
+	 */
+	private void report(StallReport report) {
+		stalls.incrementAndGet();
+		ControllerMetrics.get().edtStalled();
+		synchronized(recentReports) {
+			if(recentReports.size() == MAX_REPORTS) {
+				recentReports.removeFirst();
+			}
+			recentReports.addLast(report);
+		}
+		unloggedReports.add(report);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>watch</i></b>
+	 * <p>	<code>private void watch()</code>
+	 * <p>	The watchdog thread's loop. Twice per threshold, it checks if the current dispatch has run past the threshold.
+	 * 		If it has, the EDT's stack is captured and the task is reported straight away, while it is still running, once per stalled dispatch.
+	 * 		Any new reports are then written to the log.
+	 * </ul>
+	 */
+	private void watch() {
+		while(!Thread.currentThread().isInterrupted()) {
+			LockSupport.parkNanos(thresholdNanos / 2);
+			final long start = dispatchStart;
+			final long sequence = dispatchSequence;
+			final long now = System.nanoTime();
+			if(start != 0 && checkedSequence != sequence && now - start >= thresholdNanos) {
+				checkedSequence = sequence;
+				final AWTEvent event = currentEvent;
+				final long queueMillis = dispatchQueueMillis;
+				final StackTraceElement[] stack = edtThread.getStackTrace();
+				synchronized(stallLock) {
+					//	Only report the task if the same dispatch is still running, or the EDT has already reported it itself.
+					if(dispatchSequence == sequence && dispatchStart != 0 && event != null) {
+						runningReport = new StallReport(System.currentTimeMillis(), describeEvent(event), queueMillis, TimeUnit.NANOSECONDS.toMillis(now - start), stack, true);
+						report(runningReport);
+					}
+				}
+			}
+			writeReports();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>writeReports</i></b>
+	 * <p>	<code>private void writeReports()</code>
+	 * <p>	Appends any reports that have not been logged yet to the log file.
+	 * </ul>
+	 */
+	private void writeReports() {
+		if(unloggedReports.isEmpty()) {
+			return;
+		}
+		final StringBuilder builder = new StringBuilder();
+		StallReport report;
+		while((report = unloggedReports.poll()) != null) {
+			final String description = report.describeForLog(LOG_FRAMES);
+			if(description != null) {
+				builder.append(description).append(System.lineSeparator());
+			}
+		}
+		if(builder.length() == 0) {
+			return;
+		}
+		try {
+			Files.createDirectories(logPath.getParent());
+			Files.writeString(logPath, builder, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		} catch (IOException ioe) {
+			System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Could not write to the stall log. (" + ioe.getMessage() + ")");
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describeStalls</i></b>
+	 * <p>	<code>public List&lt;String&gt; describeStalls()</code>
+	 * <p>	Describes the watchdog's totals and its most recent reports, with a shortened stack for each, for the <code>STALLS</code> command.
+	 * @return a <tt>List</tt> of <tt>String</tt> lines to print.
+	 * </ul>
+	 */
+	public List<String> describeStalls() {
+		final List<String> lines = new ArrayList<>();
+		lines.add("<#> EDT watchdog (threshold " + TimeUnit.NANOSECONDS.toMillis(thresholdNanos) + " ms): " + stalls.get() + " stalled tasks, "
+			+ delayedTasks.get() + " more delayed in the queue, longest queue wait " + maxQueueMillis.get() + " ms. Full reports are in " + logPath + ".");
+		synchronized(recentReports) {
+			for(StallReport report : recentReports) {
+				lines.add(report.describe(CONSOLE_FRAMES));
+			}
+		}
+		return lines;
+	}
+}
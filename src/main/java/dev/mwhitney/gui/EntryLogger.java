@@ -72,12 +72,14 @@ public class EntryLogger {
 					try {
 						Thread.sleep(5000);
 					} catch (InterruptedException ie) {
+						//	Interrupted by close().
 						interrupt();
-						ie.printStackTrace();
 					}
 				}
 			}
 		};
+		expireCheckThread.setName("ONE-EntryLogger-Expiry");
+		expireCheckThread.setDaemon(true);
 		expireCheckThread.start();
 	}
 	
@@ -187,6 +189,18 @@ public class EntryLogger {
 		entries.clear();
 	}
 	
+	/**
+	 * <ul>
+	 * <p>	<b><i>close</i></b>
+	 * <p>	<code>public void close()</code>
+	 * <p>	Clears every <tt>Entry</tt> and stops the thread that removes expired entries. This <tt>EntryLogger</tt> should not be used afterwards.
+	 * </ul>
+	 */
+	public void close() {
+		expireCheckThread.interrupt();
+		clear();
+	}
+	
 	/**
 	 * <ul>
 	 * <p>	<b><i>isExpired</i></b>
@@ -0,0 +1,469 @@
+package dev.mwhitney.gui;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import dev.mwhitney.console.ConsoleLine;
+import dev.mwhitney.enums.TextStyle;
+import dev.mwhitney.listeners.RequestListener;
+import dev.mwhitney.main.StartupReport;
+import dev.mwhitney.metrics.ControllerMetrics;
+import dev.mwhitney.state.DeviceState;
+
+/**
+ *
+ * Owns the {@link ControllerInterface} for the lifetime of the controller, so that the controller can run from the tray alone with a small footprint.
+ * <p>	Every line shown in the console is also kept in a compact backlog of the most recent lines.
+ * 		Once the interface has been hidden for the configured idle period, its window, console and command history are released, leaving only the backlog.
+ * 		Displaying it again builds a new interface and replays the backlog into it.
+ * <p>	The period is read from the <code>one.gui.releaseAfter</code> system property, in milliseconds. Without it, the interface is never released.
+ * 		The size of the backlog is read from <code>one.gui.backlogLines</code>.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class InterfaceManager {
+
+	//	Static Return Values
+	/** An <code>int</code> for the number of lines kept in the backlog if none is configured. */
+	final public static int DEFAULT_BACKLOG_LINES = 500;
+	/** A <code>long</code> for the idle period that never releases the interface. */
+	final public static long NEVER = -1;
+
+	//	Variables
+	/** An <code>int</code> for the maximum number of lines kept in the backlog. */
+	private final int backlogLines;
+	/** A <code>long</code> for the milliseconds the interface stays hidden before it is released, or {@link #NEVER}. */
+	private final long releaseAfter;
+	/** The <tt>ArrayDeque</tt> of the most recent lines shown in the console, oldest first. Guarded by itself. */
+	private final ArrayDeque<ConsoleLine> backlog;
+	/** The current <tt>ControllerInterface</tt>, or <code>null</code> while it is released. Only changed on the EDT, while holding the backlog's lock. */
+	private volatile ControllerInterface frame;
+	/** The <tt>RequestListener</tt> given to every interface that is built. */
+	private volatile RequestListener requestListener;
+	/** The latest <tt>DeviceState</tt> to show, kept so that a rebuilt interface shows it too, or <code>null</code> if none has been reported. */
+	private volatile DeviceState latestState;
+	/** The <tt>Timer</tt> that releases the interface once it has been hidden for long enough, or <code>null</code> if it is never released. */
+	private final Timer releaseTimer;
+	/** An <code>int</code> for the number of times the interface has been released. */
+	private volatile int releases = 0;
+	/** A <code>long</code> for the milliseconds taken to rebuild the interface the last time it was displayed after a release, or <code>-1</code>. */
+	private volatile long lastRebuildMillis = -1;
+	/** A <code>long</code> for the resident memory, in kilobytes, before and after the last release, or <code>-1</code> if not measured. */
+	private volatile long hiddenKB = -1, releasedKB = -1;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>InterfaceManager</i></b>
+	 * <p>	<code>public InterfaceManager()</code>
+	 * <p>	Creates a new <tt>InterfaceManager</tt> configured by the <code>one.gui.releaseAfter</code> and <code>one.gui.backlogLines</code> system properties.
+	 * </ul>
+	 */
+	public InterfaceManager() {
+		this(Integer.getInteger("one.gui.backlogLines", DEFAULT_BACKLOG_LINES), Long.getLong("one.gui.releaseAfter", NEVER));
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>InterfaceManager</i></b>
+	 * <p>	<code>public InterfaceManager(int backlogLines, long releaseAfter)</code>
+	 * <p>	Creates a new <tt>InterfaceManager</tt>.
+	 * @param backlogLines - an <code>int</code> for the maximum number of lines kept in the backlog.
+	 * @param releaseAfter - a <code>long</code> for the milliseconds the interface stays hidden before it is released, or {@link #NEVER}.
+	 * </ul>
+	 */
+	public InterfaceManager(int backlogLines, long releaseAfter) {
+		this.backlogLines = Math.max(1, backlogLines);
+		this.releaseAfter = releaseAfter;
+		this.backlog = new ArrayDeque<>(Math.min(this.backlogLines, 1024));
+		if(releaseAfter >= 0) {
+			releaseTimer = new Timer((int) Math.min(releaseAfter, Integer.MAX_VALUE), (actionEvent) -> release());
+			releaseTimer.setRepeats(false);
+		}
+		else {
+			releaseTimer = null;
+		}
+
+		//	The manager outlives every interface, so the metrics ask it rather than keeping an interface reachable.
+		ControllerMetrics.get().setEntryLoggerSize(() -> {
+			final ControllerInterface current = frame;
+			return (current == null) ? 0 : current.getHistorySize();
+		});
+		ControllerMetrics.get().setConsoleLines(() -> {
+			final ControllerInterface current = frame;
+			return (current == null) ? 0 : current.getConsoleSnapshot().getLines();
+		});
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>create</i></b>
+	 * <p>	<code>public ControllerInterface create()</code>
+	 * <p>	Builds the first interface, hidden, and reroutes any prints to the console to it and the backlog.
+	 * <p>	<b>Note:</b> This method must be called once, on the EDT.
+	 * @return the <tt>ControllerInterface</tt> that was built.
+	 * </ul>
+	 */
+	public ControllerInterface create() {
+		final ControllerInterface created = build();
+		synchronized(backlog) {
+			frame = created;
+		}
+		rerouteConsolePrints();
+		return created;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>build</i></b>
+	 * <p>	<code>private ControllerInterface build()</code>
+	 * <p>	Builds a new, hidden interface with the current request listener.
+	 * @return the <tt>ControllerInterface</tt> that was built.
+	 * </ul>
+	 */
+	private ControllerInterface build() {
+		final ControllerInterface created = new ControllerInterface();
+		created.setRequestListener(requestListener);
+		created.setHiddenListener(this::hidden);
+		final DeviceState state = latestState;
+		if(state != null) {
+			created.showState(state);
+		}
+		return created;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>rerouteConsolePrints</i></b>
+	 * <p>	<code>private void rerouteConsolePrints()</code>
+	 * <p>	Reroutes any prints to the console to the backlog and the interface, classifying each by its type prefix.
+	 * 		The streams are installed once and kept for good, as other parts of the controller wrap <code>System.out</code> after it is rerouted.
+	 * </ul>
+	 */
+	private void rerouteConsolePrints() {
+		final OutputStream outputStream = new OutputStream() {
+			@Override
+			public void write(byte[] buffer, int offset, int length) throws IOException {
+				final ConsoleLine line = ConsoleLine.classify(new String(buffer, offset, length));
+				if(line != null) {
+					addLine(line);
+				}
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				write(new byte[] { (byte) b }, 0, 1);
+			}
+		};
+		final OutputStream outputStreamErr = new OutputStream() {
+			@Override
+			public void write(byte[] buffer, int offset, int length) throws IOException {
+				final String text = new String(buffer, offset, length);
+				addError(text, text.startsWith("Exception"));
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				write(new byte[] { (byte) b }, 0, 1);
+			}
+		};
+		System.setOut(new PrintStream(outputStream));
+		System.setErr(new PrintStream(outputStreamErr));
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>addLine</i></b>
+	 * <p>	<code>public void addLine(ConsoleLine line)</code>
+	 * <p>	Adds the passed line to the backlog, and to the interface if it has not been released. This method may be called from any thread, and never waits.
+	 * @param line - the {@link ConsoleLine} to add.
+	 * </ul>
+	 */
+	public void addLine(ConsoleLine line) {
+		addLine(line, false);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>addLineThrottled</i></b>
+	 * <p>	<code>public void addLineThrottled(ConsoleLine line)</code>
+	 * <p>	Adds the passed line as {@link #addLine(ConsoleLine)} does, but waits for room if too many lines are already waiting for the interface.
+	 * <p>	<b>Note:</b> This method is only meant to be called by the console's subscriber. See {@link ControllerInterface#addLineThrottled(ConsoleLine)}.
+	 * @param line - the {@link ConsoleLine} to add.
+	 * </ul>
+	 */
+	public void addLineThrottled(ConsoleLine line) {
+		addLine(line, true);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>addLine</i></b>
+	 * <p>	<code>private void addLine(ConsoleLine line, boolean throttled)</code>
+	 * <p>	Adds the passed line to the backlog, and to the interface if it has not been released.
+	 * @param line - the {@link ConsoleLine} to add.
+	 * @param throttled - whether or not to wait for room in the interface.
+	 * </ul>
+	 */
+	private void addLine(ConsoleLine line, boolean throttled) {
+		final ControllerInterface current;
+		synchronized(backlog) {
+			if(backlog.size() >= backlogLines) {
+				backlog.removeFirst();
+			}
+			backlog.addLast(line);
+			current = frame;
+		}
+		if(current != null) {
+			if(throttled) {
+				current.addLineThrottled(line);
+			}
+			else {
+				current.addLine(line);
+			}
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>addError</i></b>
+	 * <p>	<code>private void addError(String text, boolean newLine)</code>
+	 * <p>	Adds text printed to the error stream, which arrives in pieces, either as a new line or continuing the last one.
+	 * @param text - a <tt>String</tt> with the text.
+	 * @param newLine - whether or not the text starts a new line.
+	 * </ul>
+	 */
+	private void addError(String text, boolean newLine) {
+		final ControllerInterface current;
+		synchronized(backlog) {
+			final ConsoleLine last = backlog.peekLast();
+			if(newLine || last == null) {
+				if(backlog.size() >= backlogLines) {
+					backlog.removeFirst();
+				}
+				backlog.addLast(new ConsoleLine(text, TextStyle.CONSOLE_ERROR));
+			}
+			else {
+				backlog.removeLast();
+				backlog.addLast(new ConsoleLine(last.getText() + text, last.getStyle(), last.getTime()));
+			}
+			current = frame;
+		}
+		if(current != null) {
+			current.addText(text, TextStyle.CONSOLE_ERROR, newLine);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>clearConsole</i></b>
+	 * <p>	<code>public void clearConsole()</code>
+	 * <p>	Clears the backlog and the interface's console. This method may be called from any thread.
+	 * </ul>
+	 */
+	public void clearConsole() {
+		final ControllerInterface current;
+		synchronized(backlog) {
+			backlog.clear();
+			current = frame;
+		}
+		if(current != null) {
+			current.clearConsole();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>display</i></b>
+	 * <p>	<code>public void display()</code>
+	 * <p>	Displays the interface, first rebuilding it and replaying the backlog into it if it was released. This method may be called from any thread.
+	 * </ul>
+	 */
+	public void display() {
+		SwingUtilities.invokeLater(() -> {
+			if(releaseTimer != null) {
+				releaseTimer.stop();
+			}
+			ControllerInterface current = frame;
+			if(current == null) {
+				final long start = System.nanoTime();
+				current = build();
+				//	Lines added once the interface is set go to it directly, so the backlog is copied in the same step.
+				final List<ConsoleLine> lines;
+				synchronized(backlog) {
+					frame = current;
+					lines = new ArrayList<>(backlog);
+				}
+				current.replay(lines);
+				lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+			}
+			current.display();
+		});
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>hidden</i></b>
+	 * <p>	<code>private void hidden()</code>
+	 * <p>	Called on the EDT each time the interface hides itself, which starts the idle period over.
+	 * </ul>
+	 */
+	private void hidden() {
+		if(releaseTimer != null) {
+			releaseTimer.restart();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>release</i></b>
+	 * <p>	<code>private void release()</code>
+	 * <p>	Called on the EDT once the interface has been hidden for the idle period. The resident memory is measured
+	 * 		after a garbage collection both before and after the interface is released, on separate threads so that the EDT is not held up.
+	 * 		No thread waits on the EDT: the interface is released by a task queued to it, which completes a future that continues the measurement.
+	 * </ul>
+	 */
+	private void release() {
+		if(frame == null || frame.isVisible()) {
+			return;
+		}
+		onReleaseThread(() -> {
+			System.gc();
+			final long before = StartupReport.getResidentMemoryKB();
+			final CompletableFuture<Boolean> released = new CompletableFuture<>();
+			SwingUtilities.invokeLater(() -> {
+				final ControllerInterface current = frame;
+				//	The interface may have been displayed again while memory was being measured.
+				if(current == null || current.isVisible()) {
+					released.complete(false);
+					return;
+				}
+				synchronized(backlog) {
+					frame = null;
+				}
+				current.close();
+				released.complete(true);
+			});
+			released.thenAcceptAsync((done) -> {
+				if(!done) {
+					return;
+				}
+				System.gc();
+				hiddenKB = before;
+				releasedKB = StartupReport.getResidentMemoryKB();
+				releases++;
+				System.out.println("<#> Released the hidden interface, keeping " + getBacklogSize() + " lines. Resident memory "
+					+ formatKB(hiddenKB) + " -> " + formatKB(releasedKB) + ".");
+			}, InterfaceManager::onReleaseThread);
+		});
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>onReleaseThread</i></b>
+	 * <p>	<code>private static void onReleaseThread(Runnable task)</code>
+	 * <p>	Runs the passed step of a release on a new daemon thread, away from the EDT.
+	 * @param task - the <tt>Runnable</tt> to run.
+	 * </ul>
+	 */
+	private static void onReleaseThread(Runnable task) {
+		final Thread releaser = new Thread(task, "ONE-Interface-Release");
+		releaser.setDaemon(true);
+		releaser.start();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>showState</i></b>
+	 * <p>	<code>public void showState(DeviceState state)</code>
+	 * <p>	Shows the passed system state on the interface's lights, and on any interface rebuilt later. This method may be called from any thread.
+	 * @param state - the <tt>DeviceState</tt> to show.
+	 * </ul>
+	 */
+	public void showState(DeviceState state) {
+		latestState = state;
+		SwingUtilities.invokeLater(() -> {
+			final ControllerInterface current = frame;
+			if(current != null) {
+				current.showState(state);
+			}
+		});
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setRequestListener</i></b>
+	 * <p>	<code>public void setRequestListener(RequestListener rl)</code>
+	 * <p>	Sets the <tt>RequestListener</tt> of the current interface, and of every interface built after it.
+	 * @param rl - the <tt>RequestListener</tt> to use.
+	 * </ul>
+	 */
+	public void setRequestListener(RequestListener rl) {
+		requestListener = rl;
+		final ControllerInterface current = frame;
+		if(current != null) {
+			current.setRequestListener(rl);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getBacklogSize</i></b>
+	 * <p>	<code>public int getBacklogSize()</code>
+	 * <p>	Gets the number of lines in the backlog.
+	 * @return an <code>int</code> with the number of lines.
+	 * </ul>
+	 */
+	public int getBacklogSize() {
+		synchronized(backlog) {
+			return backlog.size();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public String describe()</code>
+	 * <p>	Describes the state of the interface, its backlog, and the memory measured at its last release.
+	 * @return a <tt>String</tt> with the description.
+	 * </ul>
+	 */
+	public String describe() {
+		final ControllerInterface current = frame;
+		final StringBuilder builder = new StringBuilder("Interface: ");
+		builder.append((current == null) ? "released" : (current.isVisible() ? "shown" : "hidden"));
+		builder.append(", backlog ").append(getBacklogSize()).append('/').append(backlogLines).append(" lines, ");
+		if(releaseTimer == null) {
+			return builder.append("never released.").toString();
+		}
+		builder.append("released after ").append(releaseAfter).append(" ms hidden (").append(releases).append(" times).");
+		if(releasedKB >= 0) {
+			builder.append(" Resident memory hidden ").append(formatKB(hiddenKB)).append(", released ").append(formatKB(releasedKB)).append('.');
+		}
+		if(lastRebuildMillis >= 0) {
+			builder.append(" Last rebuilt in ").append(lastRebuildMillis).append(" ms.");
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>formatKB</i></b>
+	 * <p>	<code>private static String formatKB(long kilobytes)</code>
+	 * <p>	Formats a resident memory measurement in megabytes.
+	 * @param kilobytes - a <code>long</code> with the kilobytes, or a negative number if it could not be measured.
+	 * @return a <tt>String</tt> with the megabytes.
+	 * </ul>
+	 */
+	private static String formatKB(long kilobytes) {
+		return (kilobytes < 0) ? "unknown" : String.format("%.1f MB", kilobytes / 1024.0);
+	}
+}
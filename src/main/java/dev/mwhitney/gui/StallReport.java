@@ -0,0 +1,178 @@
+package dev.mwhitney.gui;
+
+import java.time.Instant;
+
+/**
+ *
+ * A report of a task on the Swing event dispatch thread that waited or ran for longer than the {@link EdtWatchdog}'s threshold.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class StallReport {
+
+	//	Variables
+	/** A <code>long</code> for the wall-clock time, in milliseconds, at which the task finished, or at which it was reported while still running. */
+	private volatile long time;
+	/** A <tt>String</tt> describing the task, such as the class of its <tt>Runnable</tt>. */
+	private final String task;
+	/** A <code>long</code> for how long the task waited in the event queue, in milliseconds, or <code>-1</code> if unknown. */
+	private final long queueMillis;
+	/** A <code>long</code> for how long the task ran, in milliseconds, or had run so far while it is still running. */
+	private volatile long runMillis;
+	/** A <code>boolean</code> for whether or not the task is still running. */
+	private volatile boolean running;
+	/** The <tt>StackTraceElement</tt> array of the EDT while the task was stalled, or <code>null</code> if it finished before a stack was captured. */
+	private final StackTraceElement[] stack;
+	/** An <code>int</code> for how much of the report has been written to the log: <code>0</code> for nothing, <code>1</code> while running, <code>2</code> once finished. Only used by the watchdog thread. */
+	private int logged;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>StallReport</i></b>
+	 * <p>	<code>public StallReport(long time, String task, long queueMillis, long runMillis, StackTraceElement[] stack)</code>
+	 * <p>	Creates a new <tt>StallReport</tt> for a task that has finished.
+	 * @param time - the wall-clock time, in milliseconds, at which the task finished.
+	 * @param task - a <tt>String</tt> describing the task.
+	 * @param queueMillis - how long the task waited in the event queue, in milliseconds, or <code>-1</code> if unknown.
+	 * @param runMillis - how long the task ran, in milliseconds.
+	 * @param stack - the EDT's stack while the task was stalled, or <code>null</code> if none was captured.
+	 * </ul>
+	 */
+	public StallReport(long time, String task, long queueMillis, long runMillis, StackTraceElement[] stack) {
+		this(time, task, queueMillis, runMillis, stack, false);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>StallReport</i></b>
+	 * <p>	<code>public StallReport(long time, String task, long queueMillis, long runMillis, StackTraceElement[] stack, boolean running)</code>
+	 * <p>	Creates a new <tt>StallReport</tt>, which may be for a task that is still running. Such a report is completed with {@link #finish(long, long)}.
+	 * @param time - the wall-clock time, in milliseconds, at which the task finished or was reported.
+	 * @param task - a <tt>String</tt> describing the task.
+	 * @param queueMillis - how long the task waited in the event queue, in milliseconds, or <code>-1</code> if unknown.
+	 * @param runMillis - how long the task ran, or has run so far, in milliseconds.
+	 * @param stack - the EDT's stack while the task was stalled, or <code>null</code> if none was captured.
+	 * @param running - a <code>boolean</code> for whether or not the task is still running.
+	 * </ul>
+	 */
+	public StallReport(long time, String task, long queueMillis, long runMillis, StackTraceElement[] stack, boolean running) {
+		this.time = time;
+		this.task = task;
+		this.queueMillis = queueMillis;
+		this.runMillis = runMillis;
+		this.stack = stack;
+		this.running = running;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>finish</i></b>
+	 * <p>	<code>public void finish(long time, long runMillis)</code>
+	 * <p>	Completes the report of a task that was still running when it was reported.
+	 * @param time - the wall-clock time, in milliseconds, at which the task finished.
+	 * @param runMillis - how long the task ran, in milliseconds.
+	 * </ul>
+	 */
+	public void finish(long time, long runMillis) {
+		this.time = time;
+		this.runMillis = runMillis;
+		this.running = false;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>summary</i></b>
+	 * <p>	<code>public String summary()</code>
+	 * <p>	Describes the stall in one line.
+	 * @return a <tt>String</tt> with the time, the task, and how long it waited and ran, or has run so far.
+	 * </ul>
+	 */
+	public String summary() {
+		final boolean stillRunning = running;
+		return Instant.ofEpochMilli(time) + " " + task + " waited " + (queueMillis < 0 ? "?" : queueMillis) + " ms, "
+			+ (stillRunning ? "still running after " + runMillis + " ms" : "ran " + runMillis + " ms");
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describeForLog</i></b>
+	 * <p>	<code>String describeForLog(int maxFrames)</code>
+	 * <p>	Describes the part of the stall that has not been written to the log yet:
+	 * 		the whole report the first time, then only its summary once a task that was reported while running has finished.
+	 * <p>	<b>Note:</b> This must only be called by the watchdog thread.
+	 * @param maxFrames - an <code>int</code> for the most stack frames to include.
+	 * @return a <tt>String</tt> to append to the log, or <code>null</code> if nothing new has happened since it was last written.
+	 * </ul>
+	 */
+	String describeForLog(int maxFrames) {
+		final boolean stillRunning = running;
+		final int state = stillRunning ? 1 : 2;
+		if(logged >= state) {
+			return null;
+		}
+		final String description = (logged == 0) ? describe(maxFrames) : summary();
+		logged = state;
+		return description;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public String describe(int maxFrames)</code>
+	 * <p>	Describes the stall, followed by the EDT's stack at the moment it was stalled.
+	 * @param maxFrames - an <code>int</code> for the most stack frames to include.
+	 * @return a <tt>String</tt> with one line for the summary and one per stack frame.
+	 * </ul>
+	 */
+	public String describe(int maxFrames) {
+		final StringBuilder builder = new StringBuilder(summary());
+		if(stack == null) {
+			builder.append(System.lineSeparator()).append("    (finished before its stack was captured)");
+			return builder.toString();
+		}
+		for(int i = 0; i < Math.min(maxFrames, stack.length); i++) {
+			builder.append(System.lineSeparator()).append("    at ").append(stack[i]);
+		}
+		if(stack.length > maxFrames) {
+			builder.append(System.lineSeparator()).append("    ... ").append(stack.length - maxFrames).append(" more");
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getRunMillis</i></b>
+	 * <p>	<code>public long getRunMillis()</code>
+	 * <p>	Gets how long the task ran, or has run so far if it is still running.
+	 * @return a <code>long</code> with the time in milliseconds.
+	 * </ul>
+	 */
+	public long getRunMillis() {
+		return runMillis;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getQueueMillis</i></b>
+	 * <p>	<code>public long getQueueMillis()</code>
+	 * <p>	Gets how long the task waited in the event queue.
+	 * @return a <code>long</code> with the time in milliseconds, or <code>-1</code> if unknown.
+	 * </ul>
+	 */
+	public long getQueueMillis() {
+		return queueMillis;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isRunning</i></b>
+	 * <p>	<code>public boolean isRunning()</code>
+	 * <p>	Checks if the task was still running when it was reported and has not finished since.
+	 * @return <code>true</code> if it is still running; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+}
@@ -0,0 +1,110 @@
+package dev.mwhitney.gui;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.event.MouseEvent;
+
+import javax.swing.JComponent;
+
+import dev.mwhitney.enums.DeviceProperty;
+import dev.mwhitney.state.DeviceState;
+import dev.mwhitney.state.DeviceState.Reading;
+import dev.mwhitney.state.DeviceStateCache;
+
+/**
+ *
+ * A small light showing the last known value of one {@link DeviceProperty}, placed next to the buttons that change it.
+ * <p>	The light is filled with the value's color while its reading is trusted, faded once it is stale, and empty if the value has never been reported.
+ * 		Its tooltip says what was reported and how long ago. Staleness is worked out as it is painted, which happens each time the interface is shown.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class StateIndicator extends JComponent {
+
+	/** The <tt>StateIndicator</tt>'s unique serial. */
+	private static final long serialVersionUID = -3342066140297158321L;
+
+	/** The {@link DeviceProperty} this light shows. */
+	private final DeviceProperty property;
+	/** The <tt>Color</tt> of the light when the property is on. */
+	private final Color onColor;
+	/** The <tt>Color</tt> of the light when the property is off. */
+	private final Color offColor;
+	/** The latest <tt>DeviceState</tt> shown, or <code>null</code> if none has been. */
+	private DeviceState state = null;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>StateIndicator</i></b>
+	 * <p>	<code>public StateIndicator(DeviceProperty property, Color onColor, Color offColor)</code>
+	 * <p>	Creates a new <tt>StateIndicator</tt> for the passed property, which shows it as unknown until a state is set.
+	 * @param property - the {@link DeviceProperty} to show.
+	 * @param onColor - the <tt>Color</tt> of the light when the property is on, such as when locked.
+	 * @param offColor - the <tt>Color</tt> of the light when the property is off.
+	 * </ul>
+	 */
+	public StateIndicator(DeviceProperty property, Color onColor, Color offColor) {
+		this.property = property;
+		this.onColor = onColor;
+		this.offColor = offColor;
+		setOpaque(false);
+		//	Registers with the tooltip manager. The text itself is worked out when it is shown.
+		setToolTipText(property.getLabel());
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setState</i></b>
+	 * <p>	<code>public void setState(DeviceState state)</code>
+	 * <p>	Shows the passed state, ignoring it if it is older than the one already shown.
+	 * <p>	<b>Note:</b> This method must be called on the EDT.
+	 * @param state - the <tt>DeviceState</tt> to show.
+	 * </ul>
+	 */
+	public void setState(DeviceState state) {
+		if(this.state == null || state.getVersion() >= this.state.getVersion()) {
+			this.state = state;
+			repaint();
+		}
+	}
+
+	@Override
+	public String getToolTipText(MouseEvent event) {
+		final Reading reading = (state == null) ? null : state.get(property);
+		if(reading == null) {
+			return property.getLabel() + ": unknown";
+		}
+		final long now = System.currentTimeMillis();
+		return property.getLabel() + " " + property.describe(reading.isOn()) + ", reported " + DeviceStateCache.describeAge(now - reading.getReportedAt()) + " ago"
+			+ (reading.isStale(now, DeviceStateCache.MAX_AGE) ? " (stale)" : "");
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		//	Create Graphics and Rendering Hints
+		Graphics2D g2d = (Graphics2D) g.create();
+		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+		//	Draw the Light, Faded if Stale or Empty if Unknown
+		final Reading reading = (state == null) ? null : state.get(property);
+		final int size = Math.min(getWidth(), getHeight()) - 3;
+		if(reading == null) {
+			g2d.setColor(Color.GRAY);
+			g2d.setStroke(new BasicStroke(2.0f));
+			g2d.drawOval(1, 1, size, size);
+		}
+		else {
+			final Color color = reading.isOn() ? onColor : offColor;
+			final boolean stale = reading.isStale(System.currentTimeMillis(), DeviceStateCache.MAX_AGE);
+			g2d.setColor(stale ? new Color(color.getRed(), color.getGreen(), color.getBlue(), 80) : color);
+			g2d.fillOval(1, 1, size + 1, size + 1);
+		}
+
+		//	Dispose of the Graphics2D Object
+		g2d.dispose();
+	}
+}
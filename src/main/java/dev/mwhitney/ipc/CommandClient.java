@@ -0,0 +1,54 @@
+package dev.mwhitney.ipc;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ *
+ * A thin command-line client that forwards a command to the running controller over its {@link CommandSocketServer}, prints the result, and exits.
+ * <p>	Usage: <code>java -cp ProjectONEController.jar dev.mwhitney.ipc.CommandClient OPEN 3</code>
+ * <p>	With no arguments, every line of the standard input is sent as a command.
+ * 		The exit code is <code>0</code> on success, <code>1</code> if any command failed or received no response, and <code>2</code> if the controller is not running.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class CommandClient {
+
+	public static void main(String[] args) throws IOException {
+		final Path socketPath = CommandSocketServer.getSocketPath();
+		final String commands = (args.length > 0) ? String.join(" ", args) + "\n" : new String(System.in.readAllBytes(), StandardCharsets.UTF_8);
+
+		boolean failed = false;
+		try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+			channel.connect(UnixDomainSocketAddress.of(socketPath));
+			channel.write(ByteBuffer.wrap((commands.endsWith("\n") ? commands : commands + "\n").getBytes(StandardCharsets.UTF_8)));
+			channel.shutdownOutput();
+
+			//	Stream the result back as it arrives, until the controller has handled every command.
+			final BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+			String line;
+			while((line = reader.readLine()) != null) {
+				if(line.startsWith(CommandSocketServer.ERROR_PREFIX)) {
+					failed = true;
+					System.err.println(line.substring(CommandSocketServer.ERROR_PREFIX.length()));
+				}
+				else {
+					System.out.println(line);
+				}
+			}
+		} catch (IOException ioe) {
+			System.err.println("The controller is not running. (No command socket at " + socketPath + ")");
+			System.exit(2);
+		}
+		System.exit(failed ? 1 : 0);
+	}
+}
@@ -0,0 +1,294 @@
+package dev.mwhitney.ipc;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import dev.mwhitney.console.CommandParser;
+import dev.mwhitney.console.ConsoleLine;
+import dev.mwhitney.console.ParsedInput;
+import dev.mwhitney.enums.ONECommand;
+import dev.mwhitney.enums.OutboundLane;
+import dev.mwhitney.enums.TextStyle;
+import dev.mwhitney.gui.ControllerInterface;
+import dev.mwhitney.main.CommandExecutor;
+import dev.mwhitney.remote.SiteRegistry;
+
+/**
+ *
+ * A local Unix domain socket that accepts commands for the running controller, such as from the {@link CommandClient} or a shell script.
+ * <p>	Each line received is executed exactly as if it were entered into the controller's command line.
+ * 		The lines the command prints are sent back, followed by the server's response if the command expects one.
+ * 		A command sent to several sites, such as <code>CLOSE @ALL</code>, is answered with the summary of every site's response instead.
+ * 		Error lines begin with <code>error: </code>. The socket is only accessible to the user running the controller.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class CommandSocketServer {
+
+	//	Static Return Values
+	/** A <code>long</code> for how long, in milliseconds, a command waits for the server's response. */
+	final public static long RESPONSE_TIMEOUT = 3000;
+	/** A <tt>String</tt> that begins every error line sent back to clients. */
+	final public static String ERROR_PREFIX = "error: ";
+
+	//	Core Objects
+	/** The <tt>CommandExecutor</tt> that runs received commands. */
+	private final CommandExecutor commandExecutor;
+	/** The <tt>ResponseCorrelator</tt> that matches the server's responses to waiting commands. */
+	private final ResponseCorrelator responseCorrelator;
+	/** The <tt>OutputCapture</tt> that collects the lines each command prints. */
+	private final OutputCapture outputCapture;
+	/** The <tt>ExecutorService</tt> that handles each client connection on its own thread. */
+	private final ExecutorService connectionThreads = Executors.newCachedThreadPool((runnable) -> {
+		final Thread thread = new Thread(runnable, "ONE-CommandSocket");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	//	Variables
+	/** The <tt>Path</tt> of the socket file. */
+	private final Path socketPath;
+	/** The <tt>ServerSocketChannel</tt> listening on the socket, or <code>null</code> if not started. */
+	private ServerSocketChannel serverChannel;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>CommandSocketServer</i></b>
+	 * <p>	<code>public CommandSocketServer(Path socketPath, CommandExecutor commandExecutor, ResponseCorrelator responseCorrelator, OutputCapture outputCapture)</code>
+	 * <p>	Creates a new <tt>CommandSocketServer</tt>. The server must still be started.
+	 * @param socketPath - the <tt>Path</tt> of the socket file.
+	 * @param commandExecutor - the <tt>CommandExecutor</tt> that runs received commands.
+	 * @param responseCorrelator - the <tt>ResponseCorrelator</tt> subscribed to the server's messages.
+	 * @param outputCapture - the <tt>OutputCapture</tt> installed on <code>System.out</code>.
+	 * </ul>
+	 */
+	public CommandSocketServer(Path socketPath, CommandExecutor commandExecutor, ResponseCorrelator responseCorrelator, OutputCapture outputCapture) {
+		this.socketPath = socketPath;
+		this.commandExecutor = commandExecutor;
+		this.responseCorrelator = responseCorrelator;
+		this.outputCapture = outputCapture;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getSocketPath</i></b>
+	 * <p>	<code>public static Path getSocketPath()</code>
+	 * <p>	Gets the configured socket path, checking the <code>one.socket</code> system property, then the <code>PROJECT_ONE_SOCKET</code> environment variable.
+	 * @return the <tt>Path</tt> of the socket, which is <code>controller.sock</code> in the application's folder if none is configured.
+	 * </ul>
+	 */
+	public static Path getSocketPath() {
+		String path = System.getProperty("one.socket");
+		if(path == null || path.isBlank()) {
+			path = System.getenv("PROJECT_ONE_SOCKET");
+		}
+		return (path == null || path.isBlank()) ? Paths.get(CommandExecutor.APP_FOLDER_PATH, "controller.sock") : Paths.get(path.trim());
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>open</i></b>
+	 * <p>	<code>public static CommandSocketServer open(CommandExecutor commandExecutor, ResponseCorrelator responseCorrelator)</code>
+	 * <p>	Installs an {@link OutputCapture} on <code>System.out</code>, then creates and starts a <tt>CommandSocketServer</tt> on the configured socket path.
+	 * 		This should be called once <code>System.out</code> has been set up, such as after the GUI has rerouted it.
+	 * @param commandExecutor - the <tt>CommandExecutor</tt> that runs received commands.
+	 * @param responseCorrelator - the <tt>ResponseCorrelator</tt> for the primary site's responses, from the {@link SiteRegistry}.
+	 * @return the started <tt>CommandSocketServer</tt>, or <code>null</code> if it could not be started.
+	 * </ul>
+	 */
+	public static CommandSocketServer open(CommandExecutor commandExecutor, ResponseCorrelator responseCorrelator) {
+		final CommandSocketServer commandSocket = new CommandSocketServer(getSocketPath(), commandExecutor, responseCorrelator, OutputCapture.install());
+		try {
+			commandSocket.start();
+			return commandSocket;
+		} catch (IOException | UnsupportedOperationException e) {
+			System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Could not open the command socket. (" + e.getMessage() + ")");
+			return null;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>start</i></b>
+	 * <p>	<code>public void start()</code>
+	 * <p>	Starts listening on the socket, replacing any socket file left behind by a controller that did not exit cleanly.
+	 * 		The socket is created in a new folder that only the user can enter, and only moved into place once it is only accessible to the user,
+	 * 		so that no one else can connect to it in between.
+	 * <p>	<b>Note:</b> This must only be called while holding the {@link InstanceLock}, or the socket of a running controller could be replaced.
+	 * @throws IOException if the socket could not be created.
+	 * </ul>
+	 */
+	public void start() throws IOException {
+		final Path folder = socketPath.toAbsolutePath().getParent();
+		Files.createDirectories(folder);
+		Files.deleteIfExists(socketPath);
+		serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		Path privateFolder = null;
+		try {
+			privateFolder = Files.createTempDirectory(folder, ".sock", PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+		} catch (UnsupportedOperationException uoe) {
+			//	Not a POSIX file system, so rely on the folder's permissions.
+		}
+		if(privateFolder == null) {
+			serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+		}
+		else {
+			try {
+				final Path staged = privateFolder.resolve(socketPath.getFileName());
+				serverChannel.bind(UnixDomainSocketAddress.of(staged));
+				Files.setPosixFilePermissions(staged, PosixFilePermissions.fromString("rw-------"));
+				Files.move(staged, socketPath, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException ioe) {
+				serverChannel.close();
+				throw ioe;
+			} finally {
+				Files.deleteIfExists(privateFolder.resolve(socketPath.getFileName()));
+				Files.deleteIfExists(privateFolder);
+			}
+		}
+
+		final Thread acceptThread = new Thread(() -> {
+			while(serverChannel.isOpen()) {
+				try {
+					final SocketChannel channel = serverChannel.accept();
+					connectionThreads.execute(() -> handleConnection(channel));
+				} catch (IOException ioe) {
+					if(serverChannel.isOpen()) {
+						System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Error accepting a command socket connection.");
+					}
+				}
+			}
+		}, "ONE-CommandSocket-Accept");
+		acceptThread.setDaemon(true);
+		acceptThread.start();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>handleConnection</i></b>
+	 * <p>	<code>private void handleConnection(SocketChannel channel)</code>
+	 * <p>	Executes each line received from a client until it closes its side of the connection.
+	 * @param channel - the client's <tt>SocketChannel</tt>.
+	 * </ul>
+	 */
+	private void handleConnection(SocketChannel channel) {
+		try (channel;
+			BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+			Writer writer = new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8)) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				handleCommand(line, writer);
+				writer.flush();
+			}
+		} catch (IOException ioe) {
+			//	The client disconnected early. Nothing else to do.
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>handleCommand</i></b>
+	 * <p>	<code>private void handleCommand(String line, Writer writer)</code>
+	 * <p>	Executes a single command, sending back the lines it prints and, if it expects one, the server's response.
+	 * @param line - a <tt>String</tt> with the command.
+	 * @param writer - the <tt>Writer</tt> for the client's connection.
+	 * @throws IOException if the client can no longer be written to.
+	 * </ul>
+	 */
+	private void handleCommand(String line, Writer writer) throws IOException {
+		final ParsedInput input = CommandParser.parse(line);
+		if(input.getText().isEmpty()) {
+			return;
+		}
+
+		//	Register for the response before sending the command, so that a quick response cannot be missed.
+		//	A command sent to several sites waits for their responses itself, and prints their summary.
+		//	Commands the server does not answer, such as connecting, get no waiter.
+		final ONECommand command = input.getSystemCommand();
+		final boolean fanOut = command != null && SiteRegistry.findSelector(input.getArgs()) >= 0;
+		final CompletableFuture<String> response = (command != null && !fanOut && !commandExecutor.isRedundant(command, input.getArgs()))
+			? responseCorrelator.expectResponse(command) : null;
+		final StringBuilder output = new StringBuilder();
+		final AtomicBoolean failed = new AtomicBoolean();
+		outputCapture.capture(() -> {
+			if(!fanOut) {
+				//	Messages from scripts are bulk traffic, which waits behind anything entered by hand.
+				commandExecutor.execute(input, OutboundLane.BULK);
+				return;
+			}
+			final CompletableFuture<List<String>> summary = commandExecutor.fanOut(input.getSystemCommand(), input.getArgs());
+			if(summary != null) {
+				summary.join().forEach(System.out::println);
+			}
+		}, (printed) -> {
+			final ConsoleLine consoleLine = ConsoleLine.classify(printed);
+			if(consoleLine != null) {
+				if(consoleLine.getStyle() == TextStyle.CONSOLE_ERROR) {
+					failed.set(true);
+					output.append(ERROR_PREFIX);
+				}
+				output.append(consoleLine.getText()).append('\n');
+			}
+		});
+		writer.write(output.toString());
+		writer.flush();
+
+		if(response == null) {
+			return;
+		}
+		if(failed.get()) {
+			//	The command was not sent, such as when the server is not connected.
+			responseCorrelator.cancel(response);
+			return;
+		}
+		try {
+			writer.write(ConsoleLine.classify("!R:" + response.get(RESPONSE_TIMEOUT, TimeUnit.MILLISECONDS)).getText() + "\n");
+		} catch (TimeoutException | ExecutionException e) {
+			responseCorrelator.cancel(response);
+			writer.write(ERROR_PREFIX + "No response from the server within " + RESPONSE_TIMEOUT + " ms.\n");
+		} catch (InterruptedException ie) {
+			responseCorrelator.cancel(response);
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>stop</i></b>
+	 * <p>	<code>public void stop()</code>
+	 * <p>	Stops listening and removes the socket file.
+	 * </ul>
+	 */
+	public void stop() {
+		try {
+			if(serverChannel != null) {
+				serverChannel.close();
+			}
+			Files.deleteIfExists(socketPath);
+		} catch (IOException ioe) {}
+		connectionThreads.shutdownNow();
+	}
+}
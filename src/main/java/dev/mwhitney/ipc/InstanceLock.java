@@ -0,0 +1,77 @@
+package dev.mwhitney.ipc;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *
+ * A lock file that ensures only one controller runs at a time, so that a second launch never opens a duplicate connection to the server.
+ * <p>	The lock is held by the operating system for as long as the process is alive, so it is released even if the controller crashes.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class InstanceLock {
+
+	//	Variables
+	/** The <tt>FileChannel</tt> of the lock file, kept open for as long as the lock is held. */
+	private final FileChannel channel;
+	/** The <tt>FileLock</tt> held on the lock file. */
+	private final FileLock lock;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>InstanceLock</i></b>
+	 * <p>	<code>private InstanceLock(FileChannel channel, FileLock lock)</code>
+	 * <p>	Creates a new <tt>InstanceLock</tt>. Use {@link #tryAcquire(Path)} instead.
+	 * </ul>
+	 */
+	private InstanceLock(FileChannel channel, FileLock lock) {
+		this.channel = channel;
+		this.lock = lock;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>tryAcquire</i></b>
+	 * <p>	<code>public static InstanceLock tryAcquire(Path lockFile)</code>
+	 * <p>	Attempts to lock the passed file, creating it and its folders if needed.
+	 * @param lockFile - the <tt>Path</tt> of the lock file.
+	 * @return the held <tt>InstanceLock</tt>, or <code>null</code> if another controller already holds it.
+	 * @throws IOException if the lock file could not be created or opened.
+	 * </ul>
+	 */
+	public static InstanceLock tryAcquire(Path lockFile) throws IOException {
+		Files.createDirectories(lockFile.toAbsolutePath().getParent());
+		final FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		try {
+			final FileLock lock = channel.tryLock();
+			if(lock != null) {
+				return new InstanceLock(channel, lock);
+			}
+		} catch (OverlappingFileLockException ofle) {
+			//	Already held by this process.
+		}
+		channel.close();
+		return null;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>release</i></b>
+	 * <p>	<code>public void release()</code>
+	 * <p>	Releases the lock, allowing another controller to start.
+	 * </ul>
+	 */
+	public void release() {
+		try {
+			lock.release();
+			channel.close();
+		} catch (IOException ioe) {}
+	}
+}
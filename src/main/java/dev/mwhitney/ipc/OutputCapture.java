@@ -0,0 +1,123 @@
+package dev.mwhitney.ipc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ *
+ * An <tt>OutputStream</tt> that passes everything through to another stream, while also capturing the lines printed by particular threads.
+ * <p>	This is used to send the output of a command back to whoever requested it over the command socket,
+ * 		without changing how the command prints or where its output is normally displayed.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class OutputCapture extends OutputStream {
+
+	//	Variables
+	/** The <tt>OutputStream</tt> that everything is passed through to. */
+	private final OutputStream delegate;
+	/** The line <tt>Consumer</tt> capturing the current thread's output, if any. */
+	private final ThreadLocal<Consumer<String>> lineConsumers = new ThreadLocal<>();
+	/** The <tt>ByteArrayOutputStream</tt> holding the current thread's incomplete line. */
+	private final ThreadLocal<ByteArrayOutputStream> lineBuffer = ThreadLocal.withInitial(() -> new ByteArrayOutputStream(128));
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>OutputCapture</i></b>
+	 * <p>	<code>private OutputCapture(OutputStream delegate)</code>
+	 * <p>	Creates a new <tt>OutputCapture</tt>. Use {@link #install()} instead.
+	 * @param delegate - the <tt>OutputStream</tt> to pass everything through to.
+	 * </ul>
+	 */
+	private OutputCapture(OutputStream delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>install</i></b>
+	 * <p>	<code>public static OutputCapture install()</code>
+	 * <p>	Wraps the current <code>System.out</code> in a new <tt>OutputCapture</tt>.
+	 * @return the installed <tt>OutputCapture</tt>.
+	 * </ul>
+	 */
+	public static OutputCapture install() {
+		final OutputCapture outputCapture = new OutputCapture(System.out);
+		System.setOut(new PrintStream(outputCapture, true, StandardCharsets.UTF_8));
+		return outputCapture;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>capture</i></b>
+	 * <p>	<code>public void capture(Runnable action, Consumer&lt;String&gt; lineConsumer)</code>
+	 * <p>	Runs the passed action on the current thread, passing each complete line that it prints to the consumer.
+	 * @param action - the <tt>Runnable</tt> to run.
+	 * @param lineConsumer - the <tt>Consumer</tt> of each printed line, without its line separator.
+	 * </ul>
+	 */
+	public void capture(Runnable action, Consumer<String> lineConsumer) {
+		lineConsumers.set(lineConsumer);
+		try {
+			action.run();
+		} finally {
+			lineConsumers.remove();
+			lineBuffer.get().reset();
+		}
+	}
+
+	@Override
+	public void write(int b) {
+		captureByte((byte) b);
+		try {
+			delegate.write(b);
+		} catch (IOException ioe) {}
+	}
+
+	@Override
+	public void write(byte[] buffer, int offset, int length) {
+		if(lineConsumers.get() != null) {
+			for(int i = offset; i < offset + length; i++) {
+				captureByte(buffer[i]);
+			}
+		}
+		try {
+			delegate.write(buffer, offset, length);
+		} catch (IOException ioe) {}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>captureByte</i></b>
+	 * <p>	<code>private void captureByte(byte b)</code>
+	 * <p>	Adds a byte to the current thread's line if its output is being captured, passing the line on once it is complete.
+	 * @param b - the <code>byte</code> that was written.
+	 * </ul>
+	 */
+	private void captureByte(byte b) {
+		final Consumer<String> lineConsumer = lineConsumers.get();
+		if(lineConsumer == null) {
+			return;
+		}
+		final ByteArrayOutputStream buffer = lineBuffer.get();
+		if(b == '\n') {
+			lineConsumer.accept(buffer.toString(StandardCharsets.UTF_8));
+			buffer.reset();
+		}
+		else if(b != '\r') {
+			buffer.write(b);
+		}
+	}
+
+	@Override
+	public void flush() {
+		try {
+			delegate.flush();
+		} catch (IOException ioe) {}
+	}
+}
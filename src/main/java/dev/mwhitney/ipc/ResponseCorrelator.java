@@ -0,0 +1,123 @@
+package dev.mwhitney.ipc;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import dev.mwhitney.enums.MessageType;
+import dev.mwhitney.enums.ONECommand;
+import dev.mwhitney.enums.ResponseCode;
+import dev.mwhitney.events.EventSubscriber;
+import dev.mwhitney.events.MessageEvent;
+
+/**
+ *
+ * An <tt>EventSubscriber</tt> that matches responses from the server to the commands that are waiting for them.
+ * <p>	The server's responses carry no identifier, so each command waits for the one response that carrying it out produces,
+ * 		such as <code>Door locked.</code> for {@link ONECommand#CLOSE}. A response is given to the oldest command still waiting for that response.
+ * 		Any other response, such as one to a command typed by the user or sent by another script, is left alone.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class ResponseCorrelator implements EventSubscriber {
+
+	//	Variables
+	/** The <tt>ConcurrentLinkedQueue</tt> of commands waiting for a response, oldest first. */
+	private final ConcurrentLinkedQueue<Waiter> waiting = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>expectResponse</i></b>
+	 * <p>	<code>public CompletableFuture&lt;String&gt; expectResponse(ONECommand command)</code>
+	 * <p>	Registers a command that is about to be sent and will wait for a response.
+	 * 		This must be called before the command is sent, so that a quick response cannot be missed.
+	 * 		If the caller stops waiting, it must call {@link #cancel(CompletableFuture)} so that later responses go to the right command.
+	 * @param command - the {@link ONECommand} about to be sent.
+	 * @return a <tt>CompletableFuture</tt> completed with the response text, or <code>null</code> if the server does not answer the command.
+	 * </ul>
+	 */
+	public CompletableFuture<String> expectResponse(ONECommand command) {
+		final ResponseCode expected = ResponseCode.answering(command);
+		if(expected == null) {
+			return null;
+		}
+		final CompletableFuture<String> response = new CompletableFuture<>();
+		waiting.add(new Waiter(expected, response));
+		return response;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>cancel</i></b>
+	 * <p>	<code>public void cancel(CompletableFuture&lt;String&gt; response)</code>
+	 * <p>	Stops waiting for a response, such as after a timeout or when the command could not be sent.
+	 * @param response - the <tt>CompletableFuture</tt> returned by {@link #expectResponse(ONECommand)}.
+	 * </ul>
+	 */
+	public void cancel(CompletableFuture<String> response) {
+		waiting.removeIf((waiter) -> waiter.response == response);
+		response.cancel(false);
+	}
+
+	@Override
+	public void onEvent(MessageEvent event) {
+		if(event.getType() != MessageType.RESPONSE || waiting.isEmpty()) {
+			return;
+		}
+		final ResponseCode code = codeOf(event.getPayload());
+		if(code == null) {
+			return;
+		}
+		for(Waiter waiter : waiting) {
+			if(waiter.expected == code && waiting.remove(waiter)) {
+				waiter.response.complete(event.getPayload());
+				return;
+			}
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>codeOf</i></b>
+	 * <p>	<code>private static ResponseCode codeOf(String payload)</code>
+	 * <p>	Gets the fixed response the passed response text stands for.
+	 * 		A <code>Pong!</code> has its round trip time appended by the time it is published, so only its start is compared.
+	 * @param payload - the <tt>String</tt> response text.
+	 * @return the <tt>ResponseCode</tt>, or <code>null</code> if the text is not one of the fixed responses.
+	 * </ul>
+	 */
+	private static ResponseCode codeOf(String payload) {
+		if(payload.startsWith(ResponseCode.PONG.toText(0))) {
+			return ResponseCode.PONG;
+		}
+		return ResponseCode.fromText(payload);
+	}
+
+	/**
+	 *
+	 * A command waiting for a response, with the response that will answer it.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	private static final class Waiter {
+		/** The <tt>ResponseCode</tt> that answers the command. */
+		private final ResponseCode expected;
+		/** The <tt>CompletableFuture</tt> completed with the response text. */
+		private final CompletableFuture<String> response;
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>Waiter</i></b>
+		 * <p>	<code>private Waiter(ResponseCode expected, CompletableFuture&lt;String&gt; response)</code>
+		 * <p>	Creates a <tt>Waiter</tt> for a command.
+		 * @param expected - the <tt>ResponseCode</tt> that answers the command.
+		 * @param response - the <tt>CompletableFuture</tt> to complete with the response text.
+		 * </ul>
+		 */
+		private Waiter(ResponseCode expected, CompletableFuture<String> response) {
+			this.expected = expected;
+			this.response = response;
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package dev.mwhitney.listeners;
+
+import java.util.EventListener;
+
+import dev.mwhitney.enums.NotificationKind;
+
+/**
+ *
+ * A listener used by the notification pipeline to show a notification once it is ready, such as in the system tray.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public interface NotificationListener extends EventListener {
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>notificationReady</i></b>
+	 * <p>	<code>public void notificationReady(NotificationKind kind, String caption, String text)</code>
+	 * <p>	An interface method that invokes when a notification, or a summary of several, should be shown.
+	 * <p>	<b>Note:</b> This method is called on the pipeline's own threads and should return quickly.
+	 * @param kind - the {@link NotificationKind} of the notification.
+	 * @param caption - a <tt>String</tt> with the notification's caption.
+	 * @param text - a <tt>String</tt> with the notification's text.
+	 * </ul>
+	 */
+	public void notificationReady(NotificationKind kind, String caption, String text);
+}
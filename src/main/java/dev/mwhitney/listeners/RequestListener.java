@@ -38,10 +38,11 @@ public interface RequestListener extends EventListener {
 	/**
 	 * <ul>
 	 * <p>	<b><i>controllerChangeRequested</i></b>
-	 * <p>	<code>public void controllerChangeRequested(ControllerCommand command)</code>
+	 * <p>	<code>public void controllerChangeRequested(ControllerCommand command, String[] args)</code>
 	 * <p>	An interface method that invokes upon receiving a request to change the state of the controller.
 	 * @param command - a {@link ControllerCommand} with the requested controller command.
+	 * @param args - a <tt>String</tt> array containing command arguments. This <b>can</b> be <code>null</code> if there are no arguments.
 	 * </ul>
 	 */
-	public void controllerChangeRequested(ControllerCommand command);
+	public void controllerChangeRequested(ControllerCommand command, String[] args);
 }
@@ -0,0 +1,41 @@
+package dev.mwhitney.listeners;
+
+import java.util.EventListener;
+
+import dev.mwhitney.enums.ONECommand;
+
+/**
+ *
+ * A listener used by the command scheduler to check the connection and execute commands once they are due.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public interface ScheduleListener extends EventListener {
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>connectionAvailable</i></b>
+	 * <p>	<code>public boolean connectionAvailable(ONECommand command, String[] args)</code>
+	 * <p>	An interface method that invokes when a scheduled command is due, before it is executed.
+	 * <p>	If this method returns <code>false</code>, the run is treated as missed and the command's {@link dev.mwhitney.enums.MissedRunPolicy} applies.
+	 * @param command - the {@link ONECommand} that is due.
+	 * @param args - a <tt>String</tt> array containing command arguments, which may choose the sites it is sent to. This <b>can</b> be <code>null</code> if there are no arguments.
+	 * @return <code>true</code> if every server the command is sent to is connected; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean connectionAvailable(ONECommand command, String[] args);
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>commandDue</i></b>
+	 * <p>	<code>public boolean commandDue(ONECommand command, String[] args)</code>
+	 * <p>	An interface method that invokes upon a scheduled command becoming due.
+	 * <p>	<b>Note:</b> This method is called on the scheduler's timer thread and should return quickly.
+	 * @param command - the {@link ONECommand} to execute.
+	 * @param args - a <tt>String</tt> array containing command arguments. This <b>can</b> be <code>null</code> if there are no arguments.
+	 * @return <code>true</code> if the command was valid and handled; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean commandDue(ONECommand command, String[] args);
+}
@@ -0,0 +1,820 @@
+package dev.mwhitney.main;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import dev.mwhitney.console.CommandParser;
+import dev.mwhitney.console.ParsedInput;
+import dev.mwhitney.enums.ControllerCommand;
+import dev.mwhitney.enums.MissedRunPolicy;
+import dev.mwhitney.enums.ONECommand;
+import dev.mwhitney.enums.OutboundLane;
+import dev.mwhitney.enums.OverflowStrategy;
+import dev.mwhitney.enums.WaitStrategy;
+import dev.mwhitney.events.MessageLogSubscriber;
+import dev.mwhitney.events.MessageMetrics;
+import dev.mwhitney.events.Subscription;
+import dev.mwhitney.gui.ControllerInterface;
+import dev.mwhitney.ipc.ResponseCorrelator;
+import dev.mwhitney.listeners.ScheduleListener;
+import dev.mwhitney.profiling.MemoryProfiler;
+import dev.mwhitney.remote.Outbox;
+import dev.mwhitney.remote.PreparedFrame;
+import dev.mwhitney.remote.RemoteClient;
+import dev.mwhitney.remote.SiteRegistry;
+import dev.mwhitney.schedule.CommandScheduler;
+import dev.mwhitney.schedule.CronExpression;
+import dev.mwhitney.schedule.FireRecord;
+import dev.mwhitney.schedule.ScheduledCommand;
+import dev.mwhitney.state.DeviceStateCache;
+
+/**
+ * 
+ * Handles system and controller commands, no matter where they were entered.
+ * <p>	This class does not use any GUI classes, so it is shared by the graphical {@link Controller} and the {@link HeadlessController}.
+ * 		Anything the interface must do itself, such as clearing its console, is passed in as an action.
+ * 
+ * @author Matthew Whitney
+ *
+ */
+public class CommandExecutor {
+	
+	//	Static Return Values
+	/** A <tt>String</tt> for the path to the application's file folder. */
+	final public static String APP_FOLDER_PATH = System.getProperty("user.home") + "/Minimunch57/ProjectONEController/";
+	/** A <code>long</code> for the number of seconds <code>PROFILE</code> profiles for if none is passed. */
+	final private static long DEFAULT_PROFILE_SECONDS = 30;
+	/** A <code>long</code> for how long, in milliseconds, a command sent to several sites waits for each site's response. */
+	final public static long FAN_OUT_TIMEOUT = 3000;
+	/** A <tt>String</tt> for the argument that sends a command even if the system is already known to be in the state it sets. */
+	final public static String FORCE = "FORCE";
+	
+	//	Primary Objects
+	/** The <tt>SiteRegistry</tt> of every site the controller is connected to. */
+	private final SiteRegistry sites;
+	/** The <tt>RemoteClient</tt> for the primary site, which is sent any command that does not choose its sites. */
+	private final RemoteClient remoteClient;
+	/** The <tt>CommandScheduler</tt> that runs timed and recurring commands. */
+	private final CommandScheduler scheduler;
+	/** The <tt>MessageMetrics</tt> subscriber counting the messages received from the server. */
+	private final MessageMetrics messageMetrics = new MessageMetrics();
+	/** The <tt>DeviceStateCache</tt> of each site's system state, as reported by its responses and broadcasts. */
+	private final DeviceStateCache stateCache = new DeviceStateCache();
+	/** The <tt>CopyOnWriteArrayList</tt> of extra reports shown by <code>EVENTS</code>, such as the tray notification statistics. */
+	private final List<Supplier<String>> statusReports = new CopyOnWriteArrayList<>();
+	/** The <tt>MemoryProfiler</tt> controlled by <code>PROFILE</code>. */
+	private final MemoryProfiler profiler = new MemoryProfiler();
+	/** The <tt>Supplier</tt> of the lines shown by <code>STALLS</code>, or <code>null</code> if the EDT watchdog is not enabled. */
+	private volatile Supplier<List<String>> stallReport;
+	
+	//	Actions
+	/** The <tt>Runnable</tt> that exits the application. */
+	private final Runnable exitAction;
+	/** The <tt>Runnable</tt> that clears the console. */
+	private final Runnable clearAction;
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>CommandExecutor</i></b>
+	 * <p>	<code>public CommandExecutor(SiteRegistry sites, Runnable exitAction, Runnable clearAction)</code>
+	 * <p>	Creates a new <tt>CommandExecutor</tt>, loading and arming any scheduled commands from the application's folder.
+	 * 		It also subscribes the message metrics, the device state cache and the message log, which is written to <code>messages.log</code> in the application's folder.
+	 * @param sites - the <tt>SiteRegistry</tt> of every site to communicate with.
+	 * @param exitAction - the <tt>Runnable</tt> that exits the application.
+	 * @param clearAction - the <tt>Runnable</tt> that clears the console.
+	 * </ul>
+	 */
+	public CommandExecutor(SiteRegistry sites, Runnable exitAction, Runnable clearAction) {
+		this.sites = sites;
+		this.remoteClient = sites.getPrimary();
+		this.exitAction = exitAction;
+		this.clearAction = clearAction;
+		this.scheduler = new CommandScheduler(APP_FOLDER_PATH + "schedule.txt", new ScheduleListener() {
+			@Override
+			public boolean connectionAvailable(ONECommand command, String[] args) {
+				//	A command that chooses its sites needs every one of them, and any other goes to the primary site.
+				final int selector = SiteRegistry.findSelector(args);
+				if(selector < 0) {
+					return sites.getPrimary().isConnected();
+				}
+				try {
+					for(RemoteClient client : sites.select(args[selector])) {
+						if(!client.isConnected()) {
+							return false;
+						}
+					}
+				} catch (IllegalArgumentException iae) {
+					//	A site that no longer exists is reported when the command runs.
+				}
+				return true;
+			}
+			
+			@Override
+			public boolean commandDue(ONECommand command, String[] args) {
+				return handleCommand(command, args);
+			}
+		});
+		
+		//	Subscribe the subscribers shared by every mode. Metrics must not miss messages, while the log may fall behind during a burst.
+		//	The state only receives responses, and only the latest of them matters if it falls behind.
+		sites.getEventBus().subscribe("metrics", 4096, WaitStrategy.BLOCKING, OverflowStrategy.QUEUE, messageMetrics);
+		sites.getEventBus().subscribe("state", 1024, WaitStrategy.BLOCKING, OverflowStrategy.DROP_OLDEST, stateCache);
+		sites.getEventBus().subscribe("log", 4096, WaitStrategy.SLEEPING, OverflowStrategy.DROP_NEWEST, new MessageLogSubscriber(Paths.get(APP_FOLDER_PATH, "messages.log")));
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>execute</i></b>
+	 * <p>	<code>public void execute(String text)</code>
+	 * <p>	Parses a line of input and acts upon it.
+	 * 		If the input does not match any command, then it is sent to the server as a message.
+	 * @param text - a <tt>String</tt> with the input text.
+	 * </ul>
+	 */
+	public void execute(String text) {
+		execute(CommandParser.parse(text));
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>execute</i></b>
+	 * <p>	<code>public void execute(ParsedInput input)</code>
+	 * <p>	Acts upon a line of input that has already been parsed.
+	 * 		If the input does not match any command, then it is sent to the server as a message.
+	 * @param input - the <tt>ParsedInput</tt> to act upon.
+	 * </ul>
+	 */
+	public void execute(ParsedInput input) {
+		execute(input, OutboundLane.of(input.getText()));
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>execute</i></b>
+	 * <p>	<code>public void execute(ParsedInput input, OutboundLane lane)</code>
+	 * <p>	Acts upon a line of input that has already been parsed.
+	 * 		If the input does not match any command, then it is sent to the server as a message through the passed lane.
+	 * 		System commands are always sent through the lane of their frame, so that a lock is never held up by messages.
+	 * @param input - the <tt>ParsedInput</tt> to act upon.
+	 * @param lane - the {@link OutboundLane} for a message, such as <code>BULK</code> for messages sent by scripts.
+	 * </ul>
+	 */
+	public void execute(ParsedInput input, OutboundLane lane) {
+		if(input.getText().isEmpty()) {
+			return;
+		}
+		
+		if(input.getSystemCommand() != null) {
+			handleCommand(input.getSystemCommand(), input.getArgs());
+		}
+		else if(input.getControllerCommand() != null) {
+			handleCommand(input.getControllerCommand(), input.getArgs());
+		}
+		else {
+			remoteClient.sendMessage(input.getText(), lane);
+		}
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>handleCommand</i></b>
+	 * <p>	<code>public boolean handleCommand(ONECommand command, String[] args)</code>
+	 * <p>	Handles system commands from the controller.
+	 * 		A command ending with a site selector, such as <code>CLOSE @ALL</code> or <code>OPEN 3 @north,south</code>, is sent to each chosen site at once,
+	 * 		and a summary of their responses is printed once every site has responded or timed out, without blocking the caller.
+	 * <p>	A command that would only set a state the site is already known to be in, such as locking a locked system, is skipped,
+	 * 		unless it is passed <code>FORCE</code>, such as <code>SYSTEM UNLOCK FORCE</code>.
+	 * @param command - the {@link ONECommand} to handle.
+	 * @param args - the command arguments, if any. This <b>can</b> be <code>null</code>.
+	 * @return <code>true</code> if the command was valid and handled; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean handleCommand(ONECommand command, String[] args) {
+		if(SiteRegistry.findSelector(args) >= 0) {
+			final CompletableFuture<List<String>> summary = fanOut(command, args);
+			if(summary != null) {
+				summary.thenAccept((lines) -> lines.forEach(System.out::println));
+			}
+			return summary != null;
+		}
+		
+		final boolean force = hasArgument(args, FORCE);
+		args = withoutArgument(args, FORCE);
+		
+		//	Handle Commands
+		switch (command) {
+			case CONNECT:
+			case DISCONNECT:
+			case RECONNECT: {
+				handleConnectionCommand(command, remoteClient);
+				break;
+			}
+			case PING: {
+				remoteClient.pingServer();
+				break;
+			}
+			default: {
+				final PreparedFrame frame;
+				try {
+					frame = toFrame(command, args);
+				} catch(NumberFormatException nfe) {
+					System.out.println(ControllerInterface.CONSOLE_ERROR + "Invalid argument for command: " + command);
+					break;
+				}
+				if(frame == null) {
+					return false;
+				}
+				final String redundant = force ? null : stateCache.checkRedundant(remoteClient.getSite(), command);
+				if(redundant != null) {
+					System.out.println("<#> " + redundant + " Not sent. Add " + FORCE + " to send it anyway.");
+					break;
+				}
+				remoteClient.sendMessage(frame);
+				System.out.println("> SENT --> " + frame.getDescription());
+				break;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>fanOut</i></b>
+	 * <p>	<code>public CompletableFuture&lt;List&lt;String&gt;&gt; fanOut(ONECommand command, String[] args)</code>
+	 * <p>	Sends a system command ending with a site selector to each chosen site at once, then waits for their responses in parallel.
+	 * 		Sending never blocks, and each site's response is waited for separately, so a slow or disconnected site never delays the others.
+	 * 		Connection commands, such as <code>RECONNECT @ALL</code>, are applied to each site right away.
+	 * 		Unless passed <code>FORCE</code>, a site already known to be in the state the command sets is skipped.
+	 * @param command - the {@link ONECommand} to send.
+	 * @param args - the command arguments, the last of which is the site selector.
+	 * @return a <tt>CompletableFuture</tt> completed with the lines of the summary, one per site with its latency and response, once every site has responded or timed out;
+	 * 		or <code>null</code> if the selector or arguments were invalid.
+	 * </ul>
+	 */
+	public CompletableFuture<List<String>> fanOut(ONECommand command, String[] args) {
+		final boolean force = hasArgument(args, FORCE);
+		args = withoutArgument(args, FORCE);
+		final int selector = SiteRegistry.findSelector(args);
+		final List<RemoteClient> targets;
+		try {
+			targets = sites.select(args[selector]);
+		} catch(IllegalArgumentException iae) {
+			System.out.println(ControllerInterface.CONSOLE_ERROR + iae.getMessage());
+			return null;
+		}
+		final String[] commandArgs = (selector > 0) ? Arrays.copyOf(args, selector) : null;
+		
+		switch (command) {
+			case CONNECT:
+			case DISCONNECT:
+			case RECONNECT: {
+				targets.forEach((client) -> handleConnectionCommand(command, client));
+				return CompletableFuture.completedFuture(List.of());
+			}
+			default:
+				break;
+		}
+		
+		final PreparedFrame frame;
+		try {
+			frame = toFrame(command, commandArgs);
+		} catch(NumberFormatException nfe) {
+			System.out.println(ControllerInterface.CONSOLE_ERROR + "Invalid argument for command: " + command);
+			return null;
+		}
+		if(frame == null) {
+			return null;
+		}
+		
+		final List<CompletableFuture<String>> results = new ArrayList<>(targets.size());
+		for(RemoteClient client : targets) {
+			final String redundant = force ? null : stateCache.checkRedundant(client.getSite(), command);
+			results.add((redundant == null) ? sendToSite(client, command, frame)
+				: CompletableFuture.completedFuture("<#> " + ((client.getSite() == null) ? "server" : client.getSite()) + ": not sent. " + redundant));
+		}
+		final String label = frame.getDescription();
+		System.out.println("> SENT --> " + label + " to " + targets.size() + ((targets.size() == 1) ? " site" : " sites"));
+		
+		return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).thenApply((ignored) -> {
+			final List<String> lines = new ArrayList<>(results.size() + 1);
+			int responded = 0;
+			for(CompletableFuture<String> result : results) {
+				final String line = result.join();
+				if(!line.startsWith(ControllerInterface.CONSOLE_ERROR)) {
+					responded++;
+				}
+				lines.add(line);
+			}
+			lines.add(0, "<#> " + label + ": " + responded + " of " + targets.size() + ((targets.size() == 1) ? " site" : " sites") + " responded.");
+			return lines;
+		});
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>sendToSite</i></b>
+	 * <p>	<code>private CompletableFuture&lt;String&gt; sendToSite(RemoteClient client, ONECommand command, PreparedFrame frame)</code>
+	 * <p>	Sends a frame to one site and waits for its response, up to the {@link #FAN_OUT_TIMEOUT}.
+	 * @param client - the site's <tt>RemoteClient</tt>.
+	 * @param command - the {@link ONECommand} being sent.
+	 * @param frame - the {@link PreparedFrame} to send.
+	 * @return a <tt>CompletableFuture</tt> completed with the site's line of the summary, which is an error line if it was not connected or did not respond in time.
+	 * </ul>
+	 */
+	private CompletableFuture<String> sendToSite(RemoteClient client, ONECommand command, PreparedFrame frame) {
+		final String name = (client.getSite() == null) ? "server" : client.getSite();
+		if(!client.isConnected()) {
+			return CompletableFuture.completedFuture(ControllerInterface.CONSOLE_ERROR + name + ": not connected.");
+		}
+		
+		//	Register for the response before sending the command, so that a quick response cannot be missed.
+		final ResponseCorrelator correlator = sites.getResponses(client);
+		final CompletableFuture<String> response = correlator.expectResponse(command);
+		final long sentNanos = System.nanoTime();
+		if(!((command == ONECommand.PING) ? client.pingServer() : client.sendMessage(frame))) {
+			correlator.cancel(response);
+			return CompletableFuture.completedFuture(ControllerInterface.CONSOLE_ERROR + name + ": not connected.");
+		}
+		return response.orTimeout(FAN_OUT_TIMEOUT, TimeUnit.MILLISECONDS).handle((text, throwable) -> {
+			if(throwable != null) {
+				correlator.cancel(response);
+				return ControllerInterface.CONSOLE_ERROR + name + ": no response within " + FAN_OUT_TIMEOUT + " ms.";
+			}
+			return "<#> " + name + ": " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentNanos) + " ms, " + text;
+		});
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>handleConnectionCommand</i></b>
+	 * <p>	<code>private void handleConnectionCommand(ONECommand command, RemoteClient client)</code>
+	 * <p>	Connects, disconnects or reconnects one site.
+	 * @param command - the {@link ONECommand}, which is <code>CONNECT</code>, <code>DISCONNECT</code> or <code>RECONNECT</code>.
+	 * @param client - the site's <tt>RemoteClient</tt>.
+	 * </ul>
+	 */
+	private void handleConnectionCommand(ONECommand command, RemoteClient client) {
+		switch (command) {
+			case CONNECT: {
+				if(!client.isConnected()) {
+					client.reconnectToServer();
+				}
+				else {
+					System.out.println(ControllerInterface.CONSOLE_ERROR + "Already connected to " + client.describeServer() + ".");
+				}
+				break;
+			}
+			case DISCONNECT: {
+				if(client.isConnected() || client.isAttemptingConnection()) {
+					client.disconnectFromServer(false);
+				}
+				else {
+					System.out.println(ControllerInterface.CONSOLE_ERROR + "Not connected to " + client.describeServer() + ".");
+				}
+				break;
+			}
+			case RECONNECT: {
+				if(!client.isConnected()) {
+					client.reconnectToServer();
+				}
+				else {
+					client.disconnectFromServer(true);
+				}
+				break;
+			}
+			default:
+				break;
+		}
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>toFrame</i></b>
+	 * <p>	<code>private static PreparedFrame toFrame(ONECommand command, String[] args)</code>
+	 * <p>	Gets the prepared frame sent to the server for a system command.
+	 * @param command - the {@link ONECommand} to send.
+	 * @param args - the command arguments, without any site selector. This <b>can</b> be <code>null</code>.
+	 * @return the {@link PreparedFrame}, or <code>null</code> if the command is not sent to the server as a frame.
+	 * @throws NumberFormatException if the number of seconds passed to <code>OPEN</code> is invalid.
+	 * </ul>
+	 */
+	private static PreparedFrame toFrame(ONECommand command, String[] args) {
+		return PreparedFrame.forCommand(command, (command == ONECommand.OPEN) ? getOpenSeconds(args) : 0);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getOpenSeconds</i></b>
+	 * <p>	<code>private static int getOpenSeconds(String[] args)</code>
+	 * <p>	Gets the number of seconds to open for, from the arguments of an <code>OPEN</code> command.
+	 * @param args - the command arguments. This <b>can</b> be <code>null</code>.
+	 * @return an <code>int</code> from 1 to 9 with the seconds, which is 3 if none were passed.
+	 * @throws NumberFormatException if the first argument is not a number.
+	 * </ul>
+	 */
+	private static int getOpenSeconds(String[] args) {
+		//	In case of zero arguments, default to 3 seconds.
+		return (args == null) ? 3 : Math.max(Math.min(PreparedFrame.MAX_OPEN_SECONDS, Integer.parseInt(args[0])), PreparedFrame.MIN_OPEN_SECONDS);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>isRedundant</i></b>
+	 * <p>	<code>public boolean isRedundant(ONECommand command, String[] args)</code>
+	 * <p>	Checks if a command sent to the primary site would be skipped, because the site is already known to be in the state it sets.
+	 * @param command - the {@link ONECommand} to check.
+	 * @param args - the command arguments. This <b>can</b> be <code>null</code>.
+	 * @return <code>true</code> if the command would not be sent; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean isRedundant(ONECommand command, String[] args) {
+		return !hasArgument(args, FORCE) && stateCache.checkRedundant(remoteClient.getSite(), command) != null;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>hasArgument</i></b>
+	 * <p>	<code>private static boolean hasArgument(String[] args, String argument)</code>
+	 * <p>	Checks if the passed arguments contain an argument.
+	 * @param args - the command arguments. This <b>can</b> be <code>null</code>.
+	 * @param argument - a <tt>String</tt> with the upper-case argument to find.
+	 * @return <code>true</code> if found; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	private static boolean hasArgument(String[] args, String argument) {
+		return args != null && Arrays.asList(args).contains(argument);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>withoutArgument</i></b>
+	 * <p>	<code>private static String[] withoutArgument(String[] args, String argument)</code>
+	 * <p>	Removes every occurrence of an argument.
+	 * @param args - the command arguments. This <b>can</b> be <code>null</code>.
+	 * @param argument - a <tt>String</tt> with the upper-case argument to remove.
+	 * @return the remaining arguments, or <code>null</code> if there are none.
+	 * </ul>
+	 */
+	private static String[] withoutArgument(String[] args, String argument) {
+		if(!hasArgument(args, argument)) {
+			return args;
+		}
+		final String[] remaining = Arrays.stream(args).filter((arg) -> !arg.equals(argument)).toArray(String[]::new);
+		return (remaining.length == 0) ? null : remaining;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>handleCommand</i></b>
+	 * <p>	<code>public boolean handleCommand(ControllerCommand command, String[] args)</code>
+	 * <p>	Handles controller commands.
+	 * @param command - the {@link ControllerCommand} to handle.
+	 * @param args - the command arguments, if any. This <b>can</b> be <code>null</code>.
+	 * @return <code>true</code> if the command was valid and handled; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean handleCommand(ControllerCommand command, String[] args) {
+		//	Handle Commands
+		switch (command) {
+			//	Exit the application.
+			case EXIT: {
+				exitAction.run();
+				break;
+			}
+			//	Call the garbage collector in an effort to free up some memory.
+			case GC: {
+				final long heapBefore = MemoryProfiler.getHeapUsed();
+				final long start = System.nanoTime();
+				System.gc();
+				System.out.println("<#> Full collection took " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms, heap used "
+					+ MemoryProfiler.formatBytes(heapBefore) + " -> " + MemoryProfiler.formatBytes(MemoryProfiler.getHeapUsed()) + ". Use MEM or PROFILE to see where memory goes.");
+				break;
+			}
+			//	Show the memory in use, and the profiler's report if it is running.
+			case MEM: {
+				MemoryProfiler.describeMemory().forEach(System.out::println);
+				if(profiler.isRunning()) {
+					profiler.describe().forEach(System.out::println);
+				}
+				break;
+			}
+			//	Start, stop or report on the memory and allocation profiler.
+			case PROFILE: {
+				handleProfileCommand(args);
+				break;
+			}
+			//	Clear the output text/console window.
+			case CLEAR: {
+				clearAction.run();
+				break;
+			}
+			//	List, add or remove scheduled commands.
+			case SCHEDULE: {
+				handleScheduleCommand(args);
+				break;
+			}
+			//	Show message counts and event subscriber statistics.
+			case EVENTS: {
+				System.out.println("<#> " + messageMetrics.describe());
+				for(Subscription subscription : remoteClient.getEventBus().getSubscriptions()) {
+					System.out.println("<#> Subscriber " + subscription.describe());
+				}
+				for(Supplier<String> report : statusReports) {
+					System.out.println("<#> " + report.get());
+				}
+				break;
+			}
+			//	Show what is known of each site's system state.
+			case STATE: {
+				for(RemoteClient client : sites.getClients()) {
+					stateCache.describe(client.getSite()).forEach(System.out::println);
+				}
+				break;
+			}
+			//	List each site and the state of its connection.
+			case SITES: {
+				sites.describe().forEach(System.out::println);
+				break;
+			}
+			//	List the commands waiting in each site's outbox.
+			case OUTBOX: {
+				if(!Outbox.ENABLED) {
+					System.out.println("<#> The outbox is not enabled. Start the controller with -Done.outbox=true to keep commands issued while disconnected and send them on reconnecting.");
+					break;
+				}
+				for(RemoteClient client : sites.getClients()) {
+					client.getOutbox().describe().forEach(System.out::println);
+				}
+				break;
+			}
+			//	Show the interface stalls reported by the EDT watchdog.
+			case STALLS: {
+				final Supplier<List<String>> report = stallReport;
+				if(report == null) {
+					System.out.println("<#> The EDT watchdog is not enabled. Start the controller with -Done.edt.watchdog=50 to report interface stalls over 50 ms.");
+				}
+				else {
+					report.get().forEach(System.out::println);
+				}
+				break;
+			}
+			//	Get the current application version.
+			case VERSION: {
+				System.out.println("Controller Version: " + Controller.CURRENT_VERSION);
+				break;
+			}
+			default:
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>handleScheduleCommand</i></b>
+	 * <p>	<code>private void handleScheduleCommand(String[] args)</code>
+	 * <p>	Handles the arguments of the <code>SCHEDULE</code> controller command.
+	 * <p>	Supported forms:
+	 * 		<code>SCHEDULE [LIST]</code>, <code>SCHEDULE HISTORY</code>, <code>SCHEDULE REMOVE id</code>,
+	 * 		<code>SCHEDULE AT hh:mm|yyyy-mm-ddThh:mm command</code>, <code>SCHEDULE IN minutes command</code>
+	 * 		and <code>SCHEDULE CRON m h dom mon dow command</code>.
+	 * 		Any command being scheduled may end with <code>SKIP</code> or <code>CATCHUP</code> to choose its {@link MissedRunPolicy}.
+	 * 		By default, <code>OPEN</code> skips missed runs, so the door is never opened late, and every other command catches up.
+	 * @param args - the command arguments. This <b>can</b> be <code>null</code>.
+	 * </ul>
+	 */
+	private void handleScheduleCommand(String[] args) {
+		//	List every scheduled command by default.
+		if(args == null || args[0].equals("LIST")) {
+			final List<ScheduledCommand> jobs = scheduler.getJobs();
+			if(jobs.isEmpty()) {
+				System.out.println("<#> No scheduled commands.");
+			}
+			for(ScheduledCommand job : jobs) {
+				System.out.println("<#> " + job.describe());
+			}
+			return;
+		}
+		
+		final String usage = ControllerInterface.CONSOLE_ERROR + "Usage: SCHEDULE [LIST | HISTORY | REMOVE id | AT hh:mm command | IN minutes command | CRON m h dom mon dow command] [SKIP | CATCHUP]";
+		switch (args[0]) {
+			case "HISTORY": {
+				final List<FireRecord> history = scheduler.getHistory();
+				if(history.isEmpty()) {
+					System.out.println("<#> No scheduled commands have fired yet.");
+				}
+				for(FireRecord record : history) {
+					System.out.println("<#> " + record);
+				}
+				return;
+			}
+			case "REMOVE": {
+				try {
+					if(args.length > 1 && scheduler.remove(Integer.parseInt(args[1].replace("#", "")))) {
+						System.out.println("<#> Removed scheduled command #" + args[1].replace("#", "") + ".");
+					}
+					else {
+						System.out.println(ControllerInterface.CONSOLE_ERROR + "No scheduled command with that id.");
+					}
+				} catch (NumberFormatException nfe) {
+					System.out.println(usage);
+				}
+				return;
+			}
+			case "AT":
+			case "IN":
+			case "CRON": {
+				//	The command being scheduled follows the time, which is one argument, or five for cron.
+				final int commandIndex = args[0].equals("CRON") ? 6 : 2;
+				int commandEnd = args.length;
+				MissedRunPolicy policy = null;
+				if(args[commandEnd - 1].equals("SKIP") || args[commandEnd - 1].equals("CATCHUP")) {
+					policy = args[commandEnd - 1].equals("SKIP") ? MissedRunPolicy.SKIP : MissedRunPolicy.CATCH_UP;
+					commandEnd--;
+				}
+				if(commandEnd <= commandIndex) {
+					System.out.println(usage);
+					return;
+				}
+				
+				final String[] commandArgs = (commandEnd - commandIndex > 1) ? Arrays.copyOfRange(args, commandIndex + 1, commandEnd) : null;
+				final ONECommand command = CommandParser.matchONECommand(args[commandIndex], commandArgs);
+				if(command == null) {
+					System.out.println(ControllerInterface.CONSOLE_ERROR + "Unknown command to schedule: " + args[commandIndex]);
+					return;
+				}
+				if(policy == null) {
+					policy = (command == ONECommand.OPEN) ? MissedRunPolicy.SKIP : MissedRunPolicy.CATCH_UP;
+				}
+				
+				try {
+					final ScheduledCommand job;
+					if(args[0].equals("CRON")) {
+						job = scheduler.scheduleRecurring(command, commandArgs, new CronExpression(String.join(" ", Arrays.copyOfRange(args, 1, 6))), policy);
+					}
+					else {
+						final long runAt = args[0].equals("IN") ? System.currentTimeMillis() + Long.parseLong(args[1]) * 60000 : parseScheduleTime(args[1]);
+						if(runAt <= System.currentTimeMillis()) {
+							System.out.println(ControllerInterface.CONSOLE_ERROR + "Scheduled time must be in the future.");
+							return;
+						}
+						job = scheduler.scheduleOnce(command, commandArgs, runAt, policy);
+					}
+					System.out.println("<#> Scheduled " + job.describe());
+				} catch (IllegalArgumentException | DateTimeParseException e) {
+					System.out.println(ControllerInterface.CONSOLE_ERROR + "Invalid schedule: " + e.getMessage());
+				}
+				return;
+			}
+			default:
+				System.out.println(usage);
+		}
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>handleProfileCommand</i></b>
+	 * <p>	<code>private void handleProfileCommand(String[] args)</code>
+	 * <p>	Handles the arguments of the <code>PROFILE</code> controller command.
+	 * <p>	Supported forms:
+	 * 		<code>PROFILE [START [seconds]]</code>, which profiles for 30 seconds by default or until stopped if <code>0</code> is passed,
+	 * 		<code>PROFILE REPORT</code>, <code>PROFILE STOP</code> and <code>PROFILE DUMP</code>, which writes the recording to a file in the application's folder.
+	 * @param args - the command arguments. This <b>can</b> be <code>null</code>.
+	 * </ul>
+	 */
+	private void handleProfileCommand(String[] args) {
+		final String usage = "<#> Usage: PROFILE [START [seconds]] | PROFILE REPORT | PROFILE STOP | PROFILE DUMP";
+		switch((args == null) ? "START" : args[0]) {
+			case "START": {
+				final long seconds;
+				try {
+					seconds = (args == null || args.length < 2) ? DEFAULT_PROFILE_SECONDS : Long.parseLong(args[1]);
+				} catch (NumberFormatException nfe) {
+					System.out.println(usage);
+					return;
+				}
+				if(!profiler.start(Math.max(0, seconds))) {
+					System.out.println(ControllerInterface.CONSOLE_ERROR + "The profiler is already running. Use PROFILE REPORT or PROFILE STOP.");
+				}
+				else {
+					System.out.println("<#> Profiling " + ((seconds > 0) ? "for " + seconds + " s. The report is shown once it stops." : "until PROFILE STOP."));
+				}
+				return;
+			}
+			case "REPORT": {
+				profiler.describe().forEach(System.out::println);
+				return;
+			}
+			case "STOP": {
+				if(!profiler.stop()) {
+					System.out.println(ControllerInterface.CONSOLE_ERROR + "The profiler is not running.");
+					return;
+				}
+				profiler.describe().forEach(System.out::println);
+				return;
+			}
+			case "DUMP": {
+				final Path file = Paths.get(APP_FOLDER_PATH, "profile-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jfr");
+				try {
+					if(profiler.dump(file)) {
+						System.out.println("<#> Wrote the recording to " + file + ".");
+					}
+					else {
+						System.out.println(ControllerInterface.CONSOLE_ERROR + "The profiler is not running.");
+					}
+				} catch (IOException ioe) {
+					System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Could not write the recording. (" + ioe.getMessage() + ")");
+				}
+				return;
+			}
+			default:
+				System.out.println(usage);
+		}
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>parseScheduleTime</i></b>
+	 * <p>	<code>private long parseScheduleTime(String time)</code>
+	 * <p>	Parses a time for a one-shot scheduled command.
+	 * 		A full local date-time, such as <code>2024-05-01T22:00</code>, is used as-is.
+	 * 		A time of day, such as <code>22:00</code>, refers to its next occurrence, which may be tomorrow.
+	 * @param time - a <tt>String</tt> with the time to parse.
+	 * @return a <code>long</code> with the wall-clock time in milliseconds.
+	 * @throws DateTimeParseException if the time is in neither format.
+	 * </ul>
+	 */
+	private long parseScheduleTime(String time) {
+		if(time.contains("T")) {
+			return LocalDateTime.parse(time).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		}
+		final LocalDateTime now = LocalDateTime.now();
+		LocalDateTime runAt = now.with(LocalTime.parse(time));
+		if(!runAt.isAfter(now)) {
+			runAt = runAt.plusDays(1);
+		}
+		return runAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getStateCache</i></b>
+	 * <p>	<code>public DeviceStateCache getStateCache()</code>
+	 * <p>	Gets the cache of each site's system state, such as to show it in the interface.
+	 * @return the <tt>DeviceStateCache</tt>.
+	 * </ul>
+	 */
+	public DeviceStateCache getStateCache() {
+		return stateCache;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>addStatusReport</i></b>
+	 * <p>	<code>public void addStatusReport(Supplier&lt;String&gt; report)</code>
+	 * <p>	Adds a report that the <code>EVENTS</code> command shows after the message and subscriber statistics.
+	 * @param report - a <tt>Supplier</tt> of the <tt>String</tt> to show.
+	 * </ul>
+	 */
+	public void addStatusReport(Supplier<String> report) {
+		statusReports.add(report);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>setStallReport</i></b>
+	 * <p>	<code>public void setStallReport(Supplier&lt;List&lt;String&gt;&gt; report)</code>
+	 * <p>	Sets the report that the <code>STALLS</code> command shows.
+	 * @param report - a <tt>Supplier</tt> of the lines to show.
+	 * </ul>
+	 */
+	public void setStallReport(Supplier<List<String>> report) {
+		this.stallReport = report;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>shutdown</i></b>
+	 * <p>	<code>public void shutdown()</code>
+	 * <p>	Stops the command scheduler and the profiler, and disconnects from every site.
+	 * </ul>
+	 */
+	public void shutdown() {
+		scheduler.stop();
+		profiler.stop();
+		sites.disconnectAll();
+	}
+}
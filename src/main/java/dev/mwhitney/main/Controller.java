@@ -9,7 +9,9 @@ import java.awt.TrayIcon;
 import java.awt.TrayIcon.MessageType;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import javax.swing.ImageIcon;
 import javax.swing.JOptionPane;
@@ -17,12 +19,20 @@ import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 
+import dev.mwhitney.console.ConsoleSubscriber;
 import dev.mwhitney.enums.ControllerCommand;
+import dev.mwhitney.enums.NotificationKind;
 import dev.mwhitney.enums.ONECommand;
 import dev.mwhitney.gui.ControllerInterface;
-import dev.mwhitney.listeners.MessageListener;
+import dev.mwhitney.gui.EdtWatchdog;
+import dev.mwhitney.gui.InterfaceManager;
+import dev.mwhitney.enums.OverflowStrategy;
+import dev.mwhitney.enums.WaitStrategy;
+import dev.mwhitney.ipc.CommandSocketServer;
 import dev.mwhitney.listeners.RequestListener;
+import dev.mwhitney.notify.NotificationPipeline;
 import dev.mwhitney.remote.RemoteClient;
+import dev.mwhitney.remote.SiteRegistry;
 
 /**
  * 
@@ -36,17 +46,22 @@ public class Controller {
 	//	Static Return Values
 	/** A <code>float</code> for the current controller version. */
 	final public static String CURRENT_VERSION = "1.4.3";
-	/** A <tt>String</tt> for the path to the application's file folder. */
-	@SuppressWarnings("unused")
-	final private static String APP_FOLDER_PATH = System.getProperty("user.home") + "/Minimunch57/ProjectONEController/";
 	
 	//	Primary Objects
-	/** The <tt>ControllerInterface</tt> GUI that can be displayed to easily communicate with the server. */
-	private ControllerInterface controllerGUI;
-	/** The <tt>RemoteClient</tt> used to communicate with the server. */
-	private RemoteClient remoteClient;
+	/** The <tt>InterfaceManager</tt> that owns the GUI that can be displayed to easily communicate with the server. */
+	private final InterfaceManager interfaceManager = new InterfaceManager();
+	/** The <tt>SiteRegistry</tt> of every site the controller communicates with. */
+	private volatile SiteRegistry sites;
+	/** The <tt>RemoteClient</tt> for the primary site, which is sent any message that is not a command. */
+	private volatile RemoteClient remoteClient;
 	/** The <tt>TrayIcon</tt> that handles the pop-up menu and exists on the system tray. */
-	private TrayIcon trayIcon;
+	private volatile TrayIcon trayIcon;
+	/** The <tt>CommandExecutor</tt> that handles commands and runs scheduled commands. */
+	private volatile CommandExecutor commandExecutor;
+	/** The <tt>CommandSocketServer</tt> that accepts commands from other processes, or <code>null</code> if it could not be opened. */
+	private volatile CommandSocketServer commandSocket;
+	/** The <tt>NotificationPipeline</tt> that coalesces and rate limits tray notifications, or <code>null</code> if there is no connection. */
+	private volatile NotificationPipeline notificationPipeline;
 	
 	/**
 	 * <ul>
@@ -57,22 +72,63 @@ public class Controller {
 	 * </ul>
 	 */
 	public Controller() {
-		//	Create controller interface and request listener.
-		try {
-			SwingUtilities.invokeAndWait(() -> {
-				controllerGUI = new ControllerInterface();
+		//	Watch the event dispatch thread for stalls, if enabled, before any GUI events are posted.
+		final long stallThreshold = EdtWatchdog.getConfiguredThreshold();
+		final EdtWatchdog edtWatchdog = (stallThreshold > 0) ? EdtWatchdog.install(stallThreshold, Path.of(CommandExecutor.APP_FOLDER_PATH, "stalls.log")) : null;
+		
+		//	Start the controller as a graph of phases, so that the handshake with the server overlaps with loading the fonts and building the GUI.
+		final StartupGraph startup = new StartupGraph();
+		final CompletableFuture<Void> fonts = startup.run("fonts", ControllerInterface::registerFonts);
+		final CompletableFuture<ControllerInterface> gui = startup.add("gui", SwingUtilities::invokeLater, interfaceManager::create, fonts);
+		final CompletableFuture<SiteRegistry> client = startup.add("sites", () -> {
+			sites = SiteRegistry.fromConfiguration();
+			remoteClient = sites.getPrimary();
+			setupMessageListener(gui);
+			return sites;
+		});
+		
+		//	Set up command handling, which loads and arms any scheduled commands.
+		final CompletableFuture<CommandExecutor> commands = startup.add("commands", () -> {
+			commandExecutor = new CommandExecutor(sites, this::closeController, interfaceManager::clearConsole);
+			commandExecutor.addStatusReport(interfaceManager::describe);
+			//	The lights next to the buttons show the primary site's state.
+			commandExecutor.getStateCache().addListener((state) -> {
+				if(Objects.equals(state.getSite(), remoteClient.getSite())) {
+					interfaceManager.showState(state);
+				}
 			});
-		} catch (InvocationTargetException | InterruptedException e) {
-			e.printStackTrace();
-		}
-		setupRequestListener();
+			if(notificationPipeline != null) {
+				commandExecutor.addStatusReport(notificationPipeline::describe);
+			}
+			if(edtWatchdog != null) {
+				commandExecutor.setStallReport(edtWatchdog::describeStalls);
+			}
+			return commandExecutor;
+		}, client);
+		
+		//	Connect once every subscriber is on the bus, so that no early message is missed.
+		final CompletableFuture<Void> connect = startup.run("connect", () -> sites.connect(), commands);
 		
-		//	Connect to the server.
-		remoteClient = new RemoteClient();
-		setupMessageListener();
+		//	Accept commands from scripts and the command-line client. This wraps System.out, so it must wait for the GUI to reroute it.
+		final CompletableFuture<Void> socket = startup.run("socket", () -> {
+			commandSocket = CommandSocketServer.open(commandExecutor, sites.getResponses(remoteClient));
+		}, gui, commands);
+		
+		//	Accept commands from the GUI's command line.
+		final CompletableFuture<Void> input = startup.run("input", () -> {
+			setupRequestListener();
+			//	The GUI shows prints once it is built, so a connection made before then is reported again.
+			for(RemoteClient site : sites.getClients()) {
+				if(site.isConnected()) {
+					System.out.println("<#> Connected to " + site.describeServer() + (site.isBinary() ? " using the binary protocol." : "."));
+				}
+			}
+		}, gui, connect);
 		
 		//	Create and set up the tray icon.
-		setupTray();
+		final CompletableFuture<Void> tray = startup.run("tray", this::setupTray, gui, commands);
+		
+		startup.finish("GUI", this::closeController, input, socket, tray);
 	}
 	
 	/**
@@ -99,7 +155,7 @@ public class Controller {
 			public void mouseClicked(MouseEvent mouseEvent) {
 				if(mouseEvent.getButton() == MouseEvent.BUTTON1) {
 					if(mouseEvent.getClickCount() == 3) {
-						handleCommand(ONECommand.OPEN, null);
+						commandExecutor.handleCommand(ONECommand.OPEN, null);
 					}
 				}
 			}
@@ -108,12 +164,12 @@ public class Controller {
 		//	Create MenuItems and add ActionListeners.
 		final MenuItem quickOpenItem = new MenuItem("Quick Open");
 		quickOpenItem.addActionListener((actionEvent) -> {
-			handleCommand(ONECommand.OPEN, null);
+			commandExecutor.handleCommand(ONECommand.OPEN, null);
 		});
 		
 		final MenuItem quickLockItem = new MenuItem("Quick Close");
 		quickLockItem.addActionListener((actionEvent) -> {
-			handleCommand(ONECommand.CLOSE, null);
+			commandExecutor.handleCommand(ONECommand.CLOSE, null);
 		});
 		
 		final MenuItem aboutItem = new MenuItem("About");
@@ -125,7 +181,7 @@ public class Controller {
 		final MenuItem settingsItem = new MenuItem("Open Interface");
 		settingsItem.addActionListener((actionEvent) -> {
 			//	If the controller GUI is already displayed, send it to the front. Otherwise, display it.
-			controllerGUI.display();
+			interfaceManager.display();
 		});
 		
 		final MenuItem exitItem = new MenuItem("Exit");
@@ -158,212 +214,57 @@ public class Controller {
 	 * </ul>
 	 */
 	private void setupRequestListener() {
-		if(controllerGUI != null) {
-			controllerGUI.setRequestListener(new RequestListener() {
-				@Override
-				public void messageRequested(String message) {
-					if(remoteClient != null) {
-						remoteClient.sendMessage(message);
-					}
-				}
-				
-				@Override
-				public void commandRequested(ONECommand command, String[] args) {
-					handleCommand(command, args);
-				}
-				
-				@Override
-				public void controllerChangeRequested(ControllerCommand command) {
-					handleCommand(command);
+		interfaceManager.setRequestListener(new RequestListener() {
+			@Override
+			public void messageRequested(String message) {
+				if(remoteClient != null) {
+					remoteClient.sendMessage(message);
 				}
-			});
-		}
+			}
+			
+			@Override
+			public void commandRequested(ONECommand command, String[] args) {
+				commandExecutor.handleCommand(command, args);
+			}
+			
+			@Override
+			public void controllerChangeRequested(ControllerCommand command, String[] args) {
+				commandExecutor.handleCommand(command, args);
+			}
+		});
 	}
 	
 	/**
 	 * <ul>
 	 * <p>	<b><i>setupMessageListener</i></b>
-	 * <p>	<code>private void setupMessageListener()</code>
-	 * <p>	Sets up the message listener to receive messages from the server.
+	 * <p>	<code>private void setupMessageListener(CompletableFuture&lt;ControllerInterface&gt; gui)</code>
+	 * <p>	Sets up the subscribers that receive messages from the server: the console, and the tray, which shows notifications through a {@link NotificationPipeline}.
+	 * 		Each runs on its own thread, so a slow tray notification never delays reading from the server or printing to the console.
+	 * <p>	The subscribers are set up while the GUI is still being built, so that no message is missed. Until it is built, the console's messages wait in its subscriber's ring.
+	 * @param gui - the <tt>CompletableFuture</tt> completed with the GUI once it is built.
 	 * <p>	<b>Note:</b> This method is only meant to be called once by the <code>main()</code> method.
 	 * </ul>
 	 */
-	private void setupMessageListener() {
-		if(remoteClient != null) {
-			remoteClient.setMessageListener(new MessageListener() {
-				@Override
-				public void messageReceived(String message) {
-					System.out.println("!M:" + message);
-				}
-
-				@Override
-				public void broadcastReceived(String broadcastMessage) {
-					trayIcon.displayMessage("Broadcast Received", broadcastMessage, MessageType.NONE);
-					System.out.println("!B:" + broadcastMessage);
-				}
-				
-				@Override
-				public void connectionMessageReceived(String connectionMessage) {
-					if(!connectionMessage.equals("keep-alive")
-					&& !connectionMessage.equals("CONNECTED")
-					&& !connectionMessage.equals("DISCONNECTED")) {
-						System.out.println("!C:" + connectionMessage);
-					}
-				}
-				
-				@Override
-				public void notificationReceived(String notificationMessage) {
-					if(notificationMessage.toUpperCase().startsWith("POKE")) {
-						trayIcon.displayMessage("Poke Received!", notificationMessage.toUpperCase(), MessageType.NONE);
-						notificationMessage = "Poke!";
-					}
-					System.out.println("!N:" + notificationMessage);
-				}
-
-				@Override
-				public void responseMessageReceived(String responseMessage) {
-					System.out.println("!R:" + responseMessage);
+	private void setupMessageListener(CompletableFuture<ControllerInterface> gui) {
+		if(sites != null) {
+			//	Messages are shown in the console directly, rather than printed and classified again.
+			//	During a flood, broadcasts and plain messages are shed, so that responses and security messages always get through.
+			sites.getEventBus().subscribe("console", 1024, WaitStrategy.BLOCKING, OverflowStrategy.SHED_BY_PRIORITY, new ConsoleSubscriber((line) -> {
+				//	Wait until the GUI is built, so that the first lines are shown once it is.
+				gui.exceptionally((throwable) -> null).join();
+				interfaceManager.addLineThrottled(line);
+			}));
+			//	Broadcast storms are coalesced and rate limited before they reach the tray, and shed if it still falls behind.
+			notificationPipeline = NotificationPipeline.fromSystemProperties((kind, caption, text) -> {
+				//	The tray icon is set up after the connection, so messages may arrive before it exists.
+				if(trayIcon != null) {
+					trayIcon.displayMessage(caption, text, (kind == NotificationKind.SECURITY) ? MessageType.WARNING : MessageType.NONE);
 				}
 			});
+			sites.getEventBus().subscribe("tray", 1024, WaitStrategy.BLOCKING, OverflowStrategy.SHED_BY_PRIORITY, notificationPipeline);
 		}
 	}
 	
-	/**
-	 * <ul>
-	 * <p>	<b><i>handleCommand</i></b>
-	 * <p>	<code>private boolean handleCommand(ONECommand command, String[] args)</code>
-	 * <p>	Handles system commands from the controller.
-	 * @param command - the {@link ONECommand} to handle.
-	 * @param args - the command arguments, if any. This <b>can</b> be <code>null</code>.
-	 * @return <code>true</code> if the command was valid and handled; <code>false</code> otherwise.
-	 * </ul>
-	 */
-	private boolean handleCommand(ONECommand command, String[] args) {
-		//	The print prefix, which may change depending on the command.
-//		String printPrefix = "";
-		
-		//	Handle Commands
-		switch (command) {
-			case OPEN: {
-				//	In case of zero arguments, default to 3 seconds.
-				int seconds = 3;
-				if(args != null) {
-					try {
-						seconds = Math.max(Math.min(9, Integer.valueOf(args[0])), 1);
-					} catch(NumberFormatException nfe) {
-						System.out.println(ControllerInterface.CONSOLE_ERROR + "Invalid argument for command: OPEN");
-						break;
-					}
-				}
-				remoteClient.sendMessage("#command=!security:unlock " + seconds);
-				System.out.println("> SENT --> Open (" + seconds + ")");
-				break;
-			}
-			case CLOSE: {
-				remoteClient.sendMessage("#command=!security:lock");
-				System.out.println("> SENT --> Close");
-				break;
-			}
-			case SYSTEM_UNLOCK: {
-				remoteClient.sendMessage("#command=!security:system:unlock");
-				System.out.println("> SENT --> System Unlock");
-				break;
-			}
-			case SYSTEM_LOCK: {
-				remoteClient.sendMessage("#command=!security:system:lock");
-				System.out.println("> SENT --> System Lock");
-				break;
-			}
-			case MANUALUNLOCKS_DISABLE: {
-				remoteClient.sendMessage("#command=!security:manualunlocks:disable");
-				System.out.println("> SENT --> Disable Manual Unlocks");
-				break;
-			}
-			case MANUALUNLOCKS_ENABLE: {
-				remoteClient.sendMessage("#command=!security:manualunlocks:enable");
-				System.out.println("> SENT --> Enable Manual Unlocks");
-				break;
-			}
-			case POKE: {
-				remoteClient.sendMessage("#command=notification:poke");
-				System.out.println("> SENT --> Poke");
-				break;
-			}
-			case CONNECT: {
-				if(!remoteClient.isConnected()) {
-					remoteClient.reconnectToServer();
-				}
-				else {
-					System.out.println(ControllerInterface.CONSOLE_ERROR + "Already connected to the server.");
-				}
-				break;
-			}
-			case DISCONNECT: {
-				if(remoteClient.isConnected() || remoteClient.isAttemptingConnection()) {
-					remoteClient.disconnectFromServer(false);
-				}
-				else {
-					System.out.println(ControllerInterface.CONSOLE_ERROR + "Not connected to the server.");
-				}
-				break;
-			}
-			case RECONNECT: {
-				if(!remoteClient.isConnected()) {
-					remoteClient.reconnectToServer();
-				}
-				else {
-					remoteClient.disconnectFromServer(true);
-				}
-				break;
-			}
-			case PING: {
-				remoteClient.pingServer();
-				break;
-			}
-			default:
-				return false;
-		}
-		return true;
-	}
-	
-	/**
-	 * <ul>
-	 * <p>	<b><i>handleCommand</i></b>
-	 * <p>	<code>private boolean handleCommand(ControllerCommand command)</code>
-	 * <p>	Handles controller commands.
-	 * @param command - the {@link ControllerCommand} to handle.
-	 * @return <code>true</code> if the command was valid and handled; <code>false</code> otherwise.
-	 * </ul>
-	 */
-	private boolean handleCommand(ControllerCommand command) {
-		//	Handle Commands
-		switch (command) {
-			//	Exit the application.
-			case EXIT: {
-				closeController();
-				break;
-			}
-			//	Call the garbage collector in an effort to free up some memory.
-			case GC: {
-				System.gc();
-				break;
-			}
-			//	Clear the output text/console window.
-			case CLEAR: {
-				controllerGUI.clearConsole();
-				break;
-			}
-			//	Get the current application version.
-			case VERSION: {
-				//	Handled in ControllerInterface.
-				break;
-			}
-			default:
-				return false;
-		}
-		return true;
-	}
-	
 	/**
 	 * <ul>
 	 * <p>	<b><i>closeController</i></b>
@@ -372,7 +273,15 @@ public class Controller {
 	 * </ul>
 	 */
 	private void closeController() {
-		remoteClient.disconnectFromServer();
+		if(commandSocket != null) {
+			commandSocket.stop();
+		}
+		if(notificationPipeline != null) {
+			notificationPipeline.close();
+		}
+		if(commandExecutor != null) {
+			commandExecutor.shutdown();
+		}
 		System.exit(0);
 	}
 }
@@ -1,16 +1,69 @@
 package dev.mwhitney.main;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import dev.mwhitney.enums.OutputFormat;
+import dev.mwhitney.ipc.CommandSocketServer;
+import dev.mwhitney.ipc.InstanceLock;
+import dev.mwhitney.metrics.ControllerMetrics;
+
 /**
  * 
  * A class solely responsible for initializing the Project O.N.E. Controller Application.
+ * <p>	By default, the controller starts with its GUI and tray icon.
+ * 		Passing <code>--headless</code>, or setting the <code>one.headless</code> system property to <code>true</code>, starts it without either, reading commands from the standard input.
+ * 		Passing <code>--gui</code> starts it with its GUI even if the system property is set.
+ * 		In headless mode, <code>--json</code> writes the output as a structured JSON log instead of readable text.
+ * <p>	Only one controller may run at a time for each command socket, so that a second launch never opens a duplicate connection to the server.
+ * <p>	The controller's metrics are registered as MBeans under <code>dev.mwhitney.ProjectONEController</code>, so they can be read with a local JMX client such as <code>jconsole</code>.
  * 
  * @author Matthew Whitney
  *
  */
 public class ControllerInitializer {
+	
+	/** The <tt>InstanceLock</tt> held for as long as the controller runs. It is kept here so that it is never garbage collected and released. */
+	private static InstanceLock instanceLock;
 
 	public static void main(String[] args) {
-		@SuppressWarnings("unused")
-		final Controller controllerApp = new Controller();
+		boolean headless = Boolean.getBoolean("one.headless");
+		OutputFormat format = OutputFormat.TEXT;
+		for(String arg : args) {
+			if(arg.equalsIgnoreCase("--headless")) {
+				headless = true;
+			}
+			else if(arg.equalsIgnoreCase("--gui")) {
+				headless = false;
+			}
+			else if(arg.equalsIgnoreCase("--json")) {
+				format = OutputFormat.JSON;
+			}
+		}
+		
+		//	Ensure that no other controller is already running.
+		final Path socketPath = CommandSocketServer.getSocketPath();
+		try {
+			instanceLock = InstanceLock.tryAcquire(socketPath.resolveSibling(socketPath.getFileName() + ".lock"));
+		} catch (IOException ioe) {
+			System.err.println("Could not create the controller's lock file. (" + ioe.getMessage() + ")");
+			System.exit(1);
+		}
+		if(instanceLock == null) {
+			System.err.println("Another Project O.N.E. Controller is already running. Send it commands with: java -cp <jar> dev.mwhitney.ipc.CommandClient <command>");
+			System.exit(1);
+		}
+		
+		//	Expose the controller's metrics to local JMX clients. JMX loads several hundred classes, so this is kept off the startup path.
+		CompletableFuture.runAsync(ControllerMetrics.get()::registerMBeans);
+		
+		if(headless) {
+			new HeadlessController(format).readCommands(System.in);
+		}
+		else {
+			@SuppressWarnings("unused")
+			final Controller controllerApp = new Controller();
+		}
 	}
 }
@@ -0,0 +1,129 @@
+package dev.mwhitney.main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import dev.mwhitney.console.ConsoleOutputStream;
+import dev.mwhitney.console.ConsoleSubscriber;
+import dev.mwhitney.enums.OutputFormat;
+import dev.mwhitney.enums.OverflowStrategy;
+import dev.mwhitney.enums.WaitStrategy;
+import dev.mwhitney.gui.ControllerInterface;
+import dev.mwhitney.ipc.CommandSocketServer;
+import dev.mwhitney.remote.SiteRegistry;
+
+/**
+ * 
+ * Manages the Project O.N.E. Controller without a GUI or tray icon, for machines without a display.
+ * <p>	No AWT or Swing classes are loaded in this mode. Commands are read line by line from an input stream, such as the standard input, or from the {@link CommandSocketServer},
+ * 		and every print, including messages from the server, is written to the standard output as readable text or as a structured JSON log.
+ * 
+ * @author Matthew Whitney
+ *
+ */
+public class HeadlessController {
+	
+	//	Primary Objects
+	/** The <tt>SiteRegistry</tt> of every site the controller communicates with. */
+	private final SiteRegistry sites;
+	/** The <tt>CommandExecutor</tt> that handles commands and runs scheduled commands. */
+	private final CommandExecutor commandExecutor;
+	/** The <tt>CommandSocketServer</tt> that accepts commands from other processes, or <code>null</code> if it could not be opened. */
+	private final CommandSocketServer commandSocket;
+	
+	//	Variables
+	/** The <tt>CountDownLatch</tt> that keeps the controller running after its input has closed. */
+	private final CountDownLatch exitLatch = new CountDownLatch(1);
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>HeadlessController</i></b>
+	 * <p>	<code>public HeadlessController(OutputFormat format)</code>
+	 * <p>	Creates a new <tt>HeadlessController</tt> and connects to the server.
+	 * <p>	NOTE: There is only intended to be one instance of this class operating at any given time.
+	 * @param format - the <tt>OutputFormat</tt> to write prints in.
+	 * </ul>
+	 */
+	public HeadlessController(OutputFormat format) {
+		//	Replace the standard output so that every print is classified and formatted.
+		final ConsoleOutputStream console = new ConsoleOutputStream(format, System.out, System.err);
+		System.setOut(new PrintStream(console, true, StandardCharsets.UTF_8));
+		
+		//	Create each site's client, writing their messages straight to the console, which sheds broadcasts during a flood.
+		//	Each phase needs the one before, so they run in turn on this thread rather than on a pool.
+		final StartupGraph startup = new StartupGraph(Runnable::run);
+		final CompletableFuture<SiteRegistry> client = startup.add("sites", () -> {
+			final SiteRegistry created = SiteRegistry.fromConfiguration();
+			created.getEventBus().subscribe("console", 1024, WaitStrategy.BLOCKING, OverflowStrategy.SHED_BY_PRIORITY, new ConsoleSubscriber(console::writeLine));
+			return created;
+		});
+		
+		//	Set up command handling, which loads and arms any scheduled commands.
+		final CompletableFuture<CommandExecutor> commands = startup.add("commands", () -> new CommandExecutor(client.join(), this::closeController, () -> {
+			System.out.println("<#> There is no console to clear in headless mode.");
+		}), client);
+		
+		//	Connect once every subscriber is on the bus, so that no early message is missed.
+		final CompletableFuture<Void> connect = startup.run("connect", () -> client.join().connect(), commands);
+		
+		//	Accept commands from scripts and the command-line client.
+		final CompletableFuture<CommandSocketServer> socket = startup.add("socket", () -> CommandSocketServer.open(commands.join(), client.join().getResponses(client.join().getPrimary())), connect);
+		
+		//	Commands are read from the input as soon as this returns, so wait until they can be handled.
+		startup.finish("headless", this::closeController, socket).join();
+		sites = client.join();
+		commandExecutor = commands.join();
+		commandSocket = socket.join();
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>readCommands</i></b>
+	 * <p>	<code>public void readCommands(InputStream in)</code>
+	 * <p>	Reads commands line by line from the passed input stream and executes them, exactly as if they were entered into the GUI's command line.
+	 * <p>	When the input closes, the controller keeps running so that messages and scheduled commands are still handled. This method then blocks until the controller exits.
+	 * @param in - the <tt>InputStream</tt> to read commands from.
+	 * </ul>
+	 */
+	public void readCommands(InputStream in) {
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				if(!line.isBlank()) {
+					System.out.println("> " + line.trim());
+					commandExecutor.execute(line);
+				}
+			}
+		} catch (IOException ioe) {
+			System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Error reading commands. (" + ioe.getMessage() + ")");
+		}
+		
+		try {
+			exitLatch.await();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>closeController</i></b>
+	 * <p>	<code>private void closeController()</code>
+	 * <p>	Closes the controller, stopping the scheduler and disconnecting from the server.
+	 * </ul>
+	 */
+	private void closeController() {
+		if(commandSocket != null) {
+			commandSocket.stop();
+		}
+		commandExecutor.shutdown();
+		exitLatch.countDown();
+		System.exit(0);
+	}
+}
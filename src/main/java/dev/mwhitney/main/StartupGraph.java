@@ -0,0 +1,228 @@
+package dev.mwhitney.main;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import dev.mwhitney.gui.ControllerInterface;
+
+/**
+ *
+ * Runs the controller's startup as a graph of named phases, each starting as soon as the phases it depends on have finished,
+ * so that independent work, such as the handshake with the server and building the GUI, overlaps.
+ * <p>	Every phase is timed from the launch of the JVM. Once the phase that makes the controller ready for commands finishes,
+ * 		the timings and the time to the first command are printed.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class StartupGraph {
+
+	//	Variables
+	/** The <tt>Executor</tt> that runs phases which are not given their own <tt>Executor</tt>, such as the EDT. */
+	private final Executor executor;
+	/** A <code>long</code> for the <code>System.nanoTime()</code> at which this graph was created. */
+	private final long createdNanos = System.nanoTime();
+	/**
+	 * A <code>long</code> for the wall-clock time at which this graph was created.
+	 * The JVM's launch time is only looked up once startup has finished, as loading the management classes takes several milliseconds.
+	 */
+	private final long createdMillis = System.currentTimeMillis();
+	/** The <tt>List</tt> of timings of the phases that have finished, with times relative to this graph's creation. Guarded by itself. */
+	private final List<PhaseTiming> timings = new ArrayList<>();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>StartupGraph</i></b>
+	 * <p>	<code>public StartupGraph()</code>
+	 * <p>	Creates a new <tt>StartupGraph</tt>, with its own pool of daemon threads to run phases on.
+	 * </ul>
+	 */
+	public StartupGraph() {
+		final AtomicInteger threads = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(3, (runnable) -> {
+			final Thread thread = new Thread(runnable, "ONE-Startup-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>StartupGraph</i></b>
+	 * <p>	<code>public StartupGraph(Executor executor)</code>
+	 * <p>	Creates a new <tt>StartupGraph</tt> that runs phases on the passed <tt>Executor</tt>.
+	 * 		Passing <code>Runnable::run</code> runs each phase on the thread that finished its last dependency, which avoids starting threads when there is nothing to overlap.
+	 * @param executor - the <tt>Executor</tt> to run phases on.
+	 * </ul>
+	 */
+	public StartupGraph(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>add</i></b>
+	 * <p>	<code>public &lt;T&gt; CompletableFuture&lt;T&gt; add(String name, Supplier&lt;T&gt; task, CompletableFuture&lt;?&gt;... after)</code>
+	 * <p>	Adds a phase that runs on the startup threads once every phase it depends on has finished.
+	 * 		If any of them failed, this phase does not run and fails too.
+	 * @param <T> the type of the phase's result.
+	 * @param name - a <tt>String</tt> with the phase's name, as printed in the timings.
+	 * @param task - the <tt>Supplier</tt> that runs the phase and returns its result.
+	 * @param after - the <tt>CompletableFuture</tt>s of the phases that must finish first.
+	 * @return a <tt>CompletableFuture</tt> completed with the phase's result.
+	 * </ul>
+	 */
+	public <T> CompletableFuture<T> add(String name, Supplier<T> task, CompletableFuture<?>... after) {
+		return add(name, executor, task, after);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>add</i></b>
+	 * <p>	<code>public &lt;T&gt; CompletableFuture&lt;T&gt; add(String name, Executor runOn, Supplier&lt;T&gt; task, CompletableFuture&lt;?&gt;... after)</code>
+	 * <p>	Adds a phase that runs on the passed <tt>Executor</tt>, such as <code>SwingUtilities::invokeLater</code>, once every phase it depends on has finished.
+	 * @param <T> the type of the phase's result.
+	 * @param name - a <tt>String</tt> with the phase's name, as printed in the timings.
+	 * @param runOn - the <tt>Executor</tt> to run the phase on.
+	 * @param task - the <tt>Supplier</tt> that runs the phase and returns its result.
+	 * @param after - the <tt>CompletableFuture</tt>s of the phases that must finish first.
+	 * @return a <tt>CompletableFuture</tt> completed with the phase's result.
+	 * </ul>
+	 */
+	public <T> CompletableFuture<T> add(String name, Executor runOn, Supplier<T> task, CompletableFuture<?>... after) {
+		return CompletableFuture.allOf(after).thenApplyAsync((ignored) -> {
+			final long start = System.nanoTime();
+			try {
+				return task.get();
+			} finally {
+				synchronized(timings) {
+					timings.add(new PhaseTiming(name, start - createdNanos, System.nanoTime() - createdNanos, Thread.currentThread().getName()));
+				}
+			}
+		}, runOn);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>run</i></b>
+	 * <p>	<code>public CompletableFuture&lt;Void&gt; run(String name, Runnable task, CompletableFuture&lt;?&gt;... after)</code>
+	 * <p>	Adds a phase without a result that runs on the startup threads once every phase it depends on has finished.
+	 * @param name - a <tt>String</tt> with the phase's name, as printed in the timings.
+	 * @param task - the <tt>Runnable</tt> that runs the phase.
+	 * @param after - the <tt>CompletableFuture</tt>s of the phases that must finish first.
+	 * @return a <tt>CompletableFuture</tt> completed once the phase has finished.
+	 * </ul>
+	 */
+	public CompletableFuture<Void> run(String name, Runnable task, CompletableFuture<?>... after) {
+		return add(name, executor, () -> {
+			task.run();
+			return null;
+		}, after);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>finish</i></b>
+	 * <p>	<code>public CompletableFuture&lt;Void&gt; finish(String mode, Runnable exitAction, CompletableFuture&lt;?&gt;... ready)</code>
+	 * <p>	Marks the phases after which the controller is ready for its first command. Once they have all finished,
+	 * 		the timings of every phase and the time to the first command are printed, and the startup threads are stopped.
+	 * 		If a phase failed, the timings are printed with the failure instead, and no time to the first command is reported.
+	 * <p>	If the <code>one.exitAfterStartup</code> system property is set to a number of milliseconds, the controller then exits that long after it is ready.
+	 * 		This is used for class data sharing training runs and startup benchmarks.
+	 * @param mode - a <tt>String</tt> with the name of the mode the controller started in, such as <code>GUI</code>.
+	 * @param exitAction - the <tt>Runnable</tt> that exits the controller.
+	 * @param ready - the <tt>CompletableFuture</tt>s of the phases that must finish before commands are accepted.
+	 * @return a <tt>CompletableFuture</tt> completed once the controller is ready, or exceptionally if a phase failed.
+	 * </ul>
+	 */
+	public CompletableFuture<Void> finish(String mode, Runnable exitAction, CompletableFuture<?>... ready) {
+		return CompletableFuture.allOf(ready).whenComplete((ignored, throwable) -> {
+			if(executor instanceof ExecutorService) {
+				((ExecutorService) executor).shutdown();
+			}
+			final long finishedNanos = System.nanoTime() - createdNanos;
+			if(throwable != null) {
+				//	A failed startup is never reported as ready, so that it does not count toward the time to the first command.
+				System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Startup failed " + toLaunchMillis(finishedNanos) + " ms after launch. (" + throwable.getCause() + ")");
+				System.out.println("<#> " + describe());
+			}
+			else {
+				System.out.println("<#> " + describe() + " Ready for the first command " + toLaunchMillis(finishedNanos) + " ms after launch.");
+				System.out.println("<#> " + StartupReport.describe(mode));
+			}
+			
+			final long exitDelay = Long.getLong("one.exitAfterStartup", -1);
+			if(exitDelay >= 0) {
+				CompletableFuture.delayedExecutor(exitDelay, TimeUnit.MILLISECONDS).execute(exitAction);
+			}
+		});
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public String describe()</code>
+	 * <p>	Describes when each finished phase started and ended, in milliseconds since the JVM was launched, and the thread it ran on.
+	 * @return a <tt>String</tt> with the phases in the order they started.
+	 * </ul>
+	 */
+	public String describe() {
+		final StringBuilder builder = new StringBuilder("Startup phases:");
+		synchronized(timings) {
+			timings.sort(Comparator.comparingLong((timing) -> timing.startNanos));
+			for(PhaseTiming timing : timings) {
+				builder.append(' ').append(timing.name).append(' ').append(toLaunchMillis(timing.startNanos)).append('-').append(toLaunchMillis(timing.endNanos))
+					.append(" ms (").append(timing.thread).append("),");
+			}
+		}
+		builder.setLength(builder.length() - 1);
+		return builder.append('.').toString();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>toLaunchMillis</i></b>
+	 * <p>	<code>private long toLaunchMillis(long sinceCreated)</code>
+	 * <p>	Converts a time relative to this graph's creation into milliseconds since the JVM was launched, measured as {@link StartupReport} does.
+	 * @param sinceCreated - a <code>long</code> with the nanoseconds since this graph was created.
+	 * @return a <code>long</code> with the milliseconds since launch.
+	 * </ul>
+	 */
+	private long toLaunchMillis(long sinceCreated) {
+		return createdMillis - ManagementFactory.getRuntimeMXBean().getStartTime() + sinceCreated / 1_000_000;
+	}
+
+	/**
+	 *
+	 * When a finished phase started and ended, and which thread it ran on.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	private static final class PhaseTiming {
+		/** A <tt>String</tt> for the phase's name. */
+		private final String name;
+		/** A <code>long</code> for when the phase started, in nanoseconds since the graph was created. */
+		private final long startNanos;
+		/** A <code>long</code> for when the phase ended, in nanoseconds since the graph was created. */
+		private final long endNanos;
+		/** A <tt>String</tt> for the name of the thread the phase ran on. */
+		private final String thread;
+
+		private PhaseTiming(String name, long startNanos, long endNanos, String thread) {
+			this.name = name;
+			this.startNanos = startNanos;
+			this.endNanos = endNanos;
+			this.thread = thread;
+		}
+	}
+}
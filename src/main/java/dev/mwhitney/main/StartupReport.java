@@ -0,0 +1,66 @@
+package dev.mwhitney.main;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ *
+ * A utility class for describing how long the controller took to start and how much memory it is using, so that the GUI and headless modes can be compared.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class StartupReport {
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>StartupReport</i></b>
+	 * <p>	<code>private StartupReport()</code>
+	 * <p>	Private constructor, as this is a utility class that should never be instantiated.
+	 * </ul>
+	 */
+	private StartupReport() {}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public static String describe(String mode)</code>
+	 * <p>	Describes the time since the JVM started, the resident memory, and the number of classes loaded.
+	 * @param mode - a <tt>String</tt> with the name of the mode the controller started in, such as <code>GUI</code>.
+	 * @return a <tt>String</tt> with the description.
+	 * </ul>
+	 */
+	public static String describe(String mode) {
+		final long startupMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+		final long residentKB = getResidentMemoryKB();
+		return "Started in " + mode + " mode in " + startupMillis + " ms"
+			+ (residentKB > 0 ? String.format(", resident memory %.1f MB", residentKB / 1024.0) : "")
+			+ ", " + ManagementFactory.getClassLoadingMXBean().getLoadedClassCount() + " classes loaded.";
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getResidentMemoryKB</i></b>
+	 * <p>	<code>public static long getResidentMemoryKB()</code>
+	 * <p>	Gets the resident set size of this process from <code>/proc/self/status</code>.
+	 * @return a <code>long</code> with the resident memory in kilobytes, or <code>-1</code> if it is not available on this system.
+	 * </ul>
+	 */
+	public static long getResidentMemoryKB() {
+		final Path status = Paths.get("/proc/self/status");
+		if(!Files.isReadable(status)) {
+			return -1;
+		}
+		try {
+			for(String line : Files.readAllLines(status)) {
+				if(line.startsWith("VmRSS:")) {
+					return Long.parseLong(line.replaceAll("[^0-9]", ""));
+				}
+			}
+		} catch (IOException | NumberFormatException e) {}
+		return -1;
+	}
+}
@@ -0,0 +1,833 @@
+package dev.mwhitney.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import dev.mwhitney.enums.MessageType;
+import dev.mwhitney.enums.OutboundLane;
+import dev.mwhitney.enums.OutboundType;
+import dev.mwhitney.gui.ControllerInterface;
+
+/**
+ *
+ * The controller's metrics registry, shared by the connection, the dispatcher and the GUI.
+ * <p>	Counters are striped <tt>LongAdder</tt>s, so recording from the reading thread or the event dispatch thread costs a few nanoseconds and never takes a lock.
+ * 		The metrics are read through JMX, with any local client such as <code>jconsole</code>, once {@link #registerMBeans()} has been called.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class ControllerMetrics {
+
+	//	Static Return Values
+	/** A <tt>String</tt> for the JMX domain the controller's MBeans are registered under. */
+	final public static String DOMAIN = "dev.mwhitney.ProjectONEController";
+	/** The one and only <tt>ControllerMetrics</tt>. */
+	final private static ControllerMetrics INSTANCE = new ControllerMetrics();
+
+	//	Transport
+	/** The <tt>LongAdder</tt> counts of frames received, by <tt>MessageType</tt> ordinal. */
+	private final LongAdder[] framesIn = createAdders(MessageType.values().length);
+	/** The <tt>LongAdder</tt> counts of bytes received, by <tt>MessageType</tt> ordinal. */
+	private final LongAdder[] bytesIn = createAdders(MessageType.values().length);
+	/** The <tt>LongAdder</tt> counts of frames sent, by <tt>OutboundType</tt> ordinal. */
+	private final LongAdder[] framesOut = createAdders(OutboundType.values().length);
+	/** The <tt>LongAdder</tt> counts of bytes sent, by <tt>OutboundType</tt> ordinal. */
+	private final LongAdder[] bytesOut = createAdders(OutboundType.values().length);
+	/** The <tt>LongAdder</tt> count of messages that could not be sent. */
+	private final LongAdder sendFailures = new LongAdder();
+	/** The <tt>ConcurrentHashMap</tt> of each site's connection, keyed by site name, or by <code>server</code> for a single, unnamed connection. */
+	private final Map<String, SiteConnection> siteConnections = new ConcurrentHashMap<>();
+	/** The <tt>LatencyHistogram</tt> of ping round trip times. */
+	private final LatencyHistogram rtt = new LatencyHistogram();
+	/** The <tt>LatencyHistogram</tt>s of the time frames waited in each outbound lane, by <tt>OutboundLane</tt> ordinal. */
+	private final LatencyHistogram[] laneWait = createHistograms(OutboundLane.values().length);
+	/** The <tt>LongAdder</tt> counts of frames refused because their outbound lane was full, by <tt>OutboundLane</tt> ordinal. */
+	private final LongAdder[] laneRefused = createAdders(OutboundLane.values().length);
+	/** An <code>int</code> for the most recent health score of a connection. */
+	private volatile int healthScore = 100;
+	/** The <tt>LongAdder</tt> count of health probes that were never answered. */
+	private final LongAdder probesMissed = new LongAdder();
+	/** The <tt>LatencyHistogram</tt> of the time taken to replace a degraded connection, from opening the new one to swapping it in. */
+	private final LatencyHistogram linkSwaps = new LatencyHistogram();
+	/** The <tt>LongAdder</tt> count of new connections that could not be opened to replace a degraded one. */
+	private final LongAdder linkSwapFailures = new LongAdder();
+	/** A <code>long</code> for the most recent estimate of the server's clock offset, in microseconds. */
+	private volatile long clockOffset;
+	/** A <code>long</code> for the uncertainty of the most recent clock offset, in microseconds, or <code>-1</code> if it was never measured. */
+	private volatile long clockUncertainty = -1;
+	/** The <tt>LatencyHistogram</tt> of the time taken by handshakes that authenticated the token, from starting to connect until the connection was open. */
+	private final LatencyHistogram fullHandshakes = new LatencyHistogram();
+	/** The <tt>LatencyHistogram</tt> of the time taken by handshakes that resumed a session with a ticket. */
+	private final LatencyHistogram resumedHandshakes = new LatencyHistogram();
+
+	//	Interface
+	/** The <tt>LongAdder</tt> count of lines added to the console. */
+	private final LongAdder linesAppended = new LongAdder();
+	/** The <tt>LongAdder</tt> count of lines trimmed from the console. */
+	private final LongAdder linesTrimmed = new LongAdder();
+	/** The <tt>LatencyHistogram</tt> of the time console tasks waited in the event queue. */
+	private final LatencyHistogram edtQueueDelay = new LatencyHistogram();
+	/** The <tt>LongAdder</tt> count of tasks the EDT watchdog reported as stalled. */
+	private final LongAdder edtStalls = new LongAdder();
+	/** The <tt>LongAdder</tt> count of button clicks refused because too many commands were still waiting to be sent. */
+	private final LongAdder buttonClicksRefused = new LongAdder();
+	/** The <tt>IntSupplier</tt> of the command history's size, or <code>null</code> if there is no GUI. */
+	private volatile IntSupplier entryLoggerSize;
+	/** The <tt>IntSupplier</tt> of the console's current line count, or <code>null</code> if there is no GUI. */
+	private volatile IntSupplier consoleLines;
+
+	//	Variables
+	/** An <tt>AtomicBoolean</tt> for whether or not the MBeans have been registered. */
+	private final AtomicBoolean registered = new AtomicBoolean();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>ControllerMetrics</i></b>
+	 * <p>	<code>private ControllerMetrics()</code>
+	 * <p>	Private constructor, as there is only one registry. Use {@link #get()} instead.
+	 * </ul>
+	 */
+	private ControllerMetrics() {}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>get</i></b>
+	 * <p>	<code>public static ControllerMetrics get()</code>
+	 * <p>	Gets the controller's metrics registry.
+	 * @return the <tt>ControllerMetrics</tt>.
+	 * </ul>
+	 */
+	public static ControllerMetrics get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>registerMBeans</i></b>
+	 * <p>	<code>public void registerMBeans()</code>
+	 * <p>	Registers the <code>Transport</code> and <code>Interface</code> MBeans with the platform MBean server. Calling this again does nothing.
+	 * </ul>
+	 */
+	public void registerMBeans() {
+		if(!registered.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			server.registerMBean(new StandardMBean(new TransportView(), TransportMXBean.class, true), new ObjectName(DOMAIN + ":type=Transport"));
+			server.registerMBean(new StandardMBean(new InterfaceView(), InterfaceMXBean.class, true), new ObjectName(DOMAIN + ":type=Interface"));
+		} catch (JMException jme) {
+			System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Could not register the metrics MBeans. (" + jme.getMessage() + ")");
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>createAdders</i></b>
+	 * <p>	<code>private static LongAdder[] createAdders(int count)</code>
+	 * <p>	Creates an array of new <tt>LongAdder</tt>s.
+	 * @param count - an <code>int</code> for the number of adders.
+	 * @return the <tt>LongAdder</tt> array.
+	 * </ul>
+	 */
+	private static LongAdder[] createAdders(int count) {
+		final LongAdder[] adders = new LongAdder[count];
+		for(int i = 0; i < count; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>utf8Length</i></b>
+	 * <p>	<code>public static int utf8Length(CharSequence text)</code>
+	 * <p>	Calculates the number of bytes the passed text takes in UTF-8, without encoding it.
+	 * @param text - the <tt>CharSequence</tt> to measure.
+	 * @return an <code>int</code> with the length in bytes.
+	 * </ul>
+	 */
+	public static int utf8Length(CharSequence text) {
+		final int length = text.length();
+		int bytes = length;
+		for(int i = 0; i < length; i++) {
+			final char c = text.charAt(i);
+			if(c >= 0x80) {
+				if(c < 0x800) {
+					bytes++;
+				}
+				else if(Character.isHighSurrogate(c)) {
+					//	A surrogate pair is four bytes in total.
+					bytes += 2;
+					i++;
+				}
+				else {
+					bytes += 2;
+				}
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>createHistograms</i></b>
+	 * <p>	<code>private static LatencyHistogram[] createHistograms(int count)</code>
+	 * <p>	Creates an array of new <tt>LatencyHistogram</tt>s.
+	 * @param count - an <code>int</code> for the number of histograms.
+	 * @return the <tt>LatencyHistogram</tt> array.
+	 * </ul>
+	 */
+	private static LatencyHistogram[] createHistograms(int count) {
+		final LatencyHistogram[] histograms = new LatencyHistogram[count];
+		for(int i = 0; i < count; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+		return histograms;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>frameReceived</i></b>
+	 * <p>	<code>public void frameReceived(MessageType type, String frame)</code>
+	 * <p>	Records a frame received from the server.
+	 * @param type - the <tt>MessageType</tt> the frame was decoded as.
+	 * @param frame - the raw <tt>String</tt> frame.
+	 * </ul>
+	 */
+	public void frameReceived(MessageType type, String frame) {
+		frameReceived(type, utf8Length(frame));
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>frameReceived</i></b>
+	 * <p>	<code>public void frameReceived(MessageType type, int bytes)</code>
+	 * <p>	Records a frame of the passed length received from the server, such as a binary frame.
+	 * @param type - the <tt>MessageType</tt> the frame was decoded as.
+	 * @param bytes - an <code>int</code> with the frame's length in bytes.
+	 * </ul>
+	 */
+	public void frameReceived(MessageType type, int bytes) {
+		framesIn[type.ordinal()].increment();
+		bytesIn[type.ordinal()].add(bytes);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>frameSent</i></b>
+	 * <p>	<code>public void frameSent(String frame)</code>
+	 * <p>	Records a frame sent to the server.
+	 * @param frame - the <tt>String</tt> frame.
+	 * </ul>
+	 */
+	public void frameSent(String frame) {
+		frameSent(OutboundType.of(frame), utf8Length(frame));
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>frameSent</i></b>
+	 * <p>	<code>public void frameSent(OutboundType type, int bytes)</code>
+	 * <p>	Records a frame of the passed length sent to the server, such as a binary frame.
+	 * @param type - the <tt>OutboundType</tt> of the frame.
+	 * @param bytes - an <code>int</code> with the frame's length in bytes.
+	 * </ul>
+	 */
+	public void frameSent(OutboundType type, int bytes) {
+		framesOut[type.ordinal()].increment();
+		bytesOut[type.ordinal()].add(bytes);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>sendFailed</i></b>
+	 * <p>	<code>public void sendFailed()</code>
+	 * <p>	Records a message that could not be sent.
+	 * </ul>
+	 */
+	public void sendFailed() {
+		sendFailures.increment();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>laneWaited</i></b>
+	 * <p>	<code>public void laneWaited(OutboundLane lane, long nanos)</code>
+	 * <p>	Records how long a frame waited in its outbound lane before being handed to the WebSocket.
+	 * @param lane - the <tt>OutboundLane</tt> the frame waited in.
+	 * @param nanos - a <code>long</code> with the wait in nanoseconds, which is <code>0</code> if it did not wait.
+	 * </ul>
+	 */
+	public void laneWaited(OutboundLane lane, long nanos) {
+		laneWait[lane.ordinal()].record(nanos);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>laneRefused</i></b>
+	 * <p>	<code>public void laneRefused(OutboundLane lane)</code>
+	 * <p>	Records a frame that was refused because its outbound lane was full.
+	 * @param lane - the full <tt>OutboundLane</tt>.
+	 * </ul>
+	 */
+	public void laneRefused(OutboundLane lane) {
+		laneRefused[lane.ordinal()].increment();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>siteAdded</i></b>
+	 * <p>	<code>public void siteAdded(String site)</code>
+	 * <p>	Records a site the controller will connect to, so that it counts as disconnected until its connection first opens.
+	 * @param site - a <tt>String</tt> with the site's name, or <code>null</code> for a single, unnamed connection.
+	 * </ul>
+	 */
+	public void siteAdded(String site) {
+		siteConnection(site);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>connectionOpened</i></b>
+	 * <p>	<code>public void connectionOpened(String site)</code>
+	 * <p>	Records that the connection to a site opened.
+	 * @param site - a <tt>String</tt> with the site's name, or <code>null</code> for a single, unnamed connection.
+	 * </ul>
+	 */
+	public void connectionOpened(String site) {
+		final SiteConnection connection = siteConnection(site);
+		connection.opened.increment();
+		connection.connectedSince = System.nanoTime();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>connectionClosed</i></b>
+	 * <p>	<code>public void connectionClosed(String site)</code>
+	 * <p>	Records that the connection to a site closed.
+	 * @param site - a <tt>String</tt> with the site's name, or <code>null</code> for a single, unnamed connection.
+	 * </ul>
+	 */
+	public void connectionClosed(String site) {
+		siteConnection(site).connectedSince = 0;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>siteConnection</i></b>
+	 * <p>	<code>private SiteConnection siteConnection(String site)</code>
+	 * <p>	Gets the connection record of a site, creating it the first time.
+	 * @param site - a <tt>String</tt> with the site's name, or <code>null</code> for a single, unnamed connection.
+	 * @return the site's <tt>SiteConnection</tt>.
+	 * </ul>
+	 */
+	private SiteConnection siteConnection(String site) {
+		return siteConnections.computeIfAbsent((site == null) ? "server" : site, (name) -> new SiteConnection());
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>healthScored</i></b>
+	 * <p>	<code>public void healthScored(int score, boolean missedProbe)</code>
+	 * <p>	Records a connection's health score, and whether the probe before it was never answered.
+	 * @param score - an <code>int</code> with the score.
+	 * @param missedProbe - a <code>boolean</code> for whether or not a probe was missed.
+	 * </ul>
+	 */
+	public void healthScored(int score, boolean missedProbe) {
+		healthScore = score;
+		if(missedProbe) {
+			probesMissed.increment();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>linkSwapped</i></b>
+	 * <p>	<code>public void linkSwapped(long nanos)</code>
+	 * <p>	Records that a degraded connection was replaced by a new one, which was opened before the old one was closed.
+	 * @param nanos - a <code>long</code> with the time from opening the new connection to swapping it in, in nanoseconds.
+	 * </ul>
+	 */
+	public void linkSwapped(long nanos) {
+		linkSwaps.record(nanos);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>linkSwapFailed</i></b>
+	 * <p>	<code>public void linkSwapFailed()</code>
+	 * <p>	Records that a new connection could not be opened to replace a degraded one.
+	 * </ul>
+	 */
+	public void linkSwapFailed() {
+		linkSwapFailures.increment();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>clockMeasured</i></b>
+	 * <p>	<code>public void clockMeasured(long offset, long uncertainty)</code>
+	 * <p>	Records a new estimate of the offset of a server's clock from the controller's.
+	 * @param offset - a <code>long</code> with the offset in microseconds.
+	 * @param uncertainty - a <code>long</code> with its uncertainty in microseconds.
+	 * </ul>
+	 */
+	public void clockMeasured(long offset, long uncertainty) {
+		clockOffset = offset;
+		clockUncertainty = uncertainty;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>handshakeFinished</i></b>
+	 * <p>	<code>public void handshakeFinished(long nanos, boolean resumed)</code>
+	 * <p>	Records how long a successful handshake with a server took, and whether it resumed a session.
+	 * @param nanos - a <code>long</code> with the time from starting to connect until the connection was open, in nanoseconds.
+	 * @param resumed - a <code>boolean</code> for whether or not the server honored the client's ticket instead of authenticating its token.
+	 * </ul>
+	 */
+	public void handshakeFinished(long nanos, boolean resumed) {
+		(resumed ? resumedHandshakes : fullHandshakes).record(nanos);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>rttMeasured</i></b>
+	 * <p>	<code>public void rttMeasured(long nanos)</code>
+	 * <p>	Records a ping round trip time.
+	 * @param nanos - a <code>long</code> with the round trip time in nanoseconds.
+	 * </ul>
+	 */
+	public void rttMeasured(long nanos) {
+		rtt.record(nanos);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>consoleLinesAppended</i></b>
+	 * <p>	<code>public void consoleLinesAppended(int lines)</code>
+	 * <p>	Records lines added to the console.
+	 * @param lines - an <code>int</code> for the number of lines added.
+	 * </ul>
+	 */
+	public void consoleLinesAppended(int lines) {
+		linesAppended.add(lines);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>consoleLinesTrimmed</i></b>
+	 * <p>	<code>public void consoleLinesTrimmed(int lines)</code>
+	 * <p>	Records old lines removed from the console.
+	 * @param lines - an <code>int</code> for the number of lines removed.
+	 * </ul>
+	 */
+	public void consoleLinesTrimmed(int lines) {
+		linesTrimmed.add(lines);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>edtTaskStarted</i></b>
+	 * <p>	<code>public void edtTaskStarted(long postedNanos)</code>
+	 * <p>	Records how long a console task waited in the event queue, once it starts running.
+	 * @param postedNanos - a <code>long</code> with the <code>System.nanoTime()</code> at which the task was posted.
+	 * </ul>
+	 */
+	public void edtTaskStarted(long postedNanos) {
+		edtQueueDelay.record(System.nanoTime() - postedNanos);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>edtStalled</i></b>
+	 * <p>	<code>public void edtStalled()</code>
+	 * <p>	Records a task that the EDT watchdog reported as stalled.
+	 * </ul>
+	 */
+	public void edtStalled() {
+		edtStalls.increment();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>buttonClickRefused</i></b>
+	 * <p>	<code>public void buttonClickRefused()</code>
+	 * <p>	Records a button click that was refused because too many commands were still waiting to be sent.
+	 * </ul>
+	 */
+	public void buttonClickRefused() {
+		buttonClicksRefused.increment();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setConsoleLines</i></b>
+	 * <p>	<code>public void setConsoleLines(IntSupplier lines)</code>
+	 * <p>	Sets where the console's current line count is read from. It must be safe to read from any thread.
+	 * @param lines - an <tt>IntSupplier</tt> of the console's line count.
+	 * </ul>
+	 */
+	public void setConsoleLines(IntSupplier lines) {
+		consoleLines = lines;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setEntryLoggerSize</i></b>
+	 * <p>	<code>public void setEntryLoggerSize(IntSupplier size)</code>
+	 * <p>	Sets where the size of the command history is read from.
+	 * @param size - an <tt>IntSupplier</tt> of the command history's size.
+	 * </ul>
+	 */
+	public void setEntryLoggerSize(IntSupplier size) {
+		entryLoggerSize = size;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>toMap</i></b>
+	 * <p>	<code>private static Map&lt;String, Long&gt; toMap(Enum&lt;?&gt;[] types, LongAdder[] adders)</code>
+	 * <p>	Sums each adder into a map keyed by the name of the matching type.
+	 * @param types - the <tt>Enum</tt> array of types, in ordinal order.
+	 * @param adders - the <tt>LongAdder</tt> array, by type ordinal.
+	 * @return a <tt>Map</tt> of type names to sums.
+	 * </ul>
+	 */
+	private static Map<String, Long> toMap(Enum<?>[] types, LongAdder[] adders) {
+		final Map<String, Long> map = new LinkedHashMap<>();
+		for(Enum<?> type : types) {
+			map.put(type.name(), adders[type.ordinal()].sum());
+		}
+		return map;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>toMap</i></b>
+	 * <p>	<code>private static Map&lt;String, Double&gt; toMap(Enum&lt;?&gt;[] types, LatencyHistogram[] histograms, double percentile)</code>
+	 * <p>	Reads a percentile of each histogram, in milliseconds, into a map keyed by the name of the matching type.
+	 * @param types - the <tt>Enum</tt> array of types, in ordinal order.
+	 * @param histograms - the <tt>LatencyHistogram</tt> array, by type ordinal.
+	 * @param percentile - a <code>double</code> for the percentile to read, or <code>100</code> for the longest duration.
+	 * @return a <tt>Map</tt> of type names to milliseconds.
+	 * </ul>
+	 */
+	private static Map<String, Double> toMap(Enum<?>[] types, LatencyHistogram[] histograms, double percentile) {
+		final Map<String, Double> map = new LinkedHashMap<>();
+		for(Enum<?> type : types) {
+			final LatencyHistogram histogram = histograms[type.ordinal()];
+			map.put(type.name(), ((percentile >= 100) ? histogram.getMax() : histogram.percentile(percentile)) / 1e6);
+		}
+		return map;
+	}
+
+	/**
+	 *
+	 * The connection metrics of one site, kept separately so that one site reconnecting does not hide the state of the others.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	private static final class SiteConnection {
+		/** The <tt>LongAdder</tt> count of connections opened to the site, including the first. */
+		private final LongAdder opened = new LongAdder();
+		/** A <code>long</code> for the <code>System.nanoTime()</code> at which the site's current connection opened, or <code>0</code> if not connected. */
+		private volatile long connectedSince;
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>getReconnects</i></b>
+		 * <p>	<code>private long getReconnects()</code>
+		 * <p>	Gets the number of times the site's connection was opened again after the first.
+		 * @return a <code>long</code> with the count.
+		 * </ul>
+		 */
+		private long getReconnects() {
+			return Math.max(0, opened.sum() - 1);
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>getUptimeSeconds</i></b>
+		 * <p>	<code>private long getUptimeSeconds()</code>
+		 * <p>	Gets how long the site's current connection has been open.
+		 * @return a <code>long</code> with the uptime in seconds, or <code>0</code> if not connected.
+		 * </ul>
+		 */
+		private long getUptimeSeconds() {
+			final long since = connectedSince;
+			return (since == 0) ? 0 : (System.nanoTime() - since) / 1_000_000_000L;
+		}
+	}
+
+	/**
+	 *
+	 * The view of the registry's transport metrics that is registered as the <code>Transport</code> MBean.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	private class TransportView implements TransportMXBean {
+
+		@Override
+		public Map<String, Long> getFramesIn() {
+			return toMap(MessageType.values(), framesIn);
+		}
+
+		@Override
+		public Map<String, Long> getBytesIn() {
+			return toMap(MessageType.values(), bytesIn);
+		}
+
+		@Override
+		public Map<String, Long> getFramesOut() {
+			return toMap(OutboundType.values(), framesOut);
+		}
+
+		@Override
+		public Map<String, Long> getBytesOut() {
+			return toMap(OutboundType.values(), bytesOut);
+		}
+
+		@Override
+		public long getSendFailures() {
+			return sendFailures.sum();
+		}
+
+		@Override
+		public long getReconnects() {
+			long reconnects = 0;
+			for(SiteConnection connection : siteConnections.values()) {
+				reconnects += connection.getReconnects();
+			}
+			return reconnects;
+		}
+
+		@Override
+		public boolean isConnected() {
+			return !siteConnections.isEmpty() && getConnectedSites() == siteConnections.size();
+		}
+
+		@Override
+		public int getConnectedSites() {
+			int connected = 0;
+			for(SiteConnection connection : siteConnections.values()) {
+				if(connection.connectedSince != 0) {
+					connected++;
+				}
+			}
+			return connected;
+		}
+
+		@Override
+		public long getConnectionUptimeSeconds() {
+			long uptime = Long.MAX_VALUE;
+			for(SiteConnection connection : siteConnections.values()) {
+				uptime = Math.min(uptime, connection.getUptimeSeconds());
+			}
+			return (uptime == Long.MAX_VALUE) ? 0 : uptime;
+		}
+
+		@Override
+		public Map<String, Long> getSiteReconnects() {
+			final Map<String, Long> map = new TreeMap<>();
+			siteConnections.forEach((site, connection) -> map.put(site, connection.getReconnects()));
+			return map;
+		}
+
+		@Override
+		public Map<String, Long> getSiteUptimeSeconds() {
+			final Map<String, Long> map = new TreeMap<>();
+			siteConnections.forEach((site, connection) -> map.put(site, connection.getUptimeSeconds()));
+			return map;
+		}
+
+		@Override
+		public long getRttSamples() {
+			return rtt.getCount();
+		}
+
+		@Override
+		public double getRttP50Millis() {
+			return rtt.percentile(50) / 1e6;
+		}
+
+		@Override
+		public double getRttP90Millis() {
+			return rtt.percentile(90) / 1e6;
+		}
+
+		@Override
+		public double getRttP99Millis() {
+			return rtt.percentile(99) / 1e6;
+		}
+
+		@Override
+		public double getRttMaxMillis() {
+			return rtt.getMax() / 1e6;
+		}
+
+		@Override
+		public Map<String, Long> getLaneFrames() {
+			final Map<String, Long> map = new LinkedHashMap<>();
+			for(OutboundLane lane : OutboundLane.values()) {
+				map.put(lane.name(), laneWait[lane.ordinal()].getCount());
+			}
+			return map;
+		}
+
+		@Override
+		public Map<String, Double> getLaneWaitP50Millis() {
+			return toMap(OutboundLane.values(), laneWait, 50);
+		}
+
+		@Override
+		public Map<String, Double> getLaneWaitP99Millis() {
+			return toMap(OutboundLane.values(), laneWait, 99);
+		}
+
+		@Override
+		public Map<String, Double> getLaneWaitMaxMillis() {
+			return toMap(OutboundLane.values(), laneWait, 100);
+		}
+
+		@Override
+		public Map<String, Long> getLaneRefused() {
+			return toMap(OutboundLane.values(), laneRefused);
+		}
+
+		@Override
+		public int getHealthScore() {
+			return healthScore;
+		}
+
+		@Override
+		public long getHealthProbesMissed() {
+			return probesMissed.sum();
+		}
+
+		@Override
+		public long getLinkSwaps() {
+			return linkSwaps.getCount();
+		}
+
+		@Override
+		public double getLinkSwapMaxMillis() {
+			return linkSwaps.getMax() / 1e6;
+		}
+
+		@Override
+		public long getLinkSwapFailures() {
+			return linkSwapFailures.sum();
+		}
+
+		@Override
+		public double getClockOffsetMillis() {
+			return clockOffset / 1e3;
+		}
+
+		@Override
+		public double getClockUncertaintyMillis() {
+			final long uncertainty = clockUncertainty;
+			return (uncertainty < 0) ? -1 : uncertainty / 1e3;
+		}
+
+		@Override
+		public long getFullHandshakes() {
+			return fullHandshakes.getCount();
+		}
+
+		@Override
+		public double getFullHandshakeP50Millis() {
+			return fullHandshakes.percentile(50) / 1e6;
+		}
+
+		@Override
+		public long getResumedHandshakes() {
+			return resumedHandshakes.getCount();
+		}
+
+		@Override
+		public double getResumedHandshakeP50Millis() {
+			return resumedHandshakes.percentile(50) / 1e6;
+		}
+	}
+
+	/**
+	 *
+	 * The view of the registry's console and GUI metrics that is registered as the <code>Interface</code> MBean.
+	 * <p>	A separate view is needed because an object may only be registered as one MXBean.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	private class InterfaceView implements InterfaceMXBean {
+
+		@Override
+		public long getConsoleLinesAppended() {
+			return linesAppended.sum();
+		}
+
+		@Override
+		public long getConsoleLinesTrimmed() {
+			return linesTrimmed.sum();
+		}
+
+		@Override
+		public long getEdtTasks() {
+			return edtQueueDelay.getCount();
+		}
+
+		@Override
+		public double getEdtQueueDelayP50Millis() {
+			return edtQueueDelay.percentile(50) / 1e6;
+		}
+
+		@Override
+		public double getEdtQueueDelayP99Millis() {
+			return edtQueueDelay.percentile(99) / 1e6;
+		}
+
+		@Override
+		public double getEdtQueueDelayMaxMillis() {
+			return edtQueueDelay.getMax() / 1e6;
+		}
+
+		@Override
+		public long getEdtStalls() {
+			return edtStalls.sum();
+		}
+
+		@Override
+		public long getButtonClicksRefused() {
+			return buttonClicksRefused.sum();
+		}
+
+		@Override
+		public int getConsoleLines() {
+			final IntSupplier lines = consoleLines;
+			return (lines == null) ? 0 : lines.getAsInt();
+		}
+
+		@Override
+		public int getEntryLoggerSize() {
+			final IntSupplier size = entryLoggerSize;
+			return (size == null) ? 0 : size.getAsInt();
+		}
+	}
+}
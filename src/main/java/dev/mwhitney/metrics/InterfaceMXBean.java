@@ -0,0 +1,111 @@
+package dev.mwhitney.metrics;
+
+/**
+ *
+ * The management interface for the controller's console and GUI, registered as <code>dev.mwhitney.ProjectONEController:type=Interface</code>.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public interface InterfaceMXBean {
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getConsoleLinesAppended</i></b>
+	 * <p>	<code>public long getConsoleLinesAppended()</code>
+	 * <p>	Gets the number of lines added to the console.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getConsoleLinesAppended();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getConsoleLinesTrimmed</i></b>
+	 * <p>	<code>public long getConsoleLinesTrimmed()</code>
+	 * <p>	Gets the number of old lines removed from the console to keep it within its maximum size.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getConsoleLinesTrimmed();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getEdtTasks</i></b>
+	 * <p>	<code>public long getEdtTasks()</code>
+	 * <p>	Gets the number of console tasks run on the Swing event dispatch thread.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getEdtTasks();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getEdtQueueDelayP50Millis</i></b>
+	 * <p>	<code>public double getEdtQueueDelayP50Millis()</code>
+	 * <p>	Gets the median time console tasks waited in the event queue before running.
+	 * @return a <code>double</code> with the time in milliseconds.
+	 * </ul>
+	 */
+	public double getEdtQueueDelayP50Millis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getEdtQueueDelayP99Millis</i></b>
+	 * <p>	<code>public double getEdtQueueDelayP99Millis()</code>
+	 * <p>	Gets the 99th percentile time console tasks waited in the event queue before running.
+	 * @return a <code>double</code> with the time in milliseconds.
+	 * </ul>
+	 */
+	public double getEdtQueueDelayP99Millis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getEdtQueueDelayMaxMillis</i></b>
+	 * <p>	<code>public double getEdtQueueDelayMaxMillis()</code>
+	 * <p>	Gets the longest time a console task waited in the event queue before running.
+	 * @return a <code>double</code> with the time in milliseconds.
+	 * </ul>
+	 */
+	public double getEdtQueueDelayMaxMillis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getEdtStalls</i></b>
+	 * <p>	<code>public long getEdtStalls()</code>
+	 * <p>	Gets the number of tasks the EDT watchdog reported as stalled.
+	 * @return a <code>long</code> with the count, which is <code>0</code> if the watchdog is not enabled.
+	 * </ul>
+	 */
+	public long getEdtStalls();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getButtonClicksRefused</i></b>
+	 * <p>	<code>public long getButtonClicksRefused()</code>
+	 * <p>	Gets the number of button clicks refused because too many commands were still waiting to be sent.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getButtonClicksRefused();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getConsoleLines</i></b>
+	 * <p>	<code>public int getConsoleLines()</code>
+	 * <p>	Gets the number of lines currently in the console, from its latest snapshot, without waiting for the Swing event dispatch thread.
+	 * @return an <code>int</code> with the count, or <code>0</code> if there is no GUI.
+	 * </ul>
+	 */
+	public int getConsoleLines();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getEntryLoggerSize</i></b>
+	 * <p>	<code>public int getEntryLoggerSize()</code>
+	 * <p>	Gets the number of entries in the command history.
+	 * @return an <code>int</code> with the size, or <code>0</code> if there is no GUI.
+	 * </ul>
+	 */
+	public int getEntryLoggerSize();
+}
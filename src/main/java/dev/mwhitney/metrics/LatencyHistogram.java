@@ -0,0 +1,144 @@
+package dev.mwhitney.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * A histogram of durations in nanoseconds that can be recorded from many threads without locking.
+ * <p>	Each power of two is split into four buckets, each counted with its own <tt>LongAdder</tt>,
+ * 		so a recording costs a few nanoseconds and percentiles are accurate to within a quarter of their magnitude.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class LatencyHistogram {
+
+	//	Static Return Values
+	/** An <code>int</code> for the number of buckets each power of two is split into, as a power of two. */
+	final private static int SUB_BUCKET_BITS = 2;
+	/** An <code>int</code> for the number of buckets. */
+	final private static int BUCKETS = 64 << SUB_BUCKET_BITS;
+
+	//	Variables
+	/** The <tt>LongAdder</tt> counts of each bucket. */
+	private final LongAdder[] counts = new LongAdder[BUCKETS];
+	/** The <tt>LongAdder</tt> count of every duration recorded. */
+	private final LongAdder total = new LongAdder();
+	/** The <tt>LongAccumulator</tt> holding the longest duration recorded. */
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>LatencyHistogram</i></b>
+	 * <p>	<code>public LatencyHistogram()</code>
+	 * <p>	Creates a new, empty <tt>LatencyHistogram</tt>.
+	 * </ul>
+	 */
+	public LatencyHistogram() {
+		for(int i = 0; i < BUCKETS; i++) {
+			counts[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>record</i></b>
+	 * <p>	<code>public void record(long nanos)</code>
+	 * <p>	Records a duration. Negative durations are recorded as zero.
+	 * @param nanos - a <code>long</code> with the duration in nanoseconds.
+	 * </ul>
+	 */
+	public void record(long nanos) {
+		nanos = Math.max(0, nanos);
+		counts[bucketOf(nanos)].increment();
+		total.increment();
+		max.accumulate(nanos);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>bucketOf</i></b>
+	 * <p>	<code>private static int bucketOf(long nanos)</code>
+	 * <p>	Gets the bucket a duration is counted in, from its highest set bit and the bits just below it.
+	 * @param nanos - a <code>long</code> with the duration in nanoseconds.
+	 * @return an <code>int</code> with the bucket's index.
+	 * </ul>
+	 */
+	private static int bucketOf(long nanos) {
+		final int magnitude = 63 - Long.numberOfLeadingZeros(nanos | 1);
+		if(magnitude < SUB_BUCKET_BITS) {
+			return (int) nanos;
+		}
+		final int subBucket = (int) (nanos >>> (magnitude - SUB_BUCKET_BITS)) & ((1 << SUB_BUCKET_BITS) - 1);
+		return (magnitude << SUB_BUCKET_BITS) | subBucket;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>upperBoundOf</i></b>
+	 * <p>	<code>private static long upperBoundOf(int bucket)</code>
+	 * <p>	Gets the longest duration counted in a bucket.
+	 * @param bucket - an <code>int</code> with the bucket's index.
+	 * @return a <code>long</code> with the duration in nanoseconds.
+	 * </ul>
+	 */
+	private static long upperBoundOf(int bucket) {
+		final int magnitude = bucket >>> SUB_BUCKET_BITS;
+		if(magnitude < SUB_BUCKET_BITS) {
+			return bucket;
+		}
+		final long subBucket = bucket & ((1 << SUB_BUCKET_BITS) - 1);
+		final long base = ((1L << SUB_BUCKET_BITS) | subBucket) << (magnitude - SUB_BUCKET_BITS);
+		return base + (1L << (magnitude - SUB_BUCKET_BITS)) - 1;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>percentile</i></b>
+	 * <p>	<code>public long percentile(double percentile)</code>
+	 * <p>	Calculates a percentile of the recorded durations.
+	 * @param percentile - a <code>double</code> from <code>0</code> to <code>100</code>.
+	 * @return a <code>long</code> with the percentile in nanoseconds, or <code>0</code> if nothing was recorded.
+	 * </ul>
+	 */
+	public long percentile(double percentile) {
+		final long count = total.sum();
+		if(count == 0) {
+			return 0;
+		}
+		final long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			seen += counts[i].sum();
+			if(seen >= target) {
+				return Math.min(upperBoundOf(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getCount</i></b>
+	 * <p>	<code>public long getCount()</code>
+	 * <p>	Gets the number of durations recorded.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getCount() {
+		return total.sum();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getMax</i></b>
+	 * <p>	<code>public long getMax()</code>
+	 * <p>	Gets the longest duration recorded.
+	 * @return a <code>long</code> with the duration in nanoseconds.
+	 * </ul>
+	 */
+	public long getMax() {
+		return max.get();
+	}
+}
@@ -0,0 +1,333 @@
+package dev.mwhitney.metrics;
+
+import java.util.Map;
+
+/**
+ *
+ * The management interface for the controller's connection to the server, registered as <code>dev.mwhitney.ProjectONEController:type=Transport</code>.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public interface TransportMXBean {
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getFramesIn</i></b>
+	 * <p>	<code>public Map&lt;String, Long&gt; getFramesIn()</code>
+	 * <p>	Gets the number of frames received from the server, by message type.
+	 * @return a <tt>Map</tt> of message type names to frame counts.
+	 * </ul>
+	 */
+	public Map<String, Long> getFramesIn();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getBytesIn</i></b>
+	 * <p>	<code>public Map&lt;String, Long&gt; getBytesIn()</code>
+	 * <p>	Gets the number of UTF-8 bytes received from the server, by message type.
+	 * @return a <tt>Map</tt> of message type names to byte counts.
+	 * </ul>
+	 */
+	public Map<String, Long> getBytesIn();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getFramesOut</i></b>
+	 * <p>	<code>public Map&lt;String, Long&gt; getFramesOut()</code>
+	 * <p>	Gets the number of frames sent to the server, by message type.
+	 * @return a <tt>Map</tt> of message type names to frame counts.
+	 * </ul>
+	 */
+	public Map<String, Long> getFramesOut();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getBytesOut</i></b>
+	 * <p>	<code>public Map&lt;String, Long&gt; getBytesOut()</code>
+	 * <p>	Gets the number of UTF-8 bytes sent to the server, by message type.
+	 * @return a <tt>Map</tt> of message type names to byte counts.
+	 * </ul>
+	 */
+	public Map<String, Long> getBytesOut();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getSendFailures</i></b>
+	 * <p>	<code>public long getSendFailures()</code>
+	 * <p>	Gets the number of messages that could not be sent, because the server was not connected or the frame failed to send.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getSendFailures();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getReconnects</i></b>
+	 * <p>	<code>public long getReconnects()</code>
+	 * <p>	Gets the number of times any site's connection was opened again after its first.
+	 * @return a <code>long</code> with the count, summed over every site.
+	 * </ul>
+	 */
+	public long getReconnects();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isConnected</i></b>
+	 * <p>	<code>public boolean isConnected()</code>
+	 * <p>	Checks if the controller is connected to every site.
+	 * @return <code>true</code> if every site is connected; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean isConnected();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getConnectedSites</i></b>
+	 * <p>	<code>public int getConnectedSites()</code>
+	 * <p>	Gets the number of sites that are currently connected.
+	 * @return an <code>int</code> with the count.
+	 * </ul>
+	 */
+	public int getConnectedSites();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getConnectionUptimeSeconds</i></b>
+	 * <p>	<code>public long getConnectionUptimeSeconds()</code>
+	 * <p>	Gets how long every site has been connected, which is the uptime of the most recently opened connection.
+	 * @return a <code>long</code> with the uptime in seconds, or <code>0</code> if any site is not connected.
+	 * </ul>
+	 */
+	public long getConnectionUptimeSeconds();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getSiteReconnects</i></b>
+	 * <p>	<code>public Map&lt;String, Long&gt; getSiteReconnects()</code>
+	 * <p>	Gets the number of times each site's connection was opened again after its first.
+	 * @return a <tt>Map</tt> of site names to counts, with <code>server</code> for a single, unnamed connection.
+	 * </ul>
+	 */
+	public Map<String, Long> getSiteReconnects();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getSiteUptimeSeconds</i></b>
+	 * <p>	<code>public Map&lt;String, Long&gt; getSiteUptimeSeconds()</code>
+	 * <p>	Gets how long each site's current connection has been open.
+	 * @return a <tt>Map</tt> of site names to seconds, which is <code>0</code> for a site that is not connected.
+	 * </ul>
+	 */
+	public Map<String, Long> getSiteUptimeSeconds();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getRttSamples</i></b>
+	 * <p>	<code>public long getRttSamples()</code>
+	 * <p>	Gets the number of ping round trips measured.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getRttSamples();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getRttP50Millis</i></b>
+	 * <p>	<code>public double getRttP50Millis()</code>
+	 * <p>	Gets the median ping round trip time.
+	 * @return a <code>double</code> with the time in milliseconds.
+	 * </ul>
+	 */
+	public double getRttP50Millis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getRttP90Millis</i></b>
+	 * <p>	<code>public double getRttP90Millis()</code>
+	 * <p>	Gets the 90th percentile ping round trip time.
+	 * @return a <code>double</code> with the time in milliseconds.
+	 * </ul>
+	 */
+	public double getRttP90Millis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getRttP99Millis</i></b>
+	 * <p>	<code>public double getRttP99Millis()</code>
+	 * <p>	Gets the 99th percentile ping round trip time.
+	 * @return a <code>double</code> with the time in milliseconds.
+	 * </ul>
+	 */
+	public double getRttP99Millis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getRttMaxMillis</i></b>
+	 * <p>	<code>public double getRttMaxMillis()</code>
+	 * <p>	Gets the longest ping round trip time.
+	 * @return a <code>double</code> with the time in milliseconds.
+	 * </ul>
+	 */
+	public double getRttMaxMillis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLaneFrames</i></b>
+	 * <p>	<code>public Map&lt;String, Long&gt; getLaneFrames()</code>
+	 * <p>	Gets the number of frames sent through each outbound lane.
+	 * @return a <tt>Map</tt> of lane names to counts.
+	 * </ul>
+	 */
+	public Map<String, Long> getLaneFrames();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLaneWaitP50Millis</i></b>
+	 * <p>	<code>public Map&lt;String, Double&gt; getLaneWaitP50Millis()</code>
+	 * <p>	Gets the median time frames waited in each outbound lane.
+	 * @return a <tt>Map</tt> of lane names to times in milliseconds.
+	 * </ul>
+	 */
+	public Map<String, Double> getLaneWaitP50Millis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLaneWaitP99Millis</i></b>
+	 * <p>	<code>public Map&lt;String, Double&gt; getLaneWaitP99Millis()</code>
+	 * <p>	Gets the 99th percentile of the time frames waited in each outbound lane.
+	 * @return a <tt>Map</tt> of lane names to times in milliseconds.
+	 * </ul>
+	 */
+	public Map<String, Double> getLaneWaitP99Millis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLaneWaitMaxMillis</i></b>
+	 * <p>	<code>public Map&lt;String, Double&gt; getLaneWaitMaxMillis()</code>
+	 * <p>	Gets the longest time a frame waited in each outbound lane.
+	 * @return a <tt>Map</tt> of lane names to times in milliseconds.
+	 * </ul>
+	 */
+	public Map<String, Double> getLaneWaitMaxMillis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLaneRefused</i></b>
+	 * <p>	<code>public Map&lt;String, Long&gt; getLaneRefused()</code>
+	 * <p>	Gets the number of frames refused because their outbound lane was full.
+	 * @return a <tt>Map</tt> of lane names to counts.
+	 * </ul>
+	 */
+	public Map<String, Long> getLaneRefused();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getHealthScore</i></b>
+	 * <p>	<code>public int getHealthScore()</code>
+	 * <p>	Gets the most recent health score of a connection, from its round trip trend, missed probes and stalled writes.
+	 * @return an <code>int</code> from <code>0</code> to <code>100</code>.
+	 * </ul>
+	 */
+	public int getHealthScore();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getHealthProbesMissed</i></b>
+	 * <p>	<code>public long getHealthProbesMissed()</code>
+	 * <p>	Gets the number of health probes that were never answered.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getHealthProbesMissed();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLinkSwaps</i></b>
+	 * <p>	<code>public long getLinkSwaps()</code>
+	 * <p>	Gets the number of degraded connections that were replaced by opening a new connection before closing the old one.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getLinkSwaps();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLinkSwapMaxMillis</i></b>
+	 * <p>	<code>public double getLinkSwapMaxMillis()</code>
+	 * <p>	Gets the longest time taken to replace a degraded connection, from opening the new one to swapping it in.
+	 * @return a <code>double</code> with the time in milliseconds.
+	 * </ul>
+	 */
+	public double getLinkSwapMaxMillis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLinkSwapFailures</i></b>
+	 * <p>	<code>public long getLinkSwapFailures()</code>
+	 * <p>	Gets the number of new connections that could not be opened to replace a degraded one.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getLinkSwapFailures();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getClockOffsetMillis</i></b>
+	 * <p>	<code>public double getClockOffsetMillis()</code>
+	 * <p>	Gets the most recent estimate of the time to add to the controller's clock to get the server's, from the clock exchange on pings and keep-alives.
+	 * @return a <code>double</code> with the offset in milliseconds, or <code>0</code> if it was never measured.
+	 * </ul>
+	 */
+	public double getClockOffsetMillis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getClockUncertaintyMillis</i></b>
+	 * <p>	<code>public double getClockUncertaintyMillis()</code>
+	 * <p>	Gets how far the most recent clock offset could be wrong, which is half the network delay of the exchange it came from.
+	 * @return a <code>double</code> with the uncertainty in milliseconds, or <code>-1</code> if it was never measured.
+	 * </ul>
+	 */
+	public double getClockUncertaintyMillis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getFullHandshakes</i></b>
+	 * <p>	<code>public long getFullHandshakes()</code>
+	 * <p>	Gets the number of connections opened by authenticating the token, rather than by resuming a session.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getFullHandshakes();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getFullHandshakeP50Millis</i></b>
+	 * <p>	<code>public double getFullHandshakeP50Millis()</code>
+	 * <p>	Gets the median time taken to open a connection by authenticating the token, from starting to connect until the connection was open.
+	 * @return a <code>double</code> with the time in milliseconds.
+	 * </ul>
+	 */
+	public double getFullHandshakeP50Millis();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getResumedHandshakes</i></b>
+	 * <p>	<code>public long getResumedHandshakes()</code>
+	 * <p>	Gets the number of connections opened by resuming a session with a ticket issued by the server.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getResumedHandshakes();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getResumedHandshakeP50Millis</i></b>
+	 * <p>	<code>public double getResumedHandshakeP50Millis()</code>
+	 * <p>	Gets the median time taken to open a connection by resuming a session, from starting to connect until the connection was open.
+	 * @return a <code>double</code> with the time in milliseconds.
+	 * </ul>
+	 */
+	public double getResumedHandshakeP50Millis();
+}
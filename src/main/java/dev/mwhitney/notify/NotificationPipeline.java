@@ -0,0 +1,305 @@
+package dev.mwhitney.notify;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dev.mwhitney.enums.NotificationKind;
+import dev.mwhitney.events.EventSubscriber;
+import dev.mwhitney.events.MessageEvent;
+import dev.mwhitney.listeners.NotificationListener;
+import dev.mwhitney.util.TokenBucket;
+
+/**
+ *
+ * Turns broadcasts and notifications from the server into tray notifications, without flooding the tray during a storm of messages.
+ * <p>	The first message of a {@link NotificationKind} is shown right away. Any more that arrive within the coalescing window after it are shown as one summary once the window ends,
+ * 		such as <code>12 broadcasts received</code>.
+ * 		Every notification shown takes a token from a {@link TokenBucket}, and summaries wait until one is available, taking in any messages that arrive meanwhile.
+ * <p>	Security-related messages are their own kind, and a token is always kept in reserve for them, so they are never held back by a storm of other messages.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class NotificationPipeline implements EventSubscriber {
+
+	//	Static Return Values
+	/** A <code>long</code> for the default coalescing window, in milliseconds. */
+	final public static long DEFAULT_WINDOW = 2000;
+	/** A <code>double</code> for the default number of notifications shown per minute. */
+	final public static double DEFAULT_RATE = 6;
+	/** A <code>double</code> for the number of notifications that may be shown in a burst. */
+	final private static double BURST = 3;
+	/** A <code>double</code> for the number of tokens kept for security notifications. */
+	final private static double SECURITY_RESERVE = 1;
+	/** A <code>long</code> for the shortest time, in milliseconds, before retrying a rate-limited summary. */
+	final private static long MIN_RETRY = 50;
+
+	//	Listeners
+	/** The <tt>NotificationListener</tt> that shows notifications. */
+	private final NotificationListener notificationListener;
+
+	//	Variables
+	/** A <code>long</code> for the coalescing window, in milliseconds. */
+	private final long windowMillis;
+	/** A <code>double</code> for the number of notifications shown per minute. */
+	private final double ratePerMinute;
+	/** The <tt>TokenBucket</tt> limiting how often notifications are shown. */
+	private final TokenBucket tokenBucket;
+	/** The <tt>EnumMap</tt> of open coalescing windows, by kind. Guarded by <code>this</code>. */
+	private final Map<NotificationKind, Pending> pending = new EnumMap<>(NotificationKind.class);
+	/** The <tt>ScheduledExecutorService</tt> that shows summaries once their window ends. */
+	private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+		final Thread thread = new Thread(runnable, "ONE-Notifications");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	//	Statistics
+	/** A <code>long</code> for the number of messages that were turned into notifications. */
+	private final AtomicLong received = new AtomicLong();
+	/** A <code>long</code> for the number of notifications and summaries shown. */
+	private final AtomicLong shown = new AtomicLong();
+	/** A <code>long</code> for the number of messages folded into a summary rather than shown on their own. */
+	private final AtomicLong coalesced = new AtomicLong();
+	/** A <code>long</code> for the number of times a notification was held back by the rate limit. */
+	private final AtomicLong rateLimited = new AtomicLong();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>NotificationPipeline</i></b>
+	 * <p>	<code>public NotificationPipeline(NotificationListener notificationListener, long windowMillis, double ratePerMinute)</code>
+	 * <p>	Creates a new <tt>NotificationPipeline</tt>.
+	 * @param notificationListener - the <tt>NotificationListener</tt> that shows notifications.
+	 * @param windowMillis - a <code>long</code> for the coalescing window, in milliseconds.
+	 * @param ratePerMinute - a <code>double</code> for the number of notifications shown per minute after the first burst.
+	 * </ul>
+	 */
+	public NotificationPipeline(NotificationListener notificationListener, long windowMillis, double ratePerMinute) {
+		this.notificationListener = notificationListener;
+		this.windowMillis = windowMillis;
+		this.ratePerMinute = ratePerMinute;
+		this.tokenBucket = new TokenBucket(BURST + SECURITY_RESERVE, ratePerMinute / 60.0);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>fromSystemProperties</i></b>
+	 * <p>	<code>public static NotificationPipeline fromSystemProperties(NotificationListener notificationListener)</code>
+	 * <p>	Creates a new <tt>NotificationPipeline</tt> whose window and rate are read from the <code>one.notifications.window</code> (milliseconds)
+	 * 		and <code>one.notifications.rate</code> (per minute) system properties, or the defaults if they are not set.
+	 * @param notificationListener - the <tt>NotificationListener</tt> that shows notifications.
+	 * @return the new <tt>NotificationPipeline</tt>.
+	 * </ul>
+	 */
+	public static NotificationPipeline fromSystemProperties(NotificationListener notificationListener) {
+		double rate = DEFAULT_RATE;
+		try {
+			rate = Double.parseDouble(System.getProperty("one.notifications.rate", String.valueOf(DEFAULT_RATE)));
+		} catch (NumberFormatException nfe) {}
+		return new NotificationPipeline(notificationListener, Long.getLong("one.notifications.window", DEFAULT_WINDOW), rate);
+	}
+
+	@Override
+	public void onEvent(MessageEvent event) {
+		final NotificationKind kind = kindOf(event);
+		if(kind != null) {
+			submit(kind, event.getPayload());
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>kindOf</i></b>
+	 * <p>	<code>public static NotificationKind kindOf(MessageEvent event)</code>
+	 * <p>	Determines which kind of notification, if any, a message from the server is shown as.
+	 * 		Broadcasts and pokes are always shown, other notifications only if they are security-related.
+	 * @param event - the {@link MessageEvent} to check.
+	 * @return the {@link NotificationKind}, or <code>null</code> if the message is not shown as a notification.
+	 * </ul>
+	 */
+	public static NotificationKind kindOf(MessageEvent event) {
+		switch (event.getType()) {
+			case BROADCAST:
+				return event.isSecurityRelated() ? NotificationKind.SECURITY : NotificationKind.BROADCAST;
+			case NOTIFICATION:
+				if(event.isSecurityRelated()) {
+					return NotificationKind.SECURITY;
+				}
+				return event.getPayload().regionMatches(true, 0, "POKE", 0, 4) ? NotificationKind.POKE : null;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>submit</i></b>
+	 * <p>	<code>public void submit(NotificationKind kind, String text)</code>
+	 * <p>	Submits a notification. The first notification of a kind is shown right away if a token is available, and opens a coalescing window.
+	 * 		Notifications that arrive while the window is open, or while no token is available, are shown together once it ends.
+	 * @param kind - the {@link NotificationKind} of the notification.
+	 * @param text - a <tt>String</tt> with the notification's text.
+	 * </ul>
+	 */
+	public void submit(NotificationKind kind, String text) {
+		received.incrementAndGet();
+		synchronized(this) {
+			final Pending summary = pending.get(kind);
+			if(summary != null) {
+				summary.add(text);
+				return;
+			}
+			
+			final Pending window = new Pending();
+			pending.put(kind, window);
+			if(!tokenBucket.tryAcquire(reserveFor(kind))) {
+				rateLimited.incrementAndGet();
+				window.add(text);
+				timer.schedule(() -> flush(kind), Math.max(windowMillis, retryDelay(kind)), TimeUnit.MILLISECONDS);
+				return;
+			}
+			timer.schedule(() -> flush(kind), windowMillis, TimeUnit.MILLISECONDS);
+		}
+		show(kind, kind.getCaption(), text);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>flush</i></b>
+	 * <p>	<code>private void flush(NotificationKind kind)</code>
+	 * <p>	Ends the coalescing window of the passed kind, showing whatever arrived during it once a token is available.
+	 * @param kind - the {@link NotificationKind} of the window.
+	 * </ul>
+	 */
+	private void flush(NotificationKind kind) {
+		final Pending summary;
+		synchronized(this) {
+			if(pending.get(kind).count == 0) {
+				pending.remove(kind);
+				return;
+			}
+			if(!tokenBucket.tryAcquire(reserveFor(kind))) {
+				rateLimited.incrementAndGet();
+				timer.schedule(() -> flush(kind), retryDelay(kind), TimeUnit.MILLISECONDS);
+				return;
+			}
+			summary = pending.remove(kind);
+		}
+		if(summary.count == 1) {
+			show(kind, kind.getCaption(), summary.latest);
+		}
+		else {
+			coalesced.addAndGet(summary.count);
+			show(kind, kind.getSummaryCaption(summary.count), "Latest: " + summary.latest);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>reserveFor</i></b>
+	 * <p>	<code>private static double reserveFor(NotificationKind kind)</code>
+	 * <p>	Gets the number of tokens that must be left after showing a notification of the passed kind.
+	 * @param kind - the {@link NotificationKind} of the notification.
+	 * @return a <code>double</code> with no reserve for security notifications, and the security reserve for anything else.
+	 * </ul>
+	 */
+	private static double reserveFor(NotificationKind kind) {
+		return (kind == NotificationKind.SECURITY) ? 0 : SECURITY_RESERVE;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>retryDelay</i></b>
+	 * <p>	<code>private long retryDelay(NotificationKind kind)</code>
+	 * <p>	Calculates how long a summary of the passed kind should wait for a token.
+	 * @param kind - the {@link NotificationKind} of the summary.
+	 * @return a <code>long</code> with the delay in milliseconds.
+	 * </ul>
+	 */
+	private long retryDelay(NotificationKind kind) {
+		final long nanos = tokenBucket.nanosUntilAvailable(reserveFor(kind));
+		return Math.max(MIN_RETRY, TimeUnit.NANOSECONDS.toMillis(nanos) + 1);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>show</i></b>
+	 * <p>	<code>private void show(NotificationKind kind, String caption, String text)</code>
+	 * <p>	Passes a notification to the listener.
+	 * @param kind - the {@link NotificationKind} of the notification.
+	 * @param caption - a <tt>String</tt> with the notification's caption.
+	 * @param text - a <tt>String</tt> with the notification's text.
+	 * </ul>
+	 */
+	private void show(NotificationKind kind, String caption, String text) {
+		shown.incrementAndGet();
+		notificationListener.notificationReady(kind, caption, text);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public String describe()</code>
+	 * <p>	Describes how many notifications were received, shown, coalesced and held back by the rate limit.
+	 * @return a <tt>String</tt> with the description.
+	 * </ul>
+	 */
+	public String describe() {
+		return "Notifications: received " + received.get() + ", shown " + shown.get() + ", coalesced " + coalesced.get()
+			+ ", rate-limited " + rateLimited.get() + " (window " + windowMillis + " ms, " + ratePerMinute + " per minute)";
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getCoalescedCount</i></b>
+	 * <p>	<code>public long getCoalescedCount()</code>
+	 * <p>	Gets the number of messages folded into a summary rather than shown on their own.
+	 * @return a <code>long</code> with the count.
+	 * </ul>
+	 */
+	public long getCoalescedCount() {
+		return coalesced.get();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>close</i></b>
+	 * <p>	<code>public void close()</code>
+	 * <p>	Stops the pipeline's timer. Summaries that have not been shown yet are discarded.
+	 * </ul>
+	 */
+	public void close() {
+		timer.shutdownNow();
+	}
+
+	/**
+	 *
+	 * An open coalescing window, with the messages waiting to be shown once it ends.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	private static class Pending {
+		/** An <code>int</code> for the number of messages in the summary. */
+		private int count;
+		/** A <tt>String</tt> with the text of the latest message in the summary, or <code>null</code> if there are none. */
+		private String latest;
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>add</i></b>
+		 * <p>	<code>private void add(String text)</code>
+		 * <p>	Adds a message to the summary.
+		 * @param text - a <tt>String</tt> with the text of the message.
+		 * </ul>
+		 */
+		private void add(String text) {
+			count++;
+			latest = text;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package dev.mwhitney.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ *
+ * A Flight Recorder event for a frame sent to the server, timed from the call to send it until it was queued on the connection.
+ *
+ * @author Matthew Whitney
+ *
+ */
+@Name(CommandSendEvent.NAME)
+@Label("Command Send")
+@Category({ "Project O.N.E.", "Transport" })
+@Description("A frame sent to the server, or a message that could not be sent")
+@StackTrace(false)
+public class CommandSendEvent extends jdk.jfr.Event {
+
+	//	Static Return Values
+	/** A <tt>String</tt> for the name this event is recorded under. */
+	final public static String NAME = "dev.mwhitney.CommandSend";
+
+	//	Fields
+	/** A <tt>String</tt> for the name of the frame's <tt>OutboundType</tt>. */
+	@Label("Type")
+	public String type;
+	/** An <code>int</code> for the length of the frame, in characters. */
+	@Label("Length")
+	public int length;
+	/** A <code>boolean</code> for whether or not the frame was sent. */
+	@Label("Sent")
+	public boolean sent;
+}
@@ -0,0 +1,34 @@
+package dev.mwhitney.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ *
+ * A Flight Recorder event for text written to the console, timed for as long as it took to add it to the GUI's console or the standard output.
+ *
+ * @author Matthew Whitney
+ *
+ */
+@Name(ConsoleFlushEvent.NAME)
+@Label("Console Flush")
+@Category({ "Project O.N.E.", "Interface" })
+@Description("Text added to the GUI's console, or a line written to the standard output in headless mode")
+@StackTrace(false)
+public class ConsoleFlushEvent extends jdk.jfr.Event {
+
+	//	Static Return Values
+	/** A <tt>String</tt> for the name this event is recorded under. */
+	final public static String NAME = "dev.mwhitney.ConsoleFlush";
+
+	//	Fields
+	/** An <code>int</code> for the number of characters written. */
+	@Label("Length")
+	public int length;
+	/** An <code>int</code> for the number of lines in the console afterwards, or <code>0</code> in headless mode. */
+	@Label("Console Lines")
+	public int lines;
+}
@@ -0,0 +1,31 @@
+package dev.mwhitney.profiling;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ *
+ * Decides whether the controller's Flight Recorder events are created at all.
+ * <p>	Loading the first event class starts up much of the Flight Recorder, which takes hundreds of milliseconds,
+ * 		so the events are only created once a recording has been started, either by {@link MemoryProfiler}, with <code>-XX:StartFlightRecording</code> or with <code>jcmd</code>.
+ * 		Until then, the classes of the events are never loaded.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class ControllerEvents {
+
+	private ControllerEvents() {}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isEnabled</i></b>
+	 * <p>	<code>public static boolean isEnabled()</code>
+	 * <p>	Checks if the Flight Recorder has been started, in which case the controller's events should be created and committed.
+	 * 		Whether each event is actually recorded is still decided by the event's <code>shouldCommit()</code>.
+	 * @return <code>true</code> if the Flight Recorder has been started; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public static boolean isEnabled() {
+		return FlightRecorder.isInitialized();
+	}
+}
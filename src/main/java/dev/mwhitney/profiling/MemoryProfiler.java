@@ -0,0 +1,482 @@
+package dev.mwhitney.profiling;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import dev.mwhitney.main.StartupReport;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ *
+ * An in-process memory and allocation profiler backed by a JDK Flight Recorder stream.
+ * <p>	While it runs, it samples allocations with their stack traces, and records garbage collection pauses, the heap after each collection, the number of threads,
+ * 		and the controller's own events: {@link CommandSendEvent}, {@link MessageReceiveEvent}, {@link ReconnectEvent} and {@link ConsoleFlushEvent}.
+ * 		Allocation sampling is throttled, so it can be left running while the controller is in use.
+ * <p>	The controller's events are also recorded by any other Flight Recorder recording, such as one started with <code>-XX:StartFlightRecording</code>,
+ * 		so recordings taken in production can be analyzed offline.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class MemoryProfiler {
+
+	//	Static Return Values
+	/** An <code>int</code> for the number of allocation sites shown in a report. */
+	final private static int TOP_SITES = 5;
+	/** A <tt>String</tt> for the allocation sampling rate, the most samples taken per second. */
+	final private static String SAMPLE_RATE = "150/s";
+	/** The <tt>Duration</tt> of recording data kept, so that it can be written to a file. */
+	final private static Duration MAX_AGE = Duration.ofMinutes(10);
+	/** The <tt>String</tt> prefixes of packages that belong to the JDK, which are skipped when looking for the site of an allocation. */
+	final private static String[] JDK_PACKAGES = { "java.", "javax.", "jdk.", "sun.", "com.sun." };
+
+	//	Variables
+	/** The <tt>RecordingStream</tt> that is running, or <code>null</code> if the profiler is stopped. Guarded by this profiler. */
+	private RecordingStream stream;
+	/** The <tt>Session</tt> with the statistics of the running or most recent recording, or <code>null</code> if there has not been one. */
+	private volatile Session session;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>start</i></b>
+	 * <p>	<code>public synchronized boolean start(long seconds)</code>
+	 * <p>	Starts profiling, replacing the statistics of any earlier recording.
+	 * 		If a length is passed, profiling stops by itself once it has passed, and the report is printed.
+	 * @param seconds - a <code>long</code> for the number of seconds to profile for, or <code>0</code> to profile until {@link #stop()} is called.
+	 * @return <code>true</code> if profiling was started; <code>false</code> if it was already running.
+	 * </ul>
+	 */
+	public synchronized boolean start(long seconds) {
+		if(stream != null) {
+			return false;
+		}
+		final Session started = new Session(seconds);
+		final RecordingStream recording = new RecordingStream();
+		recording.setMaxAge(MAX_AGE);
+		recording.enable("jdk.ObjectAllocationSample").with("throttle", SAMPLE_RATE).withStackTrace();
+		recording.enable("jdk.GarbageCollection");
+		recording.enable("jdk.GCHeapSummary");
+		recording.enable("jdk.JavaThreadStatistics").withPeriod(Duration.ofSeconds(1));
+		recording.enable(CommandSendEvent.class);
+		recording.enable(MessageReceiveEvent.class);
+		recording.enable(ReconnectEvent.class);
+		recording.enable(ConsoleFlushEvent.class);
+		recording.onEvent("jdk.ObjectAllocationSample", started::allocationSampled);
+		recording.onEvent("jdk.GarbageCollection", started::collected);
+		recording.onEvent("jdk.GCHeapSummary", started::heapSummarized);
+		recording.onEvent("jdk.JavaThreadStatistics", started::threadsCounted);
+		recording.onEvent(CommandSendEvent.NAME, started::controllerEvent);
+		recording.onEvent(MessageReceiveEvent.NAME, started::controllerEvent);
+		recording.onEvent(ReconnectEvent.NAME, started::controllerEvent);
+		recording.onEvent(ConsoleFlushEvent.NAME, started::controllerEvent);
+		recording.startAsync();
+		stream = recording;
+		session = started;
+
+		if(seconds > 0) {
+			CompletableFuture.delayedExecutor(seconds, TimeUnit.SECONDS).execute(() -> {
+				//	Only stop the recording this timer was started for, not one started after it was stopped by hand.
+				if(stop(started)) {
+					describe().forEach(System.out::println);
+				}
+			});
+		}
+		return true;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>stop</i></b>
+	 * <p>	<code>public boolean stop()</code>
+	 * <p>	Stops profiling, keeping the statistics so that they can still be reported.
+	 * @return <code>true</code> if profiling was stopped; <code>false</code> if it was not running.
+	 * </ul>
+	 */
+	public boolean stop() {
+		return stop(session);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>stop</i></b>
+	 * <p>	<code>private synchronized boolean stop(Session expected)</code>
+	 * <p>	Stops profiling if the passed session is the one running.
+	 * @param expected - the <tt>Session</tt> to stop.
+	 * @return <code>true</code> if profiling was stopped; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	private synchronized boolean stop(Session expected) {
+		if(stream == null || expected == null || session != expected) {
+			return false;
+		}
+		expected.stoppedNanos = System.nanoTime();
+		stream.close();
+		stream = null;
+		return true;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isRunning</i></b>
+	 * <p>	<code>public synchronized boolean isRunning()</code>
+	 * <p>	Checks if the profiler is running.
+	 * @return <code>true</code> if it is running; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public synchronized boolean isRunning() {
+		return stream != null;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>dump</i></b>
+	 * <p>	<code>public synchronized boolean dump(Path file)</code>
+	 * <p>	Writes the last ten minutes of the running recording to a Flight Recorder file, which can be opened in JDK Mission Control or with the <code>jfr</code> tool.
+	 * @param file - the <tt>Path</tt> of the file to write.
+	 * @return <code>true</code> if the file was written; <code>false</code> if the profiler is not running.
+	 * @throws IOException if the file could not be written.
+	 * </ul>
+	 */
+	public synchronized boolean dump(Path file) throws IOException {
+		if(stream == null) {
+			return false;
+		}
+		stream.dump(file);
+		return true;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public List&lt;String&gt; describe()</code>
+	 * <p>	Describes the running or most recent recording: the allocation rate and top allocation sites, garbage collection pauses, threads, and the controller's own events.
+	 * @return a <tt>List</tt> of the lines of the report.
+	 * </ul>
+	 */
+	public List<String> describe() {
+		final Session current = session;
+		final List<String> lines = new ArrayList<>();
+		if(current == null) {
+			lines.add("<#> The profiler has not been started. Use PROFILE START [seconds] to start it.");
+			return lines;
+		}
+		current.describe(lines);
+		return lines;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describeMemory</i></b>
+	 * <p>	<code>public static List&lt;String&gt; describeMemory()</code>
+	 * <p>	Describes the memory in use right now, without starting a recording: the heap by generation, the memory outside the heap,
+	 * 		the collections made by each garbage collector, the number of threads, and the resident memory of the process.
+	 * @return a <tt>List</tt> of the lines of the description.
+	 * </ul>
+	 */
+	public static List<String> describeMemory() {
+		final List<String> lines = new ArrayList<>();
+		final MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+		final MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+		lines.add("<#> Heap: " + formatBytes(heap.getUsed()) + " used of " + formatBytes(heap.getCommitted()) + " committed"
+			+ ((heap.getMax() > 0) ? ", " + formatBytes(heap.getMax()) + " max." : "."));
+
+		//	Each heap pool is a generation, or a part of one, such as G1's eden, survivor and old spaces.
+		final StringBuilder generations = new StringBuilder("<#> Heap by generation:");
+		final StringBuilder outside = new StringBuilder("<#> Non-heap: " + formatBytes(nonHeap.getUsed()) + " used");
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if(pool.getType() == MemoryType.HEAP) {
+				generations.append(' ').append(pool.getName()).append(' ').append(formatBytes(pool.getUsage().getUsed())).append(',');
+			}
+			else if(pool.getName().equals("Metaspace")) {
+				outside.append(", of which Metaspace ").append(formatBytes(pool.getUsage().getUsed()));
+			}
+		}
+		generations.setLength(generations.length() - 1);
+		lines.add(generations.append('.').toString());
+		lines.add(outside.append('.').toString());
+
+		final StringBuilder collectors = new StringBuilder("<#> GC:");
+		for(GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			collectors.append(' ').append(collector.getName()).append(' ').append(collector.getCollectionCount()).append(" collections in ")
+				.append(collector.getCollectionTime()).append(" ms,");
+		}
+		collectors.setLength(collectors.length() - 1);
+		lines.add(collectors.append('.').toString());
+
+		final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		lines.add("<#> Threads: " + threads.getThreadCount() + " live, " + threads.getDaemonThreadCount() + " daemon, " + threads.getPeakThreadCount() + " peak.");
+		final long residentKB = StartupReport.getResidentMemoryKB();
+		if(residentKB >= 0) {
+			lines.add("<#> Resident memory: " + formatBytes(residentKB * 1024) + ".");
+		}
+		return lines;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getHeapUsed</i></b>
+	 * <p>	<code>public static long getHeapUsed()</code>
+	 * <p>	Gets the number of bytes in use on the heap.
+	 * @return a <code>long</code> with the bytes.
+	 * </ul>
+	 */
+	public static long getHeapUsed() {
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>formatBytes</i></b>
+	 * <p>	<code>public static String formatBytes(long bytes)</code>
+	 * <p>	Formats a number of bytes in kilobytes below one megabyte, in gigabytes from one gigabyte, and in megabytes otherwise.
+	 * @param bytes - a <code>long</code> with the bytes.
+	 * @return a <tt>String</tt> with the formatted size.
+	 * </ul>
+	 */
+	public static String formatBytes(long bytes) {
+		if(bytes >= 1L << 30) {
+			return String.format("%.2f GB", bytes / (double) (1L << 30));
+		}
+		return (bytes >= 1L << 20) ? String.format("%.1f MB", bytes / (double) (1L << 20)) : String.format("%.1f KB", bytes / 1024.0);
+	}
+
+	/**
+	 *
+	 * The statistics gathered by one recording. They are written by the recording's thread and read by whichever thread asks for a report,
+	 * 		so every field is guarded by the session itself.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	private static final class Session {
+		/** A <code>long</code> for the number of seconds the recording was started for, or <code>0</code> if until stopped. */
+		private final long seconds;
+		/** A <code>long</code> for the <code>System.nanoTime()</code> at which the recording started. */
+		private final long startedNanos = System.nanoTime();
+		/** A <code>long</code> for the <code>System.nanoTime()</code> at which the recording stopped, or <code>0</code> if it is running. */
+		private volatile long stoppedNanos = 0;
+		/** A <code>long</code> for the estimated number of bytes allocated, the sum of the sampled allocations' weights. */
+		private long allocatedBytes = 0;
+		/** A <code>long</code> for the estimated number of bytes allocated by the profiler itself while reading the recording. */
+		private long profilerBytes = 0;
+		/** The <tt>Map</tt> of the estimated bytes allocated by each site, by its method and line. */
+		private final Map<String, Long> sites = new HashMap<>();
+		/** A <code>long</code> for the number of garbage collections. */
+		private long collections = 0;
+		/** A <code>long</code> for the total and the longest time the application was paused by garbage collection, in nanoseconds. */
+		private long pauseNanos = 0, longestPauseNanos = 0;
+		/** A <tt>String</tt> for the collector and cause of the last garbage collection, or <code>null</code> if there has not been one. */
+		private String lastCollection = null;
+		/** A <code>long</code> for the bytes used on the heap after the last garbage collection, or <code>-1</code> if there has not been one. */
+		private long heapAfterCollection = -1;
+		/** A <code>long</code> for the number of live threads, and the most there have been, or <code>-1</code> until they are first counted. */
+		private long threads = -1, peakThreads = -1;
+		/** The <tt>Map</tt> of the count and total duration in nanoseconds of each of the controller's own events, by name. */
+		private final Map<String, long[]> controllerEvents = new LinkedHashMap<>();
+
+		private Session(long seconds) {
+			this.seconds = seconds;
+			for(String name : new String[] { CommandSendEvent.NAME, MessageReceiveEvent.NAME, ReconnectEvent.NAME, ConsoleFlushEvent.NAME }) {
+				controllerEvents.put(name, new long[2]);
+			}
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>allocationSampled</i></b>
+		 * <p>	<code>private synchronized void allocationSampled(RecordedEvent event)</code>
+		 * <p>	Records a sampled allocation, attributing its weight to the first frame of its stack that is not in the JDK.
+		 * 		Allocations made by the profiler itself are counted separately.
+		 * @param event - the <tt>RecordedEvent</tt> of the sample.
+		 * </ul>
+		 */
+		private synchronized void allocationSampled(RecordedEvent event) {
+			final long weight = event.getLong("weight");
+			//	Allocations by the Flight Recorder's own threads, or by the recording reading its events, are the profiler's overhead rather than the controller's.
+			if(isProfilerAllocation(event)) {
+				profilerBytes += weight;
+				return;
+			}
+			allocatedBytes += weight;
+			sites.merge(siteOf(event.getStackTrace()), weight, Long::sum);
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>collected</i></b>
+		 * <p>	<code>private synchronized void collected(RecordedEvent event)</code>
+		 * <p>	Records a garbage collection and the time the application was paused for it.
+		 * @param event - the <tt>RecordedEvent</tt> of the collection.
+		 * </ul>
+		 */
+		private synchronized void collected(RecordedEvent event) {
+			final long paused = event.getDuration("sumOfPauses").toNanos();
+			collections++;
+			pauseNanos += paused;
+			longestPauseNanos = Math.max(longestPauseNanos, event.getDuration("longestPause").toNanos());
+			lastCollection = event.getString("name") + ", " + event.getString("cause");
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>heapSummarized</i></b>
+		 * <p>	<code>private synchronized void heapSummarized(RecordedEvent event)</code>
+		 * <p>	Records the bytes used on the heap, if the summary was taken after a garbage collection.
+		 * @param event - the <tt>RecordedEvent</tt> of the heap summary.
+		 * </ul>
+		 */
+		private synchronized void heapSummarized(RecordedEvent event) {
+			if("After GC".equals(event.getString("when"))) {
+				heapAfterCollection = event.getLong("heapUsed");
+			}
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>threadsCounted</i></b>
+		 * <p>	<code>private synchronized void threadsCounted(RecordedEvent event)</code>
+		 * <p>	Records the number of live threads, which is sampled every second.
+		 * @param event - the <tt>RecordedEvent</tt> of the thread statistics.
+		 * </ul>
+		 */
+		private synchronized void threadsCounted(RecordedEvent event) {
+			threads = event.getLong("activeCount");
+			peakThreads = Math.max(peakThreads, event.getLong("peakCount"));
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>controllerEvent</i></b>
+		 * <p>	<code>private synchronized void controllerEvent(RecordedEvent event)</code>
+		 * <p>	Records one of the controller's own events.
+		 * @param event - the <tt>RecordedEvent</tt>.
+		 * </ul>
+		 */
+		private synchronized void controllerEvent(RecordedEvent event) {
+			final long[] totals = controllerEvents.get(event.getEventType().getName());
+			if(totals != null) {
+				totals[0]++;
+				totals[1] += event.getDuration().toNanos();
+			}
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>describe</i></b>
+		 * <p>	<code>private synchronized void describe(List&lt;String&gt; lines)</code>
+		 * <p>	Adds the lines of this session's report to the passed list.
+		 * @param lines - the <tt>List</tt> to add the lines to.
+		 * </ul>
+		 */
+		private synchronized void describe(List<String> lines) {
+			final long stopped = stoppedNanos;
+			final long elapsedNanos = Math.max(1, ((stopped == 0) ? System.nanoTime() : stopped) - startedNanos);
+			final long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(elapsedNanos);
+			if(stopped != 0) {
+				lines.add("<#> Profile: recorded for " + elapsedSeconds + " s, now stopped.");
+			}
+			else {
+				lines.add("<#> Profile: recording for " + elapsedSeconds + " s" + ((seconds > 0) ? " of " + seconds + " s." : ", until PROFILE STOP."));
+			}
+
+			lines.add("<#> Allocation: " + formatBytes((long) (allocatedBytes / (elapsedNanos / 1e9))) + "/s, " + formatBytes(allocatedBytes) + " in total, estimated from samples."
+				+ " The profiler itself allocated " + formatBytes(profilerBytes) + ".");
+			sites.entrySet().stream().sorted(Map.Entry.<String, Long>comparingByValue().reversed()).limit(TOP_SITES).forEach((site) -> {
+				lines.add(String.format("<#>   %3.0f%% %s (%s)", 100.0 * site.getValue() / Math.max(1, allocatedBytes), site.getKey(), formatBytes(site.getValue())));
+			});
+
+			final StringBuilder gc = new StringBuilder("<#> GC: " + collections + " collections, paused for " + TimeUnit.NANOSECONDS.toMillis(pauseNanos) + " ms in total");
+			if(collections > 0) {
+				gc.append(", longest ").append(String.format("%.1f", longestPauseNanos / 1e6)).append(" ms. Last: ").append(lastCollection);
+			}
+			if(heapAfterCollection >= 0) {
+				gc.append(", heap after it ").append(formatBytes(heapAfterCollection));
+			}
+			lines.add(gc.append('.').toString());
+			lines.add("<#> Threads: " + ((threads < 0) ? "not counted yet" : threads + " live, " + peakThreads + " peak") + ".");
+
+			final StringBuilder events = new StringBuilder("<#> Controller events:");
+			for(Map.Entry<String, long[]> entry : controllerEvents.entrySet()) {
+				final long[] totals = entry.getValue();
+				events.append(' ').append(totals[0]).append(' ').append(entry.getKey().substring(entry.getKey().lastIndexOf('.') + 1));
+				if(totals[0] > 0) {
+					events.append(String.format(" (avg %.3f ms)", totals[1] / 1e6 / totals[0]));
+				}
+				events.append(',');
+			}
+			events.setLength(events.length() - 1);
+			lines.add(events.append('.').toString());
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>isProfilerAllocation</i></b>
+		 * <p>	<code>private static boolean isProfilerAllocation(RecordedEvent event)</code>
+		 * <p>	Checks if a sampled allocation was made by the Flight Recorder's own threads, or by Flight Recorder code running on any other thread.
+		 * @param event - the <tt>RecordedEvent</tt> of the sample.
+		 * @return <code>true</code> if it was made by the profiler; <code>false</code> otherwise.
+		 * </ul>
+		 */
+		private static boolean isProfilerAllocation(RecordedEvent event) {
+			final RecordedThread thread = event.getThread("eventThread");
+			if(thread != null && thread.getJavaName() != null && thread.getJavaName().startsWith("JFR ")) {
+				return true;
+			}
+			final RecordedStackTrace stackTrace = event.getStackTrace();
+			if(stackTrace != null) {
+				for(RecordedFrame frame : stackTrace.getFrames()) {
+					if(frame.getMethod().getType().getName().startsWith("jdk.jfr.")) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>siteOf</i></b>
+		 * <p>	<code>private static String siteOf(RecordedStackTrace stackTrace)</code>
+		 * <p>	Finds the site of an allocation: the first frame of its stack that is not in the JDK, or the top frame if every frame is.
+		 * @param stackTrace - the <tt>RecordedStackTrace</tt> of the allocation. This <b>can</b> be <code>null</code>.
+		 * @return a <tt>String</tt> with the site's class, method and line.
+		 * </ul>
+		 */
+		private static String siteOf(RecordedStackTrace stackTrace) {
+			if(stackTrace == null || stackTrace.getFrames().isEmpty()) {
+				return "(unknown)";
+			}
+			RecordedFrame site = stackTrace.getFrames().get(0);
+			search:
+			for(RecordedFrame frame : stackTrace.getFrames()) {
+				final String type = frame.getMethod().getType().getName();
+				for(String jdkPackage : JDK_PACKAGES) {
+					if(type.startsWith(jdkPackage)) {
+						continue search;
+					}
+				}
+				site = frame;
+				break;
+			}
+			return site.getMethod().getType().getName() + "." + site.getMethod().getName() + ":" + site.getLineNumber();
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package dev.mwhitney.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ *
+ * A Flight Recorder event for a message received from the server, timed from its arrival until it was published to every subscriber.
+ *
+ * @author Matthew Whitney
+ *
+ */
+@Name(MessageReceiveEvent.NAME)
+@Label("Message Receive")
+@Category({ "Project O.N.E.", "Transport" })
+@Description("A message received from the server and published to the event bus")
+@StackTrace(false)
+public class MessageReceiveEvent extends jdk.jfr.Event {
+
+	//	Static Return Values
+	/** A <tt>String</tt> for the name this event is recorded under. */
+	final public static String NAME = "dev.mwhitney.MessageReceive";
+
+	//	Fields
+	/** A <tt>String</tt> for the name of the message's <tt>MessageType</tt>. */
+	@Label("Type")
+	public String type;
+	/** An <code>int</code> for the length of the raw frame, in characters. */
+	@Label("Length")
+	public int length;
+}
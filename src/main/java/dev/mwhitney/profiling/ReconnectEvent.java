@@ -0,0 +1,34 @@
+package dev.mwhitney.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ *
+ * A Flight Recorder event for an attempt to reconnect to the server, timed from the start of the handshake until it succeeded or failed.
+ *
+ * @author Matthew Whitney
+ *
+ */
+@Name(ReconnectEvent.NAME)
+@Label("Reconnect")
+@Category({ "Project O.N.E.", "Transport" })
+@Description("An attempt to reconnect to the server after the connection was lost")
+@StackTrace(false)
+public class ReconnectEvent extends jdk.jfr.Event {
+
+	//	Static Return Values
+	/** A <tt>String</tt> for the name this event is recorded under. */
+	final public static String NAME = "dev.mwhitney.Reconnect";
+
+	//	Fields
+	/** A <tt>String</tt> for the address of the server. */
+	@Label("Server")
+	public String server;
+	/** A <code>boolean</code> for whether or not the connection was made. */
+	@Label("Connected")
+	public boolean connected;
+}
@@ -0,0 +1,310 @@
+package dev.mwhitney.remote;
+
+import java.util.List;
+import java.util.Map;
+
+import dev.mwhitney.enums.ONECommand;
+import dev.mwhitney.enums.ResponseCode;
+
+/**
+ *
+ * The compact binary protocol the controller uses with servers that support it, in place of the text protocol's command and response frames.
+ * <p>	The client offers the protocol by sending the {@link #HEADER} header with {@link #VERSION} in its handshake, beside the <code>token</code> header.
+ * 		A server that supports it sends the same header and value back, after which each side may send binary frames.
+ * 		A server that does not simply ignores the header, and the client keeps using the text protocol.
+ * <p>	Each binary frame starts with a one-byte opcode, followed by any arguments as unsigned LEB128 varints:
+ * <ul>
+ * 	<li>From the client, <code>0x10</code> to <code>0x16</code> are the system commands, with <code>OPEN</code> followed by its seconds.
+ * 		<code>0x01</code> is a keep-alive and <code>0x02</code> is a ping.</li>
+ * 	<li>From the server, <code>0x20</code> is a response, followed by a {@link ResponseCode} byte and its argument if it has one.
+ * 		<code>0x21</code> is a poke notification and <code>0x01</code> is a keep-alive.</li>
+ * </ul>
+ * <p>	Only the fixed frames have binary forms. Anything else, such as a plain message, a broadcast or an unusual response, is still sent as text on the same connection.
+ * 		The methods here convert between the two forms, so the rest of the controller only ever deals with text frames.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class BinaryProtocol {
+
+	//	Static Return Values
+	/** A <tt>String</tt> with the name of the handshake header used to offer and accept the protocol. */
+	final public static String HEADER = "protocol";
+	/** A <tt>String</tt> with the protocol and its version, as sent in the handshake header. */
+	final public static String VERSION = "one-binary/1";
+
+	//	Opcodes
+	/** A <code>byte</code> for the keep-alive opcode, sent by either side. */
+	final public static byte KEEP_ALIVE = 0x01;
+	/** A <code>byte</code> for the ping opcode, sent by the client. */
+	final public static byte PING = 0x02;
+	/** A <code>byte</code> for the opcode of the <code>OPEN</code> command, followed by its seconds. */
+	final public static byte OPEN = 0x10;
+	/** A <code>byte</code> for the opcode of the <code>CLOSE</code> command. */
+	final public static byte CLOSE = 0x11;
+	/** A <code>byte</code> for the opcode of the <code>SYSTEM_LOCK</code> command. */
+	final public static byte SYSTEM_LOCK = 0x12;
+	/** A <code>byte</code> for the opcode of the <code>SYSTEM_UNLOCK</code> command. */
+	final public static byte SYSTEM_UNLOCK = 0x13;
+	/** A <code>byte</code> for the opcode of the <code>MANUALUNLOCKS_DISABLE</code> command. */
+	final public static byte MANUALUNLOCKS_DISABLE = 0x14;
+	/** A <code>byte</code> for the opcode of the <code>MANUALUNLOCKS_ENABLE</code> command. */
+	final public static byte MANUALUNLOCKS_ENABLE = 0x15;
+	/** A <code>byte</code> for the opcode of the <code>POKE</code> command. */
+	final public static byte POKE = 0x16;
+	/** A <code>byte</code> for the response opcode, sent by the server and followed by a {@link ResponseCode}. */
+	final public static byte RESPONSE = 0x20;
+	/** A <code>byte</code> for the poke notification opcode, sent by the server. */
+	final public static byte NOTIFICATION_POKE = 0x21;
+
+	/** The <tt>Map</tt> of each fixed text frame the client sends to its binary form. */
+	private static final Map<String, byte[]> CLIENT_FRAMES = Map.of(
+		"#connection=keep-alive",					new byte[] { KEEP_ALIVE },
+		"#ping",									new byte[] { PING },
+		"#command=!security:lock",					new byte[] { CLOSE },
+		"#command=!security:system:lock",			new byte[] { SYSTEM_LOCK },
+		"#command=!security:system:unlock",			new byte[] { SYSTEM_UNLOCK },
+		"#command=!security:manualunlocks:disable",	new byte[] { MANUALUNLOCKS_DISABLE },
+		"#command=!security:manualunlocks:enable",	new byte[] { MANUALUNLOCKS_ENABLE },
+		"#command=notification:poke",				new byte[] { POKE });
+	/** A <tt>String</tt> with the start of the text frame of the <code>OPEN</code> command, before its seconds. */
+	private static final String OPEN_PREFIX = "#command=!security:unlock";
+	/** A <tt>String</tt> with the start of a text protocol response. */
+	private static final String RESPONSE_PREFIX = "#response=";
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>BinaryProtocol</i></b>
+	 * <p>	<code>private BinaryProtocol()</code>
+	 * <p>	Private constructor; this class only has static methods.
+	 * </ul>
+	 */
+	private BinaryProtocol() {}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isAccepted</i></b>
+	 * <p>	<code>public static boolean isAccepted(Map&lt;String, List&lt;String&gt;&gt; headers)</code>
+	 * <p>	Checks if a server accepted the protocol, from the headers of its handshake response.
+	 * @param headers - the <tt>Map</tt> of response headers, whose names are matched regardless of case.
+	 * @return <code>true</code> if the binary protocol may be used; <code>false</code> to keep using text.
+	 * </ul>
+	 */
+	public static boolean isAccepted(Map<String, List<String>> headers) {
+		if(headers == null) {
+			return false;
+		}
+		for(Map.Entry<String, List<String>> header : headers.entrySet()) {
+			if(HEADER.equalsIgnoreCase(header.getKey()) && header.getValue() != null && header.getValue().contains(VERSION)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>encodeCommand</i></b>
+	 * <p>	<code>public static byte[] encodeCommand(ONECommand command, int seconds)</code>
+	 * <p>	Encodes a system command as a binary frame.
+	 * @param command - the {@link ONECommand} to encode.
+	 * @param seconds - an <code>int</code> with the seconds to open the door for, which is only used by <code>OPEN</code>.
+	 * @return the encoded <code>byte</code> array, or <code>null</code> if the command is not sent to the server.
+	 * </ul>
+	 */
+	public static byte[] encodeCommand(ONECommand command, int seconds) {
+		switch (command) {
+			case OPEN:					return withVarint(OPEN, seconds);
+			case CLOSE:					return new byte[] { CLOSE };
+			case SYSTEM_LOCK:			return new byte[] { SYSTEM_LOCK };
+			case SYSTEM_UNLOCK:			return new byte[] { SYSTEM_UNLOCK };
+			case MANUALUNLOCKS_DISABLE:	return new byte[] { MANUALUNLOCKS_DISABLE };
+			case MANUALUNLOCKS_ENABLE:	return new byte[] { MANUALUNLOCKS_ENABLE };
+			case POKE:					return new byte[] { POKE };
+			case PING:					return new byte[] { PING };
+			default:					return null;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>encodeClientFrame</i></b>
+	 * <p>	<code>public static byte[] encodeClientFrame(String frame)</code>
+	 * <p>	Gets the binary form of a text frame the client sends.
+	 * 		Frames without a fixed form are left to be sent as text.
+	 * <p>	<b>Note:</b> The returned array may be shared, so it must not be changed.
+	 * @param frame - the <tt>String</tt> text frame.
+	 * @return the encoded <code>byte</code> array, or <code>null</code> if the frame must be sent as text.
+	 * </ul>
+	 */
+	public static byte[] encodeClientFrame(String frame) {
+		final byte[] fixed = CLIENT_FRAMES.get(frame);
+		if(fixed != null) {
+			return fixed;
+		}
+		if(frame.startsWith(OPEN_PREFIX)) {
+			final int seconds = parseSeconds(frame.substring(OPEN_PREFIX.length()).trim());
+			return (seconds < 0) ? null : withVarint(OPEN, seconds);
+		}
+		return null;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>decodeClientFrame</i></b>
+	 * <p>	<code>public static String decodeClientFrame(byte[] frame)</code>
+	 * <p>	Gets the text form of a binary frame sent by a client, as a server would read it.
+	 * @param frame - the <code>byte</code> array received.
+	 * @return a <tt>String</tt> with the text frame, or <code>null</code> if the frame is empty, truncated or has an unknown opcode.
+	 * </ul>
+	 */
+	public static String decodeClientFrame(byte[] frame) {
+		if(frame.length == 0) {
+			return null;
+		}
+		switch (frame[0]) {
+			case KEEP_ALIVE:			return "#connection=keep-alive";
+			case PING:					return "#ping";
+			case OPEN: {
+				final long seconds = readVarint(frame, 1);
+				return (seconds < 0) ? null : OPEN_PREFIX + " " + seconds;
+			}
+			case CLOSE:					return "#command=!security:lock";
+			case SYSTEM_LOCK:			return "#command=!security:system:lock";
+			case SYSTEM_UNLOCK:			return "#command=!security:system:unlock";
+			case MANUALUNLOCKS_DISABLE:	return "#command=!security:manualunlocks:disable";
+			case MANUALUNLOCKS_ENABLE:	return "#command=!security:manualunlocks:enable";
+			case POKE:					return "#command=notification:poke";
+			default:					return null;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>encodeServerFrame</i></b>
+	 * <p>	<code>public static byte[] encodeServerFrame(String frame)</code>
+	 * <p>	Gets the binary form of a text frame a server sends, such as <code>#response=System locked.</code>
+	 * 		Frames without a fixed form are left to be sent as text.
+	 * @param frame - the <tt>String</tt> text frame.
+	 * @return the encoded <code>byte</code> array, or <code>null</code> if the frame must be sent as text.
+	 * </ul>
+	 */
+	public static byte[] encodeServerFrame(String frame) {
+		if(frame.equals("#connection=keep-alive")) {
+			return new byte[] { KEEP_ALIVE };
+		}
+		if(frame.equals("#command=notification:poke")) {
+			return new byte[] { NOTIFICATION_POKE };
+		}
+		if(!frame.startsWith(RESPONSE_PREFIX)) {
+			return null;
+		}
+		final String text = frame.substring(RESPONSE_PREFIX.length());
+		final ResponseCode code = ResponseCode.fromText(text);
+		if(code == null) {
+			return null;
+		}
+		if(!code.hasArgument()) {
+			return new byte[] { RESPONSE, code.getCode() };
+		}
+		final int argument = ResponseCode.parseArgument(code, text);
+		final byte[] encoded = new byte[2 + varintLength(argument)];
+		encoded[0] = RESPONSE;
+		encoded[1] = code.getCode();
+		writeVarint(encoded, 2, argument);
+		return encoded;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>withVarint</i></b>
+	 * <p>	<code>private static byte[] withVarint(byte opcode, long value)</code>
+	 * <p>	Creates a frame of an opcode followed by one varint argument.
+	 * @param opcode - the <code>byte</code> opcode.
+	 * @param value - a non-negative <code>long</code> with the argument.
+	 * @return the encoded <code>byte</code> array.
+	 * </ul>
+	 */
+	private static byte[] withVarint(byte opcode, long value) {
+		final byte[] encoded = new byte[1 + varintLength(value)];
+		encoded[0] = opcode;
+		writeVarint(encoded, 1, value);
+		return encoded;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>varintLength</i></b>
+	 * <p>	<code>public static int varintLength(long value)</code>
+	 * <p>	Gets the number of bytes a value takes as a varint, which is one for every seven bits.
+	 * @param value - a non-negative <code>long</code> value.
+	 * @return an <code>int</code> with the length in bytes.
+	 * </ul>
+	 */
+	public static int varintLength(long value) {
+		int length = 1;
+		while((value >>>= 7) != 0) {
+			length++;
+		}
+		return length;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>writeVarint</i></b>
+	 * <p>	<code>public static int writeVarint(byte[] buffer, int offset, long value)</code>
+	 * <p>	Writes a value as an unsigned LEB128 varint, seven bits at a time with the lowest bits first.
+	 * @param buffer - the <code>byte</code> array to write to, which must have room for the varint.
+	 * @param offset - an <code>int</code> with the index to start writing at.
+	 * @param value - a non-negative <code>long</code> value.
+	 * @return an <code>int</code> with the index after the varint.
+	 * </ul>
+	 */
+	public static int writeVarint(byte[] buffer, int offset, long value) {
+		while((value & ~0x7FL) != 0) {
+			buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[offset++] = (byte) value;
+		return offset;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>readVarint</i></b>
+	 * <p>	<code>public static long readVarint(byte[] buffer, int offset)</code>
+	 * <p>	Reads an unsigned LEB128 varint.
+	 * @param buffer - the <code>byte</code> array to read from.
+	 * @param offset - an <code>int</code> with the index the varint starts at.
+	 * @return a <code>long</code> with the value, or <code>-1</code> if the varint is missing, truncated or too long.
+	 * </ul>
+	 */
+	public static long readVarint(byte[] buffer, int offset) {
+		long value = 0;
+		for(int shift = 0; shift < 63 && offset < buffer.length; shift += 7) {
+			final byte b = buffer[offset++];
+			value |= (long) (b & 0x7F) << shift;
+			if(b >= 0) {
+				return value;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>parseSeconds</i></b>
+	 * <p>	<code>private static int parseSeconds(String seconds)</code>
+	 * <p>	Reads the seconds of an <code>OPEN</code> command's text frame.
+	 * @param seconds - a <tt>String</tt> with the seconds.
+	 * @return an <code>int</code> with the seconds, or <code>-1</code> if they are not a non-negative number.
+	 * </ul>
+	 */
+	private static int parseSeconds(String seconds) {
+		try {
+			return Math.max(-1, Integer.parseInt(seconds));
+		} catch (NumberFormatException nfe) {
+			return -1;
+		}
+	}
+}
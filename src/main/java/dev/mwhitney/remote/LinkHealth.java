@@ -0,0 +1,206 @@
+package dev.mwhitney.remote;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * Scores the health of one connection to the server, so that a degraded or half-open link is replaced before the WebSocket library notices it is gone.
+ * <p>	The connection is probed with a WebSocket ping every {@link #PROBE_INTERVAL} milliseconds. The score starts at 100 and loses points for:
+ * <ul>
+ * 	<li>a round trip trend that has grown past three times the connection's best round trip, up to 60 points at eight times. A probe still waiting for its pong counts as a round trip of at least its age.</li>
+ * 	<li>each probe in a row that was never answered, 30 points each, up to 60.</li>
+ * 	<li>frames handed to the WebSocket that it has not been able to write, up to 30 points once it has made no progress for two probe intervals.</li>
+ * </ul>
+ * <p>	Once the score falls below {@link #THRESHOLD}, the <tt>RemoteClient</tt> opens a fresh connection and swaps it in before closing the degraded one.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class LinkHealth {
+
+	//	Static Return Values
+	/** A <code>boolean</code> for whether or not connections are probed and scored, which can be turned off by setting the <code>one.health</code> system property to <code>false</code>. */
+	final public static boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("one.health"));
+	/** A <code>long</code> for the time, in milliseconds, between probes, which can be changed with the <code>one.health.interval</code> system property. */
+	final public static long PROBE_INTERVAL = Math.max(1000, Long.getLong("one.health.interval", 5000));
+	/** An <code>int</code> for the score below which a connection is replaced, which can be changed with the <code>one.health.threshold</code> system property. */
+	final public static int THRESHOLD = Integer.getInteger("one.health.threshold", 50);
+	/** A <code>long</code> for the smallest best round trip, in nanoseconds, that the trend is compared to, so that a few milliseconds of jitter on a fast link are not counted. */
+	final private static long RTT_FLOOR = TimeUnit.MILLISECONDS.toNanos(25);
+	/** A <code>long</code> for the time, in nanoseconds, after replacing a connection, or trying to, before it may be replaced again. */
+	final private static long REPLACE_COOLDOWN = TimeUnit.SECONDS.toNanos(60);
+
+	//	Variables
+	/** A <code>long</code> for the best round trip of the connection, in nanoseconds, or <code>0</code> if none has been measured. */
+	private long bestRtt;
+	/** A <code>long</code> for the moving average of recent round trips, in nanoseconds, or <code>0</code> if none has been measured. */
+	private long recentRtt;
+	/** An <code>int</code> for the number of probes in a row that were never answered. */
+	private int missed;
+	/** A <code>long</code> for the <code>System.nanoTime()</code> at which the unanswered probe was sent, or <code>0</code> if every probe was answered. */
+	private long probeSentAt;
+	/** A <code>long</code> for the <code>System.nanoTime()</code> at which the connection was last replaced, or <code>0</code> if it never was. */
+	private long replacedAt;
+	/** An <code>int</code> for the most recent score. */
+	private volatile int score = 100;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>probeSent</i></b>
+	 * <p>	<code>public synchronized byte[] probeSent(long now)</code>
+	 * <p>	Records that a probe is being sent, counting the previous probe as missed if it was never answered.
+	 * @param now - a <code>long</code> with the current <code>System.nanoTime()</code>.
+	 * @return the <code>byte[]</code> payload to send in the ping, which the server returns in its pong.
+	 * </ul>
+	 */
+	public synchronized byte[] probeSent(long now) {
+		if(probeSentAt != 0) {
+			missed++;
+		}
+		else {
+			probeSentAt = now;
+		}
+		return ByteBuffer.allocate(Long.BYTES).putLong(now).array();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>pongReceived</i></b>
+	 * <p>	<code>public synchronized long pongReceived(byte[] payload, long now)</code>
+	 * <p>	Records the pong answering a probe, which also means every earlier probe was answered late rather than missed.
+	 * @param payload - the <code>byte[]</code> payload of the pong.
+	 * @param now - a <code>long</code> with the current <code>System.nanoTime()</code>.
+	 * @return a <code>long</code> with the round trip in nanoseconds, or <code>-1</code> if the pong does not answer a probe.
+	 * </ul>
+	 */
+	public synchronized long pongReceived(byte[] payload, long now) {
+		if(payload == null || payload.length != Long.BYTES) {
+			return -1;
+		}
+		final long rtt = now - ByteBuffer.wrap(payload).getLong();
+		if(rtt < 0) {
+			return -1;
+		}
+		bestRtt = (bestRtt == 0) ? rtt : Math.min(bestRtt, rtt);
+		recentRtt = (recentRtt == 0) ? rtt : recentRtt + (rtt - recentRtt) / 4;
+		missed = 0;
+		probeSentAt = 0;
+		return rtt;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>evaluate</i></b>
+	 * <p>	<code>public synchronized int evaluate(long stalledNanos, long now)</code>
+	 * <p>	Calculates the connection's score from its round trip trend, its missed probes and how long its writes have been stalled.
+	 * @param stalledNanos - a <code>long</code> with how long the WebSocket has held frames without writing any, in nanoseconds.
+	 * @param now - a <code>long</code> with the current <code>System.nanoTime()</code>.
+	 * @return an <code>int</code> with the score, from <code>0</code> to <code>100</code>.
+	 * </ul>
+	 */
+	public synchronized int evaluate(long stalledNanos, long now) {
+		int penalty = 0;
+		if(bestRtt > 0) {
+			final long trend = Math.max(recentRtt, (probeSentAt == 0) ? 0 : now - probeSentAt);
+			final double ratio = (double) trend / Math.max(bestRtt, RTT_FLOOR);
+			penalty += (int) (60 * clamp((ratio - 3) / 5));
+		}
+		penalty += Math.min(60, 30 * missed);
+		penalty += (int) (30 * clamp((double) stalledNanos / TimeUnit.MILLISECONDS.toNanos(2 * PROBE_INTERVAL)));
+		score = Math.max(0, 100 - penalty);
+		return score;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>shouldReplace</i></b>
+	 * <p>	<code>public synchronized boolean shouldReplace(long now)</code>
+	 * <p>	Checks if the connection should be replaced, which is when its score is below the {@link #THRESHOLD}
+	 * 		and it has not been replaced, or tried to be, within the last minute. If so, the attempt is recorded.
+	 * @param now - a <code>long</code> with the current <code>System.nanoTime()</code>.
+	 * @return <code>true</code> if a new connection should be opened now; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public synchronized boolean shouldReplace(long now) {
+		if(score >= THRESHOLD || (replacedAt != 0 && now - replacedAt < REPLACE_COOLDOWN)) {
+			return false;
+		}
+		replacedAt = now;
+		return true;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>reset</i></b>
+	 * <p>	<code>public synchronized void reset()</code>
+	 * <p>	Forgets everything measured, such as when a new connection is opened, while keeping the time of the last replacement.
+	 * </ul>
+	 */
+	public synchronized void reset() {
+		bestRtt = 0;
+		recentRtt = 0;
+		missed = 0;
+		probeSentAt = 0;
+		score = 100;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getScore</i></b>
+	 * <p>	<code>public int getScore()</code>
+	 * <p>	Gets the most recent score.
+	 * @return an <code>int</code> with the score, from <code>0</code> to <code>100</code>.
+	 * </ul>
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getMissed</i></b>
+	 * <p>	<code>public synchronized int getMissed()</code>
+	 * <p>	Gets the number of probes in a row that were never answered.
+	 * @return an <code>int</code> with the count.
+	 * </ul>
+	 */
+	public synchronized int getMissed() {
+		return missed;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public synchronized String describe()</code>
+	 * <p>	Describes the score and what it was calculated from.
+	 * @return a <tt>String</tt> such as <code>health 40: round trip 310.2 ms (best 12.5 ms), 1 missed probe(s)</code>.
+	 * </ul>
+	 */
+	public synchronized String describe() {
+		final StringBuilder builder = new StringBuilder("health ").append(score);
+		if(bestRtt > 0) {
+			builder.append(": round trip ").append(String.format("%.1f", recentRtt / 1e6)).append(" ms (best ").append(String.format("%.1f", bestRtt / 1e6)).append(" ms)");
+		}
+		else {
+			builder.append(": no round trip measured");
+		}
+		if(missed > 0) {
+			builder.append(", ").append(missed).append(" missed probe(s)");
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>clamp</i></b>
+	 * <p>	<code>private static double clamp(double value)</code>
+	 * <p>	Limits the passed value to between <code>0</code> and <code>1</code>.
+	 * @param value - the <code>double</code> to limit.
+	 * @return the limited <code>double</code>.
+	 * </ul>
+	 */
+	private static double clamp(double value) {
+		return Math.max(0, Math.min(1, value));
+	}
+}
@@ -0,0 +1,272 @@
+package dev.mwhitney.remote;
+
+import dev.mwhitney.enums.MessageType;
+import dev.mwhitney.enums.ResponseCode;
+import dev.mwhitney.events.EventBus;
+import dev.mwhitney.events.EventPublisher;
+import dev.mwhitney.events.MessageEvent;
+import dev.mwhitney.metrics.ControllerMetrics;
+import dev.mwhitney.profiling.ControllerEvents;
+import dev.mwhitney.profiling.MessageReceiveEvent;
+
+/**
+ *
+ * Decodes raw text messages received from the server by their type prefix and publishes them to the <tt>EventBus</tt>.
+ * <p>	Binary frames of the {@link BinaryProtocol} are decoded by their opcode into the same events.
+ * <p>	If the server supports the {@link ServerClock} exchange, the times it adds to pongs and keep-alives are recorded and removed,
+ * 		and every message is annotated with when the server is estimated to have sent it and how long it took to arrive.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class MessageDispatcher {
+
+	//	Static Return Values
+	/** A <tt>String</tt> for the prefix of a broadcast. */
+	final private static String BROADCAST_PREFIX = "#broadcast=";
+	/** A <tt>String</tt> for the prefix of a connection message. */
+	final private static String CONNECTION_PREFIX = "#connection=";
+	/** A <tt>String</tt> for the prefix of a command. */
+	final private static String COMMAND_PREFIX = "#command=";
+	/** A <tt>String</tt> for the prefix of a notification, after the command prefix. */
+	final private static String NOTIFICATION_PREFIX = "notification:";
+	/** A <tt>String</tt> for the prefix of a response. */
+	final private static String RESPONSE_PREFIX = "#response=";
+
+	//	Core Objects
+	/** The <tt>EventPublisher</tt> that decoded messages are published through, which is this dispatcher's own. */
+	private final EventPublisher publisher;
+	/** A <tt>String</tt> for the name of the site messages are received from, or <code>null</code> if there is a single, unnamed connection. */
+	private final String site;
+	/** The <tt>ServerClock</tt> that messages are annotated with the server's time from, or <code>null</code> if they are not annotated. */
+	private final ServerClock clock;
+
+	//	Variables
+	/** A <code>long</code> for the last time a Ping! was sent to the server. */
+	private volatile long lastPingTime;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>MessageDispatcher</i></b>
+	 * <p>	<code>public MessageDispatcher(EventBus eventBus)</code>
+	 * <p>	Creates a new <tt>MessageDispatcher</tt> for the controller's only connection.
+	 * @param eventBus - the <tt>EventBus</tt> to publish decoded messages to.
+	 * </ul>
+	 */
+	public MessageDispatcher(EventBus eventBus) {
+		this(eventBus, null);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>MessageDispatcher</i></b>
+	 * <p>	<code>public MessageDispatcher(EventBus eventBus, String site)</code>
+	 * <p>	Creates a new <tt>MessageDispatcher</tt>.
+	 * @param eventBus - the <tt>EventBus</tt> to publish decoded messages to.
+	 * @param site - a <tt>String</tt> with the name of the site messages are received from, or <code>null</code> if there is a single, unnamed connection.
+	 * </ul>
+	 */
+	public MessageDispatcher(EventBus eventBus, String site) {
+		this(eventBus, site, null);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>MessageDispatcher</i></b>
+	 * <p>	<code>public MessageDispatcher(EventBus eventBus, String site, ServerClock clock)</code>
+	 * <p>	Creates a new <tt>MessageDispatcher</tt> that records the clock exchanges completed by pongs and keep-alives,
+	 * 		and annotates each message with when the server is estimated to have sent it.
+	 * @param eventBus - the <tt>EventBus</tt> to publish decoded messages to.
+	 * @param site - a <tt>String</tt> with the name of the site messages are received from, or <code>null</code> if there is a single, unnamed connection.
+	 * @param clock - the {@link ServerClock} of the connection, or <code>null</code> to not annotate messages.
+	 * </ul>
+	 */
+	public MessageDispatcher(EventBus eventBus, String site, ServerClock clock) {
+		this.publisher = eventBus.createPublisher();
+		this.site = site;
+		this.clock = clock;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>dispatch</i></b>
+	 * <p>	<code>public void dispatch(String message)</code>
+	 * <p>	Publishes the passed message as a <tt>MessageEvent</tt> of the appropriate type.
+	 * 		The type prefix, such as <code>#broadcast=</code>, is removed before the content is published.
+	 * 		A <code>Pong!</code> response has the round trip time since the last ping appended to it.
+	 * @param message - a <tt>String</tt> with the raw message received from the server.
+	 * </ul>
+	 */
+	public void dispatch(String message) {
+		final long receivedNanos = System.nanoTime();
+		final MessageReceiveEvent event = ControllerEvents.isEnabled() ? new MessageReceiveEvent() : null;
+		if(event != null) {
+			event.begin();
+		}
+		final String frame = message;
+		final int frameLength = message.length();
+		MessageType type = MessageType.MESSAGE;
+		message = message.trim();
+		if(message.startsWith("#broadcast")) {
+			type = MessageType.BROADCAST;
+			message = afterPrefix(message, BROADCAST_PREFIX);
+		}
+		else if(message.startsWith("#connection")) {
+			type = MessageType.CONNECTION;
+			message = afterPrefix(message, CONNECTION_PREFIX);
+			if(clock != null) {
+				message = clock.strip(message, "keep-alive", receivedNanos);
+			}
+		}
+		else if(message.startsWith("#command")) {
+			final int start = contentStart(message, COMMAND_PREFIX);
+			if(message.startsWith(NOTIFICATION_PREFIX, start)) {
+				type = MessageType.NOTIFICATION;
+				message = message.substring(start + NOTIFICATION_PREFIX.length());
+			}
+			//	Unknown or unhandled commands are published whole as plain messages.
+		}
+		else if(message.startsWith("#response")) {
+			type = MessageType.RESPONSE;
+			message = afterPrefix(message, RESPONSE_PREFIX);
+			if(clock != null) {
+				message = clock.strip(message, "Pong!", receivedNanos);
+			}
+
+			if(message.equalsIgnoreCase("Pong!")) {
+				ControllerMetrics.get().rttMeasured(receivedNanos - lastPingTime);
+				final int timeDifference = (int) ((receivedNanos - lastPingTime) / 1000000);
+				message = message.concat(" (" + timeDifference + " ms)");
+			}
+		}
+		ControllerMetrics.get().frameReceived(type, frame);
+		publish(type, message, frameLength, receivedNanos, event);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>afterPrefix</i></b>
+	 * <p>	<code>private static String afterPrefix(String message, String prefix)</code>
+	 * <p>	Gets the content of a trimmed message after its type prefix, with a single <code>substring</code> rather than a regular expression and a second trim.
+	 * @param message - the trimmed <tt>String</tt> message.
+	 * @param prefix - the <tt>String</tt> type prefix, such as <code>#broadcast=</code>.
+	 * @return the <tt>String</tt> content, or the message as it is if it does not start with the prefix.
+	 * </ul>
+	 */
+	private static String afterPrefix(String message, String prefix) {
+		final int start = contentStart(message, prefix);
+		return (start == 0) ? message : message.substring(start);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>contentStart</i></b>
+	 * <p>	<code>private static int contentStart(String message, String prefix)</code>
+	 * <p>	Finds where the content of a trimmed message starts, after its type prefix and any spaces that follow it.
+	 * @param message - the trimmed <tt>String</tt> message.
+	 * @param prefix - the <tt>String</tt> type prefix.
+	 * @return an <code>int</code> with the index of the content, or <code>0</code> if the message does not start with the prefix.
+	 * </ul>
+	 */
+	private static int contentStart(String message, String prefix) {
+		if(!message.startsWith(prefix)) {
+			return 0;
+		}
+		int start = prefix.length();
+		while(start < message.length() && message.charAt(start) <= ' ') {
+			start++;
+		}
+		return start;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>dispatch</i></b>
+	 * <p>	<code>public void dispatch(byte[] frame)</code>
+	 * <p>	Publishes the passed binary frame as a <tt>MessageEvent</tt> of the appropriate type, with the same content its text form would have had.
+	 * 		The opcode and response code are looked up directly, so nothing is trimmed or searched.
+	 * @param frame - the <code>byte</code> array received from the server, in the {@link BinaryProtocol}.
+	 * </ul>
+	 */
+	public void dispatch(byte[] frame) {
+		final long receivedNanos = System.nanoTime();
+		final MessageReceiveEvent event = ControllerEvents.isEnabled() ? new MessageReceiveEvent() : null;
+		if(event != null) {
+			event.begin();
+		}
+		MessageType type = MessageType.MESSAGE;
+		String message = null;
+		switch ((frame.length == 0) ? 0 : frame[0]) {
+			case BinaryProtocol.KEEP_ALIVE:
+				type = MessageType.CONNECTION;
+				message = "keep-alive";
+				break;
+			case BinaryProtocol.NOTIFICATION_POKE:
+				type = MessageType.NOTIFICATION;
+				message = "poke";
+				break;
+			case BinaryProtocol.RESPONSE: {
+				final ResponseCode code = (frame.length < 2) ? null : ResponseCode.of(frame[1]);
+				final long argument = (code != null && code.hasArgument()) ? BinaryProtocol.readVarint(frame, 2) : 0;
+				if(code == null || argument < 0 || argument > Integer.MAX_VALUE) {
+					break;
+				}
+				type = MessageType.RESPONSE;
+				message = code.toText((int) argument);
+				if(code == ResponseCode.PONG) {
+					ControllerMetrics.get().rttMeasured(receivedNanos - lastPingTime);
+					message = message.concat(" (" + (int) ((receivedNanos - lastPingTime) / 1000000) + " ms)");
+				}
+				break;
+			}
+			default:
+				break;
+		}
+		if(message == null) {
+			//	Unknown or malformed frames are published as plain messages describing them.
+			message = "Unknown binary frame (" + frame.length + " bytes).";
+		}
+		ControllerMetrics.get().frameReceived(type, frame.length);
+		publish(type, message, frame.length, receivedNanos, event);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>publish</i></b>
+	 * <p>	<code>private void publish(MessageType type, String message, int frameLength, long receivedNanos, MessageReceiveEvent event)</code>
+	 * <p>	Publishes a decoded message and commits its profiling event, if there is one.
+	 * @param type - the <tt>MessageType</tt> of the message.
+	 * @param message - a <tt>String</tt> with the message's content.
+	 * @param frameLength - an <code>int</code> with the length of the frame it was decoded from.
+	 * @param receivedNanos - a <code>long</code> with the <code>System.nanoTime()</code> at which the frame arrived.
+	 * @param event - the begun <tt>MessageReceiveEvent</tt>, or <code>null</code> if profiling is off.
+	 * </ul>
+	 */
+	private void publish(MessageType type, String message, int frameLength, long receivedNanos, MessageReceiveEvent event) {
+		if(clock != null && clock.isSynchronized()) {
+			final long oneWay = clock.getOneWayMicros();
+			publisher.publish(new MessageEvent(type, message, frameLength, receivedNanos, System.currentTimeMillis(), site,
+				clock.toServerMicros(receivedNanos) - oneWay, oneWay, clock.getUncertaintyMicros()));
+		}
+		else {
+			publisher.publish(new MessageEvent(type, message, frameLength, receivedNanos, System.currentTimeMillis(), site));
+		}
+		if(event != null && event.shouldCommit()) {
+			event.type = type.name();
+			event.length = frameLength;
+			event.commit();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setLastPingTime</i></b>
+	 * <p>	<code>public void setLastPingTime(long time)</code>
+	 * <p>	Sets the time at which the last Ping! was sent, used to calculate the round trip time when the Pong! arrives.
+	 * @param time - a <code>long</code> with the <code>System.nanoTime()</code> at which the ping was sent.
+	 * </ul>
+	 */
+	public void setLastPingTime(long time) {
+		lastPingTime = time;
+	}
+}
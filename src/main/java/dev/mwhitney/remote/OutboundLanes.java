@@ -0,0 +1,344 @@
+package dev.mwhitney.remote;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dev.mwhitney.enums.OutboundLane;
+import dev.mwhitney.metrics.ControllerMetrics;
+import dev.mwhitney.util.TokenBucket;
+
+/**
+ *
+ * Paces the frames one <tt>RemoteClient</tt> sends through its {@link OutboundLane}s, so that a burst of messages can never hold up a security command.
+ * <p>	Each lane has its own {@link TokenBucket} and queue. A frame is sent straight away if its lane has a token, nothing is waiting ahead of it,
+ * 		and, unless it is a security command, the WebSocket has finished writing every earlier frame. Otherwise it waits in its lane.
+ * 		Waiting frames are sent in order of their lane's priority on the client's timer thread, as tokens become available and as earlier frames are written.
+ * <p>	Because only the security lane may hand a frame to the WebSocket while another is still being written,
+ * 		a lock is at most behind the one message being written, rather than behind everything that was sent before it.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class OutboundLanes {
+
+	//	Core Objects
+	/** The <tt>ScheduledExecutorService</tt> that waiting frames are sent on. */
+	private final ScheduledExecutorService timer;
+	/** The <tt>TokenBucket</tt> pacing each lane, by <tt>OutboundLane</tt> ordinal. */
+	private final TokenBucket[] buckets = new TokenBucket[OutboundLane.values().length];
+	/** The <tt>ArrayDeque</tt> of frames waiting in each lane, by <tt>OutboundLane</tt> ordinal. */
+	private final ArrayDeque<Waiting>[] queues;
+
+	//	Variables
+	/** An <tt>AtomicInteger</tt> with the number of frames handed to the WebSocket that it has not finished writing. */
+	private final AtomicInteger inFlight = new AtomicInteger();
+	/** An <tt>AtomicInteger</tt> with the number of frames waiting in every lane. */
+	private final AtomicInteger waiting = new AtomicInteger();
+	/** A <code>long</code> for the <code>System.nanoTime()</code> at which the WebSocket last wrote a frame, or was handed one with nothing else to write. */
+	private volatile long progressAt;
+	/** The <tt>ScheduledFuture</tt> of the next time waiting frames are sent, or <code>null</code> if none is scheduled. */
+	private ScheduledFuture<?> drainTask;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>OutboundLanes</i></b>
+	 * <p>	<code>public OutboundLanes(ScheduledExecutorService timer)</code>
+	 * <p>	Creates new, empty <tt>OutboundLanes</tt>, each with a full token bucket.
+	 * @param timer - the <tt>ScheduledExecutorService</tt> that waiting frames are sent on.
+	 * </ul>
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public OutboundLanes(ScheduledExecutorService timer) {
+		this.timer = timer;
+		this.queues = new ArrayDeque[OutboundLane.values().length];
+		for(OutboundLane lane : OutboundLane.values()) {
+			buckets[lane.ordinal()] = new TokenBucket(lane.getBurst(), lane.getRatePerSecond());
+			queues[lane.ordinal()] = new ArrayDeque<>();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>tryAcquire</i></b>
+	 * <p>	<code>public synchronized boolean tryAcquire(OutboundLane lane)</code>
+	 * <p>	Takes a token so that a frame can be sent straight away, if nothing should be sent before it.
+	 * 		This allocates nothing, so that prepared frames can be sent without creating garbage.
+	 * @param lane - the {@link OutboundLane} of the frame.
+	 * @return <code>true</code> if the frame may be sent now; <code>false</code> if it must wait with {@link #enqueue(OutboundLane, Runnable)}.
+	 * </ul>
+	 */
+	public synchronized boolean tryAcquire(OutboundLane lane) {
+		for(int i = 0; i <= lane.ordinal(); i++) {
+			if(!queues[i].isEmpty()) {
+				return false;
+			}
+		}
+		if(!canHandOff(lane) || !buckets[lane.ordinal()].tryAcquire()) {
+			return false;
+		}
+		ControllerMetrics.get().laneWaited(lane, 0);
+		return true;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>enqueue</i></b>
+	 * <p>	<code>public boolean enqueue(OutboundLane lane, Runnable send)</code>
+	 * <p>	Adds a frame to the end of its lane, to be sent once it is the lane's turn.
+	 * @param lane - the {@link OutboundLane} of the frame.
+	 * @param send - the <tt>Runnable</tt> that sends the frame, which is run on the timer thread.
+	 * @return <code>true</code> if the frame is waiting; <code>false</code> if the lane is full and the frame was refused.
+	 * </ul>
+	 */
+	public boolean enqueue(OutboundLane lane, Runnable send) {
+		return enqueue(lane, null, send);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>enqueue</i></b>
+	 * <p>	<code>public synchronized boolean enqueue(OutboundLane lane, PreparedFrame frame, Runnable send)</code>
+	 * <p>	Adds a prepared frame to the end of its lane, to be sent once it is the lane's turn.
+	 * 		The frame is kept with it, so that a system command can be handed back by {@link #clear(List)} instead of being lost.
+	 * @param lane - the {@link OutboundLane} of the frame.
+	 * @param frame - the {@link PreparedFrame} being sent, or <code>null</code> if it is not a prepared frame.
+	 * @param send - the <tt>Runnable</tt> that sends the frame, which is run on the timer thread.
+	 * @return <code>true</code> if the frame is waiting; <code>false</code> if the lane is full and the frame was refused.
+	 * </ul>
+	 */
+	public synchronized boolean enqueue(OutboundLane lane, PreparedFrame frame, Runnable send) {
+		final ArrayDeque<Waiting> queue = queues[lane.ordinal()];
+		if(queue.size() >= lane.getCapacity()) {
+			ControllerMetrics.get().laneRefused(lane);
+			return false;
+		}
+		queue.add(new Waiting(send, frame, System.nanoTime()));
+		waiting.incrementAndGet();
+		scheduleDrain(0);
+		return true;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>frameHandedOff</i></b>
+	 * <p>	<code>public void frameHandedOff()</code>
+	 * <p>	Records that a frame was handed to the WebSocket to be written, whichever lane it came from.
+	 * </ul>
+	 */
+	public void frameHandedOff() {
+		if(inFlight.incrementAndGet() == 1) {
+			progressAt = System.nanoTime();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>frameWritten</i></b>
+	 * <p>	<code>public void frameWritten()</code>
+	 * <p>	Records that the WebSocket finished writing a frame, or gave up on it, and lets the next waiting frame go.
+	 * 		This is called on the WebSocket's writing thread, so it never waits for a lock.
+	 * </ul>
+	 */
+	public void frameWritten() {
+		progressAt = System.nanoTime();
+		//	Never count below zero, since frames from a connection that has already been cleared may still be reported.
+		if(inFlight.updateAndGet((count) -> Math.max(0, count - 1)) == 0 && waiting.get() > 0) {
+			timer.execute(this::drain);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>clear</i></b>
+	 * <p>	<code>public int clear()</code>
+	 * <p>	Discards every waiting frame, such as when the connection opens or closes, and forgets any frame still being written.
+	 * @return an <code>int</code> with the number of frames discarded.
+	 * </ul>
+	 */
+	public int clear() {
+		return clear(null);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>clear</i></b>
+	 * <p>	<code>public synchronized int clear(List&lt;PreparedFrame&gt; commands)</code>
+	 * <p>	Removes every waiting frame, such as when the connection closes, and forgets any frame still being written.
+	 * 		Prepared frames that carry a system command are added to the passed list, in the order they were queued, and every other frame is discarded.
+	 * @param commands - the <tt>List</tt> to add the waiting system commands to, or <code>null</code> to discard them too.
+	 * @return an <code>int</code> with the number of frames discarded, which does not count those added to the list.
+	 * </ul>
+	 */
+	public synchronized int clear(List<PreparedFrame> commands) {
+		final List<Waiting> kept = new ArrayList<>();
+		int discarded = 0;
+		for(ArrayDeque<Waiting> queue : queues) {
+			for(Waiting next : queue) {
+				if(commands != null && next.frame != null && next.frame.getCommand() != null) {
+					kept.add(next);
+				}
+				else {
+					discarded++;
+				}
+			}
+			queue.clear();
+		}
+		//	Lanes are sent by priority, so the commands are put back in the order they were issued.
+		kept.sort(Comparator.comparingLong((next) -> next.enqueuedNanos));
+		for(Waiting next : kept) {
+			commands.add(next.frame);
+		}
+		waiting.set(0);
+		inFlight.set(0);
+		return discarded;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>connectionSwapped</i></b>
+	 * <p>	<code>public synchronized void connectionSwapped()</code>
+	 * <p>	Forgets any frame still being written by a connection that was replaced, and lets the waiting frames go on its replacement.
+	 * 		Unlike {@link #clear()}, no waiting frame is discarded.
+	 * </ul>
+	 */
+	public synchronized void connectionSwapped() {
+		inFlight.set(0);
+		if(waiting.get() > 0) {
+			scheduleDrain(0);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getStalledNanos</i></b>
+	 * <p>	<code>public long getStalledNanos(long now)</code>
+	 * <p>	Gets how long the WebSocket has held frames without writing any of them, which grows while the connection's send buffer is full.
+	 * @param now - a <code>long</code> with the current <code>System.nanoTime()</code>.
+	 * @return a <code>long</code> with the time in nanoseconds, or <code>0</code> if no frame is being written.
+	 * </ul>
+	 */
+	public long getStalledNanos(long now) {
+		return (inFlight.get() > 0) ? Math.max(0, now - progressAt) : 0;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getWaiting</i></b>
+	 * <p>	<code>public int getWaiting()</code>
+	 * <p>	Gets the number of frames waiting in every lane.
+	 * @return an <code>int</code> with the number of waiting frames.
+	 * </ul>
+	 */
+	public int getWaiting() {
+		return waiting.get();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>canHandOff</i></b>
+	 * <p>	<code>private boolean canHandOff(OutboundLane lane)</code>
+	 * <p>	Checks if a frame from the passed lane may be handed to the WebSocket now, which is always true for security commands,
+	 * 		and otherwise only once every earlier frame has been written.
+	 * @param lane - the {@link OutboundLane} of the frame.
+	 * @return <code>true</code> if it may be handed off; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	private boolean canHandOff(OutboundLane lane) {
+		return lane == OutboundLane.SECURITY || inFlight.get() <= 0;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>drain</i></b>
+	 * <p>	<code>private synchronized void drain()</code>
+	 * <p>	Sends waiting frames, from the most urgent lane that may send, until none may be sent now.
+	 * 		If a lane is only waiting for a token, the next drain is scheduled for when it will have one.
+	 * 		Frames are sent while the lock is held, so that a frame sent straight away can never overtake one from the same lane.
+	 * </ul>
+	 */
+	private synchronized void drain() {
+		drainTask = null;
+		while(true) {
+			OutboundLane ready = null;
+			long nextToken = Long.MAX_VALUE;
+			for(OutboundLane lane : OutboundLane.values()) {
+				if(queues[lane.ordinal()].isEmpty() || !canHandOff(lane)) {
+					continue;
+				}
+				final long untilToken = buckets[lane.ordinal()].nanosUntilAvailable(0);
+				if(untilToken == 0 && buckets[lane.ordinal()].tryAcquire()) {
+					ready = lane;
+					break;
+				}
+				nextToken = Math.min(nextToken, Math.max(1, untilToken));
+			}
+			if(ready == null) {
+				if(nextToken != Long.MAX_VALUE) {
+					scheduleDrain(nextToken);
+				}
+				return;
+			}
+			final Waiting next = queues[ready.ordinal()].poll();
+			waiting.decrementAndGet();
+			ControllerMetrics.get().laneWaited(ready, System.nanoTime() - next.enqueuedNanos);
+			next.send.run();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>scheduleDrain</i></b>
+	 * <p>	<code>private void scheduleDrain(long delayNanos)</code>
+	 * <p>	Schedules waiting frames to be sent after the passed delay, unless they are already scheduled to be sent sooner.
+	 * 		Must be called while holding the lock.
+	 * @param delayNanos - a <code>long</code> with the delay in nanoseconds.
+	 * </ul>
+	 */
+	private void scheduleDrain(long delayNanos) {
+		if(drainTask != null) {
+			if(drainTask.getDelay(TimeUnit.NANOSECONDS) <= delayNanos) {
+				return;
+			}
+			drainTask.cancel(false);
+		}
+		drainTask = timer.schedule(this::drain, delayNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 *
+	 * A frame waiting in a lane.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	private static final class Waiting {
+		/** The <tt>Runnable</tt> that sends the frame. */
+		private final Runnable send;
+		/** The {@link PreparedFrame} being sent, or <code>null</code> if it is not a prepared frame. */
+		private final PreparedFrame frame;
+		/** A <code>long</code> with the <code>System.nanoTime()</code> at which the frame started waiting. */
+		private final long enqueuedNanos;
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>Waiting</i></b>
+		 * <p>	<code>private Waiting(Runnable send, PreparedFrame frame, long enqueuedNanos)</code>
+		 * <p>	Creates a new waiting frame.
+		 * @param send - the <tt>Runnable</tt> that sends the frame.
+		 * @param frame - the {@link PreparedFrame} being sent, or <code>null</code> if it is not a prepared frame.
+		 * @param enqueuedNanos - a <code>long</code> with the <code>System.nanoTime()</code> at which it started waiting.
+		 * </ul>
+		 */
+		private Waiting(Runnable send, PreparedFrame frame, long enqueuedNanos) {
+			this.send = send;
+			this.frame = frame;
+			this.enqueuedNanos = enqueuedNanos;
+		}
+	}
+}
@@ -0,0 +1,516 @@
+package dev.mwhitney.remote;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import dev.mwhitney.enums.ONECommand;
+import dev.mwhitney.gui.ControllerInterface;
+import dev.mwhitney.main.CommandExecutor;
+import dev.mwhitney.state.DeviceStateCache;
+
+/**
+ *
+ * A durable outbox of the system commands issued while a site was not connected, which are sent once it reconnects, even after the controller restarts.
+ * <p>	The outbox is only used when the controller is started with <code>-Done.outbox=true</code>.
+ * 		Each site's commands are kept in an append-only journal in the application's folder, with a line for each command added and each one finished.
+ * 		Lines are written on the journal's own thread, and every line waiting when it wakes is written and synced to the disk at once,
+ * 		so a burst of commands costs a single sync, and no one issuing a command ever waits for the disk.
+ * 		The journal is compacted to the commands still waiting whenever it is opened.
+ * <p>	Each command expires after an age that depends on what it does, so that a stale <code>OPEN</code> is never sent hours later.
+ * <p>	Servers that answer the {@link #HEADER} with the same value acknowledge each replayed command by its id, and ignore an id they have already handled.
+ * 		A command is only finished once acknowledged, so it is delivered exactly once even if the connection drops while it is being sent.
+ * 		Other servers are sent the plain command, which is finished once written to the connection.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class Outbox {
+
+	//	Static Return Values
+	/** A <code>boolean</code> for whether or not the outbox is used, which is set with the <code>one.outbox</code> system property. */
+	final public static boolean ENABLED = Boolean.getBoolean("one.outbox");
+	/** A <tt>String</tt> for the name of the handshake header that offers acknowledged replays to the server. */
+	final public static String HEADER = "outbox";
+	/** A <tt>String</tt> for the version of acknowledged replays offered in the handshake. */
+	final public static String VERSION = "one-ack/1";
+	/** A <tt>String</tt> for the prefix of a replayed command sent to a server that acknowledges them, which is followed by its id, a <code>;</code> and the command. */
+	final public static String REPLAY_PREFIX = "#outbox=";
+	/** A <tt>String</tt> for the prefix of the server's acknowledgement of a replayed command, which is followed by its id. */
+	final public static String ACK_PREFIX = "#ack=";
+	/** A <tt>String</tt> separating the fields of a journal line. */
+	private static final String SEPARATOR = "\t";
+
+	//	Variables
+	/** The <tt>Path</tt> of the journal file. */
+	private final Path journalPath;
+	/** A <tt>String</tt> describing the site the outbox belongs to, for its messages. */
+	private final String siteDescription;
+	/** The <tt>LinkedHashMap</tt> of each waiting command, by id, in the order they were issued. */
+	private final Map<Long, Entry> pending = new LinkedHashMap<>();
+	/** The <tt>List</tt> of journal lines waiting to be written, guarded by itself. */
+	private final List<String> unwritten = new ArrayList<>();
+	/** The <tt>FileChannel</tt> the journal is appended to, or <code>null</code> if it could not be opened. Only used while holding the write lock. */
+	private FileChannel journal;
+	/** The <code>Object</code> held while writing to the journal, so that lines are written in order. */
+	private final Object writeLock = new Object();
+	/** A <code>long</code> for the id of the next command. */
+	private long nextId;
+	/** A <code>long</code> for the number of lines written to the journal. */
+	private volatile long linesWritten;
+	/** A <code>long</code> for the number of times the journal was synced to the disk. */
+	private volatile long syncs;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>Outbox</i></b>
+	 * <p>	<code>public Outbox(Path journalPath, String siteDescription)</code>
+	 * <p>	Creates a new <tt>Outbox</tt>, reading the commands still waiting in the journal and compacting it, then starting the journal's thread.
+	 * 		If the journal cannot be read or written, the error is printed and commands are only kept until the controller exits.
+	 * @param journalPath - the <tt>Path</tt> of the journal file.
+	 * @param siteDescription - a <tt>String</tt> describing the site, such as <code>the server</code> or <code>site north</code>.
+	 * </ul>
+	 */
+	public Outbox(Path journalPath, String siteDescription) {
+		this.journalPath = journalPath;
+		this.siteDescription = siteDescription;
+		this.nextId = System.currentTimeMillis() * 1000;
+		try {
+			load();
+			compact();
+			journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		} catch (IOException ioe) {
+			System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Could not open the outbox journal. Queued commands will not survive a restart. (" + ioe.getMessage() + ")");
+		}
+		if(!pending.isEmpty()) {
+			System.out.println("<#> " + pending.size() + " command(s) to " + siteDescription + " are waiting in the outbox.");
+		}
+
+		final Thread writer = new Thread(this::writeJournal, "ONE-Outbox-Journal");
+		writer.setDaemon(true);
+		writer.start();
+		//	Write anything still waiting when the controller exits, since the journal's thread will not.
+		Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "ONE-Outbox-Flush"));
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>forSite</i></b>
+	 * <p>	<code>public static Outbox forSite(String site, String siteDescription)</code>
+	 * <p>	Creates the outbox of a site, with its journal in the application's folder.
+	 * @param site - a <tt>String</tt> with the site's name, or <code>null</code> for a single, unnamed connection.
+	 * @param siteDescription - a <tt>String</tt> describing the site, for the outbox's messages.
+	 * @return the <tt>Outbox</tt>.
+	 * </ul>
+	 */
+	public static Outbox forSite(String site, String siteDescription) {
+		final String name = (site == null) ? "outbox.journal" : "outbox-" + site.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_-]", "_") + ".journal";
+		return new Outbox(Paths.get(CommandExecutor.APP_FOLDER_PATH, name), siteDescription);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isAccepted</i></b>
+	 * <p>	<code>public static boolean isAccepted(Map&lt;String, List&lt;String&gt;&gt; headers)</code>
+	 * <p>	Checks if the server accepted acknowledged replays, by answering the {@link #HEADER} with the same {@link #VERSION}.
+	 * @param headers - the <tt>Map</tt> of the server's handshake response headers.
+	 * @return <code>true</code> if the server acknowledges replayed commands; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public static boolean isAccepted(Map<String, List<String>> headers) {
+		for(Map.Entry<String, List<String>> header : headers.entrySet()) {
+			if(header.getKey() != null && header.getKey().equalsIgnoreCase(HEADER) && header.getValue().contains(VERSION)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getMaxAge</i></b>
+	 * <p>	<code>public static long getMaxAge(ONECommand command)</code>
+	 * <p>	Gets how long a command may wait in the outbox before it is too old to send.
+	 * 		Commands that open or unlock anything expire quickly, while those that lock it may wait longer, as locking late is still wanted.
+	 * @param command - the {@link ONECommand}.
+	 * @return a <code>long</code> with the age in milliseconds, or <code>0</code> if the command is never kept in the outbox.
+	 * </ul>
+	 */
+	public static long getMaxAge(ONECommand command) {
+		switch (command) {
+			case OPEN:					return TimeUnit.SECONDS.toMillis(30);
+			case POKE:					return TimeUnit.MINUTES.toMillis(1);
+			case SYSTEM_UNLOCK:
+			case MANUALUNLOCKS_ENABLE:	return TimeUnit.MINUTES.toMillis(5);
+			case CLOSE:
+			case SYSTEM_LOCK:
+			case MANUALUNLOCKS_DISABLE:	return TimeUnit.HOURS.toMillis(1);
+			default:					return 0;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>add</i></b>
+	 * <p>	<code>public Entry add(PreparedFrame frame)</code>
+	 * <p>	Adds a command to the end of the outbox. Its journal line is written on the journal's thread, so this never waits for the disk.
+	 * @param frame - the {@link PreparedFrame} of the command.
+	 * @return the new <tt>Entry</tt>, or <code>null</code> if the command is never kept in the outbox.
+	 * </ul>
+	 */
+	public Entry add(PreparedFrame frame) {
+		final long maxAge = (frame.getCommand() == null) ? 0 : getMaxAge(frame.getCommand());
+		if(maxAge <= 0) {
+			return null;
+		}
+		final long now = System.currentTimeMillis();
+		final Entry entry;
+		synchronized(pending) {
+			nextId = Math.max(nextId + 1, now * 1000);
+			entry = new Entry(nextId, now, now + maxAge, frame.getDescription(), frame.getText());
+			pending.put(entry.id, entry);
+		}
+		append("A" + SEPARATOR + entry.id + SEPARATOR + entry.issuedAt + SEPARATOR + entry.expiresAt + SEPARATOR + entry.description + SEPARATOR + entry.text);
+		return entry;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>takeExpired</i></b>
+	 * <p>	<code>public List&lt;Entry&gt; takeExpired()</code>
+	 * <p>	Removes every command that is too old to send.
+	 * @return the <tt>List</tt> of removed <tt>Entry</tt> objects, in the order they were issued.
+	 * </ul>
+	 */
+	public List<Entry> takeExpired() {
+		final long now = System.currentTimeMillis();
+		final List<Entry> expired = new ArrayList<>();
+		synchronized(pending) {
+			pending.values().removeIf((entry) -> entry.isExpired(now) && expired.add(entry));
+		}
+		for(Entry entry : expired) {
+			append("X" + SEPARATOR + entry.id);
+		}
+		return expired;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getPending</i></b>
+	 * <p>	<code>public List&lt;Entry&gt; getPending()</code>
+	 * <p>	Gets every command waiting to be sent.
+	 * @return a <tt>List</tt> of the waiting <tt>Entry</tt> objects, in the order they were issued.
+	 * </ul>
+	 */
+	public List<Entry> getPending() {
+		synchronized(pending) {
+			return new ArrayList<>(pending.values());
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>complete</i></b>
+	 * <p>	<code>public boolean complete(long id)</code>
+	 * <p>	Finishes a command that was delivered, so that it is never sent again.
+	 * @param id - a <code>long</code> with the command's id.
+	 * @return <code>true</code> if the command was waiting; <code>false</code> if it was already finished or never existed.
+	 * </ul>
+	 */
+	public boolean complete(long id) {
+		final Entry entry;
+		synchronized(pending) {
+			entry = pending.remove(id);
+		}
+		if(entry == null) {
+			return false;
+		}
+		append("D" + SEPARATOR + id);
+		return true;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public List&lt;String&gt; describe()</code>
+	 * <p>	Describes each waiting command, with how long ago it was issued and how long it has until it expires.
+	 * @return the <tt>List</tt> of lines.
+	 * </ul>
+	 */
+	public List<String> describe() {
+		final long now = System.currentTimeMillis();
+		final List<String> lines = new ArrayList<>();
+		final List<Entry> entries = getPending();
+		lines.add("<#> Outbox of " + siteDescription + ": " + entries.size() + " waiting. Journal: " + journalPath + ", " + linesWritten + " line(s) in " + syncs + " sync(s).");
+		for(Entry entry : entries) {
+			lines.add("<#>   #" + entry.id + " " + entry.description + ", issued " + DeviceStateCache.describeAge(now - entry.issuedAt) + " ago, "
+				+ (entry.isExpired(now) ? "expired." : "expires in " + DeviceStateCache.describeAge(entry.expiresAt - now) + "."));
+		}
+		return lines;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>append</i></b>
+	 * <p>	<code>private void append(String line)</code>
+	 * <p>	Adds a line to those waiting to be written to the journal, and wakes the journal's thread.
+	 * @param line - a <tt>String</tt> with the line, without its line break.
+	 * </ul>
+	 */
+	private void append(String line) {
+		synchronized(unwritten) {
+			unwritten.add(line);
+			unwritten.notifyAll();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>writeJournal</i></b>
+	 * <p>	<code>private void writeJournal()</code>
+	 * <p>	Runs on the journal's thread, waiting for lines and writing every line waiting at once.
+	 * </ul>
+	 */
+	private void writeJournal() {
+		while(true) {
+			synchronized(unwritten) {
+				while(unwritten.isEmpty()) {
+					try {
+						unwritten.wait();
+					} catch (InterruptedException ie) {
+						return;
+					}
+				}
+			}
+			flush();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>flush</i></b>
+	 * <p>	<code>public void flush()</code>
+	 * <p>	Writes every line waiting to the journal, then syncs it to the disk once.
+	 * </ul>
+	 */
+	public void flush() {
+		synchronized(writeLock) {
+			final List<String> batch;
+			synchronized(unwritten) {
+				if(unwritten.isEmpty()) {
+					return;
+				}
+				batch = new ArrayList<>(unwritten);
+				unwritten.clear();
+			}
+			if(journal == null) {
+				return;
+			}
+			final StringBuilder text = new StringBuilder();
+			for(String line : batch) {
+				text.append(line).append('\n');
+			}
+			try {
+				final ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+				while(buffer.hasRemaining()) {
+					journal.write(buffer);
+				}
+				journal.force(false);
+				linesWritten += batch.size();
+				syncs++;
+			} catch (IOException ioe) {
+				System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Error writing the outbox journal. Queued commands will not survive a restart. (" + ioe.getMessage() + ")");
+				try {
+					journal.close();
+				} catch (IOException ignored) {}
+				journal = null;
+			}
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>load</i></b>
+	 * <p>	<code>private void load() throws IOException</code>
+	 * <p>	Reads the journal, keeping every command that was added and not finished.
+	 * 		Every line is written with its line break, so text after the last line break was cut short by a crash, and is skipped along with any other line that cannot be read.
+	 * @throws IOException if the journal exists but cannot be read.
+	 * </ul>
+	 */
+	private void load() throws IOException {
+		if(!Files.isRegularFile(journalPath)) {
+			return;
+		}
+		final String text = new String(Files.readAllBytes(journalPath), StandardCharsets.UTF_8);
+		final int end = text.lastIndexOf('\n');
+		if(end < 0) {
+			return;
+		}
+		for(String line : text.substring(0, end).split("\n")) {
+			final String[] fields = line.split(SEPARATOR, 6);
+			try {
+				final long id = Long.parseLong(fields[1]);
+				if(fields[0].equals("A") && fields.length == 6) {
+					pending.put(id, new Entry(id, Long.parseLong(fields[2]), Long.parseLong(fields[3]), fields[4], fields[5]));
+					nextId = Math.max(nextId, id);
+				}
+				else if(fields[0].equals("D") || fields[0].equals("X")) {
+					pending.remove(id);
+				}
+			} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+				continue;
+			}
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>compact</i></b>
+	 * <p>	<code>private void compact() throws IOException</code>
+	 * <p>	Rewrites the journal with only the commands still waiting, replacing it at once so that a crash cannot leave it half written.
+	 * @throws IOException if the journal cannot be written.
+	 * </ul>
+	 */
+	private void compact() throws IOException {
+		Files.createDirectories(journalPath.getParent());
+		final Path compacted = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+		try(FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			final StringBuilder text = new StringBuilder();
+			for(Entry entry : pending.values()) {
+				text.append("A" + SEPARATOR + entry.id + SEPARATOR + entry.issuedAt + SEPARATOR + entry.expiresAt + SEPARATOR + entry.description + SEPARATOR + entry.text).append('\n');
+			}
+			final ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		}
+		Files.move(compacted, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 *
+	 * A command waiting in the outbox.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	public static final class Entry {
+		/** A <code>long</code> with the command's id, which is unique across restarts. */
+		private final long id;
+		/** A <code>long</code> with the time the command was issued, in milliseconds since the epoch. */
+		private final long issuedAt;
+		/** A <code>long</code> with the time after which the command is too old to send, in milliseconds since the epoch. */
+		private final long expiresAt;
+		/** A <tt>String</tt> describing the command, such as <code>Open (3)</code>. */
+		private final String description;
+		/** A <tt>String</tt> with the command's text form. */
+		private final String text;
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>Entry</i></b>
+		 * <p>	<code>private Entry(long id, long issuedAt, long expiresAt, String description, String text)</code>
+		 * <p>	Creates a new waiting command.
+		 * @param id - a <code>long</code> with the command's id.
+		 * @param issuedAt - a <code>long</code> with the time it was issued.
+		 * @param expiresAt - a <code>long</code> with the time it expires.
+		 * @param description - a <tt>String</tt> describing it.
+		 * @param text - a <tt>String</tt> with its text form.
+		 * </ul>
+		 */
+		private Entry(long id, long issuedAt, long expiresAt, String description, String text) {
+			this.id = id;
+			this.issuedAt = issuedAt;
+			this.expiresAt = expiresAt;
+			this.description = description;
+			this.text = text;
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>isExpired</i></b>
+		 * <p>	<code>public boolean isExpired(long now)</code>
+		 * <p>	Checks if the command is too old to send.
+		 * @param now - a <code>long</code> with the current time, in milliseconds since the epoch.
+		 * @return <code>true</code> if it has expired; <code>false</code> otherwise.
+		 * </ul>
+		 */
+		public boolean isExpired(long now) {
+			return now >= expiresAt;
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>toFrame</i></b>
+		 * <p>	<code>public String toFrame(boolean acknowledged)</code>
+		 * <p>	Gets the text frame that replays the command.
+		 * @param acknowledged - a <code>boolean</code> for whether or not the server acknowledges replayed commands.
+		 * @return a <tt>String</tt> with the command, prefixed with its id if it will be acknowledged.
+		 * </ul>
+		 */
+		public String toFrame(boolean acknowledged) {
+			return acknowledged ? REPLAY_PREFIX + id + ";" + text : text;
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>getId</i></b>
+		 * <p>	<code>public long getId()</code>
+		 * <p>	Gets the command's id.
+		 * @return a <code>long</code> with the id.
+		 * </ul>
+		 */
+		public long getId() {
+			return id;
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>getIssuedAt</i></b>
+		 * <p>	<code>public long getIssuedAt()</code>
+		 * <p>	Gets the time the command was issued.
+		 * @return a <code>long</code> with the time, in milliseconds since the epoch.
+		 * </ul>
+		 */
+		public long getIssuedAt() {
+			return issuedAt;
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>getExpiresAt</i></b>
+		 * <p>	<code>public long getExpiresAt()</code>
+		 * <p>	Gets the time after which the command is too old to send.
+		 * @return a <code>long</code> with the time, in milliseconds since the epoch.
+		 * </ul>
+		 */
+		public long getExpiresAt() {
+			return expiresAt;
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>getDescription</i></b>
+		 * <p>	<code>public String getDescription()</code>
+		 * <p>	Gets the description of the command.
+		 * @return a <tt>String</tt> such as <code>Open (3)</code>.
+		 * </ul>
+		 */
+		public String getDescription() {
+			return description;
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package dev.mwhitney.remote;
+
+import com.neovisionaries.ws.client.WebSocketFrame;
+
+import dev.mwhitney.enums.ONECommand;
+import dev.mwhitney.enums.OutboundLane;
+import dev.mwhitney.enums.OutboundType;
+import dev.mwhitney.metrics.ControllerMetrics;
+
+/**
+ *
+ * A frame the controller sends often, encoded once into ready-made WebSocket frames in both the text and the {@link BinaryProtocol} form.
+ * <p>	Every fixed system command, the keep-alive and the ping are prepared when this class loads, along with <code>OPEN</code> for each of its 1 to 9 seconds.
+ * 		Sending one hands the same frame to the WebSocket each time, so nothing is concatenated, encoded or copied by the controller between a button press and the socket.
+ * 		The frames are never changed once created, so they are shared by every connection.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class PreparedFrame {
+
+	//	Static Return Values
+	/** An <code>int</code> for the fewest seconds the door can be opened for. */
+	final public static int MIN_OPEN_SECONDS = 1;
+	/** An <code>int</code> for the most seconds the door can be opened for. */
+	final public static int MAX_OPEN_SECONDS = 9;
+	/** The <tt>PreparedFrame</tt> of the keep-alive sent when connecting and periodically after. */
+	final public static PreparedFrame KEEP_ALIVE = new PreparedFrame(null, "#connection=keep-alive", "Keep-alive");
+	/** The <tt>PreparedFrame</tt> of each fixed system command, by ordinal, or <code>null</code> for commands that are not sent or take an argument. */
+	private static final PreparedFrame[] COMMANDS = new PreparedFrame[ONECommand.values().length];
+	/** The <tt>PreparedFrame</tt> of <code>OPEN</code> for each number of seconds, by the seconds. */
+	private static final PreparedFrame[] OPEN = new PreparedFrame[MAX_OPEN_SECONDS + 1];
+	static {
+		COMMANDS[ONECommand.CLOSE.ordinal()] = new PreparedFrame(ONECommand.CLOSE, "#command=!security:lock", "Close");
+		COMMANDS[ONECommand.SYSTEM_UNLOCK.ordinal()] = new PreparedFrame(ONECommand.SYSTEM_UNLOCK, "#command=!security:system:unlock", "System Unlock");
+		COMMANDS[ONECommand.SYSTEM_LOCK.ordinal()] = new PreparedFrame(ONECommand.SYSTEM_LOCK, "#command=!security:system:lock", "System Lock");
+		COMMANDS[ONECommand.MANUALUNLOCKS_DISABLE.ordinal()] = new PreparedFrame(ONECommand.MANUALUNLOCKS_DISABLE, "#command=!security:manualunlocks:disable", "Disable Manual Unlocks");
+		COMMANDS[ONECommand.MANUALUNLOCKS_ENABLE.ordinal()] = new PreparedFrame(ONECommand.MANUALUNLOCKS_ENABLE, "#command=!security:manualunlocks:enable", "Enable Manual Unlocks");
+		COMMANDS[ONECommand.POKE.ordinal()] = new PreparedFrame(ONECommand.POKE, "#command=notification:poke", "Poke");
+		COMMANDS[ONECommand.PING.ordinal()] = new PreparedFrame(ONECommand.PING, "#ping", "Ping");
+		for(int seconds = MIN_OPEN_SECONDS; seconds <= MAX_OPEN_SECONDS; seconds++) {
+			OPEN[seconds] = new PreparedFrame(ONECommand.OPEN, "#command=!security:unlock " + seconds, "Open (" + seconds + ")");
+		}
+	}
+
+	//	Variables
+	/** The <tt>ONECommand</tt> the frame sends, or <code>null</code> if it is not a system command. */
+	private final ONECommand command;
+	/** A <tt>String</tt> with the frame's text form. */
+	private final String text;
+	/** A <tt>String</tt> describing the frame as it is printed once sent, such as <code>Open (3)</code>. */
+	private final String description;
+	/** The <tt>OutboundType</tt> of the frame, as recorded in the metrics. */
+	private final OutboundType type;
+	/** The <tt>OutboundLane</tt> the frame waits in when it cannot be sent straight away. */
+	private final OutboundLane lane;
+	/** The text <tt>WebSocketFrame</tt>, already encoded in UTF-8. */
+	private final WebSocketFrame textFrame;
+	/** An <code>int</code> with the length of the text form in bytes. */
+	private final int textLength;
+	/** The binary <tt>WebSocketFrame</tt>, or <code>null</code> if the frame has no binary form. */
+	private final WebSocketFrame binaryFrame;
+	/** An <code>int</code> with the length of the binary form in bytes, or <code>0</code> if it has none. */
+	private final int binaryLength;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>PreparedFrame</i></b>
+	 * <p>	<code>private PreparedFrame(ONECommand command, String text, String description)</code>
+	 * <p>	Creates a new <tt>PreparedFrame</tt>, encoding the passed text in both forms.
+	 * @param command - the {@link ONECommand} the frame sends, or <code>null</code> if it is not a system command.
+	 * @param text - a <tt>String</tt> with the frame's text form.
+	 * @param description - a <tt>String</tt> describing the frame as it is printed once sent.
+	 * </ul>
+	 */
+	private PreparedFrame(ONECommand command, String text, String description) {
+		this.command = command;
+		this.text = text;
+		this.description = description;
+		this.type = OutboundType.of(text);
+		this.lane = OutboundLane.of(text);
+		this.textFrame = WebSocketFrame.createTextFrame(text);
+		this.textLength = ControllerMetrics.utf8Length(text);
+		final byte[] binary = BinaryProtocol.encodeClientFrame(text);
+		this.binaryFrame = (binary == null) ? null : WebSocketFrame.createBinaryFrame(binary);
+		this.binaryLength = (binary == null) ? 0 : binary.length;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>forCommand</i></b>
+	 * <p>	<code>public static PreparedFrame forCommand(ONECommand command, int seconds)</code>
+	 * <p>	Gets the prepared frame of a system command.
+	 * @param command - the {@link ONECommand} to send.
+	 * @param seconds - an <code>int</code> with the seconds to open the door for, which is only used by <code>OPEN</code> and is clamped from 1 to 9.
+	 * @return the <tt>PreparedFrame</tt>, or <code>null</code> if the command is not sent to the server as a frame.
+	 * </ul>
+	 */
+	public static PreparedFrame forCommand(ONECommand command, int seconds) {
+		if(command == ONECommand.OPEN) {
+			return OPEN[Math.max(MIN_OPEN_SECONDS, Math.min(MAX_OPEN_SECONDS, seconds))];
+		}
+		return COMMANDS[command.ordinal()];
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getCommand</i></b>
+	 * <p>	<code>public ONECommand getCommand()</code>
+	 * <p>	Gets the system command the frame sends.
+	 * @return the {@link ONECommand}, or <code>null</code> if it is not a system command, such as the keep-alive.
+	 * </ul>
+	 */
+	public ONECommand getCommand() {
+		return command;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getText</i></b>
+	 * <p>	<code>public String getText()</code>
+	 * <p>	Gets the frame's text form.
+	 * @return a <tt>String</tt> with the text, such as <code>#command=!security:lock</code>.
+	 * </ul>
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getDescription</i></b>
+	 * <p>	<code>public String getDescription()</code>
+	 * <p>	Gets the description of the frame, as it is printed once sent.
+	 * @return a <tt>String</tt> such as <code>Open (3)</code>.
+	 * </ul>
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getType</i></b>
+	 * <p>	<code>public OutboundType getType()</code>
+	 * <p>	Gets the frame's type, as recorded in the metrics.
+	 * @return the <tt>OutboundType</tt>.
+	 * </ul>
+	 */
+	public OutboundType getType() {
+		return type;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLane</i></b>
+	 * <p>	<code>public OutboundLane getLane()</code>
+	 * <p>	Gets the lane the frame waits in when it cannot be sent straight away, which is the security lane for security commands.
+	 * @return the <tt>OutboundLane</tt>.
+	 * </ul>
+	 */
+	public OutboundLane getLane() {
+		return lane;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getFrame</i></b>
+	 * <p>	<code>public WebSocketFrame getFrame(boolean binary)</code>
+	 * <p>	Gets the ready-made frame to send.
+	 * 		The returned frame is shared, so it must not be changed.
+	 * @param binary - a <code>boolean</code> for whether or not the connection uses the binary protocol.
+	 * @return the binary <tt>WebSocketFrame</tt> if wanted and there is one; the text <tt>WebSocketFrame</tt> otherwise.
+	 * </ul>
+	 */
+	public WebSocketFrame getFrame(boolean binary) {
+		return (binary && binaryFrame != null) ? binaryFrame : textFrame;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLength</i></b>
+	 * <p>	<code>public int getLength(boolean binary)</code>
+	 * <p>	Gets the length of the frame's payload, as sent by {@link #getFrame(boolean)}.
+	 * @param binary - a <code>boolean</code> for whether or not the connection uses the binary protocol.
+	 * @return an <code>int</code> with the length in bytes.
+	 * </ul>
+	 */
+	public int getLength(boolean binary) {
+		return (binary && binaryFrame != null) ? binaryLength : textLength;
+	}
+}
@@ -1,20 +1,34 @@
 package dev.mwhitney.remote;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-
-import javax.swing.Timer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import com.neovisionaries.ws.client.WebSocket;
 import com.neovisionaries.ws.client.WebSocketAdapter;
+import com.neovisionaries.ws.client.WebSocketCloseCode;
 import com.neovisionaries.ws.client.WebSocketException;
 import com.neovisionaries.ws.client.WebSocketFactory;
 import com.neovisionaries.ws.client.WebSocketFrame;
 import com.neovisionaries.ws.client.WebSocketState;
 
+import dev.mwhitney.enums.ONECommand;
+import dev.mwhitney.enums.OutboundLane;
+import dev.mwhitney.enums.OutboundType;
+import dev.mwhitney.events.EventBus;
 import dev.mwhitney.gui.ControllerInterface;
-import dev.mwhitney.listeners.MessageListener;
+import dev.mwhitney.metrics.ControllerMetrics;
+import dev.mwhitney.profiling.ControllerEvents;
+import dev.mwhitney.profiling.CommandSendEvent;
+import dev.mwhitney.profiling.ReconnectEvent;
+import dev.mwhitney.state.DeviceStateCache;
 
 /**
  * 
@@ -25,56 +39,149 @@ import dev.mwhitney.listeners.MessageListener;
  */
 public class RemoteClient {
 	
+	//	Static Return Values
+	/** A <tt>String</tt> for the address of the Project O.N.E. server used unless another is configured. */
+	final public static String DEFAULT_SERVER_URI = "wss://one-server.minimunch57.club";
+	/** A <code>boolean</code> for whether or not the binary protocol is offered to servers, which can be turned off by setting the <code>one.protocol</code> system property to <code>text</code>. */
+	final public static boolean OFFER_BINARY = !"text".equalsIgnoreCase(System.getProperty("one.protocol"));
+	/** A <tt>String</tt> for the controller's token, which is read from the <code>PROJECT_ONE_CONTROLLER</code> environment variable once, rather than on every connection. */
+	final private static String TOKEN = System.getenv("PROJECT_ONE_CONTROLLER");
+	
 	//	WebSocket Components
 	/** The <tt>WebSocketFactory</tt> used to create <tt>WebSocket</tt> instances. */
 	private WebSocketFactory webSocketFactory;
 	/** The <tt>WebSocket</tt> used to communicate with the server. */
-	private WebSocket webSocket;
+	private volatile WebSocket webSocket;
+	/** The <tt>WebSocket</tt> being opened to replace a degraded connection, or <code>null</code> if none is. */
+	private volatile WebSocket standby;
 	
-	//	Listeners
-	/** The <tt>MessageListener</tt> responsible for handling incoming messages. */
-	private MessageListener messageListener;
+	//	Events
+	/** The <tt>EventBus</tt> that every message received from the server is published to. */
+	private final EventBus eventBus;
+	/** The <tt>MessageDispatcher</tt> responsible for decoding incoming messages and publishing them to the <tt>EventBus</tt>. */
+	private final MessageDispatcher messageDispatcher;
 	
 	//	Variables
-	/** A <code>long</code> for the last time a Ping! was sent to the server. */
-	private long lastPingTime;
+	/** A <tt>String</tt> for the name of the site this client connects to, or <code>null</code> if it is the controller's only connection. */
+	private final String site;
+	/** A <tt>String</tt> for the address of the server this client connects to. */
+	private final String serverUri;
 	/** A <code>boolean</code> for whether or not the client should attempt to reconnect if disconnected. */
-	private boolean shouldReconnect = true;
-	/** A <tt>Timer</tt> used for keeping the connection to the server alive. */
-	private Timer keepAliveTimer = new Timer(20000, (actionEvent) -> {
-		//	If the WebSocket is open, send a keep-alive message.
-		if(webSocket.isOpen()) {
-			webSocket.sendText("#connection=keep-alive");
-		}
-	});
-	/** A <tt>Timer</tt> used for reconnecting to the server if the connection is lost. */
-	private Timer reconnectTimer = new Timer(5000, (actionEvent) -> {
-		//	Attempt to reconnect.
-		if(!webSocket.isOpen() && webSocket.getState() != WebSocketState.CONNECTING) {
-			setupClient();
-			connectToServer();
-		}
+	private volatile boolean shouldReconnect = true;
+	/** A <code>boolean</code> for whether or not the server accepted the {@link BinaryProtocol} for the current connection. */
+	private volatile boolean binary = false;
+	/** A <code>boolean</code> for whether or not the server acknowledges the commands replayed from the {@link Outbox} for the current connection. */
+	private volatile boolean acknowledged = false;
+	/** The <tt>Outbox</tt> that keeps commands issued while disconnected, or <code>null</code> if it is not enabled. */
+	private final Outbox outbox;
+	/** The <tt>ConcurrentHashMap</tt> of the outbox id of each replayed frame that has not been written, for servers that do not acknowledge them. */
+	private final Map<WebSocketFrame, Long> replaying = new ConcurrentHashMap<>();
+	/** The <tt>Set</tt> of the outbox ids of the commands waiting in the security lane to be replayed, so that a swapped-in connection does not queue them again. */
+	private final Set<Long> replayQueued = ConcurrentHashMap.newKeySet();
+	/**
+	 * The <tt>ScheduledExecutorService</tt> that runs the keep-alive and reconnection timers.
+	 * A plain daemon thread is used instead of Swing timers so that the client can run without loading any AWT classes.
+	 */
+	private final ScheduledExecutorService timerService = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+		final Thread thread = new Thread(runnable, "ONE-RemoteClient-Timer");
+		thread.setDaemon(true);
+		return thread;
 	});
+	/** The <tt>ScheduledFuture</tt> for the running reconnection timer, or <code>null</code> if it has never been started. */
+	private ScheduledFuture<?> reconnectTask;
+	/** The <tt>OutboundLanes</tt> that pace every frame sent to the server, so that security commands are never held up by other traffic. */
+	private final OutboundLanes outboundLanes = new OutboundLanes(timerService);
+	/** The <tt>LinkHealth</tt> that scores the current connection from the probes sent on it. */
+	private final LinkHealth health = new LinkHealth();
+	/** The <tt>ServerClock</tt> that estimates the offset of the server's clock from the pings and keep-alives of the current connection. */
+	private final ServerClock clock = new ServerClock();
+	/** The <tt>SessionResumption</tt> that keeps the server's ticket, so that reconnects can skip token authentication. */
+	private final SessionResumption resumption = new SessionResumption();
+	/** A <code>long</code> for the <code>System.nanoTime()</code> at which the standby connection started opening. */
+	private volatile long standbySince;
+	/** A <code>long</code> for the <code>System.nanoTime()</code> at which the current connection started opening. */
+	private volatile long connectingSince;
 	
 	
 	/**
 	 * <ul>
 	 * <p>	<b><i>RemoteClient</i></b>
 	 * <p>	<code>public RemoteClient()</code>
-	 * <p>	Creates a new <tt>RemoteClient</tt>.
+	 * <p>	Creates a new <tt>RemoteClient</tt> for the configured server. It does not connect until {@link #connectToServer()} is called.
+	 * <p>	The server address is read from the <code>one.server.uri</code> system property, then the <code>PROJECT_ONE_SERVER</code> environment variable.
+	 * 		If neither is set, the {@link #DEFAULT_SERVER_URI} is used.
+	 * 		This allows the controller to be pointed at a local stand-in server for testing.
+	 * </ul>
+	 */
+	public RemoteClient() {
+		this(getConfiguredServerUri());
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>RemoteClient</i></b>
+	 * <p>	<code>public RemoteClient(String serverUri)</code>
+	 * <p>	Creates a new <tt>RemoteClient</tt> for the passed server. It does not connect until {@link #connectToServer()} is called.
+	 * @param serverUri - a <tt>String</tt> with the server's address, such as <code>wss://one-server.minimunch57.club</code>.
+	 * </ul>
+	 */
+	public RemoteClient(String serverUri) {
+		this(null, serverUri, new EventBus());
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>RemoteClient</i></b>
+	 * <p>	<code>public RemoteClient(String site, String serverUri, EventBus eventBus)</code>
+	 * <p>	Creates a new <tt>RemoteClient</tt> for one of several named sites, which connects and reconnects independently of the others.
+	 * 		Its messages are published to the passed bus, which is shared by every site, and are labeled with the site's name.
+	 * 		It does not connect until {@link #connectToServer()} is called, so that every subscriber can be added to the bus before the first message arrives.
+	 * @param site - a <tt>String</tt> with the site's name, or <code>null</code> if this is the controller's only connection.
+	 * @param serverUri - a <tt>String</tt> with the site's server address.
+	 * @param eventBus - the <tt>EventBus</tt> to publish messages to.
 	 * </ul>
 	 */
-	public RemoteClient() {		
+	public RemoteClient(String site, String serverUri, EventBus eventBus) {
+		this.site = site;
+		this.serverUri = serverUri;
+		this.eventBus = eventBus;
+		this.messageDispatcher = new MessageDispatcher(eventBus, site, clock);
+		this.outbox = Outbox.ENABLED ? Outbox.forSite(site, describeServer()) : null;
+		ControllerMetrics.get().siteAdded(site);
+		
 		//	WebSocket & Server Connection Setup
 		webSocketFactory = new WebSocketFactory();
 		webSocketFactory.setVerifyHostname(false);
+		//	Share one TLS context between every connection, so that reconnects resume the TLS session instead of repeating the full handshake.
+		webSocketFactory.setSSLContext(SessionResumption.getSharedContext());
 		setupClient();
-		connectToServer();
 		
 		//	General Setup
-		keepAliveTimer.start();
-		reconnectTimer.setInitialDelay(50);
-		reconnectTimer.setDelay(5000);
+		timerService.scheduleAtFixedRate(() -> {
+			//	If the WebSocket is open, send a keep-alive message.
+			if(webSocket.isOpen()) {
+				sendFrame(PreparedFrame.KEEP_ALIVE);
+			}
+		}, 20000, 20000, TimeUnit.MILLISECONDS);
+		if(LinkHealth.ENABLED) {
+			timerService.scheduleAtFixedRate(this::checkHealth, LinkHealth.PROBE_INTERVAL, LinkHealth.PROBE_INTERVAL, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getConfiguredServerUri</i></b>
+	 * <p>	<code>public static String getConfiguredServerUri()</code>
+	 * <p>	Gets the configured server address, checking the <code>one.server.uri</code> system property, then the <code>PROJECT_ONE_SERVER</code> environment variable.
+	 * @return a <tt>String</tt> with the configured server address, or the {@link #DEFAULT_SERVER_URI} if none is configured.
+	 * </ul>
+	 */
+	public static String getConfiguredServerUri() {
+		String uri = System.getProperty("one.server.uri");
+		if(uri == null || uri.isBlank()) {
+			uri = System.getenv("PROJECT_ONE_SERVER");
+		}
+		return (uri == null || uri.isBlank()) ? DEFAULT_SERVER_URI : uri.trim();
 	}
 	
 	/**
@@ -88,35 +195,133 @@ public class RemoteClient {
 	 * </ul>
 	 */
 	private void setupClient() {
+		webSocket = createSocket();
+		binary = false;
+		acknowledged = false;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>createSocket</i></b>
+	 * <p>	<code>private WebSocket createSocket()</code>
+	 * <p>	Creates a new <tt>WebSocket</tt> instance with the client's headers and listener, without connecting it.
+	 * 		Its listener ignores the connection and writes of any <tt>WebSocket</tt> that is no longer the current one, such as a connection that was replaced,
+	 * 		but still delivers every message it receives.
+	 * @return the new <tt>WebSocket</tt>.
+	 * </ul>
+	 */
+	private WebSocket createSocket() {
+		WebSocket socket = null;
 		try {
-			webSocket = webSocketFactory.createSocket("wss://one-server.minimunch57.club");
+			socket = webSocketFactory.createSocket(serverUri);
 		} catch (IOException ioe) {
 			System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Error creating WebSocket instance. (setCli)");
 			ioe.printStackTrace();
 		}
-		webSocket.addHeader("token", System.getenv("PROJECT_ONE_CONTROLLER"));
-		webSocket.addListener(new WebSocketAdapter() {
+		socket.addHeader("token", TOKEN);
+		if(SessionResumption.ENABLED) {
+			socket.addHeader(SessionResumption.HEADER, SessionResumption.VERSION);
+			final String ticket = resumption.getTicket();
+			if(ticket != null) {
+				socket.addHeader(SessionResumption.TICKET_HEADER, ticket);
+			}
+		}
+		if(OFFER_BINARY) {
+			socket.addHeader(BinaryProtocol.HEADER, BinaryProtocol.VERSION);
+		}
+		if(outbox != null) {
+			socket.addHeader(Outbox.HEADER, Outbox.VERSION);
+		}
+		socket.addHeader(ServerClock.HEADER, ServerClock.VERSION);
+		socket.addListener(new WebSocketAdapter() {
 			//	Connected to the server.
 			@Override
 			public void onConnected(WebSocket webSocket, Map<String, List<String>> headers) throws Exception {
-				System.out.println("<#> Connected to the server.");
+				//	Servers that do not support the binary protocol ignore the offer, and text is used instead.
+				final boolean acceptsBinary = OFFER_BINARY && BinaryProtocol.isAccepted(headers);
+				final boolean acknowledges = outbox != null && Outbox.isAccepted(headers);
+				//	Keep the ticket issued for the next connection, whichever connection it came on.
+				final boolean resumed = resumption.connected(headers);
 				
-				//	Don't continue any existing reconnection attempts.
-				if(reconnectTimer.isRunning()) {
-					reconnectTimer.stop();
+				//	A new connection opened to replace a degraded one is swapped in without discarding anything waiting to be sent.
+				if(webSocket == standby) {
+					handshakeFinished(System.nanoTime() - standbySince);
+					swapConnection(webSocket, acceptsBinary, acknowledges, ServerClock.isAccepted(headers));
+					return;
+				}
+				//	A replacement that was abandoned before it opened is closed straight away.
+				if(webSocket != RemoteClient.this.webSocket) {
+					webSocket.disconnect();
+					return;
 				}
+				binary = acceptsBinary;
+				acknowledged = acknowledges;
+				final long took = System.nanoTime() - connectingSince;
+				System.out.println("<#> Connected to " + describeServer() + (resumed ? ", resuming its session," : "") + (binary ? " using the binary protocol." : "."));
+				ControllerMetrics.get().connectionOpened(site);
+				
+				//	Don't continue any existing reconnection attempts.
+				stopReconnectTimer();
+				
+				//	Start pacing and scoring afresh, forgetting any frame the previous connection never reported as written.
+				outboundLanes.clear();
+				health.reset();
+				clock.reset(ServerClock.isAccepted(headers));
+				handshakeFinished(took);
 				
 				//	Send first keep-alive message.
-				webSocket.sendText("#connection=keep-alive");
+				sendFrame(PreparedFrame.KEEP_ALIVE);
+				
+				//	Send the commands issued while disconnected.
+				if(outbox != null) {
+					replayOutbox();
+				}
 			}
 			//	Disconnected from the server.
 			@Override
 			public void onDisconnected(WebSocket webSocket, WebSocketFrame serverCloseFrame, WebSocketFrame clientCloseFrame, boolean closedByServer) throws Exception {
-				System.out.println("<#> Disconnected from the server.");
+				//	A replaced connection, or a replacement that closed before it was swapped in, does not affect the current one.
+				if(webSocket != RemoteClient.this.webSocket) {
+					if(webSocket == standby) {
+						standby = null;
+					}
+					return;
+				}
+				abandonStandby();
+				System.out.println("<#> Disconnected from " + describeServer() + ".");
+				//	A refused connection's ticket is not presented again.
+				if(closedByServer && serverCloseFrame != null && serverCloseFrame.getCloseCode() == SessionResumption.REFUSED) {
+					resumption.forget();
+				}
+				ControllerMetrics.get().connectionClosed(site);
+				
+				//	Frames waiting to be sent would arrive late, or to the wrong connection, so they are discarded.
+				//	With the outbox enabled, waiting system commands are saved to it instead, as if they were issued while disconnected.
+				replaying.clear();
+				replayQueued.clear();
+				final List<PreparedFrame> commands = (outbox != null) ? new ArrayList<>() : null;
+				int discarded = outboundLanes.clear(commands);
+				int saved = 0;
+				if(commands != null) {
+					for(PreparedFrame command : commands) {
+						if(outbox.add(command) != null) {
+							saved++;
+						}
+						else {
+							discarded++;
+						}
+					}
+				}
+				if(saved > 0) {
+					System.out.println("<#> " + saved + " waiting command(s) to " + describeServer() + " were saved to the outbox, and will be sent on reconnecting.");
+				}
+				if(discarded > 0) {
+					System.out.println(ControllerInterface.CONSOLE_ERROR + discarded + " waiting message(s) to " + describeServer() + " were not sent.");
+				}
 				
 				//	Set sleep time before attempting to reconnect.
 				if(shouldReconnect) {
-					reconnectTimer.restart();
+					restartReconnectTimer();
 				}
 				else {
 					//	Ensure that future disconnects may automatically reconnect.
@@ -126,38 +331,169 @@ public class RemoteClient {
 			//	Received a message from the server.
 			@Override
 			public void onTextMessage(WebSocket webSocket, String message) throws Exception {
-				//	Fire the appropriate listener method based on the received message's type.
-				message = message.trim();
-				if(message.startsWith("#broadcast")) {
-					messageListener.broadcastReceived(message.replaceFirst("#broadcast=", "").trim());
-				}
-				else if(message.startsWith("#connection")) {
-					messageListener.connectionMessageReceived(message.replaceFirst("#connection=", "").trim());
+				//	The server acknowledged a replayed command, which is finished now that it cannot be sent again.
+				if(acknowledged && message.startsWith(Outbox.ACK_PREFIX)) {
+					try {
+						outbox.complete(Long.parseLong(message.substring(Outbox.ACK_PREFIX.length()).trim()));
+					} catch (NumberFormatException nfe) {
+						System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Invalid outbox acknowledgement from " + describeServer() + ": " + message);
+					}
+					return;
 				}
-				else if(message.startsWith("#command")) {
-					final String trimmedMessage = message.replaceFirst("#command=", "").trim();
-					if(trimmedMessage.startsWith("notification:")) {
-						messageListener.notificationReceived(trimmedMessage.replaceFirst("notification:", ""));
+				//	Publish the message to every subscriber based on its type.
+				messageDispatcher.dispatch(message);
+			}
+			//	Received a binary frame from the server.
+			@Override
+			public void onBinaryMessage(WebSocket webSocket, byte[] binary) throws Exception {
+				messageDispatcher.dispatch(binary);
+			}
+			//	A frame could not be sent.
+			@Override
+			public void onSendError(WebSocket webSocket, WebSocketException cause, WebSocketFrame frame) throws Exception {
+				ControllerMetrics.get().sendFailed();
+			}
+			//	A frame was written, which lets the next waiting frame go.
+			@Override
+			public void onFrameSent(WebSocket webSocket, WebSocketFrame frame) throws Exception {
+				if(frame.isDataFrame()) {
+					if(webSocket == RemoteClient.this.webSocket) {
+						outboundLanes.frameWritten();
 					}
-					else {
-						// Unknown or Unhandled Command
-						messageListener.messageReceived(message);
+					//	A replayed command the server will not acknowledge is finished once written.
+					final Long id = replaying.isEmpty() ? null : replaying.remove(frame);
+					if(id != null) {
+						outbox.complete(id);
 					}
 				}
-				else if(message.startsWith("#response")) {
-					message = message.replaceFirst("#response=", "").trim();
-					
-					if(message.equalsIgnoreCase("Pong!")) {
-						final int timeDifference = (int) ((System.nanoTime() - lastPingTime) / 1000000);
-						message = message.concat(" (" + timeDifference + " ms)");
+			}
+			//	A frame was given up on, such as when the connection closed first.
+			@Override
+			public void onFrameUnsent(WebSocket webSocket, WebSocketFrame frame) throws Exception {
+				if(frame.isDataFrame()) {
+					if(webSocket == RemoteClient.this.webSocket) {
+						outboundLanes.frameWritten();
+					}
+					//	A replayed command that was not written stays in the outbox, to be sent on the next connection.
+					//	If it was given up on by a connection that has since been replaced, it is sent on the new one.
+					final Long id = replaying.isEmpty() ? null : replaying.remove(frame);
+					if(id != null && webSocket != RemoteClient.this.webSocket && RemoteClient.this.webSocket.isOpen()) {
+						replayOutbox();
 					}
-					messageListener.responseMessageReceived(message);
 				}
-				else {
-					messageListener.messageReceived(message);
+			}
+			//	The server answered a health probe.
+			@Override
+			public void onPongFrame(WebSocket webSocket, WebSocketFrame frame) throws Exception {
+				if(webSocket == RemoteClient.this.webSocket) {
+					health.pongReceived(frame.getPayload(), System.nanoTime());
 				}
 			}
 		});
+		return socket;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>checkHealth</i></b>
+	 * <p>	<code>private void checkHealth()</code>
+	 * <p>	Probes the current connection and scores its health, on the timer thread.
+	 * 		If the score has fallen below the {@link LinkHealth#THRESHOLD}, a new connection is opened to replace it, while the current one keeps sending.
+	 * </ul>
+	 */
+	private void checkHealth() {
+		final WebSocket current = webSocket;
+		if(!current.isOpen()) {
+			return;
+		}
+		final long now = System.nanoTime();
+		final int missedBefore = health.getMissed();
+		final byte[] probe = health.probeSent(now);
+		final int score = health.evaluate(outboundLanes.getStalledNanos(now), now);
+		ControllerMetrics.get().healthScored(score, health.getMissed() > missedBefore);
+		if(standby == null && health.shouldReplace(now)) {
+			openStandby();
+		}
+		current.sendPing(probe);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>openStandby</i></b>
+	 * <p>	<code>private void openStandby()</code>
+	 * <p>	Opens a new connection asynchronously to replace the degraded one, which is swapped in once it has connected.
+	 * 		If it cannot connect, the current connection is kept.
+	 * </ul>
+	 */
+	private void openStandby() {
+		System.out.println(ControllerInterface.CONSOLE_ERROR + "The connection to " + describeServer() + " is degraded (" + health.describe() + "). Opening a new connection before closing it.");
+		final WebSocket candidate = createSocket();
+		standbySince = System.nanoTime();
+		standby = candidate;
+		final Thread connector = new Thread(() -> {
+			try {
+				candidate.connect();
+			} catch (WebSocketException wse) {
+				if(standby == candidate) {
+					standby = null;
+					ControllerMetrics.get().linkSwapFailed();
+					System.out.println(ControllerInterface.CONSOLE_ERROR + "Could not open a new connection to " + describeServer() + ". Keeping the current one.");
+				}
+			}
+		}, "ONE-RemoteClient-Standby");
+		connector.setDaemon(true);
+		connector.start();
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>swapConnection</i></b>
+	 * <p>	<code>private void swapConnection(WebSocket replacement, boolean acceptsBinary, boolean acknowledges, boolean clocked)</code>
+	 * <p>	Makes the passed connection the current one, then closes the degraded connection it replaces.
+	 * 		Frames waiting in their lanes are sent on the new connection rather than discarded.
+	 * 		Frames already handed to the old connection are written by it if it still can, as it closes.
+	 * @param replacement - the newly connected <tt>WebSocket</tt>.
+	 * @param acceptsBinary - a <code>boolean</code> for whether or not the server accepted the binary protocol on the new connection.
+	 * @param acknowledges - a <code>boolean</code> for whether or not the server acknowledges replayed outbox commands on the new connection.
+	 * @param clocked - a <code>boolean</code> for whether or not the server accepted the clock exchange on the new connection.
+	 * </ul>
+	 */
+	private void swapConnection(WebSocket replacement, boolean acceptsBinary, boolean acknowledges, boolean clocked) {
+		final WebSocket previous = webSocket;
+		final long took = System.nanoTime() - standbySince;
+		binary = acceptsBinary;
+		acknowledged = acknowledges;
+		webSocket = replacement;
+		standby = null;
+		outboundLanes.connectionSwapped();
+		health.reset();
+		clock.reset(clocked);
+		ControllerMetrics.get().linkSwapped(took);
+		System.out.println("<#> Switched to a new connection to " + describeServer() + " after " + TimeUnit.NANOSECONDS.toMillis(took) + " ms, keeping "
+			+ outboundLanes.getWaiting() + " waiting message(s)" + (binary ? ", using the binary protocol." : "."));
+		
+		//	Identify the new connection as on connecting, and send any commands from the outbox that are still not acknowledged.
+		//	Those still waiting in the security lane, or handed to the old connection and not yet written, are not sent again.
+		sendFrame(PreparedFrame.KEEP_ALIVE);
+		if(outbox != null) {
+			replayOutbox();
+		}
+		previous.disconnect(WebSocketCloseCode.AWAY, "Replaced by a new connection");
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>abandonStandby</i></b>
+	 * <p>	<code>private void abandonStandby()</code>
+	 * <p>	Abandons the connection being opened to replace a degraded one, if there is one, such as when the current connection closes first.
+	 * </ul>
+	 */
+	private void abandonStandby() {
+		final WebSocket candidate = standby;
+		standby = null;
+		if(candidate != null) {
+			candidate.disconnect();
+		}
 	}
 	
 	/**
@@ -168,16 +504,54 @@ public class RemoteClient {
 	 * </ul>
 	 */
 	public void connectToServer() {
+		connectToServer(false);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>connectToServer</i></b>
+	 * <p>	<code>private void connectToServer(boolean reconnecting)</code>
+	 * <p>	Connects to the communications server asynchronously using the current <tt>WebSocket</tt> instance.
+	 * 		Attempts to reconnect are recorded as a {@link ReconnectEvent}.
+	 * @param reconnecting - a <code>boolean</code> for whether or not this is an attempt to reconnect after the connection was lost.
+	 * </ul>
+	 */
+	private void connectToServer(boolean reconnecting) {
 		//	Attempt to connect to the server asynchronously.
 		new Thread(() -> {
+			final ReconnectEvent event = (reconnecting && ControllerEvents.isEnabled()) ? new ReconnectEvent() : null;
+			if(event != null) {
+				event.begin();
+			}
+			boolean connected = false;
 			try {
+				connectingSince = System.nanoTime();
 				webSocket.connect();
+				connected = true;
 			} catch (WebSocketException wse) {
-				System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Could not connect to server. (Is it down?)");
+				System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Could not connect to " + ((site == null) ? "server" : "site " + site) + ". (Is it down?)");
+			}
+			if(event != null && event.shouldCommit()) {
+				event.server = serverUri;
+				event.connected = connected;
+				event.commit();
 			}
 		}).start();
 	}
 	
+	/**
+	 * <ul>
+	 * <p>	<b><i>handshakeFinished</i></b>
+	 * <p>	<code>private void handshakeFinished(long nanos)</code>
+	 * <p>	Records how long a successful handshake took, and whether it resumed the session, once the connection is open.
+	 * @param nanos - a <code>long</code> with the time from starting to connect until the connection was open, in nanoseconds.
+	 * </ul>
+	 */
+	private void handshakeFinished(long nanos) {
+		resumption.handshakeFinished(nanos);
+		ControllerMetrics.get().handshakeFinished(nanos, resumption.isResumed());
+	}
+	
 	/**
 	 * <ul>
 	 * <p>	<b><i>reconnectToServer</i></b>
@@ -186,11 +560,55 @@ public class RemoteClient {
 	 * </ul>
 	 */
 	public void reconnectToServer() {
-		if((!isConnected() && !isConnecting()) && !reconnectTimer.isRunning()) {
-			reconnectTimer.restart();
+		if((!isConnected() && !isConnecting()) && !isReconnectTimerRunning()) {
+			restartReconnectTimer();
+		}
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>restartReconnectTimer</i></b>
+	 * <p>	<code>private synchronized void restartReconnectTimer()</code>
+	 * <p>	Starts the reconnection timer, cancelling it first if it is already running.
+	 * 		The first attempt is made after 50 milliseconds, then every 5 seconds until a connection is made.
+	 * </ul>
+	 */
+	private synchronized void restartReconnectTimer() {
+		stopReconnectTimer();
+		reconnectTask = timerService.scheduleWithFixedDelay(() -> {
+			//	Attempt to reconnect.
+			if(!webSocket.isOpen() && webSocket.getState() != WebSocketState.CONNECTING) {
+				setupClient();
+				connectToServer(true);
+			}
+		}, 50, 5000, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>stopReconnectTimer</i></b>
+	 * <p>	<code>private synchronized void stopReconnectTimer()</code>
+	 * <p>	Stops the reconnection timer if it is running.
+	 * </ul>
+	 */
+	private synchronized void stopReconnectTimer() {
+		if(isReconnectTimerRunning()) {
+			reconnectTask.cancel(false);
 		}
 	}
 	
+	/**
+	 * <ul>
+	 * <p>	<b><i>isReconnectTimerRunning</i></b>
+	 * <p>	<code>private synchronized boolean isReconnectTimerRunning()</code>
+	 * <p>	Returns a <code>boolean</code> for whether or not the reconnection timer is running.
+	 * @return <code>true</code> if the reconnection timer is running; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	private synchronized boolean isReconnectTimerRunning() {
+		return reconnectTask != null && !reconnectTask.isDone();
+	}
+	
 	/**
 	 * <ul>
 	 * <p>	<b><i>disconnectFromServer</i></b>
@@ -215,9 +633,8 @@ public class RemoteClient {
 	public void disconnectFromServer(boolean reconnect) {
 		//	Ensure the controller will not attempt to reconnect.
 		shouldReconnect = reconnect;
-		if(reconnectTimer.isRunning()) {
-			reconnectTimer.stop();
-		}
+		stopReconnectTimer();
+		abandonStandby();
 		
 		webSocket.disconnect();
 	}
@@ -256,54 +673,374 @@ public class RemoteClient {
 	 * </ul>
 	 */
 	public boolean isAttemptingConnection() {
-		return isConnecting() || reconnectTimer.isRunning();
+		return isConnecting() || isReconnectTimerRunning();
 	}
 	
 	/**
 	 * <ul>
 	 * <p>	<b><i>pingServer</i></b>
-	 * <p>	<code>public void pingServer()</code>
-	 * <p>	Pings the server, saving the time in nanoseconds immediately after the message is sent.
+	 * <p>	<code>public boolean pingServer()</code>
+	 * <p>	Pings the server, saving the time in nanoseconds immediately after the message is handed to the WebSocket.
 	 * <p>	The nanosecond time save is to keep track of the time it takes for a ping to reach the server, and for a response to be received.
 	 * 		The time is not saved if the message fails to send for whatever reason, such as the server not being connected.
+	 * 		If the ping has to wait in its lane, the time is saved when it stops waiting, so that the wait is not counted in the round trip.
 	 * 		When a "Pong!" response is received from the server, the nanosecond time is retrieved again.
 	 * 		The ping is calculated by subtracting the first saved time from the second time.
 	 * 		Keep in mind that this logic is not performed within this method.
 	 * 		<b>This method just sends the "Ping!" and saves the first nanosecond time.</b>
 	 * <p>	This pinging method uses RTT (Round Trip Time). End-to-End would only be from the controller to the server or vice-versa.
 	 * 		That is not how this function helps to calculate the ping time.
+	 * @return <code>true</code> if the ping was sent; <code>false</code> otherwise.
 	 */
-	public void pingServer() {
-		if(sendMessage("#ping")) lastPingTime = System.nanoTime();
+	public boolean pingServer() {
+		return sendMessage(PreparedFrame.forCommand(ONECommand.PING, 0));
 	}
 	
 	/**
 	 * <ul>
 	 * <p>	<b><i>sendMessage</i></b>
 	 * <p>	<code>public boolean sendMessage(String message)</code>
-	 * <p>	Sends the passed <tt>String</tt> message to the server.
+	 * <p>	Sends the passed <tt>String</tt> message to the server, in the security lane if it is a security command and in the interactive lane otherwise.
 	 * @param message - the message to be sent to the server in the form of a <tt>String</tt>.
 	 * @return <code>true</code> if the message was sent successfully; <code>false</code> otherwise.
 	 * </ul>
 	 */
 	public boolean sendMessage(String message) {
-		if(webSocket.isOpen()) {
-			webSocket.sendText(message);
+		return sendMessage(message, OutboundLane.of(message));
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>sendMessage</i></b>
+	 * <p>	<code>public boolean sendMessage(String message, OutboundLane lane)</code>
+	 * <p>	Sends the passed <tt>String</tt> message to the server through the passed lane.
+	 * 		If the lane is out of tokens, or other frames should go first, the message waits in its lane and is sent on the timer thread.
+	 * @param message - the message to be sent to the server in the form of a <tt>String</tt>.
+	 * @param lane - the {@link OutboundLane} to send it through.
+	 * @return <code>true</code> if the message was sent or is waiting to be sent; <code>false</code> if the server is not connected or the lane is full.
+	 * </ul>
+	 */
+	public boolean sendMessage(String message, OutboundLane lane) {
+		if(!webSocket.isOpen()) {
+			return sendFailed(message);
+		}
+		if(outboundLanes.tryAcquire(lane)) {
+			sendFrame(message);
 			return true;
 		}
-		System.out.println(ControllerInterface.CONSOLE_ERROR + "The server is not connected.");
+		return outboundLanes.enqueue(lane, () -> sendFrame(message)) || laneFull(lane);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>sendFailed</i></b>
+	 * <p>	<code>private boolean sendFailed(String message)</code>
+	 * <p>	Records and reports a message that could not be sent because the server is not connected.
+	 * @param message - the <tt>String</tt> text of the message.
+	 * @return <code>false</code>, so that it can be returned by the method that tried to send.
+	 * </ul>
+	 */
+	private boolean sendFailed(String message) {
+		return sendFailed(message, null);
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>sendFailed</i></b>
+	 * <p>	<code>private boolean sendFailed(String message, String note)</code>
+	 * <p>	Records and reports a message that could not be sent because the server is not connected, with a note on what was done with it instead.
+	 * @param message - the <tt>String</tt> text of the message.
+	 * @param note - a <tt>String</tt> with the note to add to the report, or <code>null</code> for none.
+	 * @return <code>false</code>, so that it can be returned by the method that tried to send.
+	 * </ul>
+	 */
+	private boolean sendFailed(String message, String note) {
+		ControllerMetrics.get().sendFailed();
+		final CommandSendEvent event = ControllerEvents.isEnabled() ? new CommandSendEvent() : null;
+		if(event != null && event.shouldCommit()) {
+			event.type = OutboundType.of(message).name();
+			event.length = message.length();
+			event.sent = false;
+			event.commit();
+		}
+		System.out.println(ControllerInterface.CONSOLE_ERROR + ((site == null) ? "The server is not connected." : "Site " + site + " is not connected.") + ((note == null) ? "" : " " + note));
 		return false;
 	}
 	
 	/**
 	 * <ul>
-	 * <p>	<b><i>setMessageListener</i></b>
-	 * <p>	<code>public void setMessageListener(MessageListener ml)</code>
-	 * <p>	Sets the one and only <tt>MessageListener</tt> to be used by this <tt>RemoteClient</tt>.
-	 * @param ml - the <tt>MessageListener</tt> to be used by this <tt>RemoteClient</tt>.
+	 * <p>	<b><i>sendMessage</i></b>
+	 * <p>	<code>public boolean sendMessage(PreparedFrame frame)</code>
+	 * <p>	Sends the passed prepared frame to the server through its lane, in the binary protocol if the server accepted it.
+	 * 		Unless it has to wait in its lane, nothing is allocated by the controller to send it, leaving only the WebSocket library's own work for each frame.
+	 * 		If the server is not connected and the {@link Outbox} is enabled, a system command is saved to it instead, to be sent on reconnecting.
+	 * @param frame - the {@link PreparedFrame} to send.
+	 * @return <code>true</code> if the frame was sent or is waiting to be sent; <code>false</code> if the server is not connected or the lane is full.
+	 * </ul>
+	 */
+	public boolean sendMessage(PreparedFrame frame) {
+		if(!webSocket.isOpen()) {
+			final Outbox.Entry entry = (outbox != null) ? outbox.add(frame) : null;
+			if(entry != null) {
+				return sendFailed(frame.getText(), frame.getDescription() + " was saved to the outbox, and will be sent on reconnecting within "
+					+ DeviceStateCache.describeAge(entry.getExpiresAt() - entry.getIssuedAt()) + ".");
+			}
+			return sendFailed(frame.getText());
+		}
+		if(outboundLanes.tryAcquire(frame.getLane())) {
+			sendFrame(frame);
+			return true;
+		}
+		return outboundLanes.enqueue(frame.getLane(), frame, () -> sendFrame(frame)) || laneFull(frame.getLane());
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>laneFull</i></b>
+	 * <p>	<code>private boolean laneFull(OutboundLane lane)</code>
+	 * <p>	Reports a message that was refused because its lane was full.
+	 * @param lane - the full {@link OutboundLane}.
+	 * @return <code>false</code>, so that it can be returned by the method that tried to send.
+	 * </ul>
+	 */
+	private boolean laneFull(OutboundLane lane) {
+		System.out.println(ControllerInterface.CONSOLE_ERROR + "Too many messages are waiting to be sent to " + describeServer() + ". (" + lane.name() + " lane is full)");
+		return false;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>sendFrame</i></b>
+	 * <p>	<code>private void sendFrame(PreparedFrame frame)</code>
+	 * <p>	Sends the passed prepared frame on the current <tt>WebSocket</tt> and records it in the metrics.
+	 * 		If it is a ping, the time it was sent is saved for the round trip.
+	 * 		Pings and keep-alives are sent as text with the time added if the server accepted the {@link ServerClock} exchange.
+	 * @param frame - the {@link PreparedFrame} to send.
+	 * </ul>
+	 */
+	private void sendFrame(PreparedFrame frame) {
+		final CommandSendEvent event = ControllerEvents.isEnabled() ? new CommandSendEvent() : null;
+		if(event != null) {
+			event.begin();
+		}
+		final boolean binary = this.binary;
+		final String stamped = (clock.isEnabled() && (frame.getType() == OutboundType.PING || frame == PreparedFrame.KEEP_ALIVE)) ? clock.stamp(frame.getText()) : null;
+		final int length = (stamped != null) ? stamped.length() : frame.getLength(binary);
+		outboundLanes.frameHandedOff();
+		if(stamped != null) {
+			webSocket.sendText(stamped);
+		}
+		else {
+			webSocket.sendFrame(frame.getFrame(binary));
+		}
+		if(frame.getType() == OutboundType.PING) {
+			messageDispatcher.setLastPingTime(System.nanoTime());
+		}
+		ControllerMetrics.get().frameSent(frame.getType(), length);
+		if(event != null && event.shouldCommit()) {
+			event.type = frame.getType().name();
+			event.length = length;
+			event.sent = true;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>sendFrame</i></b>
+	 * <p>	<code>private void sendFrame(String frame)</code>
+	 * <p>	Sends the passed frame on the current <tt>WebSocket</tt> and records it in the metrics.
+	 * 		If the server accepted the binary protocol and the frame has a binary form, the binary form is sent instead.
+	 * @param frame - the <tt>String</tt> frame to send.
+	 * </ul>
+	 */
+	private void sendFrame(String frame) {
+		final CommandSendEvent event = ControllerEvents.isEnabled() ? new CommandSendEvent() : null;
+		if(event != null) {
+			event.begin();
+		}
+		final byte[] encoded = binary ? BinaryProtocol.encodeClientFrame(frame) : null;
+		outboundLanes.frameHandedOff();
+		if(encoded != null) {
+			webSocket.sendBinary(encoded);
+			ControllerMetrics.get().frameSent(OutboundType.of(frame), encoded.length);
+		}
+		else {
+			webSocket.sendText(frame);
+			ControllerMetrics.get().frameSent(frame);
+		}
+		if(event != null && event.shouldCommit()) {
+			event.type = OutboundType.of(frame).name();
+			event.length = (encoded != null) ? encoded.length : frame.length();
+			event.sent = true;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>replayOutbox</i></b>
+	 * <p>	<code>private void replayOutbox()</code>
+	 * <p>	Sends the commands waiting in the {@link Outbox}, in the order they were issued, after dropping any that are too old to send.
+	 * 		They all go through the security lane, so that they keep their order, and are sent ahead of anything issued after connecting.
+	 * 		Commands that do not fit in the lane stay in the outbox until the next connection.
+	 * 		Commands already waiting in the lane, or handed to a connection and not yet written, are skipped, so that a server that does not acknowledge them never gets one twice.
+	 * </ul>
+	 */
+	private void replayOutbox() {
+		final long now = System.currentTimeMillis();
+		for(Outbox.Entry entry : outbox.takeExpired()) {
+			System.out.println(ControllerInterface.CONSOLE_ERROR + "Dropped " + entry.getDescription() + " to " + describeServer() + " from the outbox. It was issued "
+				+ DeviceStateCache.describeAge(now - entry.getIssuedAt()) + " ago, and expired after " + DeviceStateCache.describeAge(entry.getExpiresAt() - entry.getIssuedAt()) + ".");
+		}
+		final List<Outbox.Entry> entries = outbox.getPending();
+		entries.removeIf((entry) -> replayQueued.contains(entry.getId()) || replaying.containsValue(entry.getId()));
+		if(entries.isEmpty()) {
+			return;
+		}
+		System.out.println("<#> Sending " + entries.size() + " command(s) from the outbox to " + describeServer() + (acknowledged ? ", which acknowledges each one." : "."));
+		for(Outbox.Entry entry : entries) {
+			replayQueued.add(entry.getId());
+			if(!outboundLanes.enqueue(OutboundLane.SECURITY, () -> sendReplay(entry))) {
+				replayQueued.remove(entry.getId());
+				laneFull(OutboundLane.SECURITY);
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>sendReplay</i></b>
+	 * <p>	<code>private void sendReplay(Outbox.Entry entry)</code>
+	 * <p>	Sends a command from the {@link Outbox}, with its id if the server acknowledges replayed commands, unless it expired while waiting in its lane.
+	 * @param entry - the <tt>Outbox.Entry</tt> to send.
+	 * </ul>
+	 */
+	private void sendReplay(Outbox.Entry entry) {
+		final long now = System.currentTimeMillis();
+		if(entry.isExpired(now)) {
+			replayQueued.remove(entry.getId());
+			return;
+		}
+		final String text = entry.toFrame(acknowledged);
+		final WebSocketFrame frame = WebSocketFrame.createTextFrame(text);
+		if(!acknowledged) {
+			replaying.put(frame, entry.getId());
+		}
+		//	Only once it is tracked as handed off is it no longer tracked as waiting, so that a replay in between never sends it again.
+		replayQueued.remove(entry.getId());
+		outboundLanes.frameHandedOff();
+		webSocket.sendFrame(frame);
+		ControllerMetrics.get().frameSent(text);
+		System.out.println("> SENT --> " + entry.getDescription() + " (from the outbox, issued " + DeviceStateCache.describeAge(now - entry.getIssuedAt()) + " ago)");
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getOutbox</i></b>
+	 * <p>	<code>public Outbox getOutbox()</code>
+	 * <p>	Gets the outbox that keeps commands issued while disconnected.
+	 * @return the {@link Outbox}, or <code>null</code> if it is not enabled.
+	 * </ul>
+	 */
+	public Outbox getOutbox() {
+		return outbox;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getHealth</i></b>
+	 * <p>	<code>public LinkHealth getHealth()</code>
+	 * <p>	Gets the health of the current connection, which is scored from the probes sent on it.
+	 * @return the {@link LinkHealth}.
+	 * </ul>
+	 */
+	public LinkHealth getHealth() {
+		return health;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getClock</i></b>
+	 * <p>	<code>public ServerClock getClock()</code>
+	 * <p>	Gets the estimate of the server's clock for the current connection.
+	 * @return the {@link ServerClock}.
+	 * </ul>
+	 */
+	public ServerClock getClock() {
+		return clock;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getResumption</i></b>
+	 * <p>	<code>public SessionResumption getResumption()</code>
+	 * <p>	Gets the <tt>SessionResumption</tt> that keeps the server's ticket and records how each connection was opened.
+	 * @return the <tt>SessionResumption</tt>.
+	 * </ul>
+	 */
+	public SessionResumption getResumption() {
+		return resumption;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>isBinary</i></b>
+	 * <p>	<code>public boolean isBinary()</code>
+	 * <p>	Checks if the current connection uses the {@link BinaryProtocol} for the frames that have a binary form.
+	 * @return <code>true</code> if the server accepted the binary protocol; <code>false</code> if text is used.
+	 * </ul>
+	 */
+	public boolean isBinary() {
+		return binary;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>describeServer</i></b>
+	 * <p>	<code>public String describeServer()</code>
+	 * <p>	Describes the server this client connects to, for messages about its connection.
+	 * @return a <tt>String</tt> with <code>the server</code>, or the site's name if this is one of several sites.
+	 * </ul>
+	 */
+	public String describeServer() {
+		return (site == null) ? "the server" : "site " + site;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getSite</i></b>
+	 * <p>	<code>public String getSite()</code>
+	 * <p>	Gets the name of the site this client connects to.
+	 * @return a <tt>String</tt> with the site's name, or <code>null</code> if this is the controller's only connection.
+	 * </ul>
+	 */
+	public String getSite() {
+		return site;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getServerUri</i></b>
+	 * <p>	<code>public String getServerUri()</code>
+	 * <p>	Gets the address of the server this client connects to.
+	 * @return a <tt>String</tt> with the address.
+	 * </ul>
+	 */
+	public String getServerUri() {
+		return serverUri;
+	}
+	
+	/**
+	 * <ul>
+	 * <p>	<b><i>getEventBus</i></b>
+	 * <p>	<code>public EventBus getEventBus()</code>
+	 * <p>	Gets the <tt>EventBus</tt> that every message received from the server is published to. Subscribe to it to handle messages.
+	 * @return the <tt>EventBus</tt>.
 	 * </ul>
 	 */
-	public void setMessageListener(MessageListener ml) {
-		messageListener = ml;
+	public EventBus getEventBus() {
+		return eventBus;
 	}
 }
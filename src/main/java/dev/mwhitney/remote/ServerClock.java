@@ -0,0 +1,303 @@
+package dev.mwhitney.remote;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import dev.mwhitney.metrics.ControllerMetrics;
+
+/**
+ *
+ * Estimates the offset between the controller's clock and the server's, NTP style, from the pings and keep-alives exchanged with servers that support it.
+ * <p>	The client offers the exchange by sending the {@link #HEADER} header with {@link #VERSION} in its handshake. A server that supports it sends the same header back.
+ * 		On such a connection, the client adds <code> @t1</code> to each ping and keep-alive, where <code>t1</code> is the time it was sent, in microseconds since the epoch.
+ * 		The server answers with <code> @t1,t2,t3</code> added to its pong or keep-alive, where <code>t2</code> is when it received the frame and <code>t3</code> is when it answered, by its own clock.
+ * 		With <code>t4</code> as the time the answer arrived, each exchange measures:
+ * <ul>
+ * 	<li>the offset, <code>((t2 - t1) + (t3 - t4)) / 2</code>, which is the time to add to the controller's clock to get the server's.</li>
+ * 	<li>the network delay, <code>(t4 - t1) - (t3 - t2)</code>, which is the round trip without the server's own processing time.</li>
+ * </ul>
+ * <p>	Only the keep-alive echo and the <code>Pong!</code> response carry times, and only an answer whose <code>t1</code> is one the client recently sent is recorded,
+ * 		so that text sent by other users, such as a broadcast that happens to end in <code> @a,b,c</code>, can neither be cut short nor move the offset.
+ * <p>	The offset is taken from the exchange with the smallest delay among the last {@link #SAMPLES}, as NTP does, since a short round trip leaves the least room for error.
+ * 		Its uncertainty is half that delay, which is how far uneven delays in each direction could move it.
+ * <p>	The controller's clock is the wall-clock time at startup advanced by <code>System.nanoTime()</code>, so that neither measurements nor annotations jump if the system clock is changed.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class ServerClock {
+
+	//	Static Return Values
+	/** A <tt>String</tt> with the name of the handshake header used to offer and accept the exchange. */
+	final public static String HEADER = "clock";
+	/** A <tt>String</tt> with the exchange and its version, as sent in the handshake header. */
+	final public static String VERSION = "one-clock/1";
+	/** A <tt>String</tt> that separates a frame from the times added to it. */
+	final public static String STAMP = " @";
+	/** An <code>int</code> for the number of recent exchanges the offset is chosen from. */
+	final public static int SAMPLES = 8;
+	/** A <code>long</code> for the wall-clock time, in microseconds since the epoch, at which the controller's clock started. */
+	final private static long BASE_MICROS = System.currentTimeMillis() * 1000;
+	/** A <code>long</code> for the <code>System.nanoTime()</code> at which the controller's clock started. */
+	final private static long BASE_NANOS = System.nanoTime();
+
+	//	Variables
+	/** A <code>boolean</code> for whether or not the server accepted the exchange for the current connection. */
+	private volatile boolean enabled;
+	/** The <code>long</code> offsets of the recent exchanges, in microseconds. */
+	private final long[] offsets = new long[SAMPLES];
+	/** The <code>long</code> network delays of the recent exchanges, in microseconds. */
+	private final long[] delays = new long[SAMPLES];
+	/** An <code>int</code> for the number of exchanges recorded since the clock was reset. */
+	private int count;
+	/** A <code>long</code> for the current offset estimate, in microseconds. */
+	private volatile long offset;
+	/** A <code>long</code> for the network delay of the exchange the offset was taken from, in microseconds, or <code>-1</code> if there is none. */
+	private volatile long delay = -1;
+	/** The <code>long</code> times of the recent stamped frames that have not been answered yet, in microseconds, or <code>0</code> where there is none. */
+	private final long[] unanswered = new long[SAMPLES];
+	/** An <code>int</code> for the number of frames stamped since the clock was reset. */
+	private int stamped;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isAccepted</i></b>
+	 * <p>	<code>public static boolean isAccepted(Map&lt;String, List&lt;String&gt;&gt; headers)</code>
+	 * <p>	Checks if a server accepted the exchange, from the headers of its handshake response.
+	 * @param headers - the <tt>Map</tt> of response headers, whose names are matched regardless of case.
+	 * @return <code>true</code> if pings and keep-alives should carry times; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public static boolean isAccepted(Map<String, List<String>> headers) {
+		if(headers == null) {
+			return false;
+		}
+		for(Map.Entry<String, List<String>> header : headers.entrySet()) {
+			if(HEADER.equalsIgnoreCase(header.getKey()) && header.getValue() != null && header.getValue().contains(VERSION)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>localMicros</i></b>
+	 * <p>	<code>public static long localMicros(long nanos)</code>
+	 * <p>	Converts a <code>System.nanoTime()</code> to the controller's clock.
+	 * @param nanos - a <code>long</code> with the <code>System.nanoTime()</code>.
+	 * @return a <code>long</code> with the time in microseconds since the epoch.
+	 * </ul>
+	 */
+	public static long localMicros(long nanos) {
+		return BASE_MICROS + (nanos - BASE_NANOS) / 1000;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>stamp</i></b>
+	 * <p>	<code>public synchronized String stamp(String frame)</code>
+	 * <p>	Adds the current time to a ping or keep-alive, as the first time of an exchange, and remembers it until it is answered.
+	 * @param frame - the <tt>String</tt> text frame.
+	 * @return the <tt>String</tt> frame followed by <code> @t1</code>.
+	 * </ul>
+	 */
+	public synchronized String stamp(String frame) {
+		final long t1 = localMicros(System.nanoTime());
+		unanswered[stamped++ % SAMPLES] = t1;
+		return frame + STAMP + t1;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>reset</i></b>
+	 * <p>	<code>public synchronized void reset(boolean enabled)</code>
+	 * <p>	Forgets every exchange, such as when a new connection is opened, and sets whether or not its server accepted the exchange.
+	 * @param enabled - a <code>boolean</code> for whether or not the server accepted the exchange.
+	 * </ul>
+	 */
+	public synchronized void reset(boolean enabled) {
+		this.enabled = enabled;
+		count = 0;
+		offset = 0;
+		delay = -1;
+		stamped = 0;
+		Arrays.fill(unanswered, 0);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>strip</i></b>
+	 * <p>	<code>public String strip(String message, String answer, long receivedNanos)</code>
+	 * <p>	Removes the times the server added to an answer, recording the exchange they complete if the client sent its first time.
+	 * 		Only a message that is exactly the answer followed by three times is changed. Any other message, or any from a server that did not accept the exchange, is returned as it is.
+	 * @param message - the <tt>String</tt> message, without its type prefix.
+	 * @param answer - the <tt>String</tt> answer that may carry times, such as <code>keep-alive</code> or <code>Pong!</code>.
+	 * @param receivedNanos - a <code>long</code> with the <code>System.nanoTime()</code> at which it arrived.
+	 * @return the <tt>String</tt> message without the times.
+	 * </ul>
+	 */
+	public String strip(String message, String answer, long receivedNanos) {
+		if(!enabled || message.length() <= answer.length() + STAMP.length() || !message.startsWith(answer) || !message.startsWith(STAMP, answer.length())) {
+			return message;
+		}
+		final String[] times = message.substring(answer.length() + STAMP.length()).split(",");
+		if(times.length != 3) {
+			return message;
+		}
+		final long t1, t2, t3;
+		try {
+			t1 = Long.parseLong(times[0].trim());
+			t2 = Long.parseLong(times[1].trim());
+			t3 = Long.parseLong(times[2].trim());
+		} catch (NumberFormatException nfe) {
+			return message;
+		}
+		if(answered(t1)) {
+			record(t1, t2, t3, localMicros(receivedNanos));
+		}
+		return answer;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>answered</i></b>
+	 * <p>	<code>private synchronized boolean answered(long t1)</code>
+	 * <p>	Checks if a time is one the client recently stamped a frame with and has not seen answered, forgetting it if so, so that each stamp is recorded once.
+	 * @param t1 - a <code>long</code> with the first time of the answer.
+	 * @return <code>true</code> if the answer completes an exchange the client started; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	private synchronized boolean answered(long t1) {
+		if(t1 == 0) {
+			return false;
+		}
+		for(int i = 0; i < SAMPLES; i++) {
+			if(unanswered[i] == t1) {
+				unanswered[i] = 0;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>record</i></b>
+	 * <p>	<code>public synchronized void record(long t1, long t2, long t3, long t4)</code>
+	 * <p>	Records one exchange, and takes the offset from the recent exchange with the smallest delay.
+	 * @param t1 - a <code>long</code> with the time the client sent the frame, by its clock, in microseconds.
+	 * @param t2 - a <code>long</code> with the time the server received it, by its clock, in microseconds.
+	 * @param t3 - a <code>long</code> with the time the server answered, by its clock, in microseconds.
+	 * @param t4 - a <code>long</code> with the time the answer arrived, by the client's clock, in microseconds.
+	 * </ul>
+	 */
+	public synchronized void record(long t1, long t2, long t3, long t4) {
+		final long sampleDelay = Math.max(0, (t4 - t1) - (t3 - t2));
+		final int index = count++ % SAMPLES;
+		offsets[index] = ((t2 - t1) + (t3 - t4)) / 2;
+		delays[index] = sampleDelay;
+		int best = 0;
+		for(int i = 1; i < Math.min(count, SAMPLES); i++) {
+			if(delays[i] < delays[best]) {
+				best = i;
+			}
+		}
+		offset = offsets[best];
+		delay = delays[best];
+		ControllerMetrics.get().clockMeasured(offset, delay / 2);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isEnabled</i></b>
+	 * <p>	<code>public boolean isEnabled()</code>
+	 * <p>	Checks if the server accepted the exchange for the current connection, so that pings and keep-alives should carry times.
+	 * @return <code>true</code> if it did; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isSynchronized</i></b>
+	 * <p>	<code>public boolean isSynchronized()</code>
+	 * <p>	Checks if at least one exchange has been recorded on the current connection, so that the offset can be used.
+	 * @return <code>true</code> if there is an offset; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean isSynchronized() {
+		return delay >= 0;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getOffsetMicros</i></b>
+	 * <p>	<code>public long getOffsetMicros()</code>
+	 * <p>	Gets the time to add to the controller's clock to get the server's.
+	 * @return a <code>long</code> with the offset in microseconds.
+	 * </ul>
+	 */
+	public long getOffsetMicros() {
+		return offset;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getOneWayMicros</i></b>
+	 * <p>	<code>public long getOneWayMicros()</code>
+	 * <p>	Gets the estimated time a frame takes to travel from the server, which is half the smallest recent network delay.
+	 * @return a <code>long</code> with the time in microseconds, or <code>-1</code> if there is no estimate.
+	 * </ul>
+	 */
+	public long getOneWayMicros() {
+		final long current = delay;
+		return (current < 0) ? -1 : current / 2;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getUncertaintyMicros</i></b>
+	 * <p>	<code>public long getUncertaintyMicros()</code>
+	 * <p>	Gets how far the offset, and the times estimated from it, could be wrong if the delays in each direction were uneven.
+	 * @return a <code>long</code> with the uncertainty in microseconds, or <code>-1</code> if there is no estimate.
+	 * </ul>
+	 */
+	public long getUncertaintyMicros() {
+		return getOneWayMicros();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>toServerMicros</i></b>
+	 * <p>	<code>public long toServerMicros(long nanos)</code>
+	 * <p>	Converts a <code>System.nanoTime()</code> to the server's clock.
+	 * @param nanos - a <code>long</code> with the <code>System.nanoTime()</code>.
+	 * @return a <code>long</code> with the server's time in microseconds since the epoch.
+	 * </ul>
+	 */
+	public long toServerMicros(long nanos) {
+		return localMicros(nanos) + offset;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public String describe()</code>
+	 * <p>	Describes the offset and its uncertainty.
+	 * @return a <tt>String</tt> such as <code>server clock +12.4 ms +/-0.3 ms</code>, or a note that it has not been measured.
+	 * </ul>
+	 */
+	public String describe() {
+		if(!enabled) {
+			return "server clock not supported";
+		}
+		if(!isSynchronized()) {
+			return "server clock not measured yet";
+		}
+		return String.format("server clock %+.1f ms +/-%.1f ms", offset / 1000.0, getUncertaintyMicros() / 1000.0);
+	}
+}
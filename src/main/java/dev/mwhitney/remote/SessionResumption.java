@@ -0,0 +1,217 @@
+package dev.mwhitney.remote;
+
+import java.security.GeneralSecurityException;
+import java.util.List;
+import java.util.Map;
+
+import javax.net.ssl.SSLContext;
+
+import dev.mwhitney.gui.ControllerInterface;
+
+/**
+ *
+ * Lets a <tt>RemoteClient</tt> reconnect without repeating the full cost of opening a connection, at both the TLS and the application level.
+ * <p>	Every connection is made with one shared {@link SSLContext}, created once, whose client session cache keeps each server's TLS session
+ * 		so that a reconnect resumes it instead of performing a full TLS handshake.
+ * <p>	The client also offers resumption by sending the {@link #HEADER} header with {@link #VERSION} in its handshake. A server that supports it sends the same header back,
+ * 		along with a single-use ticket in the {@link #TICKET_HEADER} header. The ticket is kept in memory only, and is sent in the next handshake along with the token.
+ * 		A server that still holds the ticket skips token authentication and answers with <code>resumed</code> in the {@link #STATUS_HEADER} header.
+ * 		Otherwise it authenticates the token as usual, so a ticket the server has forgotten, such as after it restarts, only costs the full handshake it would have taken anyway.
+ * <p>	Resumption can be turned off by setting the <code>one.resume</code> system property to <code>false</code>.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class SessionResumption {
+
+	//	Static Return Values
+	/** A <code>boolean</code> for whether or not resumption is offered to servers, which can be turned off by setting the <code>one.resume</code> system property to <code>false</code>. */
+	final public static boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("one.resume"));
+	/** A <tt>String</tt> with the name of the handshake header used to offer and accept resumption. */
+	final public static String HEADER = "resume";
+	/** A <tt>String</tt> with the resumption scheme and its version, as sent in the handshake header. */
+	final public static String VERSION = "one-resume/1";
+	/** A <tt>String</tt> with the name of the handshake header that carries a ticket, issued by the server and presented by the client. */
+	final public static String TICKET_HEADER = "resume-ticket";
+	/** A <tt>String</tt> with the name of the handshake header in which the server says whether it honored the ticket. */
+	final public static String STATUS_HEADER = "resume-status";
+	/** A <tt>String</tt> sent in the {@link #STATUS_HEADER} when the server honored the ticket and skipped token authentication. */
+	final public static String RESUMED = "resumed";
+	/** An <code>int</code> for the close code with which a server refuses a connection whose token or ticket it did not accept. */
+	final public static int REFUSED = 4001;
+	/** An <code>int</code> for the number of TLS sessions kept in the shared context, one for each server at most. */
+	final private static int SESSION_CACHE_SIZE = 64;
+	/** An <code>int</code> for how long, in seconds, a TLS session is kept to be resumed. */
+	final private static int SESSION_LIFETIME = 24 * 60 * 60;
+	/** The <tt>SSLContext</tt> shared by every connection, or <code>null</code> if it could not be created and the default one is used. */
+	private static SSLContext sharedContext;
+	/** A <code>boolean</code> for whether or not creating the shared context has been tried. */
+	private static boolean contextCreated;
+
+	//	Variables
+	/** A <tt>String</tt> with the ticket to present in the next handshake, or <code>null</code> if there is none. */
+	private volatile String ticket;
+	/** A <code>boolean</code> for whether or not the most recent connection resumed its session. */
+	private volatile boolean resumed;
+	/** A <code>long</code> for how long the most recent handshake took, in nanoseconds, or <code>-1</code> if none has finished. */
+	private volatile long lastHandshake = -1;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getSharedContext</i></b>
+	 * <p>	<code>public static synchronized SSLContext getSharedContext()</code>
+	 * <p>	Gets the <tt>SSLContext</tt> shared by every connection, creating it the first time.
+	 * 		It uses the default key and trust managers, so the <code>javax.net.ssl</code> system properties still apply.
+	 * @return the shared <tt>SSLContext</tt>, or <code>null</code> if it could not be created, in which case the default one should be used.
+	 * </ul>
+	 */
+	public static synchronized SSLContext getSharedContext() {
+		if(!contextCreated) {
+			contextCreated = true;
+			try {
+				sharedContext = SSLContext.getInstance("TLS");
+				sharedContext.init(null, null, null);
+				sharedContext.getClientSessionContext().setSessionCacheSize(SESSION_CACHE_SIZE);
+				sharedContext.getClientSessionContext().setSessionTimeout(SESSION_LIFETIME);
+			} catch (GeneralSecurityException gse) {
+				System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Could not create the shared TLS context. Reconnects will not resume TLS sessions. (" + gse.getMessage() + ")");
+				sharedContext = null;
+			}
+		}
+		return sharedContext;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isAccepted</i></b>
+	 * <p>	<code>public static boolean isAccepted(Map&lt;String, List&lt;String&gt;&gt; headers)</code>
+	 * <p>	Checks if a server accepted resumption, from the headers of its handshake response.
+	 * @param headers - the <tt>Map</tt> of response headers, whose names are matched regardless of case.
+	 * @return <code>true</code> if the server issues tickets; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public static boolean isAccepted(Map<String, List<String>> headers) {
+		final List<String> values = getHeader(headers, HEADER);
+		return values != null && values.contains(VERSION);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getHeader</i></b>
+	 * <p>	<code>private static List&lt;String&gt; getHeader(Map&lt;String, List&lt;String&gt;&gt; headers, String name)</code>
+	 * <p>	Gets the values of a response header, matching its name regardless of case.
+	 * @param headers - the <tt>Map</tt> of response headers, or <code>null</code>.
+	 * @param name - the <tt>String</tt> name of the header.
+	 * @return the <tt>List</tt> of its values, or <code>null</code> if it was not sent.
+	 * </ul>
+	 */
+	private static List<String> getHeader(Map<String, List<String>> headers, String name) {
+		if(headers == null) {
+			return null;
+		}
+		for(Map.Entry<String, List<String>> header : headers.entrySet()) {
+			if(name.equalsIgnoreCase(header.getKey()) && header.getValue() != null) {
+				return header.getValue();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>connected</i></b>
+	 * <p>	<code>public boolean connected(Map&lt;String, List&lt;String&gt;&gt; headers)</code>
+	 * <p>	Records the outcome of a handshake, keeping the new ticket the server issued, if any, for the next one.
+	 * 		A server that did not accept resumption is not sent the old ticket again.
+	 * @param headers - the <tt>Map</tt> of response headers.
+	 * @return <code>true</code> if the server honored the ticket and skipped token authentication; <code>false</code> if it authenticated the token.
+	 * </ul>
+	 */
+	public boolean connected(Map<String, List<String>> headers) {
+		if(!ENABLED || !isAccepted(headers)) {
+			ticket = null;
+			resumed = false;
+			return false;
+		}
+		final List<String> issued = getHeader(headers, TICKET_HEADER);
+		ticket = (issued == null || issued.isEmpty() || issued.get(0).isBlank()) ? null : issued.get(0).trim();
+		final List<String> status = getHeader(headers, STATUS_HEADER);
+		resumed = status != null && status.contains(RESUMED);
+		return resumed;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>handshakeFinished</i></b>
+	 * <p>	<code>public void handshakeFinished(long nanos)</code>
+	 * <p>	Records how long a successful handshake took, from starting to connect until the connection was open.
+	 * @param nanos - a <code>long</code> with the time in nanoseconds.
+	 * </ul>
+	 */
+	public void handshakeFinished(long nanos) {
+		lastHandshake = nanos;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>forget</i></b>
+	 * <p>	<code>public void forget()</code>
+	 * <p>	Discards the ticket, so that the next handshake authenticates the token in full, such as after the server refused the connection.
+	 * </ul>
+	 */
+	public void forget() {
+		ticket = null;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getTicket</i></b>
+	 * <p>	<code>public String getTicket()</code>
+	 * <p>	Gets the ticket to present in the next handshake.
+	 * @return the <tt>String</tt> ticket, or <code>null</code> if there is none or resumption is turned off.
+	 * </ul>
+	 */
+	public String getTicket() {
+		return ENABLED ? ticket : null;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isResumed</i></b>
+	 * <p>	<code>public boolean isResumed()</code>
+	 * <p>	Checks if the most recent connection resumed its session rather than authenticating the token.
+	 * @return <code>true</code> if it resumed; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean isResumed() {
+		return resumed;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLastHandshakeNanos</i></b>
+	 * <p>	<code>public long getLastHandshakeNanos()</code>
+	 * <p>	Gets how long the most recent successful handshake took, including the TCP connection, TLS handshake and authentication.
+	 * @return a <code>long</code> with the time in nanoseconds, or <code>-1</code> if none has finished.
+	 * </ul>
+	 */
+	public long getLastHandshakeNanos() {
+		return lastHandshake;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public String describe()</code>
+	 * <p>	Describes how the most recent connection was opened.
+	 * @return a <tt>String</tt> such as <code>session resumed in 4.2 ms</code>.
+	 * </ul>
+	 */
+	public String describe() {
+		final long took = lastHandshake;
+		if(took < 0) {
+			return "no handshake yet";
+		}
+		return String.format("%s in %.1f ms", resumed ? "session resumed" : "full handshake", took / 1e6);
+	}
+}
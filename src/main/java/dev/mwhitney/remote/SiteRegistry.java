@@ -0,0 +1,331 @@
+package dev.mwhitney.remote;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import dev.mwhitney.enums.OverflowStrategy;
+import dev.mwhitney.enums.WaitStrategy;
+import dev.mwhitney.events.EventBus;
+import dev.mwhitney.gui.ControllerInterface;
+import dev.mwhitney.ipc.ResponseCorrelator;
+import dev.mwhitney.main.CommandExecutor;
+
+/**
+ *
+ * The named sites the controller is connected to, each with its own {@link RemoteClient} that connects and reconnects independently of the others.
+ * <p>	Sites are read from the <code>one.sites</code> system property, such as <code>north=wss://a.example,south=wss://b.example</code>,
+ * 		or from <code>sites.txt</code> in the application's folder, with one <code>name=uri</code> per line.
+ * 		If neither lists any sites, the controller has a single, unnamed connection to the configured server, as it always has.
+ * <p>	Every site publishes to the same {@link EventBus}, labeling its messages with its name.
+ * 		The server's responses are matched to waiting commands separately for each site, as each server answers its own commands in order.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class SiteRegistry {
+
+	//	Static Return Values
+	/** A <tt>String</tt> for the selector that chooses every site, without its leading <code>@</code>. */
+	final public static String ALL = "ALL";
+	/** A <tt>String</tt> for the name of the file in the application's folder that lists the sites. */
+	final public static String SITES_FILE = "sites.txt";
+
+	//	Core Objects
+	/** The <tt>EventBus</tt> shared by every site. */
+	private final EventBus eventBus;
+	/** The <tt>Map</tt> of each site's <tt>RemoteClient</tt>, keyed by its upper-case name, in the order the sites were listed. Never changed after creation. */
+	private final Map<String, RemoteClient> clients = new LinkedHashMap<>();
+	/** The <tt>Map</tt> of the <tt>ResponseCorrelator</tt> for each site's client. Never changed after creation. */
+	private final Map<RemoteClient, ResponseCorrelator> responses = new HashMap<>();
+	/** The <tt>RemoteClient</tt> for the first site, which is sent any command that does not choose its sites. */
+	private final RemoteClient primary;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>SiteRegistry</i></b>
+	 * <p>	<code>public SiteRegistry(List&lt;RemoteClient&gt; siteClients)</code>
+	 * <p>	Creates a new <tt>SiteRegistry</tt> from clients that have already been created, and subscribes the matching of their responses.
+	 * 		Every client must publish to the same <tt>EventBus</tt>, and only one may be unnamed, in which case it must be the only client.
+	 * @param siteClients - the <tt>List</tt> of <tt>RemoteClient</tt>s, the first of which is the primary site.
+	 * @throws IllegalArgumentException if there are no clients, or two have the same name.
+	 * </ul>
+	 */
+	public SiteRegistry(List<RemoteClient> siteClients) {
+		if(siteClients.isEmpty()) {
+			throw new IllegalArgumentException("At least one site is required.");
+		}
+		this.primary = siteClients.get(0);
+		this.eventBus = primary.getEventBus();
+		for(RemoteClient client : siteClients) {
+			final String key = (client.getSite() == null) ? "" : client.getSite().toUpperCase(Locale.ROOT);
+			if(clients.putIfAbsent(key, client) != null) {
+				throw new IllegalArgumentException("Duplicate site: " + client.getSite());
+			}
+			responses.put(client, new ResponseCorrelator());
+		}
+
+		//	Responses are never dropped. Matching one to its command is quick, so blocking the publisher is not a concern.
+		eventBus.subscribe("responses", 256, WaitStrategy.BLOCKING, OverflowStrategy.QUEUE, (event) -> {
+			final RemoteClient client = clients.get((event.getSite() == null) ? "" : event.getSite().toUpperCase(Locale.ROOT));
+			if(client != null) {
+				responses.get(client).onEvent(event);
+			}
+		});
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>fromConfiguration</i></b>
+	 * <p>	<code>public static SiteRegistry fromConfiguration()</code>
+	 * <p>	Creates a <tt>SiteRegistry</tt> for the configured sites. None of them connects until {@link #connect()} is called,
+	 * 		so that every subscriber can be added to the bus first and no early message is missed.
+	 * @return the <tt>SiteRegistry</tt>, with a single, unnamed client for the configured server if no sites are listed.
+	 * </ul>
+	 */
+	public static SiteRegistry fromConfiguration() {
+		final Map<String, String> sites = getConfiguredSites();
+		if(sites.isEmpty()) {
+			return new SiteRegistry(List.of(new RemoteClient()));
+		}
+		final EventBus eventBus = new EventBus();
+		final List<RemoteClient> siteClients = new ArrayList<>();
+		sites.forEach((name, uri) -> siteClients.add(new RemoteClient(name, uri, eventBus)));
+		return new SiteRegistry(siteClients);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>connect</i></b>
+	 * <p>	<code>public void connect()</code>
+	 * <p>	Starts connecting to every site at once, without waiting for the others.
+	 * <p>	<b>Note:</b> This should only be called once every subscriber has been added to the {@link EventBus}.
+	 * </ul>
+	 */
+	public void connect() {
+		for(RemoteClient client : clients.values()) {
+			client.connectToServer();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getConfiguredSites</i></b>
+	 * <p>	<code>public static Map&lt;String, String&gt; getConfiguredSites()</code>
+	 * <p>	Gets the configured sites, checking the <code>one.sites</code> system property, then the <code>sites.txt</code> file in the application's folder.
+	 * 		Blank lines and lines starting with <code>#</code> in the file are ignored, as is any entry without both a name and an address.
+	 * @return a <tt>Map</tt> of each site's name to its server address, in the order listed, which is empty if none are configured.
+	 * </ul>
+	 */
+	public static Map<String, String> getConfiguredSites() {
+		final List<String> entries = new ArrayList<>();
+		final String property = System.getProperty("one.sites");
+		if(property != null && !property.isBlank()) {
+			Collections.addAll(entries, property.split(","));
+		}
+		else {
+			final Path file = Paths.get(CommandExecutor.APP_FOLDER_PATH, SITES_FILE);
+			if(Files.isRegularFile(file)) {
+				try {
+					entries.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+				} catch (IOException ioe) {
+					System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Could not read the sites file. (" + ioe.getMessage() + ")");
+				}
+			}
+		}
+
+		final Map<String, String> sites = new LinkedHashMap<>();
+		for(String entry : entries) {
+			final int separator = entry.indexOf('=');
+			if(entry.isBlank() || entry.trim().startsWith("#") || separator < 0) {
+				continue;
+			}
+			final String name = entry.substring(0, separator).trim();
+			final String uri = entry.substring(separator + 1).trim();
+			if(!name.isEmpty() && !uri.isEmpty() && !name.contains("@") && !name.equalsIgnoreCase(ALL)) {
+				sites.put(name, uri);
+			}
+			else {
+				System.out.println(ControllerInterface.CONSOLE_ERROR + "Ignoring invalid site: " + entry.trim());
+			}
+		}
+		return sites;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>select</i></b>
+	 * <p>	<code>public List&lt;RemoteClient&gt; select(String selector)</code>
+	 * <p>	Gets the sites chosen by a selector, such as <code>@ALL</code> or <code>@north,south</code>. Names are matched regardless of case.
+	 * @param selector - a <tt>String</tt> with the selector, starting with <code>@</code>.
+	 * @return the <tt>List</tt> of chosen <tt>RemoteClient</tt>s, in the order the sites were listed.
+	 * @throws IllegalArgumentException if the selector names a site that does not exist.
+	 * </ul>
+	 */
+	public List<RemoteClient> select(String selector) {
+		final String names = selector.startsWith("@") ? selector.substring(1) : selector;
+		if(names.equalsIgnoreCase(ALL)) {
+			return new ArrayList<>(clients.values());
+		}
+		if(!isMultiSite()) {
+			throw new IllegalArgumentException("No sites are configured, so only @" + ALL + " can be used.");
+		}
+		final List<RemoteClient> selected = new ArrayList<>();
+		for(String name : names.split(",")) {
+			final RemoteClient client = clients.get(name.trim().toUpperCase(Locale.ROOT));
+			if(client == null) {
+				throw new IllegalArgumentException("Unknown site: " + name.trim());
+			}
+			if(!selected.contains(client)) {
+				selected.add(client);
+			}
+		}
+		//	Keep the listed order, so that summaries always read the same way.
+		selected.sort((a, b) -> Integer.compare(indexOf(a), indexOf(b)));
+		return selected;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>indexOf</i></b>
+	 * <p>	<code>private int indexOf(RemoteClient client)</code>
+	 * <p>	Gets the position at which the passed site was listed.
+	 * @param client - the site's <tt>RemoteClient</tt>.
+	 * @return an <code>int</code> with the site's position.
+	 * </ul>
+	 */
+	private int indexOf(RemoteClient client) {
+		return new ArrayList<>(clients.values()).indexOf(client);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>findSelector</i></b>
+	 * <p>	<code>public static int findSelector(String[] args)</code>
+	 * <p>	Finds the site selector in a command's arguments, which must be the last argument, such as in <code>OPEN 3 @north,south</code>.
+	 * @param args - the command arguments. This <b>can</b> be <code>null</code> or empty.
+	 * @return an <code>int</code> with the selector's index, or <code>-1</code> if the command does not choose its sites.
+	 * </ul>
+	 */
+	public static int findSelector(String[] args) {
+		return (args != null && args.length > 0 && args[args.length - 1].startsWith("@")) ? args.length - 1 : -1;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public List&lt;String&gt; describe()</code>
+	 * <p>	Describes each site's address and the state of its connection.
+	 * @return the <tt>List</tt> of lines, one per site.
+	 * </ul>
+	 */
+	public List<String> describe() {
+		final List<String> lines = new ArrayList<>();
+		if(!isMultiSite()) {
+			lines.add("<#> No sites are configured. Connected to a single server at " + primary.getServerUri() + ": " + describeState(primary) + ".");
+			lines.add("<#> List sites with -Done.sites=name=uri,name=uri or in " + SITES_FILE + " in the application's folder.");
+			return lines;
+		}
+		for(RemoteClient client : clients.values()) {
+			lines.add("<#> " + client.getSite() + ((client == primary) ? " (primary)" : "") + " at " + client.getServerUri() + ": " + describeState(client) + ".");
+		}
+		return lines;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describeState</i></b>
+	 * <p>	<code>private static String describeState(RemoteClient client)</code>
+	 * <p>	Describes the state of the passed client's connection.
+	 * @param client - the <tt>RemoteClient</tt> to describe.
+	 * @return a <tt>String</tt> with <code>connected</code>, <code>connecting</code> or <code>disconnected</code>, and the protocol used, the connection's health, the server's clock offset and how the connection was opened if connected.
+	 * </ul>
+	 */
+	private static String describeState(RemoteClient client) {
+		if(client.isConnected()) {
+			return (client.isBinary() ? "connected (binary" : "connected (text") + (LinkHealth.ENABLED ? ", " + client.getHealth().describe() : "") + ", " + client.getClock().describe() + ", " + client.getResumption().describe() + ")";
+		}
+		return client.isAttemptingConnection() ? "connecting" : "disconnected";
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isMultiSite</i></b>
+	 * <p>	<code>public boolean isMultiSite()</code>
+	 * <p>	Checks if the controller is connected to named sites, rather than to a single, unnamed server.
+	 * @return <code>true</code> if sites are configured; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean isMultiSite() {
+		return primary.getSite() != null;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getPrimary</i></b>
+	 * <p>	<code>public RemoteClient getPrimary()</code>
+	 * <p>	Gets the client for the first site, which is sent any command that does not choose its sites.
+	 * @return the primary <tt>RemoteClient</tt>.
+	 * </ul>
+	 */
+	public RemoteClient getPrimary() {
+		return primary;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getClients</i></b>
+	 * <p>	<code>public List&lt;RemoteClient&gt; getClients()</code>
+	 * <p>	Gets the client for every site.
+	 * @return a <tt>List</tt> of the <tt>RemoteClient</tt>s, in the order the sites were listed.
+	 * </ul>
+	 */
+	public List<RemoteClient> getClients() {
+		return new ArrayList<>(clients.values());
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getResponses</i></b>
+	 * <p>	<code>public ResponseCorrelator getResponses(RemoteClient client)</code>
+	 * <p>	Gets the <tt>ResponseCorrelator</tt> that matches the passed site's responses to its waiting commands.
+	 * @param client - the site's <tt>RemoteClient</tt>.
+	 * @return the site's <tt>ResponseCorrelator</tt>.
+	 * </ul>
+	 */
+	public ResponseCorrelator getResponses(RemoteClient client) {
+		return responses.get(client);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getEventBus</i></b>
+	 * <p>	<code>public EventBus getEventBus()</code>
+	 * <p>	Gets the <tt>EventBus</tt> that every site's messages are published to.
+	 * @return the shared <tt>EventBus</tt>.
+	 * </ul>
+	 */
+	public EventBus getEventBus() {
+		return eventBus;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>disconnectAll</i></b>
+	 * <p>	<code>public void disconnectAll()</code>
+	 * <p>	Disconnects from every site, without reconnecting.
+	 * </ul>
+	 */
+	public void disconnectAll() {
+		clients.values().forEach(RemoteClient::disconnectFromServer);
+	}
+}
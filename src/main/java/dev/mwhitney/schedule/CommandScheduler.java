@@ -0,0 +1,352 @@
+package dev.mwhitney.schedule;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import dev.mwhitney.enums.MissedRunPolicy;
+import dev.mwhitney.enums.ONECommand;
+import dev.mwhitney.gui.ControllerInterface;
+import dev.mwhitney.listeners.ScheduleListener;
+
+/**
+ *
+ * A scheduler for one-shot and recurring {@link ONECommand} executions, persisted across restarts.
+ * <p>	Every job runs off of a single {@link TimerWheel} thread.
+ * 		When a job is due but the server is not connected, or when it is due while the controller is not running, its {@link MissedRunPolicy} decides what happens.
+ * 		Every run that fires is recorded with its actual fire time and send latency.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class CommandScheduler {
+
+	//	Static Return Values
+	/** A <code>long</code> for how late, in milliseconds, a run may fire before it is considered missed (e.g. after the machine wakes from sleep). */
+	final public static long MAX_LATENESS = 60000;
+	/** A <code>long</code> for the interval, in milliseconds, at which pending catch-up runs are checked. */
+	final private static long CATCH_UP_INTERVAL = 1000;
+	/** An <code>int</code> for the maximum number of <tt>FireRecord</tt>s kept in the history. */
+	final private static int HISTORY_SIZE = 50;
+
+	//	Core Objects
+	/** The <tt>TimerWheel</tt> that every job runs on. */
+	private final TimerWheel timerWheel;
+	/** The <tt>ScheduleListener</tt> used to check the connection and execute due commands. */
+	private final ScheduleListener scheduleListener;
+	/** The <tt>Path</tt> to the file that jobs are persisted in. */
+	private final Path scheduleFile;
+	/** A <tt>Map</tt> of every job by its id, sorted for display. */
+	private final Map<Integer, ScheduledCommand> jobs = new TreeMap<>();
+	/** A <tt>Map</tt> of the currently armed <tt>Timeout</tt> for each job id. */
+	private final Map<Integer, TimerWheel.Timeout> timeouts = new HashMap<>();
+	/** The most recent <tt>FireRecord</tt>s, newest last. */
+	private final ArrayDeque<FireRecord> history = new ArrayDeque<>(HISTORY_SIZE);
+
+	//	Variables
+	/** An <code>int</code> for the id that the next new job will receive. */
+	private int nextId = 1;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>CommandScheduler</i></b>
+	 * <p>	<code>public CommandScheduler(String filePath, ScheduleListener sl)</code>
+	 * <p>	Creates a new <tt>CommandScheduler</tt>, loading any jobs persisted in the passed file and arming them.
+	 * 		Runs that were missed while the controller was not running are handled according to each job's policy on the first tick.
+	 * @param filePath - a <tt>String</tt> with the path of the file used to persist jobs.
+	 * @param sl - the <tt>ScheduleListener</tt> used to check the connection and execute due commands.
+	 * </ul>
+	 */
+	public CommandScheduler(String filePath, ScheduleListener sl) {
+		scheduleFile = Paths.get(filePath);
+		scheduleListener = sl;
+		timerWheel = new TimerWheel("ONE-Scheduler", 250, 512);
+
+		load();
+		synchronized(this) {
+			for(ScheduledCommand job : jobs.values()) {
+				arm(job);
+			}
+		}
+		timerWheel.schedule(this::checkCatchUps, System.currentTimeMillis() + CATCH_UP_INTERVAL);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>scheduleOnce</i></b>
+	 * <p>	<code>public synchronized ScheduledCommand scheduleOnce(ONECommand command, String[] args, long runAt, MissedRunPolicy policy)</code>
+	 * <p>	Schedules a command to run once at the passed wall-clock time.
+	 * @param command - the {@link ONECommand} to run.
+	 * @param args - the command's arguments. This <b>can</b> be <code>null</code>.
+	 * @param runAt - the wall-clock time in milliseconds at which to run the command.
+	 * @param policy - the {@link MissedRunPolicy} to apply if the run cannot happen on time.
+	 * @return the new <tt>ScheduledCommand</tt>.
+	 * </ul>
+	 */
+	public synchronized ScheduledCommand scheduleOnce(ONECommand command, String[] args, long runAt, MissedRunPolicy policy) {
+		return add(new ScheduledCommand(nextId++, command, args, null, runAt, policy, Math.min(runAt - 1, System.currentTimeMillis())));
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>scheduleRecurring</i></b>
+	 * <p>	<code>public synchronized ScheduledCommand scheduleRecurring(ONECommand command, String[] args, CronExpression cron, MissedRunPolicy policy)</code>
+	 * <p>	Schedules a command to run every time the passed cron expression matches.
+	 * @param command - the {@link ONECommand} to run.
+	 * @param args - the command's arguments. This <b>can</b> be <code>null</code>.
+	 * @param cron - the <tt>CronExpression</tt> to run on.
+	 * @param policy - the {@link MissedRunPolicy} to apply if a run cannot happen on time.
+	 * @return the new <tt>ScheduledCommand</tt>.
+	 * </ul>
+	 */
+	public synchronized ScheduledCommand scheduleRecurring(ONECommand command, String[] args, CronExpression cron, MissedRunPolicy policy) {
+		return add(new ScheduledCommand(nextId++, command, args, cron, 0, policy, System.currentTimeMillis()));
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>add</i></b>
+	 * <p>	<code>private ScheduledCommand add(ScheduledCommand job)</code>
+	 * <p>	Adds, arms and persists the passed job.
+	 * @param job - the <tt>ScheduledCommand</tt> to add.
+	 * @return the same <tt>ScheduledCommand</tt>.
+	 * </ul>
+	 */
+	private ScheduledCommand add(ScheduledCommand job) {
+		jobs.put(job.getId(), job);
+		arm(job);
+		save();
+		return job;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>remove</i></b>
+	 * <p>	<code>public synchronized boolean remove(int id)</code>
+	 * <p>	Removes the job with the passed id, cancelling any pending runs.
+	 * @param id - the id of the job to remove.
+	 * @return <code>true</code> if a job was removed; <code>false</code> if no job had that id.
+	 * </ul>
+	 */
+	public synchronized boolean remove(int id) {
+		final TimerWheel.Timeout timeout = timeouts.remove(id);
+		if(timeout != null) timeout.cancel();
+		if(jobs.remove(id) != null) {
+			save();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getJobs</i></b>
+	 * <p>	<code>public synchronized List&lt;ScheduledCommand&gt; getJobs()</code>
+	 * <p>	Gets every scheduled job, sorted by id.
+	 * @return a new <tt>List</tt> with the jobs.
+	 * </ul>
+	 */
+	public synchronized List<ScheduledCommand> getJobs() {
+		return new ArrayList<>(jobs.values());
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getHistory</i></b>
+	 * <p>	<code>public synchronized List&lt;FireRecord&gt; getHistory()</code>
+	 * <p>	Gets the records of the most recent runs that fired, oldest first.
+	 * @return a new <tt>List</tt> with the records.
+	 * </ul>
+	 */
+	public synchronized List<FireRecord> getHistory() {
+		return new ArrayList<>(history);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>stop</i></b>
+	 * <p>	<code>public void stop()</code>
+	 * <p>	Stops the scheduler's timer thread. Jobs remain persisted and will be loaded again on the next start.
+	 * </ul>
+	 */
+	public void stop() {
+		timerWheel.stop();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>arm</i></b>
+	 * <p>	<code>private void arm(ScheduledCommand job)</code>
+	 * <p>	Schedules the next run of the passed job on the timer wheel.
+	 * 		One-shot jobs that have already run, and have no pending catch-up, are removed instead.
+	 * @param job - the <tt>ScheduledCommand</tt> to arm.
+	 * </ul>
+	 */
+	private void arm(ScheduledCommand job) {
+		final long due = job.nextDueTime();
+		if(due == -1) {
+			timeouts.remove(job.getId());
+			if(job.getPendingCatchUp() == 0) {
+				jobs.remove(job.getId());
+			}
+			return;
+		}
+		timeouts.put(job.getId(), timerWheel.schedule(() -> onDue(job, due), due));
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>onDue</i></b>
+	 * <p>	<code>private synchronized void onDue(ScheduledCommand job, long due)</code>
+	 * <p>	Handles a job becoming due on the timer thread.
+	 * 		The run fires if every server it is sent to is connected and the run is not too late. Otherwise, the job's {@link MissedRunPolicy} is applied.
+	 * 		Either way, the job is then armed for its next run.
+	 * @param job - the <tt>ScheduledCommand</tt> that is due.
+	 * @param due - the wall-clock time in milliseconds at which the run was due.
+	 * </ul>
+	 */
+	private synchronized void onDue(ScheduledCommand job, long due) {
+		if(jobs.get(job.getId()) != job) return;
+
+		//	A regular run supersedes any catch-up that has not happened yet.
+		job.setPendingCatchUp(0);
+
+		final long now = System.currentTimeMillis();
+		if(now - due > MAX_LATENESS || !scheduleListener.connectionAvailable(job.getCommand(), job.getArgs())) {
+			//	Collapse every run missed up until now into one, such as after the controller was not running for days.
+			long latestMissed = due;
+			for(long next = job.nextDueTimeAfter(latestMissed); next != -1 && next <= now; next = job.nextDueTimeAfter(latestMissed)) {
+				latestMissed = next;
+			}
+			job.setLastDueTime(latestMissed);
+
+			if(job.getPolicy() == MissedRunPolicy.CATCH_UP) {
+				job.setPendingCatchUp(latestMissed);
+				System.out.println("<#> Scheduled command #" + job.getId() + " missed; it will run once its servers are connected.");
+			}
+			else {
+				System.out.println(ControllerInterface.CONSOLE_ERROR + "Scheduled command #" + job.getId() + " missed and skipped.");
+			}
+		}
+		else {
+			job.setLastDueTime(due);
+			fire(job, due, false);
+		}
+		arm(job);
+		save();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>checkCatchUps</i></b>
+	 * <p>	<code>private synchronized void checkCatchUps()</code>
+	 * <p>	Fires every pending catch-up run whose servers are connected, then re-schedules itself on the timer wheel.
+	 * </ul>
+	 */
+	private synchronized void checkCatchUps() {
+		try {
+			boolean changed = false;
+			for(ScheduledCommand job : new ArrayList<>(jobs.values())) {
+				if(job.getPendingCatchUp() != 0 && scheduleListener.connectionAvailable(job.getCommand(), job.getArgs())) {
+					final long due = job.getPendingCatchUp();
+					job.setPendingCatchUp(0);
+					fire(job, due, true);
+					if(!job.isRecurring()) {
+						jobs.remove(job.getId());
+					}
+					changed = true;
+				}
+			}
+			if(changed) save();
+		} finally {
+			timerWheel.schedule(this::checkCatchUps, System.currentTimeMillis() + CATCH_UP_INTERVAL);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>fire</i></b>
+	 * <p>	<code>private void fire(ScheduledCommand job, long due, boolean catchUp)</code>
+	 * <p>	Executes the passed job's command, recording the actual fire time and how long handing the command off took.
+	 * @param job - the <tt>ScheduledCommand</tt> to fire.
+	 * @param due - the wall-clock time in milliseconds at which the run was due.
+	 * @param catchUp - whether or not this run is a catch-up of a missed run.
+	 * </ul>
+	 */
+	private void fire(ScheduledCommand job, long due, boolean catchUp) {
+		final long fireTime = System.currentTimeMillis();
+		final long sendStart = System.nanoTime();
+		final boolean handled = scheduleListener.commandDue(job.getCommand(), job.getArgs());
+		final long sendLatency = System.nanoTime() - sendStart;
+
+		final FireRecord record = new FireRecord(job.getId(), due, fireTime, sendLatency, catchUp, handled);
+		job.setLastFire(record);
+		if(history.size() >= HISTORY_SIZE) history.removeFirst();
+		history.addLast(record);
+		System.out.println("> SCHEDULED --> " + record);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>load</i></b>
+	 * <p>	<code>private synchronized void load()</code>
+	 * <p>	Loads every job from the schedule file, if it exists. Malformed lines are reported and skipped.
+	 * </ul>
+	 */
+	private synchronized void load() {
+		if(!Files.exists(scheduleFile)) return;
+		try {
+			for(String line : Files.readAllLines(scheduleFile, StandardCharsets.UTF_8)) {
+				if(line.isBlank() || line.startsWith("#")) continue;
+				try {
+					final ScheduledCommand job = ScheduledCommand.fromLine(line);
+					jobs.put(job.getId(), job);
+					nextId = Math.max(nextId, job.getId() + 1);
+				} catch (IllegalArgumentException iae) {
+					System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Skipping invalid scheduled command: " + iae.getMessage());
+				}
+			}
+		} catch (IOException ioe) {
+			System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Error loading scheduled commands.");
+			ioe.printStackTrace();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>save</i></b>
+	 * <p>	<code>private void save()</code>
+	 * <p>	Writes every job to the schedule file.
+	 * 		The jobs are written to a temporary file first, which then replaces the schedule file, so a crash never leaves a partial file behind.
+	 * <p>	<b>Note:</b> This method must be called while synchronized on this scheduler.
+	 * </ul>
+	 */
+	private void save() {
+		try {
+			Files.createDirectories(scheduleFile.toAbsolutePath().getParent());
+			final Path tempFile = scheduleFile.resolveSibling(scheduleFile.getFileName() + ".tmp");
+			try(BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+				writer.write("# Project O.N.E. Controller scheduled commands. Edit only while the controller is closed.");
+				writer.newLine();
+				for(ScheduledCommand job : jobs.values()) {
+					writer.write(job.toLine());
+					writer.newLine();
+				}
+			}
+			Files.move(tempFile, scheduleFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ioe) {
+			System.out.println(ControllerInterface.CONSOLE_ERROR + "<!> Error saving scheduled commands.");
+			ioe.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package dev.mwhitney.schedule;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ *
+ * A standard five-field cron expression: <code>minute hour day-of-month month day-of-week</code>.
+ * <p>	Each field accepts <code>*</code>, single values, ranges (<code>1-5</code>), lists (<code>1,3,5</code>) and steps (<code>*&#47;15</code>, <code>0-30/10</code>).
+ * 		Days of the week run from <code>0</code> (Sunday) to <code>6</code> (Saturday), with <code>7</code> also meaning Sunday.
+ * 		As with most cron implementations, if both the day-of-month and day-of-week fields are restricted, a day matches if <i>either</i> field matches.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class CronExpression {
+
+	//	Variables
+	/** The original <tt>String</tt> expression, kept for display and persistence. */
+	private final String expression;
+	/** The allowed minutes (0-59). */
+	private final BitSet minutes;
+	/** The allowed hours (0-23). */
+	private final BitSet hours;
+	/** The allowed days of the month (1-31). */
+	private final BitSet daysOfMonth;
+	/** The allowed months (1-12). */
+	private final BitSet months;
+	/** The allowed days of the week (0-6, Sunday being 0). */
+	private final BitSet daysOfWeek;
+	/** A <code>boolean</code> for whether or not the day-of-month field was <code>*</code>. */
+	private final boolean anyDayOfMonth;
+	/** A <code>boolean</code> for whether or not the day-of-week field was <code>*</code>. */
+	private final boolean anyDayOfWeek;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>CronExpression</i></b>
+	 * <p>	<code>public CronExpression(String expression)</code>
+	 * <p>	Parses and creates a new <tt>CronExpression</tt>.
+	 * @param expression - a <tt>String</tt> with the five whitespace-separated cron fields.
+	 * @throws IllegalArgumentException if the expression is not a valid five-field cron expression.
+	 * </ul>
+	 */
+	public CronExpression(String expression) {
+		final String[] fields = expression.trim().split("\\s+");
+		if(fields.length != 5) {
+			throw new IllegalArgumentException("A cron expression requires exactly 5 fields: " + expression);
+		}
+		this.expression = String.join(" ", fields);
+		minutes = parseField(fields[0], 0, 59);
+		hours = parseField(fields[1], 0, 23);
+		daysOfMonth = parseField(fields[2], 1, 31);
+		months = parseField(fields[3], 1, 12);
+		daysOfWeek = parseField(fields[4], 0, 7);
+		if(daysOfWeek.get(7)) {
+			daysOfWeek.set(0);
+			daysOfWeek.clear(7);
+		}
+		anyDayOfMonth = fields[2].equals("*");
+		anyDayOfWeek = fields[4].equals("*");
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>parseField</i></b>
+	 * <p>	<code>private static BitSet parseField(String field, int min, int max)</code>
+	 * <p>	Parses a single cron field into the set of values it allows.
+	 * @param field - the <tt>String</tt> field to parse.
+	 * @param min - the minimum allowed value for the field.
+	 * @param max - the maximum allowed value for the field.
+	 * @return a <tt>BitSet</tt> with a bit set for each allowed value.
+	 * @throws IllegalArgumentException if the field is malformed or out of range.
+	 * </ul>
+	 */
+	private static BitSet parseField(String field, int min, int max) {
+		final BitSet values = new BitSet(max + 1);
+		for(String part : field.split(",")) {
+			int step = 1;
+			final int slash = part.indexOf('/');
+			if(slash != -1) {
+				step = parseValue(part.substring(slash + 1), 1, max);
+				part = part.substring(0, slash);
+			}
+
+			int start, end;
+			if(part.equals("*")) {
+				start = min;
+				end = max;
+			}
+			else {
+				final int dash = part.indexOf('-');
+				if(dash != -1) {
+					start = parseValue(part.substring(0, dash), min, max);
+					end = parseValue(part.substring(dash + 1), min, max);
+				}
+				else {
+					start = parseValue(part, min, max);
+					//	A single value with a step, such as "5/15", runs from that value to the maximum.
+					end = (slash != -1) ? max : start;
+				}
+				if(start > end) {
+					throw new IllegalArgumentException("Invalid cron range: " + part);
+				}
+			}
+			for(int i = start; i <= end; i += step) {
+				values.set(i);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>parseValue</i></b>
+	 * <p>	<code>private static int parseValue(String value, int min, int max)</code>
+	 * <p>	Parses a single numeric value, ensuring it falls within the passed bounds.
+	 * @param value - the <tt>String</tt> to parse.
+	 * @param min - the minimum allowed value.
+	 * @param max - the maximum allowed value.
+	 * @return the parsed <code>int</code>.
+	 * @throws IllegalArgumentException if the value is not a number or out of range.
+	 * </ul>
+	 */
+	private static int parseValue(String value, int min, int max) {
+		final int parsed;
+		try {
+			parsed = Integer.parseInt(value);
+		} catch (NumberFormatException nfe) {
+			throw new IllegalArgumentException("Invalid cron value: " + value);
+		}
+		if(parsed < min || parsed > max) {
+			throw new IllegalArgumentException("Cron value out of range (" + min + "-" + max + "): " + value);
+		}
+		return parsed;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>next</i></b>
+	 * <p>	<code>public ZonedDateTime next(ZonedDateTime after)</code>
+	 * <p>	Gets the first time matching this expression that is strictly after the passed time.
+	 * @param after - the <tt>ZonedDateTime</tt> to search from.
+	 * @return the next matching <tt>ZonedDateTime</tt>, or <code>null</code> if none exists within the next five years (such as for February 31st).
+	 * </ul>
+	 */
+	public ZonedDateTime next(ZonedDateTime after) {
+		ZonedDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+		final ZonedDateTime limit = time.plusYears(5);
+
+		while(time.isBefore(limit)) {
+			if(!months.get(time.getMonthValue())) {
+				time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+				continue;
+			}
+			if(!matchesDay(time)) {
+				time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+				continue;
+			}
+			if(!hours.get(time.getHour())) {
+				time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+				continue;
+			}
+			if(!minutes.get(time.getMinute())) {
+				time = time.plusMinutes(1);
+				continue;
+			}
+			return time;
+		}
+		return null;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>matchesDay</i></b>
+	 * <p>	<code>private boolean matchesDay(ZonedDateTime time)</code>
+	 * <p>	Checks if the day of the passed time matches the day-of-month and day-of-week fields.
+	 * @param time - the <tt>ZonedDateTime</tt> to check.
+	 * @return <code>true</code> if the day matches; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	private boolean matchesDay(ZonedDateTime time) {
+		final boolean domMatch = daysOfMonth.get(time.getDayOfMonth());
+		final boolean dowMatch = daysOfWeek.get(time.getDayOfWeek().getValue() % 7);
+		if(anyDayOfMonth || anyDayOfWeek) {
+			return domMatch && dowMatch;
+		}
+		return domMatch || dowMatch;
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+}
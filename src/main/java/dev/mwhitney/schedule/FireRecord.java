@@ -0,0 +1,146 @@
+package dev.mwhitney.schedule;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ *
+ * An immutable record of a single scheduled command run: when it was due, when it actually fired, and how long the send took.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class FireRecord {
+
+	/** The <tt>DateTimeFormatter</tt> used when describing fire times. */
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+	//	Variables
+	/** An <code>int</code> for the id of the job that fired. */
+	private final int jobId;
+	/** A <code>long</code> for the wall-clock time in milliseconds at which the run was due. */
+	private final long scheduledTime;
+	/** A <code>long</code> for the wall-clock time in milliseconds at which the run actually fired. */
+	private final long fireTime;
+	/** A <code>long</code> for the time in nanoseconds that handing the command to the connection took. */
+	private final long sendLatencyNanos;
+	/** A <code>boolean</code> for whether or not the run was a catch-up of a missed run. */
+	private final boolean catchUp;
+	/** A <code>boolean</code> for whether or not the command was handled successfully. */
+	private final boolean handled;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>FireRecord</i></b>
+	 * <p>	<code>public FireRecord(int jobId, long scheduledTime, long fireTime, long sendLatencyNanos, boolean catchUp, boolean handled)</code>
+	 * <p>	Creates a new <tt>FireRecord</tt>.
+	 * @param jobId - the id of the job that fired.
+	 * @param scheduledTime - the wall-clock time in milliseconds at which the run was due.
+	 * @param fireTime - the wall-clock time in milliseconds at which the run actually fired.
+	 * @param sendLatencyNanos - the time in nanoseconds that handing the command to the connection took.
+	 * @param catchUp - whether or not the run was a catch-up of a missed run.
+	 * @param handled - whether or not the command was handled successfully.
+	 * </ul>
+	 */
+	public FireRecord(int jobId, long scheduledTime, long fireTime, long sendLatencyNanos, boolean catchUp, boolean handled) {
+		this.jobId = jobId;
+		this.scheduledTime = scheduledTime;
+		this.fireTime = fireTime;
+		this.sendLatencyNanos = sendLatencyNanos;
+		this.catchUp = catchUp;
+		this.handled = handled;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getJobId</i></b>
+	 * <p>	<code>public int getJobId()</code>
+	 * <p>	Gets the id of the job that fired.
+	 * @return an <code>int</code> with the job id.
+	 * </ul>
+	 */
+	public int getJobId() {
+		return jobId;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getScheduledTime</i></b>
+	 * <p>	<code>public long getScheduledTime()</code>
+	 * <p>	Gets the wall-clock time at which the run was due.
+	 * @return a <code>long</code> with the scheduled time in milliseconds.
+	 * </ul>
+	 */
+	public long getScheduledTime() {
+		return scheduledTime;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getFireTime</i></b>
+	 * <p>	<code>public long getFireTime()</code>
+	 * <p>	Gets the wall-clock time at which the run actually fired.
+	 * @return a <code>long</code> with the fire time in milliseconds.
+	 * </ul>
+	 */
+	public long getFireTime() {
+		return fireTime;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getSendLatencyNanos</i></b>
+	 * <p>	<code>public long getSendLatencyNanos()</code>
+	 * <p>	Gets the time that handing the command to the connection took.
+	 * @return a <code>long</code> with the send latency in nanoseconds.
+	 * </ul>
+	 */
+	public long getSendLatencyNanos() {
+		return sendLatencyNanos;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isCatchUp</i></b>
+	 * <p>	<code>public boolean isCatchUp()</code>
+	 * <p>	Checks if the run was a catch-up of a missed run.
+	 * @return <code>true</code> if the run was a catch-up; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean isCatchUp() {
+		return catchUp;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isHandled</i></b>
+	 * <p>	<code>public boolean isHandled()</code>
+	 * <p>	Checks if the command was handled successfully.
+	 * @return <code>true</code> if the command was handled; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean isHandled() {
+		return handled;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLateness</i></b>
+	 * <p>	<code>public long getLateness()</code>
+	 * <p>	Gets how late the run fired compared to when it was due.
+	 * @return a <code>long</code> with the lateness in milliseconds.
+	 * </ul>
+	 */
+	public long getLateness() {
+		return fireTime - scheduledTime;
+	}
+
+	@Override
+	public String toString() {
+		return "#" + jobId + " fired " + TIME_FORMAT.format(Instant.ofEpochMilli(fireTime))
+			+ " (+" + getLateness() + " ms" + (catchUp ? ", catch-up" : "") + ")"
+			+ ", sent in " + String.format("%.3f", sendLatencyNanos / 1_000_000.0) + " ms"
+			+ (handled ? "" : " [FAILED]");
+	}
+}
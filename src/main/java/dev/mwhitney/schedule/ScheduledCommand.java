@@ -0,0 +1,309 @@
+package dev.mwhitney.schedule;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import dev.mwhitney.enums.MissedRunPolicy;
+import dev.mwhitney.enums.ONECommand;
+
+/**
+ *
+ * A single job managed by the {@link CommandScheduler}: an {@link ONECommand} that runs once at a set time or repeatedly on a cron schedule.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class ScheduledCommand {
+
+	/** The <tt>DateTimeFormatter</tt> used when describing times. */
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+	/** A <tt>String</tt> placeholder used in persisted lines for empty fields. */
+	private static final String EMPTY_FIELD = "-";
+
+	//	Variables
+	/** An <code>int</code> for this job's unique id. */
+	private final int id;
+	/** The {@link ONECommand} this job runs. */
+	private final ONECommand command;
+	/** A <tt>String</tt> array with the command's arguments. This <b>can</b> be <code>null</code>. */
+	private final String[] args;
+	/** The <tt>CronExpression</tt> for recurring jobs, or <code>null</code> for one-shot jobs. */
+	private final CronExpression cron;
+	/** A <code>long</code> for the wall-clock time in milliseconds at which a one-shot job runs. Unused for recurring jobs. */
+	private final long runAt;
+	/** The {@link MissedRunPolicy} applied when a run cannot happen on time. */
+	private final MissedRunPolicy policy;
+	/** A <code>long</code> for the due time of the last run that was fired or skipped, in wall-clock milliseconds. */
+	private long lastDueTime;
+	/** The <tt>FireRecord</tt> of the last time this job fired, or <code>null</code> if it never has. */
+	private FireRecord lastFire;
+	/** A <code>long</code> for the due time of a missed run awaiting catch-up, or <code>0</code> if there is none. */
+	private long pendingCatchUp;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>ScheduledCommand</i></b>
+	 * <p>	<code>public ScheduledCommand(int id, ONECommand command, String[] args, CronExpression cron, long runAt, MissedRunPolicy policy, long lastDueTime)</code>
+	 * <p>	Creates a new <tt>ScheduledCommand</tt>.
+	 * @param id - the job's unique id.
+	 * @param command - the {@link ONECommand} to run.
+	 * @param args - the command's arguments. This <b>can</b> be <code>null</code>.
+	 * @param cron - the <tt>CronExpression</tt> for a recurring job, or <code>null</code> for a one-shot job.
+	 * @param runAt - the wall-clock time in milliseconds at which a one-shot job runs. Ignored for recurring jobs.
+	 * @param policy - the {@link MissedRunPolicy} to apply when a run cannot happen on time.
+	 * @param lastDueTime - the due time of the last run that was fired or skipped. For a new job, this should be the creation time.
+	 * </ul>
+	 */
+	public ScheduledCommand(int id, ONECommand command, String[] args, CronExpression cron, long runAt, MissedRunPolicy policy, long lastDueTime) {
+		this.id = id;
+		this.command = command;
+		this.args = args;
+		this.cron = cron;
+		this.runAt = runAt;
+		this.policy = policy;
+		this.lastDueTime = lastDueTime;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>nextDueTime</i></b>
+	 * <p>	<code>public long nextDueTime()</code>
+	 * <p>	Gets the due time of the first run after the last fired or skipped run.
+	 * <p>	<b>Note:</b> This time may already be in the past, which means the run was missed while the controller was not running.
+	 * @return a <code>long</code> with the next due time in wall-clock milliseconds, or <code>-1</code> if the job will never run again.
+	 * </ul>
+	 */
+	public long nextDueTime() {
+		if(cron == null) {
+			return (lastDueTime >= runAt) ? -1 : runAt;
+		}
+		final ZonedDateTime next = cron.next(ZonedDateTime.ofInstant(Instant.ofEpochMilli(lastDueTime), ZoneId.systemDefault()));
+		return (next == null) ? -1 : next.toInstant().toEpochMilli();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>nextDueTimeAfter</i></b>
+	 * <p>	<code>public long nextDueTimeAfter(long time)</code>
+	 * <p>	Gets the due time of the first run strictly after the passed time, ignoring any runs in between.
+	 * @param time - the wall-clock time in milliseconds to search from.
+	 * @return a <code>long</code> with the due time in wall-clock milliseconds, or <code>-1</code> if the job will never run after that time.
+	 * </ul>
+	 */
+	public long nextDueTimeAfter(long time) {
+		if(cron == null) {
+			return (runAt > time && lastDueTime < runAt) ? runAt : -1;
+		}
+		final ZonedDateTime next = cron.next(ZonedDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault()));
+		return (next == null) ? -1 : next.toInstant().toEpochMilli();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>toLine</i></b>
+	 * <p>	<code>public String toLine()</code>
+	 * <p>	Serializes this job into a single tab-separated line for the schedule file.
+	 * @return a <tt>String</tt> with the serialized job.
+	 * </ul>
+	 */
+	public String toLine() {
+		return id
+			+ "\t" + (cron == null ? "AT" : "CRON")
+			+ "\t" + (cron == null ? String.valueOf(runAt) : cron.toString())
+			+ "\t" + command.name()
+			+ "\t" + (args == null ? EMPTY_FIELD : String.join(" ", args))
+			+ "\t" + policy.name()
+			+ "\t" + lastDueTime
+			+ "\t" + (lastFire == null ? EMPTY_FIELD : lastFire.getScheduledTime() + " " + lastFire.getFireTime() + " " + lastFire.getSendLatencyNanos()
+					+ " " + lastFire.isCatchUp() + " " + lastFire.isHandled())
+			+ "\t" + pendingCatchUp;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>fromLine</i></b>
+	 * <p>	<code>public static ScheduledCommand fromLine(String line)</code>
+	 * <p>	Deserializes a job from a line previously produced by {@link #toLine()}.
+	 * @param line - the <tt>String</tt> line to parse.
+	 * @return the parsed <tt>ScheduledCommand</tt>.
+	 * @throws IllegalArgumentException if the line is malformed.
+	 * </ul>
+	 */
+	public static ScheduledCommand fromLine(String line) {
+		final String[] fields = line.split("\t");
+		if(fields.length < 8) {
+			throw new IllegalArgumentException("Malformed schedule line: " + line);
+		}
+		try {
+			final int id = Integer.parseInt(fields[0]);
+			final boolean recurring = fields[1].equals("CRON");
+			final CronExpression cron = recurring ? new CronExpression(fields[2]) : null;
+			final long runAt = recurring ? 0 : Long.parseLong(fields[2]);
+			final String[] args = fields[4].equals(EMPTY_FIELD) ? null : fields[4].split(" ");
+			final ScheduledCommand job = new ScheduledCommand(id, ONECommand.valueOf(fields[3]), args, cron, runAt,
+					MissedRunPolicy.valueOf(fields[5]), Long.parseLong(fields[6]));
+			if(!fields[7].equals(EMPTY_FIELD)) {
+				final String[] fire = fields[7].split(" ");
+				job.lastFire = new FireRecord(id, Long.parseLong(fire[0]), Long.parseLong(fire[1]), Long.parseLong(fire[2]),
+						Boolean.parseBoolean(fire[3]), Boolean.parseBoolean(fire[4]));
+			}
+			if(fields.length > 8) {
+				job.pendingCatchUp = Long.parseLong(fields[8]);
+			}
+			return job;
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Malformed schedule line: " + line, e);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public String describe()</code>
+	 * <p>	Creates a short, human-readable description of this job for the console.
+	 * @return a <tt>String</tt> describing this job.
+	 * </ul>
+	 */
+	public String describe() {
+		final long next = nextDueTimeAfter(System.currentTimeMillis());
+		return "#" + id + " " + command.name() + (args == null ? "" : " " + String.join(" ", args))
+			+ (cron == null ? " at " + TIME_FORMAT.format(Instant.ofEpochMilli(runAt)) : " cron [" + cron + "]")
+			+ " (" + policy.name() + ")"
+			+ (next == -1 ? "" : ", next " + TIME_FORMAT.format(Instant.ofEpochMilli(next)))
+			+ (pendingCatchUp != 0 ? ", catch-up pending" : "");
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getId</i></b>
+	 * <p>	<code>public int getId()</code>
+	 * <p>	Gets this job's unique id.
+	 * @return an <code>int</code> with the id.
+	 * </ul>
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getCommand</i></b>
+	 * <p>	<code>public ONECommand getCommand()</code>
+	 * <p>	Gets the command this job runs.
+	 * @return the {@link ONECommand}.
+	 * </ul>
+	 */
+	public ONECommand getCommand() {
+		return command;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getArgs</i></b>
+	 * <p>	<code>public String[] getArgs()</code>
+	 * <p>	Gets the arguments passed to the command when it runs.
+	 * @return a <tt>String</tt> array with the arguments, which <b>can</b> be <code>null</code>.
+	 * </ul>
+	 */
+	public String[] getArgs() {
+		return args;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isRecurring</i></b>
+	 * <p>	<code>public boolean isRecurring()</code>
+	 * <p>	Checks if this job runs on a cron schedule rather than once.
+	 * @return <code>true</code> if the job is recurring; <code>false</code> if it is one-shot.
+	 * </ul>
+	 */
+	public boolean isRecurring() {
+		return cron != null;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getPolicy</i></b>
+	 * <p>	<code>public MissedRunPolicy getPolicy()</code>
+	 * <p>	Gets the policy applied when a run cannot happen on time.
+	 * @return the {@link MissedRunPolicy}.
+	 * </ul>
+	 */
+	public MissedRunPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLastDueTime</i></b>
+	 * <p>	<code>public long getLastDueTime()</code>
+	 * <p>	Gets the due time of the last run that was fired or skipped.
+	 * @return a <code>long</code> with the time in wall-clock milliseconds.
+	 * </ul>
+	 */
+	public long getLastDueTime() {
+		return lastDueTime;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setLastDueTime</i></b>
+	 * <p>	<code>public void setLastDueTime(long time)</code>
+	 * <p>	Sets the due time of the last run that was fired or skipped.
+	 * @param time - a <code>long</code> with the time in wall-clock milliseconds.
+	 * </ul>
+	 */
+	public void setLastDueTime(long time) {
+		lastDueTime = time;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getLastFire</i></b>
+	 * <p>	<code>public FireRecord getLastFire()</code>
+	 * <p>	Gets the record of the last time this job fired.
+	 * @return the <tt>FireRecord</tt>, or <code>null</code> if the job has never fired.
+	 * </ul>
+	 */
+	public FireRecord getLastFire() {
+		return lastFire;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setLastFire</i></b>
+	 * <p>	<code>public void setLastFire(FireRecord record)</code>
+	 * <p>	Sets the record of the last time this job fired.
+	 * @param record - the <tt>FireRecord</tt> to save.
+	 * </ul>
+	 */
+	public void setLastFire(FireRecord record) {
+		lastFire = record;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getPendingCatchUp</i></b>
+	 * <p>	<code>public long getPendingCatchUp()</code>
+	 * <p>	Gets the due time of a missed run that is waiting to be caught up.
+	 * @return a <code>long</code> with the due time in wall-clock milliseconds, or <code>0</code> if there is no pending catch-up.
+	 * </ul>
+	 */
+	public long getPendingCatchUp() {
+		return pendingCatchUp;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setPendingCatchUp</i></b>
+	 * <p>	<code>public void setPendingCatchUp(long dueTime)</code>
+	 * <p>	Sets the due time of a missed run that is waiting to be caught up.
+	 * @param dueTime - a <code>long</code> with the due time in wall-clock milliseconds, or <code>0</code> to clear it.
+	 * </ul>
+	 */
+	public void setPendingCatchUp(long dueTime) {
+		pendingCatchUp = dueTime;
+	}
+}
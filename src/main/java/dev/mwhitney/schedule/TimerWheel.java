@@ -0,0 +1,227 @@
+package dev.mwhitney.schedule;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * A hashed timer wheel that runs every timed task on a single daemon thread.
+ * <p>	Tasks are placed into one of a fixed number of buckets based on their deadline.
+ * 		Each tick, the thread advances to the next bucket and runs the tasks in it that are due, so the cost of a tick does not depend on how many tasks are scheduled.
+ * 		Deadlines are wall-clock times, which means that if the machine sleeps, every task that became due during the sleep runs as soon as the thread wakes up.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class TimerWheel {
+
+	//	Variables
+	/** A <code>long</code> for the length of a single tick in milliseconds. */
+	private final long tickMillis;
+	/** An array of buckets, each holding the timeouts that land on that position of the wheel. */
+	private final ArrayDeque<Timeout>[] wheel;
+	/** A <code>long</code> for the wall-clock time in milliseconds at which tick <code>0</code> occurred. */
+	private final long startTime;
+	/** A <code>long</code> for the number of ticks processed so far. Only accessed by the wheel thread. */
+	private long tick;
+	/** A queue of timeouts added by other threads that have yet to be placed into the wheel. */
+	private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+	/** The single <tt>Thread</tt> that advances the wheel and runs every task. */
+	private final Thread wheelThread;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>TimerWheel</i></b>
+	 * <p>	<code>public TimerWheel(String name, long tickMillis, int buckets)</code>
+	 * <p>	Creates and starts a new <tt>TimerWheel</tt>.
+	 * @param name - a <tt>String</tt> with the name of the wheel's thread.
+	 * @param tickMillis - a <code>long</code> for the length of a single tick in milliseconds. This is the resolution of every deadline.
+	 * @param buckets - an <code>int</code> for the number of buckets in the wheel. Rounded up to the next power of two.
+	 * </ul>
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public TimerWheel(String name, long tickMillis, int buckets) {
+		this.tickMillis = Math.max(1, tickMillis);
+		wheel = new ArrayDeque[Integer.highestOneBit(Math.max(1, buckets - 1)) << 1];
+		for(int i = 0; i < wheel.length; i++) {
+			wheel[i] = new ArrayDeque<>();
+		}
+		startTime = System.currentTimeMillis();
+
+		wheelThread = new Thread(this::runWheel, name);
+		wheelThread.setDaemon(true);
+		wheelThread.start();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>schedule</i></b>
+	 * <p>	<code>public Timeout schedule(Runnable task, long deadline)</code>
+	 * <p>	Schedules the passed task to run on the wheel thread at the passed wall-clock time.
+	 * 		Deadlines in the past run on the next tick.
+	 * @param task - the <tt>Runnable</tt> to run.
+	 * @param deadline - a <code>long</code> with the wall-clock time in milliseconds at which the task should run.
+	 * @return the <tt>Timeout</tt>, which can be used to cancel the task.
+	 * </ul>
+	 */
+	public Timeout schedule(Runnable task, long deadline) {
+		final Timeout timeout = new Timeout(task, deadline);
+		pending.add(timeout);
+		return timeout;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>stop</i></b>
+	 * <p>	<code>public void stop()</code>
+	 * <p>	Stops the wheel thread. Any tasks that have not run yet are discarded.
+	 * </ul>
+	 */
+	public void stop() {
+		wheelThread.interrupt();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isWheelThread</i></b>
+	 * <p>	<code>public boolean isWheelThread()</code>
+	 * <p>	Checks if the calling thread is this wheel's thread.
+	 * @return <code>true</code> if called from the wheel thread; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean isWheelThread() {
+		return Thread.currentThread() == wheelThread;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>runWheel</i></b>
+	 * <p>	<code>private void runWheel()</code>
+	 * <p>	The body of the wheel thread. Sleeps until each tick is due, then places pending timeouts and expires the current bucket.
+	 * 		If the thread falls behind, such as after the machine wakes from sleep, it processes every missed tick without sleeping.
+	 * </ul>
+	 */
+	private void runWheel() {
+		while(!Thread.currentThread().isInterrupted()) {
+			final long tickDeadline = startTime + (tick + 1) * tickMillis;
+			final long sleepMillis = tickDeadline - System.currentTimeMillis();
+			if(sleepMillis > 0) {
+				try {
+					TimeUnit.MILLISECONDS.sleep(sleepMillis);
+				} catch (InterruptedException ie) {
+					return;
+				}
+			}
+
+			transferPending();
+			expireBucket(wheel[(int) (tick & (wheel.length - 1))]);
+			tick++;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>transferPending</i></b>
+	 * <p>	<code>private void transferPending()</code>
+	 * <p>	Moves every timeout added since the last tick into the bucket that its deadline falls on.
+	 * </ul>
+	 */
+	private void transferPending() {
+		Timeout timeout;
+		while((timeout = pending.poll()) != null) {
+			if(timeout.cancelled) continue;
+
+			//	Deadlines in the past land on the current tick.
+			final long deadlineTick = Math.max(tick, (timeout.deadline - startTime + tickMillis - 1) / tickMillis - 1);
+			timeout.remainingRounds = (deadlineTick - tick) / wheel.length;
+			wheel[(int) (deadlineTick & (wheel.length - 1))].add(timeout);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>expireBucket</i></b>
+	 * <p>	<code>private void expireBucket(ArrayDeque bucket)</code>
+	 * <p>	Runs every task in the passed bucket that is due on this rotation of the wheel.
+	 * 		Tasks due on a later rotation have their remaining rounds decremented instead.
+	 * @param bucket - the bucket to expire.
+	 * </ul>
+	 */
+	private void expireBucket(ArrayDeque<Timeout> bucket) {
+		final Iterator<Timeout> iter = bucket.iterator();
+		while(iter.hasNext()) {
+			final Timeout timeout = iter.next();
+			if(timeout.cancelled) {
+				iter.remove();
+			}
+			else if(timeout.remainingRounds <= 0) {
+				iter.remove();
+				try {
+					timeout.task.run();
+				} catch (RuntimeException re) {
+					re.printStackTrace();
+				}
+			}
+			else {
+				timeout.remainingRounds--;
+			}
+		}
+	}
+
+	/**
+	 *
+	 * A handle to a task scheduled on a <tt>TimerWheel</tt>.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	public static class Timeout {
+		/** The <tt>Runnable</tt> to run once the deadline is reached. */
+		private final Runnable task;
+		/** A <code>long</code> for the wall-clock time in milliseconds at which the task should run. */
+		private final long deadline;
+		/** A <code>long</code> for the number of full wheel rotations left before the task is due. */
+		private long remainingRounds;
+		/** A <code>boolean</code> for whether or not this timeout was cancelled. */
+		private volatile boolean cancelled;
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>Timeout</i></b>
+		 * <p>	<code>private Timeout(Runnable task, long deadline)</code>
+		 * <p>	Creates a new <tt>Timeout</tt>.
+		 * @param task - the <tt>Runnable</tt> to run.
+		 * @param deadline - a <code>long</code> with the wall-clock time in milliseconds at which the task should run.
+		 * </ul>
+		 */
+		private Timeout(Runnable task, long deadline) {
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>cancel</i></b>
+		 * <p>	<code>public void cancel()</code>
+		 * <p>	Cancels this timeout. If its task has not run yet, it never will.
+		 * </ul>
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>getDeadline</i></b>
+		 * <p>	<code>public long getDeadline()</code>
+		 * <p>	Gets the wall-clock time at which this timeout's task is due.
+		 * @return a <code>long</code> with the deadline in milliseconds.
+		 * </ul>
+		 */
+		public long getDeadline() {
+			return deadline;
+		}
+	}
+}
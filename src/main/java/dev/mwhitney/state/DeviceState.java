@@ -0,0 +1,219 @@
+package dev.mwhitney.state;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import dev.mwhitney.enums.DeviceProperty;
+
+/**
+ *
+ * An immutable snapshot of what the controller knows about one site's system state, built from the server's responses and broadcasts.
+ * <p>	Each {@link DeviceProperty} has its last reported value and when it was reported, or no reading if it has never been reported.
+ * 		The version increases each time a value changes, so that anything showing the state can tell whether it has missed an update.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public final class DeviceState {
+
+	//	Variables
+	/** A <tt>String</tt> with the name of the site this state belongs to, or <code>null</code> if the controller has a single, unnamed connection. */
+	private final String site;
+	/** A <code>long</code> for the number of changes made to this site's state so far. */
+	private final long version;
+	/** The <tt>EnumMap</tt> of the last reading of each property that has been reported. Never changed after creation. */
+	private final EnumMap<DeviceProperty, Reading> readings;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>DeviceState</i></b>
+	 * <p>	<code>public DeviceState(String site)</code>
+	 * <p>	Creates a new <tt>DeviceState</tt> for a site that has not reported anything yet.
+	 * @param site - a <tt>String</tt> with the site's name, or <code>null</code> if the controller has a single, unnamed connection.
+	 * </ul>
+	 */
+	public DeviceState(String site) {
+		this(site, 0, new EnumMap<>(DeviceProperty.class));
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>DeviceState</i></b>
+	 * <p>	<code>private DeviceState(String site, long version, EnumMap&lt;DeviceProperty, Reading&gt; readings)</code>
+	 * <p>	Creates a new <tt>DeviceState</tt>, taking ownership of the passed readings.
+	 * @param site - a <tt>String</tt> with the site's name.
+	 * @param version - a <code>long</code> for the state's version.
+	 * @param readings - the <tt>EnumMap</tt> of readings.
+	 * </ul>
+	 */
+	private DeviceState(String site, long version, EnumMap<DeviceProperty, Reading> readings) {
+		this.site = site;
+		this.version = version;
+		this.readings = readings;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>with</i></b>
+	 * <p>	<code>public DeviceState with(DeviceProperty property, Reading reading)</code>
+	 * <p>	Creates a copy of this state with a new reading of one property.
+	 * 		The version is only increased if the value changed, so a response that confirms the current value only refreshes when it was confirmed.
+	 * @param property - the {@link DeviceProperty} that was reported.
+	 * @param reading - the new <tt>Reading</tt>.
+	 * @return the new <tt>DeviceState</tt>.
+	 * </ul>
+	 */
+	public DeviceState with(DeviceProperty property, Reading reading) {
+		final EnumMap<DeviceProperty, Reading> updated = new EnumMap<>(readings);
+		final Reading previous = updated.put(property, reading);
+		final boolean changed = previous == null || previous.isOn() != reading.isOn() || previous.getExpiresAt() != reading.getExpiresAt();
+		return new DeviceState(site, changed ? version + 1 : version, updated);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>get</i></b>
+	 * <p>	<code>public Reading get(DeviceProperty property)</code>
+	 * <p>	Gets the last reading of a property, however old it is.
+	 * @param property - the {@link DeviceProperty} to get.
+	 * @return the <tt>Reading</tt>, or <code>null</code> if the property has never been reported.
+	 * </ul>
+	 */
+	public Reading get(DeviceProperty property) {
+		return readings.get(property);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getCurrent</i></b>
+	 * <p>	<code>public Reading getCurrent(DeviceProperty property, long now, long maxAge)</code>
+	 * <p>	Gets the last reading of a property if it can still be trusted, which is when it is no older than the passed age and has not expired.
+	 * @param property - the {@link DeviceProperty} to get.
+	 * @param now - a <code>long</code> with the current wall-clock time in milliseconds.
+	 * @param maxAge - a <code>long</code> for the most milliseconds a reading is trusted for.
+	 * @return the <tt>Reading</tt>, or <code>null</code> if it is unknown or stale.
+	 * </ul>
+	 */
+	public Reading getCurrent(DeviceProperty property, long now, long maxAge) {
+		final Reading reading = readings.get(property);
+		return (reading == null || reading.isStale(now, maxAge)) ? null : reading;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getSite</i></b>
+	 * <p>	<code>public String getSite()</code>
+	 * <p>	Gets the name of the site this state belongs to.
+	 * @return a <tt>String</tt> with the site's name, or <code>null</code> if the controller has a single, unnamed connection.
+	 * </ul>
+	 */
+	public String getSite() {
+		return site;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getVersion</i></b>
+	 * <p>	<code>public long getVersion()</code>
+	 * <p>	Gets the number of changes made to this site's state so far.
+	 * @return a <code>long</code> with the version.
+	 * </ul>
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getReadings</i></b>
+	 * <p>	<code>public Map&lt;DeviceProperty, Reading&gt; getReadings()</code>
+	 * <p>	Gets every reading that has been reported.
+	 * @return an unmodifiable <tt>Map</tt> of each reported property to its last reading.
+	 * </ul>
+	 */
+	public Map<DeviceProperty, Reading> getReadings() {
+		return Map.copyOf(readings);
+	}
+
+	/**
+	 *
+	 * The value of one property as last reported by the server, and when.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	public static final class Reading {
+		/** A <code>boolean</code> for whether or not the property was on, such as locked or enabled. */
+		private final boolean on;
+		/** A <code>long</code> for the wall-clock time, in milliseconds, at which the value was reported. */
+		private final long reportedAt;
+		/** A <code>long</code> for the wall-clock time, in milliseconds, after which the value no longer holds, or <code>0</code> if it holds until changed. */
+		private final long expiresAt;
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>Reading</i></b>
+		 * <p>	<code>public Reading(boolean on, long reportedAt, long expiresAt)</code>
+		 * <p>	Creates a new <tt>Reading</tt>.
+		 * @param on - a <code>boolean</code> for whether or not the property was on.
+		 * @param reportedAt - a <code>long</code> with the wall-clock time at which the value was reported.
+		 * @param expiresAt - a <code>long</code> with the wall-clock time after which the value no longer holds, such as when a timed unlock ends, or <code>0</code> if it holds until changed.
+		 * </ul>
+		 */
+		public Reading(boolean on, long reportedAt, long expiresAt) {
+			this.on = on;
+			this.reportedAt = reportedAt;
+			this.expiresAt = expiresAt;
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>isStale</i></b>
+		 * <p>	<code>public boolean isStale(long now, long maxAge)</code>
+		 * <p>	Checks if this reading can no longer be trusted, because it is too old or has expired.
+		 * @param now - a <code>long</code> with the current wall-clock time in milliseconds.
+		 * @param maxAge - a <code>long</code> for the most milliseconds a reading is trusted for.
+		 * @return <code>true</code> if stale; <code>false</code> otherwise.
+		 * </ul>
+		 */
+		public boolean isStale(long now, long maxAge) {
+			return now - reportedAt > maxAge || (expiresAt != 0 && now >= expiresAt);
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>isOn</i></b>
+		 * <p>	<code>public boolean isOn()</code>
+		 * <p>	Gets whether or not the property was on, such as locked or enabled.
+		 * @return <code>true</code> if on; <code>false</code> otherwise.
+		 * </ul>
+		 */
+		public boolean isOn() {
+			return on;
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>getReportedAt</i></b>
+		 * <p>	<code>public long getReportedAt()</code>
+		 * <p>	Gets when the value was reported.
+		 * @return a <code>long</code> with the wall-clock time in milliseconds.
+		 * </ul>
+		 */
+		public long getReportedAt() {
+			return reportedAt;
+		}
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>getExpiresAt</i></b>
+		 * <p>	<code>public long getExpiresAt()</code>
+		 * <p>	Gets when the value no longer holds, such as when a timed unlock ends.
+		 * @return a <code>long</code> with the wall-clock time in milliseconds, or <code>0</code> if it holds until changed.
+		 * </ul>
+		 */
+		public long getExpiresAt() {
+			return expiresAt;
+		}
+	}
+}
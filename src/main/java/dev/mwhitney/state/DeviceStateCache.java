@@ -0,0 +1,194 @@
+package dev.mwhitney.state;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import dev.mwhitney.enums.DeviceProperty;
+import dev.mwhitney.enums.MessageType;
+import dev.mwhitney.enums.ONECommand;
+import dev.mwhitney.enums.ResponseCode;
+import dev.mwhitney.events.EventSubscriber;
+import dev.mwhitney.events.MessageEvent;
+import dev.mwhitney.state.DeviceState.Reading;
+
+/**
+ *
+ * An <tt>EventSubscriber</tt> that keeps a {@link DeviceState} for each site, updated from the server's responses to this controller's commands,
+ * such as <code>System locked.</code> or <code>Door unlocked for 3 seconds.</code>
+ * <p>	Only a response that is exactly one of the fixed {@link ResponseCode} texts is a reading. Broadcasts and any other text are ignored,
+ * 		since free text such as <code>System not locked</code> cannot be trusted to report a state.
+ * <p>	Readings are trusted for the age set with the <code>one.state.maxAge</code> system property, in seconds, which is 120 by default.
+ * 		While a reading is trusted, a command that would only loosen a lock that is already loose can be skipped instead of sent.
+ * 		Commands that lock something are always sent, since the lock may have been opened by hand since it was last reported.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class DeviceStateCache implements EventSubscriber {
+
+	//	Static Return Values
+	/** A <code>long</code> for the most milliseconds a reading is trusted for, set with the <code>one.state.maxAge</code> system property in seconds. */
+	final public static long MAX_AGE = TimeUnit.SECONDS.toMillis(Math.max(1, Long.getLong("one.state.maxAge", 120)));
+
+	//	Variables
+	/** The <tt>ConcurrentHashMap</tt> of each site's state, keyed by site name, or by an empty <tt>String</tt> for a single, unnamed connection. */
+	private final Map<String, DeviceState> states = new ConcurrentHashMap<>();
+	/** The <tt>CopyOnWriteArrayList</tt> of listeners told of every new state, on the subscriber's thread. */
+	private final List<Consumer<DeviceState>> listeners = new CopyOnWriteArrayList<>();
+
+	@Override
+	public boolean accepts(MessageEvent event) {
+		return event.getType() == MessageType.RESPONSE;
+	}
+
+	@Override
+	public void onEvent(MessageEvent event) {
+		final String payload = event.getPayload();
+		final ResponseCode code = ResponseCode.fromText(payload);
+		if(code == null) {
+			return;
+		}
+		final long now = event.getReceivedTime();
+		final DeviceProperty property;
+		final Reading reading;
+		switch (code) {
+			case SYSTEM_LOCKED:				property = DeviceProperty.SYSTEM_LOCK;		reading = new Reading(true, now, 0);	break;
+			case SYSTEM_UNLOCKED:			property = DeviceProperty.SYSTEM_LOCK;		reading = new Reading(false, now, 0);	break;
+			case MANUAL_UNLOCKS_ENABLED:	property = DeviceProperty.MANUAL_UNLOCKS;	reading = new Reading(true, now, 0);	break;
+			case MANUAL_UNLOCKS_DISABLED:	property = DeviceProperty.MANUAL_UNLOCKS;	reading = new Reading(false, now, 0);	break;
+			case DOOR_LOCKED:				property = DeviceProperty.DOOR;				reading = new Reading(true, now, 0);	break;
+			case DOOR_UNLOCKED: {
+				//	A timed unlock ends by itself, after which the door's state is unknown until it is reported again.
+				property = DeviceProperty.DOOR;
+				reading = new Reading(false, now, now + TimeUnit.SECONDS.toMillis(ResponseCode.parseArgument(code, payload)));
+				break;
+			}
+			default:
+				return;
+		}
+
+		final DeviceState state = get(event.getSite()).with(property, reading);
+		states.put(toKey(event.getSite()), state);
+		for(Consumer<DeviceState> listener : listeners) {
+			listener.accept(state);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>get</i></b>
+	 * <p>	<code>public DeviceState get(String site)</code>
+	 * <p>	Gets the latest state of a site.
+	 * @param site - a <tt>String</tt> with the site's name, or <code>null</code> for a single, unnamed connection.
+	 * @return the site's <tt>DeviceState</tt>, which has no readings if it has not reported anything.
+	 * </ul>
+	 */
+	public DeviceState get(String site) {
+		final DeviceState state = states.get(toKey(site));
+		return (state == null) ? new DeviceState(site) : state;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>checkRedundant</i></b>
+	 * <p>	<code>public String checkRedundant(String site, ONECommand command)</code>
+	 * <p>	Checks if a command would only loosen a lock that a site is already known to have loosened, such as unlocking a system that is unlocked.
+	 * 		A command that locks something is never redundant, since a lock reported a moment ago may have been opened by hand since.
+	 * @param site - a <tt>String</tt> with the site's name, or <code>null</code> for a single, unnamed connection.
+	 * @param command - the {@link ONECommand} about to be sent.
+	 * @return a <tt>String</tt> describing the known value and its age if the command is redundant, or <code>null</code> if it should be sent.
+	 * </ul>
+	 */
+	public String checkRedundant(String site, ONECommand command) {
+		final DeviceProperty property;
+		final boolean on;
+		switch (command) {
+			case SYSTEM_UNLOCK:			property = DeviceProperty.SYSTEM_LOCK;		on = false;	break;
+			case MANUALUNLOCKS_ENABLE:	property = DeviceProperty.MANUAL_UNLOCKS;	on = true;	break;
+			default:
+				return null;
+		}
+		//	Read the map directly, since a site that has not reported anything cannot make a command redundant.
+		final DeviceState state = states.get(toKey(site));
+		final long now = System.currentTimeMillis();
+		final Reading reading = (state == null) ? null : state.getCurrent(property, now, MAX_AGE);
+		if(reading == null || reading.isOn() != on) {
+			return null;
+		}
+		return property.getLabel() + " is already " + property.describe(on) + " (reported " + describeAge(now - reading.getReportedAt()) + " ago).";
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describe</i></b>
+	 * <p>	<code>public List&lt;String&gt; describe(String site)</code>
+	 * <p>	Describes each property of a site's state, with how long ago it was reported and whether it is still trusted.
+	 * @param site - a <tt>String</tt> with the site's name, or <code>null</code> for a single, unnamed connection.
+	 * @return the <tt>List</tt> of lines, one per property.
+	 * </ul>
+	 */
+	public List<String> describe(String site) {
+		final DeviceState state = get(site);
+		final long now = System.currentTimeMillis();
+		final List<String> lines = new ArrayList<>();
+		final String prefix = "<#> " + ((site == null) ? "" : "[" + site + "] ");
+		for(DeviceProperty property : DeviceProperty.values()) {
+			final Reading reading = state.get(property);
+			if(reading == null) {
+				lines.add(prefix + property.getLabel() + ": unknown.");
+				continue;
+			}
+			final String status = !reading.isStale(now, MAX_AGE) ? "" : (reading.getExpiresAt() != 0 && now >= reading.getExpiresAt()) ? ", since expired" : ", stale";
+			lines.add(prefix + property.getLabel() + ": " + property.describe(reading.isOn()) + ", reported " + describeAge(now - reading.getReportedAt()) + " ago" + status + ".");
+		}
+		lines.add(prefix + "State version " + state.getVersion() + ". Readings are trusted for " + TimeUnit.MILLISECONDS.toSeconds(MAX_AGE) + " s.");
+		return lines;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>describeAge</i></b>
+	 * <p>	<code>public static String describeAge(long millis)</code>
+	 * <p>	Describes an age briefly, in seconds, minutes or hours.
+	 * @param millis - a <code>long</code> with the age in milliseconds.
+	 * @return a <tt>String</tt> such as <code>12 s</code> or <code>5 min</code>.
+	 * </ul>
+	 */
+	public static String describeAge(long millis) {
+		final long seconds = Math.max(0, TimeUnit.MILLISECONDS.toSeconds(millis));
+		if(seconds < 120) {
+			return seconds + " s";
+		}
+		return (seconds < 7200) ? (seconds / 60) + " min" : (seconds / 3600) + " h";
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>addListener</i></b>
+	 * <p>	<code>public void addListener(Consumer&lt;DeviceState&gt; listener)</code>
+	 * <p>	Adds a listener that is passed each site's new state whenever a reading is reported. It is called on the subscriber's thread.
+	 * @param listener - the <tt>Consumer</tt> of each new <tt>DeviceState</tt>.
+	 * </ul>
+	 */
+	public void addListener(Consumer<DeviceState> listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>toKey</i></b>
+	 * <p>	<code>private static String toKey(String site)</code>
+	 * <p>	Gets the key a site's state is stored under.
+	 * @param site - a <tt>String</tt> with the site's name, or <code>null</code>.
+	 * @return a <tt>String</tt> with the key.
+	 * </ul>
+	 */
+	private static String toKey(String site) {
+		return (site == null) ? "" : site;
+	}
+}
@@ -0,0 +1,110 @@
+package dev.mwhitney.util;
+
+/**
+ *
+ * A token bucket rate limiter. The bucket holds up to a set number of tokens and refills at a steady rate.
+ * Taking a token allows one action, so short bursts are allowed while the long-term rate stays limited.
+ * <p>	Tokens may also be taken only while a reserve is left in the bucket, so that more important actions can always get one.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class TokenBucket {
+
+	//	Variables
+	/** A <code>double</code> for the maximum number of tokens the bucket holds. */
+	private final double capacity;
+	/** A <code>double</code> for the number of tokens added per nanosecond. */
+	private final double tokensPerNano;
+	/** A <code>double</code> for the number of tokens currently in the bucket. */
+	private double tokens;
+	/** A <code>long</code> for the <code>System.nanoTime()</code> at which the bucket was last refilled. */
+	private long lastRefill;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>TokenBucket</i></b>
+	 * <p>	<code>public TokenBucket(double capacity, double tokensPerSecond)</code>
+	 * <p>	Creates a new, full <tt>TokenBucket</tt>.
+	 * @param capacity - a <code>double</code> for the maximum number of tokens, which is the largest burst allowed.
+	 * @param tokensPerSecond - a <code>double</code> for the number of tokens added per second.
+	 * </ul>
+	 */
+	public TokenBucket(double capacity, double tokensPerSecond) {
+		this.capacity = capacity;
+		this.tokensPerNano = tokensPerSecond / 1e9;
+		this.tokens = capacity;
+		this.lastRefill = System.nanoTime();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>tryAcquire</i></b>
+	 * <p>	<code>public boolean tryAcquire()</code>
+	 * <p>	Takes a token if one is available.
+	 * @return <code>true</code> if a token was taken; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean tryAcquire() {
+		return tryAcquire(0);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>tryAcquire</i></b>
+	 * <p>	<code>public synchronized boolean tryAcquire(double reserve)</code>
+	 * <p>	Takes a token if one is available without going below the passed reserve.
+	 * @param reserve - a <code>double</code> for the number of tokens that must be left in the bucket afterwards.
+	 * @return <code>true</code> if a token was taken; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public synchronized boolean tryAcquire(double reserve) {
+		refill();
+		if(tokens - 1 < reserve) {
+			return false;
+		}
+		tokens--;
+		return true;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>nanosUntilAvailable</i></b>
+	 * <p>	<code>public synchronized long nanosUntilAvailable(double reserve)</code>
+	 * <p>	Calculates how long until a token can be taken without going below the passed reserve.
+	 * @param reserve - a <code>double</code> for the number of tokens that must be left in the bucket afterwards.
+	 * @return a <code>long</code> with the wait in nanoseconds, or <code>0</code> if a token can be taken now.
+	 * </ul>
+	 */
+	public synchronized long nanosUntilAvailable(double reserve) {
+		refill();
+		final double missing = reserve + 1 - tokens;
+		return missing <= 0 ? 0 : (long) Math.ceil(missing / tokensPerNano);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getTokens</i></b>
+	 * <p>	<code>public synchronized double getTokens()</code>
+	 * <p>	Gets the number of tokens currently in the bucket.
+	 * @return a <code>double</code> with the number of tokens.
+	 * </ul>
+	 */
+	public synchronized double getTokens() {
+		refill();
+		return tokens;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>refill</i></b>
+	 * <p>	<code>private void refill()</code>
+	 * <p>	Adds the tokens earned since the last refill, up to the bucket's capacity.
+	 * </ul>
+	 */
+	private void refill() {
+		final long now = System.nanoTime();
+		tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+		lastRefill = now;
+	}
+}
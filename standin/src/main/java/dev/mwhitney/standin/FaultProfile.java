@@ -0,0 +1,110 @@
+package dev.mwhitney.standin;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ *
+ * The network faults simulated by the {@link StandInServer}: added latency, jitter, dropped frames and periodic disconnects.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class FaultProfile {
+
+	//	Variables
+	/** A <code>long</code> for the fixed delay, in milliseconds, added to every frame the server sends. */
+	private long latencyMillis;
+	/** A <code>long</code> for the maximum random delay, in milliseconds, added on top of the fixed latency. */
+	private long jitterMillis;
+	/** A <code>double</code> for the probability, from <code>0</code> to <code>1</code>, that a frame the server sends is silently dropped. */
+	private double dropRate;
+	/** A <code>long</code> for the interval, in milliseconds, at which the server closes every connection, or <code>0</code> to never do so. */
+	private long disconnectEveryMillis;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>parse</i></b>
+	 * <p>	<code>public static FaultProfile parse(String[] args)</code>
+	 * <p>	Creates a <tt>FaultProfile</tt> from command-line arguments.
+	 * 		Recognized options are <code>--latency ms</code>, <code>--jitter ms</code>, <code>--drop rate</code> and <code>--disconnect-every ms</code>.
+	 * 		Unrecognized options are ignored, so the same arguments can be shared with other options.
+	 * @param args - the <tt>String</tt> array of command-line arguments.
+	 * @return the parsed <tt>FaultProfile</tt>. Options that were not passed default to no fault.
+	 * </ul>
+	 */
+	public static FaultProfile parse(String[] args) {
+		final FaultProfile profile = new FaultProfile();
+		for(int i = 0; i < args.length - 1; i++) {
+			switch (args[i]) {
+				case "--latency":
+					profile.latencyMillis = Long.parseLong(args[++i]);
+					break;
+				case "--jitter":
+					profile.jitterMillis = Long.parseLong(args[++i]);
+					break;
+				case "--drop":
+					profile.dropRate = Double.parseDouble(args[++i]);
+					break;
+				case "--disconnect-every":
+					profile.disconnectEveryMillis = Long.parseLong(args[++i]);
+					break;
+				default:
+					break;
+			}
+		}
+		return profile;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>nextDelay</i></b>
+	 * <p>	<code>public long nextDelay()</code>
+	 * <p>	Gets the delay for the next frame: the fixed latency plus a random amount of jitter.
+	 * @return a <code>long</code> with the delay in milliseconds.
+	 * </ul>
+	 */
+	public long nextDelay() {
+		return latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>shouldDrop</i></b>
+	 * <p>	<code>public boolean shouldDrop()</code>
+	 * <p>	Randomly decides if the next frame should be dropped, based on the drop rate.
+	 * @return <code>true</code> if the frame should be dropped; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean shouldDrop() {
+		return dropRate > 0 && ThreadLocalRandom.current().nextDouble() < dropRate;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>hasDelay</i></b>
+	 * <p>	<code>public boolean hasDelay()</code>
+	 * <p>	Checks if frames should be delayed at all.
+	 * @return <code>true</code> if there is any latency or jitter; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	public boolean hasDelay() {
+		return latencyMillis > 0 || jitterMillis > 0;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getDisconnectEveryMillis</i></b>
+	 * <p>	<code>public long getDisconnectEveryMillis()</code>
+	 * <p>	Gets the interval at which the server closes every connection.
+	 * @return a <code>long</code> with the interval in milliseconds, or <code>0</code> if the server never disconnects on its own.
+	 * </ul>
+	 */
+	public long getDisconnectEveryMillis() {
+		return disconnectEveryMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "latency=" + latencyMillis + "ms, jitter=" + jitterMillis + "ms, drop=" + dropRate + ", disconnect-every=" + disconnectEveryMillis + "ms";
+	}
+}
@@ -0,0 +1,84 @@
+package dev.mwhitney.standin;
+
+import java.util.Arrays;
+
+/**
+ *
+ * Records latency samples in nanoseconds and reports their percentiles.
+ * Samples are kept in a preallocated array, so recording does not allocate while a load test is running.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class LatencyRecorder {
+
+	//	Variables
+	/** A <code>long</code> array with the recorded samples, in nanoseconds. */
+	private final long[] samples;
+	/** An <code>int</code> for the number of samples recorded. Samples past the array's capacity are counted but not kept. */
+	private int count;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>LatencyRecorder</i></b>
+	 * <p>	<code>public LatencyRecorder(int capacity)</code>
+	 * <p>	Creates a new <tt>LatencyRecorder</tt> that keeps up to the passed number of samples.
+	 * @param capacity - an <code>int</code> for the maximum number of samples to keep.
+	 * </ul>
+	 */
+	public LatencyRecorder(int capacity) {
+		samples = new long[capacity];
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>record</i></b>
+	 * <p>	<code>public synchronized void record(long nanos)</code>
+	 * <p>	Records a latency sample.
+	 * @param nanos - a <code>long</code> with the latency in nanoseconds.
+	 * </ul>
+	 */
+	public synchronized void record(long nanos) {
+		if(count < samples.length) {
+			samples[count] = nanos;
+		}
+		count++;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getCount</i></b>
+	 * <p>	<code>public synchronized int getCount()</code>
+	 * <p>	Gets the number of samples recorded.
+	 * @return an <code>int</code> with the sample count.
+	 * </ul>
+	 */
+	public synchronized int getCount() {
+		return count;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>percentiles</i></b>
+	 * <p>	<code>public synchronized long[] percentiles(double... percentiles)</code>
+	 * <p>	Calculates the passed percentiles of the recorded samples.
+	 * @param percentiles - the percentiles to calculate, from <code>0</code> to <code>100</code>.
+	 * @return a <code>long</code> array with the sample at each percentile in nanoseconds, or zeros if nothing was recorded.
+	 * </ul>
+	 */
+	public synchronized long[] percentiles(double... percentiles) {
+		final long[] results = new long[percentiles.length];
+		final int kept = Math.min(count, samples.length);
+		if(kept == 0) {
+			return results;
+		}
+
+		final long[] sorted = Arrays.copyOf(samples, kept);
+		Arrays.sort(sorted);
+		for(int i = 0; i < percentiles.length; i++) {
+			final int index = (int) Math.ceil(percentiles[i] / 100.0 * kept) - 1;
+			results[i] = sorted[Math.max(0, Math.min(kept - 1, index))];
+		}
+		return results;
+	}
+}
@@ -0,0 +1,303 @@
+package dev.mwhitney.standin;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultStyledDocument;
+
+import dev.mwhitney.console.ConsoleLine;
+import dev.mwhitney.enums.OverflowStrategy;
+import dev.mwhitney.enums.WaitStrategy;
+import dev.mwhitney.remote.RemoteClient;
+
+/**
+ *
+ * An end-to-end load test of the controller's <tt>RemoteClient</tt> against a {@link StandInServer} running in a separate process.
+ * <p>	The harness starts the server, connects a <tt>RemoteClient</tt> to it, and asks the server to flood broadcasts, command responses, or both.
+ * 		Each frame is displayed the way the controller displays it: turned into a console line, then inserted into a styled document on the Swing event dispatch thread.
+ * 		The latency from the server sending a frame to the frame being displayed is recorded, along with throughput and heap growth.
+ * 		Both processes run on the same machine, so their <code>System.nanoTime()</code> values share a clock.
+ * <p>	Usage: <code>java -cp standin.jar dev.mwhitney.standin.LoadHarness [--frames 20000] [--rate 0] [--mode broadcast|response|both] [--server ws://host:port] [fault options]</code>
+ * <p>	Fault options are passed to the server; see {@link FaultProfile}. Passing <code>--server</code> uses an already-running server instead.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class LoadHarness {
+
+	//	Static Return Values
+	/** A <code>long</code> for how long, in milliseconds, the harness waits without receiving a frame before it considers the remaining frames lost. */
+	final private static long IDLE_TIMEOUT = 5000;
+	/** The percentiles reported for display latency. */
+	final private static double[] PERCENTILES = { 50, 90, 99, 99.9, 100 };
+
+	//	Variables
+	/** The <tt>DefaultStyledDocument</tt> that frames are displayed in, standing in for the controller's console. */
+	private final DefaultStyledDocument document = new DefaultStyledDocument();
+	/** The <tt>LatencyRecorder</tt> for the current run, or <code>null</code> between runs. */
+	private volatile LatencyRecorder recorder;
+	/** A <code>long</code> for the number of flood frames displayed during the current run. */
+	private final AtomicLong displayed = new AtomicLong();
+	/** A <code>long</code> for the highest heap usage, in bytes, seen during the current run. */
+	private final AtomicLong peakHeap = new AtomicLong();
+
+	public static void main(String[] args) throws Exception {
+		System.setProperty("java.awt.headless", "true");
+
+		int frames = 20000;
+		long rate = 0;
+		String mode = "both";
+		String serverUri = null;
+		final List<String> serverArgs = new ArrayList<>();
+		for(int i = 0; i < args.length; i++) {
+			if(args[i].equals("--frames") && i < args.length - 1) {
+				frames = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("--rate") && i < args.length - 1) {
+				rate = Long.parseLong(args[++i]);
+			}
+			else if(args[i].equals("--mode") && i < args.length - 1) {
+				mode = args[++i].toLowerCase();
+			}
+			else if(args[i].equals("--server") && i < args.length - 1) {
+				serverUri = args[++i];
+			}
+			else {
+				//	Anything else is an option for the server, which may or may not take a value, so each is passed on as it is.
+				serverArgs.add(args[i]);
+			}
+		}
+
+		Process server = null;
+		if(serverUri == null) {
+			server = startServer(serverArgs);
+			serverUri = awaitServerUri(server);
+		}
+
+		try {
+			final LoadHarness harness = new LoadHarness();
+			final RemoteClient client = harness.connect(serverUri);
+			if(mode.equals("broadcast") || mode.equals("both")) {
+				harness.run(client, "broadcast", frames, rate);
+			}
+			if(mode.equals("response") || mode.equals("both")) {
+				harness.run(client, "response", frames, rate);
+			}
+			client.disconnectFromServer();
+		} finally {
+			if(server != null) {
+				server.destroy();
+				server.waitFor(5, TimeUnit.SECONDS);
+			}
+		}
+		System.exit(0);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>startServer</i></b>
+	 * <p>	<code>static Process startServer(List&lt;String&gt; serverArgs)</code>
+	 * <p>	Starts a <tt>StandInServer</tt> in a new JVM, using the same classpath as this one, on a free port unless the arguments pass another with <code>--port</code>.
+	 * @param serverArgs - the <tt>String</tt> arguments to pass to the server.
+	 * @return the server's <tt>Process</tt>.
+	 * @throws IOException if the process could not be started.
+	 * </ul>
+	 */
+	static Process startServer(List<String> serverArgs) throws IOException {
+		final List<String> command = new ArrayList<>(Arrays.asList(
+			System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+			"-cp", System.getProperty("java.class.path"),
+			StandInServer.class.getName(), "--port", "0"));
+		command.addAll(serverArgs);
+		return new ProcessBuilder(command).redirectErrorStream(true).start();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>awaitServerUri</i></b>
+	 * <p>	<code>static String awaitServerUri(Process server)</code>
+	 * <p>	Waits for the server to print its ready line, then keeps forwarding its output in the background.
+	 * @param server - the server's <tt>Process</tt>.
+	 * @return a <tt>String</tt> with the address the server is listening on.
+	 * @throws IOException if the server exits before it is ready.
+	 * </ul>
+	 */
+	static String awaitServerUri(Process server) throws IOException {
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(server.getInputStream()));
+		String line;
+		while((line = reader.readLine()) != null) {
+			System.out.println("[server] " + line);
+			if(line.startsWith(StandInServer.READY_LINE)) {
+				final Thread forwarder = new Thread(() -> {
+					try {
+						String output;
+						while((output = reader.readLine()) != null) System.out.println("[server] " + output);
+					} catch (IOException ioe) {}
+				}, "standin-output");
+				forwarder.setDaemon(true);
+				forwarder.start();
+				return line.substring(StandInServer.READY_LINE.length()).split(" ")[0];
+			}
+		}
+		throw new IOException("The stand-in server exited before it was ready.");
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>connect</i></b>
+	 * <p>	<code>private RemoteClient connect(String serverUri)</code>
+	 * <p>	Connects a <tt>RemoteClient</tt> to the server and waits for the connection to open.
+	 * @param serverUri - a <tt>String</tt> with the server's address.
+	 * @return the connected <tt>RemoteClient</tt>.
+	 * @throws InterruptedException if interrupted while waiting.
+	 * </ul>
+	 */
+	private RemoteClient connect(String serverUri) throws InterruptedException {
+		final RemoteClient client = new RemoteClient(serverUri);
+		//	Never drop frames, so that every frame sent is measured.
+		client.getEventBus().subscribe("harness", 65536, WaitStrategy.BLOCKING, OverflowStrategy.QUEUE, (event) -> {
+			display(ConsoleLine.fromEvent(event), event.getPayload());
+		});
+		client.connectToServer();
+
+		final long deadline = System.currentTimeMillis() + 10000;
+		while(!client.isConnected()) {
+			if(System.currentTimeMillis() > deadline) {
+				throw new IllegalStateException("Could not connect to the stand-in server at " + serverUri);
+			}
+			Thread.sleep(20);
+		}
+		return client;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>display</i></b>
+	 * <p>	<code>private void display(ConsoleLine line, String content)</code>
+	 * <p>	Displays a received message the way the controller's console does, recording the latency of flood frames once they are displayed.
+	 * @param line - the {@link ConsoleLine} the controller's console shows for the message, or <code>null</code> if it is not shown.
+	 * @param content - the <tt>String</tt> content of the message.
+	 * </ul>
+	 */
+	private void display(ConsoleLine line, String content) {
+		final long sentAt = parseSentTime(content);
+		if(line == null) {
+			return;
+		}
+
+		SwingUtilities.invokeLater(() -> {
+			try {
+				document.insertString(document.getLength(), (document.getLength() < 1 ? "" : "\n") + line.getText(), null);
+			} catch (BadLocationException ble) {
+				ble.printStackTrace();
+			}
+			final LatencyRecorder current = recorder;
+			if(sentAt != -1 && current != null) {
+				current.record(System.nanoTime() - sentAt);
+				displayed.incrementAndGet();
+			}
+		});
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>parseSentTime</i></b>
+	 * <p>	<code>private static long parseSentTime(String content)</code>
+	 * <p>	Reads the send time from a flood frame's content, <code>flood &lt;sequence&gt; &lt;nanoTime&gt;</code>.
+	 * @param content - the <tt>String</tt> content of a message.
+	 * @return a <code>long</code> with the server's <code>System.nanoTime()</code> when the frame was sent, or <code>-1</code> if the message is not a flood frame.
+	 * </ul>
+	 */
+	private static long parseSentTime(String content) {
+		if(!content.startsWith("flood ")) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(content.substring(content.lastIndexOf(' ') + 1));
+		} catch (NumberFormatException nfe) {
+			return -1;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>run</i></b>
+	 * <p>	<code>private void run(RemoteClient client, String type, int frames, long rate)</code>
+	 * <p>	Asks the server to flood frames of the passed type, waits for them to be displayed, then prints a report.
+	 * @param client - the connected <tt>RemoteClient</tt>.
+	 * @param type - a <tt>String</tt> with the frame type, either <code>broadcast</code> or <code>response</code>.
+	 * @param frames - an <code>int</code> for the number of frames to flood.
+	 * @param rate - a <code>long</code> for the frames per second, or <code>0</code> for as fast as possible.
+	 * @throws InterruptedException if interrupted while waiting.
+	 * </ul>
+	 */
+	private void run(RemoteClient client, String type, int frames, long rate) throws InterruptedException {
+		final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		System.gc();
+		final long heapBefore = memory.getHeapMemoryUsage().getUsed();
+		peakHeap.set(heapBefore);
+		displayed.set(0);
+		recorder = new LatencyRecorder(frames);
+
+		//	Sample heap usage while the flood is running.
+		final Thread heapSampler = new Thread(() -> {
+			while(!Thread.currentThread().isInterrupted()) {
+				peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+				try {
+					Thread.sleep(50);
+				} catch (InterruptedException ie) {
+					return;
+				}
+			}
+		}, "heap-sampler");
+		heapSampler.setDaemon(true);
+		heapSampler.start();
+
+		final long start = System.nanoTime();
+		client.sendMessage("#standin=flood " + type + " " + frames + " " + rate);
+
+		//	Wait until every frame is displayed, or until frames stop arriving.
+		long lastCount = 0, lastProgress = System.currentTimeMillis();
+		while(displayed.get() < frames) {
+			Thread.sleep(10);
+			final long count = displayed.get();
+			if(count != lastCount) {
+				lastCount = count;
+				lastProgress = System.currentTimeMillis();
+			}
+			else if(System.currentTimeMillis() - lastProgress > IDLE_TIMEOUT) {
+				break;
+			}
+		}
+		final long end = (displayed.get() < frames) ? System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(IDLE_TIMEOUT) : System.nanoTime();
+		heapSampler.interrupt();
+
+		System.gc();
+		final long heapAfter = memory.getHeapMemoryUsage().getUsed();
+		final long received = displayed.get();
+		final double seconds = (end - start) / 1e9;
+		final long[] latencies = recorder.percentiles(PERCENTILES);
+		recorder = null;
+
+		System.out.println();
+		System.out.println("=== " + type + " flood: " + frames + " frames" + (rate > 0 ? " at " + rate + "/s" : "") + " ===");
+		System.out.println("Displayed:    " + received + " (" + (frames - received) + " lost)");
+		System.out.printf("Throughput:   %.0f frames/s over %.2f s%n", received / seconds, seconds);
+		System.out.printf("Latency (ms): p50 %.3f | p90 %.3f | p99 %.3f | p99.9 %.3f | max %.3f%n",
+			latencies[0] / 1e6, latencies[1] / 1e6, latencies[2] / 1e6, latencies[3] / 1e6, latencies[4] / 1e6);
+		System.out.printf("Heap (MB):    before %.1f | peak %.1f | after GC %.1f | retained growth %.1f%n",
+			heapBefore / 1048576.0, peakHeap.get() / 1048576.0, heapAfter / 1048576.0, (heapAfter - heapBefore) / 1048576.0);
+		System.out.println("Console size: " + document.getLength() + " characters");
+	}
+}
@@ -0,0 +1,257 @@
+package dev.mwhitney.standin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import dev.mwhitney.enums.OverflowStrategy;
+import dev.mwhitney.enums.WaitStrategy;
+import dev.mwhitney.remote.RemoteClient;
+import dev.mwhitney.remote.SessionResumption;
+
+/**
+ *
+ * A benchmark of how long the controller's <tt>RemoteClient</tt> takes to reconnect to a {@link StandInServer} running with TLS in a separate process.
+ * <p>	The harness creates a self-signed key for the server with <code>keytool</code>, trusts it in this JVM, and connects a <tt>RemoteClient</tt>.
+ * 		It then drops and reopens the connection repeatedly, timing each handshake from starting to connect until the connection was open, over three paths:
+ * <ul>
+ * 	<li><b>full</b>: the server forgets every TLS session and ticket first, as if it had restarted, so the client performs a full TLS handshake and token authentication.</li>
+ * 	<li><b>tls-resumed</b>: the server stops honoring tickets, so the client resumes its TLS session but its token is still authenticated.</li>
+ * 	<li><b>resumed</b>: the client resumes its TLS session and presents its ticket, so token authentication is skipped.</li>
+ * </ul>
+ * <p>	The server keeps running between paths, so that none of them is measured against a server that has only just started.
+ * <p>	Usage: <code>java -cp standin.jar dev.mwhitney.standin.ReconnectHarness [--rounds 20] [--auth-delay 100] [server options]</code>
+ * <p>	Other options are passed to the server; see {@link StandInServer}. The auth delay is how long the server takes to authenticate a token.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class ReconnectHarness {
+
+	//	Static Return Values
+	/** A <tt>String</tt> for the password of the generated keystore. */
+	final private static String KEYSTORE_PASSWORD = "standin";
+	/** A <code>long</code> for how long, in milliseconds, the harness waits for the client to connect or disconnect. */
+	final private static long TIMEOUT = 10000;
+	/** The percentiles reported for handshake time. */
+	final private static double[] PERCENTILES = { 50, 90, 100 };
+	/** The names of the reconnect paths, in the order they are run in each round. */
+	final private static String[] PATHS = { "resumed", "tls-resumed", "full" };
+
+	//	Variables
+	/** The <tt>BlockingQueue</tt> of the payload of every response received, so that control messages can be waited on. */
+	private final BlockingQueue<String> responses = new LinkedBlockingQueue<>();
+
+	public static void main(String[] args) throws Exception {
+		System.setProperty("java.awt.headless", "true");
+
+		int rounds = 20;
+		long authDelay = 100;
+		final List<String> serverArgs = new ArrayList<>();
+		for(int i = 0; i < args.length; i++) {
+			if(args[i].equals("--rounds") && i < args.length - 1) {
+				rounds = Integer.parseInt(args[++i]);
+			}
+			else if(args[i].equals("--auth-delay") && i < args.length - 1) {
+				authDelay = Long.parseLong(args[++i]);
+			}
+			else {
+				//	Anything else is an option for the server.
+				serverArgs.add(args[i]);
+			}
+		}
+
+		final Path keystore = createKeystore();
+		//	Trust the server's key before the client creates its TLS context.
+		System.setProperty("javax.net.ssl.trustStore", keystore.toString());
+		System.setProperty("javax.net.ssl.trustStorePassword", KEYSTORE_PASSWORD);
+		System.setProperty("javax.net.ssl.trustStoreType", "PKCS12");
+		serverArgs.addAll(Arrays.asList("--tls", keystore.toString(), "--tls-password", KEYSTORE_PASSWORD, "--auth-delay", Long.toString(authDelay)));
+
+		final Process server = LoadHarness.startServer(serverArgs);
+		try {
+			new ReconnectHarness().run(LoadHarness.awaitServerUri(server), rounds, authDelay);
+		} finally {
+			server.destroy();
+			server.waitFor(5, TimeUnit.SECONDS);
+			Files.deleteIfExists(keystore);
+			Files.deleteIfExists(keystore.getParent());
+		}
+		System.exit(0);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>createKeystore</i></b>
+	 * <p>	<code>private static Path createKeystore()</code>
+	 * <p>	Creates a PKCS #12 keystore in a new temporary folder, holding a self-signed RSA key for <code>127.0.0.1</code>, using this JVM's <code>keytool</code>.
+	 * @return the <tt>Path</tt> of the keystore.
+	 * @throws IOException if the keystore could not be created.
+	 * @throws InterruptedException if interrupted while waiting for <code>keytool</code>.
+	 * </ul>
+	 */
+	private static Path createKeystore() throws IOException, InterruptedException {
+		final Path keystore = Files.createTempDirectory("standin-tls").resolve("standin.p12");
+		final Process keytool = new ProcessBuilder(
+			System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool",
+			"-genkeypair", "-alias", "standin", "-keyalg", "RSA", "-keysize", "2048", "-validity", "2",
+			"-dname", "CN=127.0.0.1", "-ext", "SAN=ip:127.0.0.1",
+			"-storetype", "PKCS12", "-keystore", keystore.toString(), "-storepass", KEYSTORE_PASSWORD, "-keypass", KEYSTORE_PASSWORD)
+			.redirectErrorStream(true).start();
+		final String output = new String(keytool.getInputStream().readAllBytes());
+		if(keytool.waitFor() != 0) {
+			throw new IOException("keytool could not create the keystore: " + output.trim());
+		}
+		return keystore;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>run</i></b>
+	 * <p>	<code>private void run(String serverUri, int rounds, long authDelay)</code>
+	 * <p>	Connects a client, reconnects it over every path for the passed number of rounds, then prints a report.
+	 * @param serverUri - a <tt>String</tt> with the server's address.
+	 * @param rounds - an <code>int</code> for the number of times each path is measured.
+	 * @param authDelay - a <code>long</code> with the server's auth delay in milliseconds, for the report.
+	 * @throws InterruptedException if interrupted while waiting.
+	 * </ul>
+	 */
+	private void run(String serverUri, int rounds, long authDelay) throws InterruptedException {
+		final RemoteClient client = new RemoteClient(serverUri);
+		client.getEventBus().subscribe("harness", 1024, WaitStrategy.BLOCKING, OverflowStrategy.DROP_OLDEST, (event) -> {
+			responses.add(event.getPayload());
+		});
+		client.connectToServer();
+		awaitConnected(client, -1);
+
+		final LatencyRecorder[] recorders = new LatencyRecorder[PATHS.length];
+		final int[] resumed = new int[PATHS.length];
+		for(int i = 0; i < PATHS.length; i++) {
+			recorders[i] = new LatencyRecorder(rounds);
+		}
+		for(int round = 0; round < rounds; round++) {
+			for(int i = 0; i < PATHS.length; i++) {
+				//	Prepare the server for the path while still connected, then drop the connection.
+				if(PATHS[i].equals("tls-resumed")) {
+					control(client, "#standin=resume off", "Resumption off.");
+				}
+				else if(PATHS[i].equals("full")) {
+					control(client, "#standin=forget", "Sessions forgotten.");
+				}
+				disconnect(client);
+				recorders[i].record(reconnect(client));
+				if(client.getResumption().isResumed()) {
+					resumed[i]++;
+				}
+				if(PATHS[i].equals("tls-resumed")) {
+					control(client, "#standin=resume on", "Resumption on.");
+				}
+			}
+		}
+		client.disconnectFromServer();
+
+		System.out.println();
+		System.out.println("=== Reconnect over TLS: " + rounds + " rounds, " + authDelay + " ms token authentication"
+			+ (SessionResumption.ENABLED ? "" : ", resumption turned off in the client") + " ===");
+		for(int i = 0; i < PATHS.length; i++) {
+			final long[] handshakes = recorders[i].percentiles(PERCENTILES);
+			System.out.printf("%-12s handshake (ms): p50 %.2f | p90 %.2f | max %.2f | ticket honored %d/%d%n",
+				PATHS[i], handshakes[0] / 1e6, handshakes[1] / 1e6, handshakes[2] / 1e6, resumed[i], recorders[i].getCount());
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>control</i></b>
+	 * <p>	<code>private void control(RemoteClient client, String message, String expected)</code>
+	 * <p>	Sends a control message to the server and waits for its response.
+	 * @param client - the connected <tt>RemoteClient</tt>.
+	 * @param message - the <tt>String</tt> control message.
+	 * @param expected - the <tt>String</tt> response the server sends once it has acted on the message.
+	 * @throws InterruptedException if interrupted while waiting.
+	 * </ul>
+	 */
+	private void control(RemoteClient client, String message, String expected) throws InterruptedException {
+		responses.clear();
+		client.sendMessage(message);
+		final long deadline = System.currentTimeMillis() + TIMEOUT;
+		String response;
+		while((response = responses.poll(TIMEOUT, TimeUnit.MILLISECONDS)) != null) {
+			if(response.equals(expected)) {
+				return;
+			}
+			if(System.currentTimeMillis() > deadline) {
+				break;
+			}
+		}
+		throw new IllegalStateException("The stand-in server did not answer " + message);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>disconnect</i></b>
+	 * <p>	<code>private static void disconnect(RemoteClient client)</code>
+	 * <p>	Closes the client's connection without letting it reconnect, and waits for it to close.
+	 * @param client - the connected <tt>RemoteClient</tt>.
+	 * @throws InterruptedException if interrupted while waiting.
+	 * </ul>
+	 */
+	private static void disconnect(RemoteClient client) throws InterruptedException {
+		client.disconnectFromServer();
+		final long deadline = System.currentTimeMillis() + TIMEOUT;
+		while(client.isConnected() || client.isConnecting()) {
+			if(System.currentTimeMillis() > deadline) {
+				throw new IllegalStateException("The client did not disconnect.");
+			}
+			Thread.sleep(5);
+		}
+		//	Let the close finish on both sides, so that it is not measured as part of the next handshake.
+		Thread.sleep(50);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>reconnect</i></b>
+	 * <p>	<code>private static long reconnect(RemoteClient client)</code>
+	 * <p>	Reconnects the client and waits for its handshake to finish.
+	 * @param client - the disconnected <tt>RemoteClient</tt>.
+	 * @return a <code>long</code> with how long the handshake took, in nanoseconds.
+	 * @throws InterruptedException if interrupted while waiting.
+	 * </ul>
+	 */
+	private static long reconnect(RemoteClient client) throws InterruptedException {
+		final long previous = client.getResumption().getLastHandshakeNanos();
+		client.reconnectToServer();
+		return awaitConnected(client, previous);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>awaitConnected</i></b>
+	 * <p>	<code>private static long awaitConnected(RemoteClient client, long previous)</code>
+	 * <p>	Waits for the client to finish a new handshake, which is when the time of its last handshake changes.
+	 * @param client - the connecting <tt>RemoteClient</tt>.
+	 * @param previous - a <code>long</code> with the time of the handshake before, in nanoseconds.
+	 * @return a <code>long</code> with how long the new handshake took, in nanoseconds.
+	 * @throws InterruptedException if interrupted while waiting.
+	 * </ul>
+	 */
+	private static long awaitConnected(RemoteClient client, long previous) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + TIMEOUT;
+		long handshake;
+		while(!client.isConnected() || (handshake = client.getResumption().getLastHandshakeNanos()) == previous) {
+			if(System.currentTimeMillis() > deadline) {
+				throw new IllegalStateException("Could not connect to the stand-in server at " + client.getServerUri());
+			}
+			Thread.sleep(1);
+		}
+		return handshake;
+	}
+}
@@ -0,0 +1,754 @@
+package dev.mwhitney.standin;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.handshake.ServerHandshakeBuilder;
+import org.java_websocket.server.WebSocketServer;
+
+import dev.mwhitney.remote.BinaryProtocol;
+import dev.mwhitney.remote.Outbox;
+import dev.mwhitney.remote.ServerClock;
+import dev.mwhitney.remote.SessionResumption;
+
+/**
+ *
+ * A local stand-in for the Project O.N.E. server, implementing the text protocol that the controller uses and the optional {@link BinaryProtocol}.
+ * <p>	The server answers <code>#ping</code> with <code>#response=Pong!</code>, echoes <code>#connection=keep-alive</code>,
+ * 		responds to every <code>#command=</code> with a <code>#response=</code>, relays pokes as notifications and relays plain messages to other clients as <code>#broadcast=</code>.
+ * 		Network faults can be simulated with a {@link FaultProfile}.
+ * <p>	Clients that offer the binary protocol in their handshake are sent the fixed frames in binary, and may send their commands in binary.
+ * 		Pass <code>--text-only</code> to ignore the offer, as a server without binary support would.
+ * <p>	Clients that offer acknowledged replays of their {@link Outbox} are answered with <code>#ack=</code> and the id of each replayed command,
+ * 		and a command whose id was already handled is acknowledged again without being repeated. Pass <code>--no-acks</code> to ignore the offer.
+ * <p>	Clients that offer the {@link ServerClock} exchange have the times it received and answered each stamped ping and keep-alive added to the answer.
+ * 		Pass <code>--clock-offset ms</code> to run the server's clock ahead of the machine's, or behind it if negative.
+ * <p>	Clients that offer {@link SessionResumption} are issued a single-use ticket in each handshake, and a client that presents a ticket the server issued skips token authentication.
+ * 		Pass <code>--auth-delay ms</code> to make token authentication take as long as it does on the real server, and <code>--no-resume</code> to ignore the offer.
+ * 		Pass <code>--tls keystore.p12 --tls-password password</code> to listen with TLS, using the PKCS #12 keystore's key, as the real server does.
+ * <p>	Clients may also control the server with <code>#standin=</code> messages, which the {@link LoadHarness} uses:
+ * <ul>
+ * 	<li><code>#standin=flood broadcast|response count [rate]</code> sends <code>count</code> frames to every client, at <code>rate</code> frames per second or as fast as possible.
+ * 		Each frame's content is <code>flood &lt;sequence&gt; &lt;System.nanoTime()&gt;</code>, so receivers on the same machine can measure end-to-end latency.</li>
+ * 	<li><code>#standin=disconnect</code> closes every connection.</li>
+ * 	<li><code>#standin=stall seconds</code> stops answering the sender's connection, including its pings, for <code>seconds</code>, as a half-open link would.
+ * 		Other connections, including new ones from the same client, are not affected.</li>
+ * 	<li><code>#standin=resume on|off</code> starts or stops issuing and accepting resumption tickets, as <code>--no-resume</code> does.</li>
+ * 	<li><code>#standin=forget</code> forgets every resumption ticket and TLS session, as if the server had restarted, so that every client's next handshake is a full one.</li>
+ * 	<li><code>#standin=stats</code> responds with frame counters.</li>
+ * </ul>
+ * <p>	Usage: <code>java -jar standin.jar [--port 8787] [--token secret] [--text-only] [--no-acks] [--clock-offset ms] [--auth-delay ms] [--no-resume] [--tls keystore.p12 --tls-password password]
+ * 		[--latency ms] [--jitter ms] [--drop rate] [--disconnect-every ms]</code>
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class StandInServer extends WebSocketServer {
+
+	//	Static Return Values
+	/** An <code>int</code> for the port the server listens on unless another is passed. */
+	final public static int DEFAULT_PORT = 8787;
+	/** A <tt>String</tt> printed once the server is listening, followed by its address. Used by the <tt>LoadHarness</tt> to detect startup. */
+	final public static String READY_LINE = "Stand-in server listening on ";
+	/** A <code>long</code> for how long, in nanoseconds, a resumption ticket can be presented after it was issued. */
+	final private static long TICKET_LIFETIME = TimeUnit.MINUTES.toNanos(10);
+
+	//	Core Objects
+	/** The <tt>FaultProfile</tt> describing the simulated network faults. */
+	private final FaultProfile faults;
+	/** The single <tt>ScheduledExecutorService</tt> used for delayed frames and periodic disconnects. */
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+		final Thread thread = new Thread(runnable, "standin-scheduler");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	//	Variables
+	/** A <tt>String</tt> for the token clients must send, or <code>null</code> to accept any client. */
+	private final String requiredToken;
+	/** A <code>boolean</code> for whether or not the binary protocol is accepted from clients that offer it. */
+	private volatile boolean binaryEnabled = true;
+	/** A <code>boolean</code> for whether or not replayed outbox commands are acknowledged for clients that offer it. */
+	private volatile boolean acksEnabled = true;
+	/** A <code>long</code> for how far the server's clock runs ahead of the machine's, in microseconds. */
+	private volatile long clockOffset;
+	/** The <tt>Set</tt> of the ids of every replayed outbox command that has been handled. */
+	private final Set<String> handledReplays = ConcurrentHashMap.newKeySet();
+	/** A <code>boolean</code> for the simulated system lock state. */
+	private volatile boolean systemLocked = true;
+	/** A <code>boolean</code> for the simulated manual unlocks state. */
+	private volatile boolean manualUnlocksEnabled = true;
+	/** Counters for frames received, sent and dropped. */
+	private final AtomicLong framesIn = new AtomicLong(), framesOut = new AtomicLong(), framesDropped = new AtomicLong();
+	/** Counters for replayed outbox commands handled and those ignored because they were already handled. */
+	private final AtomicLong replays = new AtomicLong(), duplicateReplays = new AtomicLong();
+	/** The <tt>Path</tt> of the PKCS #12 keystore that clients connect with TLS using, or <code>null</code> if they connect without TLS. */
+	private volatile Path tlsKeystore;
+	/** The <code>char[]</code> password of the TLS keystore and its key. */
+	private volatile char[] tlsPassword;
+	/** An <code>int</code> for the port clients connect to with TLS, or <code>0</code> for any free port. */
+	private volatile int tlsPort;
+	/** The <tt>TlsFront</tt> that terminates TLS for the server, or <code>null</code> if clients connect without TLS. */
+	private TlsFront tlsFront;
+	/** A <code>boolean</code> for whether or not resumption tickets are issued to and accepted from clients that offer it. */
+	private volatile boolean resumeEnabled = true;
+	/** A <code>long</code> for how long token authentication takes, in milliseconds. */
+	private volatile long authDelay;
+	/** The <tt>Map</tt> of the <code>System.nanoTime()</code> at which each unused resumption ticket expires, by ticket. */
+	private final Map<String, Long> tickets = new ConcurrentHashMap<>();
+	/** The <tt>SecureRandom</tt> that resumption tickets are generated from. */
+	private final SecureRandom random = new SecureRandom();
+	/** Counters for connections opened by authenticating the token and by resuming with a ticket. */
+	private final AtomicLong fullAuths = new AtomicLong(), resumedAuths = new AtomicLong();
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>StandInServer</i></b>
+	 * <p>	<code>public StandInServer(int port, String requiredToken, FaultProfile faults)</code>
+	 * <p>	Creates a new <tt>StandInServer</tt> bound to the loopback address. The server must still be started.
+	 * @param port - the port to listen on, or <code>0</code> for any free port.
+	 * @param requiredToken - the token clients must send, or <code>null</code> to accept any client.
+	 * @param faults - the <tt>FaultProfile</tt> describing the simulated network faults.
+	 * </ul>
+	 */
+	public StandInServer(int port, String requiredToken, FaultProfile faults) {
+		super(new InetSocketAddress("127.0.0.1", port));
+		this.requiredToken = requiredToken;
+		this.faults = faults;
+		setReuseAddr(true);
+		setTcpNoDelay(true);
+	}
+
+	public static void main(String[] args) {
+		int port = DEFAULT_PORT;
+		String token = null;
+		boolean textOnly = false;
+		boolean noAcks = false;
+		long clockOffset = 0;
+		long authDelay = 0;
+		boolean noResume = false;
+		String keystore = null;
+		String keystorePassword = "";
+		for(int i = 0; i < args.length; i++) {
+			if(args[i].equals("--text-only")) textOnly = true;
+			else if(args[i].equals("--no-acks")) noAcks = true;
+			else if(args[i].equals("--no-resume")) noResume = true;
+			else if(i == args.length - 1) break;
+			else if(args[i].equals("--port")) port = Integer.parseInt(args[++i]);
+			else if(args[i].equals("--token")) token = args[++i];
+			else if(args[i].equals("--clock-offset")) clockOffset = Long.parseLong(args[++i]);
+			else if(args[i].equals("--auth-delay")) authDelay = Long.parseLong(args[++i]);
+			else if(args[i].equals("--tls")) keystore = args[++i];
+			else if(args[i].equals("--tls-password")) keystorePassword = args[++i];
+		}
+		final FaultProfile faults = FaultProfile.parse(args);
+		//	With TLS, clients connect to the TLS front on the port, which forwards to the server on any free port.
+		final StandInServer server = new StandInServer((keystore != null) ? 0 : port, token, faults);
+		server.setBinaryEnabled(!textOnly);
+		server.setAcksEnabled(!noAcks);
+		server.setClockOffset(clockOffset);
+		server.setResumeEnabled(!noResume);
+		server.setAuthDelay(authDelay);
+		if(keystore != null) {
+			server.useTls(Paths.get(keystore), keystorePassword.toCharArray(), port);
+		}
+		server.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				server.stop(1000);
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+	}
+
+	@Override
+	public void onStart() {
+		if(faults.getDisconnectEveryMillis() > 0) {
+			scheduler.scheduleAtFixedRate(this::disconnectAll, faults.getDisconnectEveryMillis(), faults.getDisconnectEveryMillis(), TimeUnit.MILLISECONDS);
+		}
+		if(tlsKeystore != null) {
+			try {
+				tlsFront = new TlsFront(tlsKeystore, tlsPassword, tlsPort, getPort());
+			} catch (IOException | GeneralSecurityException e) {
+				System.err.println("Could not listen with TLS on port " + tlsPort + " using " + tlsKeystore + ": " + e);
+				System.exit(1);
+			}
+			tlsFront.start();
+		}
+		System.out.println(READY_LINE + ((tlsFront != null) ? "wss://127.0.0.1:" + tlsFront.getPort() : "ws://127.0.0.1:" + getPort()) + " (" + faults + ")");
+		System.out.flush();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setBinaryEnabled</i></b>
+	 * <p>	<code>public void setBinaryEnabled(boolean binaryEnabled)</code>
+	 * <p>	Sets whether or not the binary protocol is accepted from clients that offer it. Connections that are already open keep their protocol.
+	 * @param binaryEnabled - <code>true</code> to accept the binary protocol; <code>false</code> to only use text.
+	 * </ul>
+	 */
+	public void setBinaryEnabled(boolean binaryEnabled) {
+		this.binaryEnabled = binaryEnabled;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setAcksEnabled</i></b>
+	 * <p>	<code>public void setAcksEnabled(boolean acksEnabled)</code>
+	 * <p>	Sets whether or not replayed outbox commands are acknowledged for clients that offer it. Connections that are already open are not changed.
+	 * @param acksEnabled - <code>true</code> to acknowledge replayed commands; <code>false</code> to ignore the offer.
+	 * </ul>
+	 */
+	public void setAcksEnabled(boolean acksEnabled) {
+		this.acksEnabled = acksEnabled;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setClockOffset</i></b>
+	 * <p>	<code>public void setClockOffset(long millis)</code>
+	 * <p>	Sets how far the server's clock runs ahead of the machine's, as seen by clients through the clock exchange.
+	 * @param millis - a <code>long</code> with the offset in milliseconds, which is negative for a clock that runs behind.
+	 * </ul>
+	 */
+	public void setClockOffset(long millis) {
+		this.clockOffset = millis * 1000;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setResumeEnabled</i></b>
+	 * <p>	<code>public void setResumeEnabled(boolean resumeEnabled)</code>
+	 * <p>	Sets whether or not resumption tickets are issued to and accepted from clients that offer it. Tickets already issued are not forgotten.
+	 * @param resumeEnabled - <code>true</code> to issue and accept tickets; <code>false</code> to authenticate every connection's token.
+	 * </ul>
+	 */
+	public void setResumeEnabled(boolean resumeEnabled) {
+		this.resumeEnabled = resumeEnabled;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>setAuthDelay</i></b>
+	 * <p>	<code>public void setAuthDelay(long millis)</code>
+	 * <p>	Sets how long token authentication takes, which connections resumed with a ticket skip.
+	 * @param millis - a <code>long</code> with the time in milliseconds.
+	 * </ul>
+	 */
+	public void setAuthDelay(long millis) {
+		this.authDelay = millis;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>useTls</i></b>
+	 * <p>	<code>public void useTls(Path keystore, char[] password, int port)</code>
+	 * <p>	Makes clients connect with TLS, using <code>wss://</code>, through a {@link TlsFront} on the passed port. Must be called before the server is started.
+	 * @param keystore - the <tt>Path</tt> of the PKCS #12 keystore with the server's key.
+	 * @param password - the <code>char[]</code> password of the keystore and its key.
+	 * @param port - the port to listen on with TLS, or <code>0</code> for any free port.
+	 * </ul>
+	 */
+	public void useTls(Path keystore, char[] password, int port) {
+		this.tlsKeystore = keystore;
+		this.tlsPassword = password;
+		this.tlsPort = port;
+	}
+
+	@Override
+	public ServerHandshakeBuilder onWebsocketHandshakeReceivedAsServer(WebSocket conn, Draft draft, ClientHandshake request) throws InvalidDataException {
+		final ServerHandshakeBuilder response = super.onWebsocketHandshakeReceivedAsServer(conn, draft, request);
+		final boolean offersResume = resumeEnabled && SessionResumption.VERSION.equals(request.getFieldValue(SessionResumption.HEADER));
+		final boolean resumed = offersResume && redeemTicket(request.getFieldValue(SessionResumption.TICKET_HEADER));
+		final boolean authorized = resumed || authenticate(request.getFieldValue("token"));
+		conn.setAttachment(new Connection(acceptsBinary(request), ServerClock.VERSION.equals(request.getFieldValue(ServerClock.HEADER)), authorized));
+		if(offersResume && authorized) {
+			response.put(SessionResumption.HEADER, SessionResumption.VERSION);
+			response.put(SessionResumption.TICKET_HEADER, issueTicket());
+			if(resumed) {
+				response.put(SessionResumption.STATUS_HEADER, SessionResumption.RESUMED);
+			}
+		}
+		if(acceptsBinary(request)) {
+			response.put(BinaryProtocol.HEADER, BinaryProtocol.VERSION);
+		}
+		if(acksEnabled && Outbox.VERSION.equals(request.getFieldValue(Outbox.HEADER))) {
+			response.put(Outbox.HEADER, Outbox.VERSION);
+		}
+		if(ServerClock.VERSION.equals(request.getFieldValue(ServerClock.HEADER))) {
+			response.put(ServerClock.HEADER, ServerClock.VERSION);
+		}
+		return response;
+	}
+
+	@Override
+	public void onOpen(WebSocket conn, ClientHandshake handshake) {
+		final Connection connection = conn.getAttachment();
+		if(connection == null || !connection.authorized) {
+			conn.close(SessionResumption.REFUSED, "Unauthorized");
+			return;
+		}
+		send(conn, "#connection=CONNECTED");
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>authenticate</i></b>
+	 * <p>	<code>private boolean authenticate(String token)</code>
+	 * <p>	Authenticates a client's token, taking as long as the auth delay, as the real server's full authentication does.
+	 * @param token - the <tt>String</tt> token the client sent, or <code>null</code> if it sent none.
+	 * @return <code>true</code> if the token is accepted; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	private boolean authenticate(String token) {
+		fullAuths.incrementAndGet();
+		if(authDelay > 0) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(authDelay));
+		}
+		return requiredToken == null || requiredToken.equals(token);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>issueTicket</i></b>
+	 * <p>	<code>private String issueTicket()</code>
+	 * <p>	Issues a new single-use resumption ticket, forgetting any that have expired.
+	 * @return the <tt>String</tt> ticket.
+	 * </ul>
+	 */
+	private String issueTicket() {
+		final long now = System.nanoTime();
+		tickets.values().removeIf((expiresAt) -> expiresAt - now < 0);
+		final byte[] bytes = new byte[24];
+		random.nextBytes(bytes);
+		final String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+		tickets.put(ticket, now + TICKET_LIFETIME);
+		return ticket;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>redeemTicket</i></b>
+	 * <p>	<code>private boolean redeemTicket(String ticket)</code>
+	 * <p>	Redeems a resumption ticket, which can only be done once.
+	 * @param ticket - the <tt>String</tt> ticket the client presented, or <code>null</code> if it presented none.
+	 * @return <code>true</code> if the ticket was issued by the server and has not expired or been redeemed; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	private boolean redeemTicket(String ticket) {
+		if(ticket == null || ticket.isEmpty()) {
+			return false;
+		}
+		final Long expiresAt = tickets.remove(ticket);
+		if(expiresAt == null || expiresAt - System.nanoTime() < 0) {
+			return false;
+		}
+		resumedAuths.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>acceptsBinary</i></b>
+	 * <p>	<code>private boolean acceptsBinary(ClientHandshake handshake)</code>
+	 * <p>	Checks if the binary protocol is used with a client, which is when it offered the protocol and the server has it enabled.
+	 * @param handshake - the client's <tt>ClientHandshake</tt>.
+	 * @return <code>true</code> if the binary protocol is used; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	private boolean acceptsBinary(ClientHandshake handshake) {
+		return binaryEnabled && BinaryProtocol.VERSION.equals(handshake.getFieldValue(BinaryProtocol.HEADER));
+	}
+
+	@Override
+	public void onClose(WebSocket conn, int code, String reason, boolean remote) {}
+
+	@Override
+	public void onError(WebSocket conn, Exception ex) {
+		System.err.println("Stand-in server error: " + ex);
+	}
+
+	@Override
+	public void onMessage(WebSocket conn, String message) {
+		framesIn.incrementAndGet();
+		if(isStalled(conn)) {
+			framesDropped.incrementAndGet();
+			return;
+		}
+		handleMessage(conn, message.trim());
+	}
+
+	@Override
+	public void onMessage(WebSocket conn, ByteBuffer bytes) {
+		framesIn.incrementAndGet();
+		if(isStalled(conn)) {
+			framesDropped.incrementAndGet();
+			return;
+		}
+		final byte[] frame = new byte[bytes.remaining()];
+		bytes.get(frame);
+		final String message = BinaryProtocol.decodeClientFrame(frame);
+		if(message == null) {
+			send(conn, "#response=Unknown binary frame (" + frame.length + " bytes).");
+			return;
+		}
+		handleMessage(conn, message);
+	}
+
+	@Override
+	public void onWebsocketPing(WebSocket conn, Framedata frame) {
+		if(!isStalled(conn)) {
+			super.onWebsocketPing(conn, frame);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>isStalled</i></b>
+	 * <p>	<code>private boolean isStalled(WebSocket conn)</code>
+	 * <p>	Checks if the passed connection was stalled with <code>#standin=stall</code> and should not be answered.
+	 * @param conn - the <tt>WebSocket</tt> to check.
+	 * @return <code>true</code> if the connection is stalled; <code>false</code> otherwise.
+	 * </ul>
+	 */
+	private boolean isStalled(WebSocket conn) {
+		final Connection connection = conn.getAttachment();
+		return connection != null && connection.stalledUntil != 0 && connection.stalledUntil - System.nanoTime() > 0;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>handleMessage</i></b>
+	 * <p>	<code>private void handleMessage(WebSocket conn, String message)</code>
+	 * <p>	Responds to a message from a client, which was sent as text or decoded from its binary form.
+	 * @param conn - the <tt>WebSocket</tt> that sent the message.
+	 * @param message - the trimmed <tt>String</tt> message.
+	 * </ul>
+	 */
+	private void handleMessage(WebSocket conn, String message) {
+		//	A stamped ping or keep-alive is answered with the times it was received and answered.
+		String stamp = "";
+		final Connection connection = conn.getAttachment();
+		final int at = message.lastIndexOf(ServerClock.STAMP);
+		if(at > 0 && connection != null && connection.clock && (message.startsWith("#connection=") || message.startsWith("#ping"))) {
+			stamp = message.substring(at) + "," + serverMicros();
+			message = message.substring(0, at);
+		}
+		if(message.startsWith("#connection=")) {
+			send(conn, "#connection=keep-alive" + answerStamp(stamp));
+		}
+		else if(message.equals("#ping")) {
+			send(conn, "#response=Pong!" + answerStamp(stamp));
+		}
+		else if(message.startsWith("#command=")) {
+			handleCommand(conn, message.substring("#command=".length()).trim());
+		}
+		else if(message.startsWith(Outbox.REPLAY_PREFIX) && message.indexOf(';') > 0) {
+			//	Acknowledge every replay, but only act on the first with each id, so that a command is never repeated.
+			final int separator = message.indexOf(';');
+			final String id = message.substring(Outbox.REPLAY_PREFIX.length(), separator);
+			if(handledReplays.add(id)) {
+				replays.incrementAndGet();
+				handleMessage(conn, message.substring(separator + 1).trim());
+			}
+			else {
+				duplicateReplays.incrementAndGet();
+			}
+			send(conn, Outbox.ACK_PREFIX + id);
+		}
+		else if(message.startsWith("#standin=")) {
+			handleControl(conn, message.substring("#standin=".length()).trim().split("\\s+"));
+		}
+		else {
+			for(WebSocket other : getConnections()) {
+				if(other != conn) send(other, "#broadcast=" + message);
+			}
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>serverMicros</i></b>
+	 * <p>	<code>private long serverMicros()</code>
+	 * <p>	Gets the current time by the server's clock, which runs ahead of the machine's by the clock offset.
+	 * @return a <code>long</code> with the time in microseconds since the epoch.
+	 * </ul>
+	 */
+	private long serverMicros() {
+		return ServerClock.localMicros(System.nanoTime()) + clockOffset;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>answerStamp</i></b>
+	 * <p>	<code>private String answerStamp(String stamp)</code>
+	 * <p>	Completes the times added to an answer with the time it is answered.
+	 * @param stamp - the <tt>String</tt> with the client's time and the time the frame was received, or an empty <tt>String</tt> if it was not stamped.
+	 * @return the <tt>String</tt> to add to the answer, such as <code> @t1,t2,t3</code>, or an empty <tt>String</tt>.
+	 * </ul>
+	 */
+	private String answerStamp(String stamp) {
+		return stamp.isEmpty() ? stamp : stamp + "," + serverMicros();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>handleCommand</i></b>
+	 * <p>	<code>private void handleCommand(WebSocket conn, String command)</code>
+	 * <p>	Responds to a system command, updating the simulated system state.
+	 * @param conn - the <tt>WebSocket</tt> that sent the command.
+	 * @param command - the <tt>String</tt> command without its <code>#command=</code> prefix.
+	 * </ul>
+	 */
+	private void handleCommand(WebSocket conn, String command) {
+		if(command.startsWith("!security:unlock")) {
+			final String seconds = command.substring("!security:unlock".length()).trim();
+			send(conn, "#response=Door unlocked for " + (seconds.isEmpty() ? "3" : seconds) + " seconds.");
+		}
+		else if(command.equals("!security:lock")) {
+			send(conn, "#response=Door locked.");
+		}
+		else if(command.equals("!security:system:lock")) {
+			systemLocked = true;
+			send(conn, "#response=System locked.");
+		}
+		else if(command.equals("!security:system:unlock")) {
+			systemLocked = false;
+			send(conn, "#response=System unlocked.");
+		}
+		else if(command.equals("!security:manualunlocks:enable")) {
+			manualUnlocksEnabled = true;
+			send(conn, "#response=Manual unlocks enabled.");
+		}
+		else if(command.equals("!security:manualunlocks:disable")) {
+			manualUnlocksEnabled = false;
+			send(conn, "#response=Manual unlocks disabled.");
+		}
+		else if(command.equals("notification:poke")) {
+			for(WebSocket other : getConnections()) {
+				if(other != conn) send(other, "#command=notification:poke");
+			}
+			send(conn, "#response=Poke sent.");
+		}
+		else {
+			send(conn, "#response=Unknown command: " + command);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>handleControl</i></b>
+	 * <p>	<code>private void handleControl(WebSocket conn, String[] args)</code>
+	 * <p>	Handles a <code>#standin=</code> control message.
+	 * @param conn - the <tt>WebSocket</tt> that sent the message.
+	 * @param args - the whitespace-separated words of the message without its prefix.
+	 * </ul>
+	 */
+	private void handleControl(WebSocket conn, String[] args) {
+		switch (args[0]) {
+			case "flood": {
+				if(args.length < 3) {
+					send(conn, "#response=Usage: flood broadcast|response count [rate]");
+					return;
+				}
+				final String prefix = args[1].equals("response") ? "#response=flood " : "#broadcast=flood ";
+				final long count = Long.parseLong(args[2]);
+				final long rate = (args.length > 3) ? Long.parseLong(args[3]) : 0;
+				final Thread flood = new Thread(() -> flood(prefix, count, rate), "standin-flood");
+				flood.setDaemon(true);
+				flood.start();
+				break;
+			}
+			case "disconnect": {
+				disconnectAll();
+				break;
+			}
+			case "stall": {
+				final Connection connection = conn.getAttachment();
+				if(args.length < 2 || connection == null) {
+					send(conn, "#response=Usage: stall seconds");
+					return;
+				}
+				connection.stalledUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(Long.parseLong(args[1]));
+				break;
+			}
+			case "resume": {
+				if(args.length < 2 || !(args[1].equals("on") || args[1].equals("off"))) {
+					send(conn, "#response=Usage: resume on|off");
+					return;
+				}
+				setResumeEnabled(args[1].equals("on"));
+				send(conn, "#response=Resumption " + args[1] + ".");
+				break;
+			}
+			case "forget": {
+				tickets.clear();
+				if(tlsFront != null) {
+					try {
+						tlsFront.forgetSessions();
+					} catch (IOException | GeneralSecurityException e) {
+						send(conn, "#response=Could not forget TLS sessions: " + e);
+						return;
+					}
+				}
+				send(conn, "#response=Sessions forgotten.");
+				break;
+			}
+			case "stats": {
+				send(conn, "#response=stats in=" + framesIn.get() + " out=" + framesOut.get() + " dropped=" + framesDropped.get()
+					+ " replays=" + replays.get() + " duplicateReplays=" + duplicateReplays.get()
+					+ " fullAuths=" + fullAuths.get() + " resumedAuths=" + resumedAuths.get()
+					+ " systemLocked=" + systemLocked + " manualUnlocks=" + manualUnlocksEnabled);
+				break;
+			}
+			default:
+				send(conn, "#response=Unknown stand-in control: " + args[0]);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>flood</i></b>
+	 * <p>	<code>private void flood(String prefix, long count, long rate)</code>
+	 * <p>	Sends the passed number of timestamped frames to every client, pacing them to the passed rate.
+	 * @param prefix - the <tt>String</tt> type prefix of each frame, including <code>flood </code>.
+	 * @param count - the number of frames to send.
+	 * @param rate - the number of frames per second, or <code>0</code> to send as fast as possible.
+	 * </ul>
+	 */
+	private void flood(String prefix, long count, long rate) {
+		final long interval = (rate > 0) ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+		final long start = System.nanoTime();
+		for(long seq = 0; seq < count; seq++) {
+			if(interval > 0) {
+				final long wait = start + seq * interval - System.nanoTime();
+				if(wait > 0) LockSupport.parkNanos(wait);
+			}
+			final String frame = prefix + seq + " " + System.nanoTime();
+			for(WebSocket conn : getConnections()) {
+				send(conn, frame);
+			}
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>send</i></b>
+	 * <p>	<code>private void send(WebSocket conn, String frame)</code>
+	 * <p>	Sends a frame to the passed connection, applying the fault profile.
+	 * 		Delayed frames to the same connection are never reordered, as with a real TCP connection.
+	 * @param conn - the <tt>WebSocket</tt> to send to.
+	 * @param frame - the <tt>String</tt> frame to send.
+	 * </ul>
+	 */
+	private void send(WebSocket conn, String frame) {
+		if(faults.shouldDrop() || isStalled(conn)) {
+			framesDropped.incrementAndGet();
+			return;
+		}
+		if(!faults.hasDelay()) {
+			sendNow(conn, frame);
+			return;
+		}
+
+		//	Never schedule a frame earlier than the previous frame to the same connection.
+		final Connection connection = conn.getAttachment();
+		final long now = System.nanoTime();
+		final long target = now + TimeUnit.MILLISECONDS.toNanos(faults.nextDelay());
+		final long sendAt = connection.lastSendAt.accumulateAndGet(target, Math::max);
+		scheduler.schedule(() -> sendNow(conn, frame), sendAt - now, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>sendNow</i></b>
+	 * <p>	<code>private void sendNow(WebSocket conn, String frame)</code>
+	 * <p>	Sends a frame to the passed connection immediately, if it is still open.
+	 * 		The frame's binary form is sent instead if the connection uses the binary protocol and the frame has one.
+	 * @param conn - the <tt>WebSocket</tt> to send to.
+	 * @param frame - the <tt>String</tt> frame to send.
+	 * </ul>
+	 */
+	private void sendNow(WebSocket conn, String frame) {
+		if(conn.isOpen()) {
+			final Connection connection = conn.getAttachment();
+			final byte[] encoded = (connection != null && connection.binary) ? BinaryProtocol.encodeServerFrame(frame) : null;
+			if(encoded != null) {
+				conn.send(encoded);
+			}
+			else {
+				conn.send(frame);
+			}
+			framesOut.incrementAndGet();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>disconnectAll</i></b>
+	 * <p>	<code>private void disconnectAll()</code>
+	 * <p>	Closes every open connection, as if the server were restarting.
+	 * </ul>
+	 */
+	private void disconnectAll() {
+		for(WebSocket conn : getConnections()) {
+			conn.close(1001, "Stand-in server disconnect");
+		}
+	}
+
+	/**
+	 *
+	 * The state the server keeps for each open connection.
+	 *
+	 * @author Matthew Whitney
+	 *
+	 */
+	private static final class Connection {
+		/** An <tt>AtomicLong</tt> with the <code>System.nanoTime()</code> at which the latest delayed frame is scheduled. */
+		private final AtomicLong lastSendAt = new AtomicLong();
+		/** A <code>boolean</code> for whether or not the connection uses the binary protocol. */
+		private final boolean binary;
+		/** A <code>boolean</code> for whether or not pings and keep-alives on the connection are answered with the server's times. */
+		private final boolean clock;
+		/** A <code>boolean</code> for whether or not the client was authenticated, by its token or a resumption ticket. */
+		private final boolean authorized;
+		/** A <code>long</code> for the <code>System.nanoTime()</code> until which the connection is not answered, or <code>0</code> if it never stalled. */
+		private volatile long stalledUntil;
+
+		/**
+		 * <ul>
+		 * <p>	<b><i>Connection</i></b>
+		 * <p>	<code>private Connection(boolean binary, boolean clock, boolean authorized)</code>
+		 * <p>	Creates the state of a new connection.
+		 * @param binary - a <code>boolean</code> for whether or not the connection uses the binary protocol.
+		 * @param clock - a <code>boolean</code> for whether or not the connection uses the clock exchange.
+		 * @param authorized - a <code>boolean</code> for whether or not the client was authenticated.
+		 * </ul>
+		 */
+		private Connection(boolean binary, boolean clock, boolean authorized) {
+			this.binary = binary;
+			this.clock = clock;
+			this.authorized = authorized;
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package dev.mwhitney.standin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+
+/**
+ *
+ * Terminates TLS in front of a {@link StandInServer}, forwarding each connection's decrypted bytes to the server's plain port on the loopback address.
+ * <p>	The WebSocket library's own TLS channel sometimes never reads an upgrade request that arrives along with the end of the TLS handshake,
+ * 		so the stand-in uses the JDK's blocking <tt>SSLSocket</tt> instead, which also resumes sessions as any TLS server would.
+ * 		Each connection is handled by its own pair of threads, which is plenty for a stand-in.
+ * <p>	The TLS context can be replaced with {@link #forgetSessions()}, so that clients can no longer resume their sessions, as if the server had restarted.
+ *
+ * @author Matthew Whitney
+ *
+ */
+public class TlsFront {
+
+	//	Variables
+	/** The <tt>ServerSocket</tt> that clients connect to. */
+	private final ServerSocket serverSocket;
+	/** An <code>int</code> for the server's plain port that connections are forwarded to. */
+	private final int backendPort;
+	/** The <tt>Path</tt> of the PKCS #12 keystore with the server's key. */
+	private final Path keystore;
+	/** The <code>char[]</code> password of the keystore and its key. */
+	private final char[] password;
+	/** The <tt>SSLContext</tt> that new connections are made with. */
+	private volatile SSLContext context;
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>TlsFront</i></b>
+	 * <p>	<code>public TlsFront(Path keystore, char[] password, int port, int backendPort)</code>
+	 * <p>	Creates a new <tt>TlsFront</tt> bound to the loopback address, using the key in a PKCS #12 keystore. It must still be started.
+	 * @param keystore - the <tt>Path</tt> of the keystore.
+	 * @param password - the <code>char[]</code> password of the keystore and its key.
+	 * @param port - the port to listen on, or <code>0</code> for any free port.
+	 * @param backendPort - the server's plain port to forward connections to.
+	 * @throws IOException if the keystore could not be read or the port could not be bound.
+	 * @throws GeneralSecurityException if the keystore or its key could not be loaded.
+	 * </ul>
+	 */
+	public TlsFront(Path keystore, char[] password, int port, int backendPort) throws IOException, GeneralSecurityException {
+		this.keystore = keystore;
+		this.password = password;
+		this.backendPort = backendPort;
+		this.context = createContext();
+		this.serverSocket = new ServerSocket();
+		serverSocket.setReuseAddress(true);
+		serverSocket.bind(new InetSocketAddress("127.0.0.1", port));
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>createContext</i></b>
+	 * <p>	<code>private SSLContext createContext()</code>
+	 * <p>	Creates a new server <tt>SSLContext</tt> from the key in the keystore, with its own session cache and ticket keys.
+	 * @return the new <tt>SSLContext</tt>.
+	 * @throws IOException if the keystore could not be read.
+	 * @throws GeneralSecurityException if the keystore or its key could not be loaded.
+	 * </ul>
+	 */
+	private SSLContext createContext() throws IOException, GeneralSecurityException {
+		final KeyStore keys = KeyStore.getInstance("PKCS12");
+		try (InputStream in = Files.newInputStream(keystore)) {
+			keys.load(in, password);
+		}
+		final KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+		keyManagers.init(keys, password);
+		final SSLContext created = SSLContext.getInstance("TLS");
+		created.init(keyManagers.getKeyManagers(), null, null);
+		return created;
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>forgetSessions</i></b>
+	 * <p>	<code>public void forgetSessions()</code>
+	 * <p>	Replaces the TLS context, so that no session from before can be resumed and every client performs a full TLS handshake.
+	 * 		Open connections are not affected.
+	 * @throws IOException if the keystore could not be read again.
+	 * @throws GeneralSecurityException if the keystore or its key could not be loaded again.
+	 * </ul>
+	 */
+	public void forgetSessions() throws IOException, GeneralSecurityException {
+		context = createContext();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>start</i></b>
+	 * <p>	<code>public void start()</code>
+	 * <p>	Starts accepting connections on a daemon thread.
+	 * </ul>
+	 */
+	public void start() {
+		final Thread acceptor = new Thread(() -> {
+			while(!serverSocket.isClosed()) {
+				try {
+					forward(serverSocket.accept(), context);
+				} catch (IOException ioe) {
+					if(!serverSocket.isClosed()) {
+						System.err.println("Stand-in TLS error: " + ioe);
+					}
+				}
+			}
+		}, "standin-tls");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>getPort</i></b>
+	 * <p>	<code>public int getPort()</code>
+	 * <p>	Gets the port clients connect to.
+	 * @return an <code>int</code> with the port.
+	 * </ul>
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>forward</i></b>
+	 * <p>	<code>private void forward(Socket accepted, SSLContext tls)</code>
+	 * <p>	Connects a new client to the server's plain port and copies bytes both ways until either side closes.
+	 * 		The TLS handshake happens on the first read, on the client's own thread, so a slow client never holds up the others.
+	 * @param accepted - the accepted <tt>Socket</tt>.
+	 * @param tls - the <tt>SSLContext</tt> to make the connection with.
+	 * @throws IOException if the server's plain port could not be reached.
+	 * </ul>
+	 */
+	private void forward(Socket accepted, SSLContext tls) throws IOException {
+		accepted.setTcpNoDelay(true);
+		final SSLSocket client = (SSLSocket) tls.getSocketFactory().createSocket(accepted, null, accepted.getPort(), true);
+		client.setUseClientMode(false);
+		final Socket backend = new Socket();
+		try {
+			backend.setTcpNoDelay(true);
+			backend.connect(new InetSocketAddress("127.0.0.1", backendPort));
+		} catch (IOException ioe) {
+			client.close();
+			backend.close();
+			throw ioe;
+		}
+		pump(client, backend, "standin-tls-in");
+		pump(backend, client, "standin-tls-out");
+	}
+
+	/**
+	 * <ul>
+	 * <p>	<b><i>pump</i></b>
+	 * <p>	<code>private static void pump(Socket from, Socket to, String name)</code>
+	 * <p>	Copies bytes from one socket to the other on a new daemon thread, closing both once either closes.
+	 * @param from - the <tt>Socket</tt> to read from.
+	 * @param to - the <tt>Socket</tt> to write to.
+	 * @param name - a <tt>String</tt> with the thread's name.
+	 * </ul>
+	 */
+	private static void pump(Socket from, Socket to, String name) {
+		final Thread thread = new Thread(() -> {
+			final byte[] buffer = new byte[16384];
+			try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+				int read;
+				while((read = in.read(buffer)) != -1) {
+					out.write(buffer, 0, read);
+					out.flush();
+				}
+			} catch (IOException ioe) {
+				//	Either side closing ends the connection.
+			} finally {
+				try {
+					from.close();
+					to.close();
+				} catch (IOException ioe) {}
+			}
+		}, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+}